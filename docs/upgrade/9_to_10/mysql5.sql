@@ -0,0 +1,19 @@
+-- Latest snapshot of each media package, used for latest version queries of the asset manager.
+-- The asset manager fills this table on startup if it is empty. For large installations it may be faster to fill
+-- it as part of the upgrade.
+CREATE TABLE oc_assets_snapshot_latest (
+  mediapackage_id VARCHAR(128) NOT NULL,
+  snapshot_id BIGINT(20) NOT NULL,
+  version BIGINT(20) NOT NULL,
+  organization_id VARCHAR(128) NOT NULL,
+  series_id VARCHAR(128) DEFAULT NULL,
+  owner VARCHAR(256) NOT NULL,
+  PRIMARY KEY (mediapackage_id),
+  UNIQUE KEY IX_oc_assets_snapshot_latest_snapshot_id (snapshot_id),
+  KEY IX_oc_assets_snapshot_latest_org_series_owner (organization_id, series_id, owner)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8;
+
+INSERT INTO oc_assets_snapshot_latest (mediapackage_id, snapshot_id, version, organization_id, series_id, owner)
+  SELECT s.mediapackage_id, s.id, s.version, s.organization_id, s.series_id, s.owner
+  FROM oc_assets_snapshot s
+  WHERE s.version = (SELECT MAX(s2.version) FROM oc_assets_snapshot s2 WHERE s2.mediapackage_id = s.mediapackage_id);
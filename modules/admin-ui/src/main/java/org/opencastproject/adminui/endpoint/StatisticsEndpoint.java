@@ -59,6 +59,10 @@ import org.json.simple.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.util.Arrays;
 import java.util.Set;
@@ -71,8 +75,10 @@ import javax.ws.rs.POST;
 import javax.ws.rs.Path;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import javax.ws.rs.core.StreamingOutput;
 
 
 @Path("/")
@@ -244,17 +250,24 @@ public class StatisticsEndpoint {
       final StatisticsProvider p = statisticsService
         .getProvider(providerId).orElseThrow(() -> new IllegalArgumentException("Unknown provider: " + providerId));
       checkAccess(q.getResourceId(), p.getResourceType());
-      final String csv = statisticsExportService.getCSV(p, q.getResourceId(), q.getFrom(), q.getTo(), q.getDataResolution(),
-        searchIndex, ZoneId.systemDefault());
+      // Write rows directly to the response to avoid keeping large exports in memory
+      final StreamingOutput csv = out -> {
+        final Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try {
+          statisticsExportService.writeCSV(writer, p, q.getResourceId(), q.getFrom(), q.getTo(),
+            q.getDataResolution(), searchIndex, ZoneId.systemDefault());
+        } catch (SearchIndexException e) {
+          throw new WebApplicationException(e, Response.Status.INTERNAL_SERVER_ERROR);
+        } catch (NotFoundException e) {
+          throw new WebApplicationException(e, Response.Status.NOT_FOUND);
+        } catch (UnauthorizedException e) {
+          throw new WebApplicationException(e, Response.Status.UNAUTHORIZED);
+        }
+        writer.flush();
+      };
       return Response.ok().entity(csv).build();
     } catch (IllegalArgumentException e) {
       return RestUtil.R.badRequest(e.getMessage());
-    } catch (SearchIndexException e) {
-      return RestUtil.R.serverError();
-    } catch (NotFoundException e) {
-      return RestUtil.R.notFound(resourceId);
-    } catch (UnauthorizedException e) {
-      return Response.status(Response.Status.UNAUTHORIZED).build();
     }
   }
 
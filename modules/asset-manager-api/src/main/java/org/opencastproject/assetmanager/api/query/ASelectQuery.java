@@ -20,6 +20,8 @@
  */
 package org.opencastproject.assetmanager.api.query;
 
+import com.entwinemedia.fn.Stream;
+
 /**
  * A select query for assets.
  *
@@ -48,4 +50,15 @@ public interface ASelectQuery {
    * Run the query and return the result.
    */
   AResult run();
+
+  /**
+   * Run the query and lazily stream the resulting records.
+   * <p>
+   * Records are fetched in pages of <code>pageSize</code> using the snapshot's database ID as key, so memory usage
+   * does not grow with the size of the result. Each page is fetched in its own transaction once the previous one has
+   * been consumed, so the stream reflects concurrent modifications of records not yet fetched.
+   * Records are returned in order of their creation. Any order or paging set on the query is ignored.
+   * Snapshots are decoded only when requested from a record.
+   */
+  Stream<ARecord> runPaged(int pageSize);
 }
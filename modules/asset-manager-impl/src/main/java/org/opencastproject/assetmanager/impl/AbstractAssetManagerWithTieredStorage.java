@@ -45,6 +45,7 @@ import org.opencastproject.util.NotFoundException;
 import org.opencastproject.util.RequireUtil;
 
 import com.entwinemedia.fn.Fn;
+import com.entwinemedia.fn.Stream;
 import com.entwinemedia.fn.data.Opt;
 import com.google.common.collect.Sets;
 
@@ -58,10 +59,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.net.URI;
 import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
 import java.util.Date;
+import java.util.List;
 import java.util.Set;
 import java.util.UUID;
-import java.util.function.Consumer;
 
 public abstract class AbstractAssetManagerWithTieredStorage extends AbstractAssetManager implements TieredStorageAssetManager {
 
@@ -71,9 +73,19 @@ public abstract class AbstractAssetManagerWithTieredStorage extends AbstractAsse
   /** Log facility */
   private static final Logger logger = LoggerFactory.getLogger(AbstractAssetManagerWithTieredStorage.class);
 
+  /** Number of snapshots to fetch at once when moving snapshots by date */
+  private static final int MOVE_PAGE_SIZE = 100;
+
   // Base name of manifest file
   private static final String MANIFEST_DEFAULT_NAME = "manifest";
 
+  /** Whether assets are read back from their target store and compared to their checksum after moving them */
+  private boolean verifyMovedAssets = true;
+
+  public void setVerifyMovedAssets(boolean verifyMovedAssets) {
+    this.verifyMovedAssets = verifyMovedAssets;
+  }
+
   public Opt<AssetStore> getAssetStore(String storeId) {
     if (getLocalAssetStore().getStoreType().equals(storeId)) {
       return Opt.some(getLocalAssetStore());
@@ -94,75 +106,75 @@ public abstract class AbstractAssetManagerWithTieredStorage extends AbstractAsse
     if (results.getRecords().isEmpty()) {
       throw new NotFoundException("Mediapackage " + mpId + "@" + version.toString() + " not found!");
     }
-    processOperations(results, storeId);
+    processOperations(results.getRecords(), storeId);
   }
 
-  //Do the actual moving
-  private void processOperations(final RichAResult results, final String targetStoreId) {
-    results.getRecords().forEach(new Consumer<ARecord>() {
-      @Override
-      public void accept(ARecord record) {
-        Snapshot s = record.getSnapshot().get();
-        Opt<String> currentStoreId = getSnapshotStorageLocation(s);
+  //Do the actual moving, returns the number of records processed
+  private int processOperations(final Iterable<ARecord> results, final String targetStoreId) {
+    int count = 0;
+    for (ARecord record : results) {
+      count++;
+      Snapshot s = record.getSnapshot().get();
+      Opt<String> currentStoreId = getSnapshotStorageLocation(s);
 
-        if (currentStoreId.isNone()) {
-          logger.warn("IsNone store ID");
-          return;
-        }
+      if (currentStoreId.isNone()) {
+        logger.warn("IsNone store ID");
+        continue;
+      }
 
-        //If this snapshot is already stored in the desired store
-        if (currentStoreId.get().equals(targetStoreId)) {
-          //return, since we don't need to move anything
-          return;
-        }
+      //If this snapshot is already stored in the desired store
+      if (currentStoreId.get().equals(targetStoreId)) {
+        //skip, since we don't need to move anything
+        continue;
+      }
 
-        AssetStore currentStore = null;
-        AssetStore targetStore = null;
+      AssetStore currentStore = null;
+      AssetStore targetStore = null;
 
-        Opt<AssetStore> optCurrentStore = getAssetStore(currentStoreId.get());
-        Opt<AssetStore> optTargetStore = getAssetStore(targetStoreId);
+      Opt<AssetStore> optCurrentStore = getAssetStore(currentStoreId.get());
+      Opt<AssetStore> optTargetStore = getAssetStore(targetStoreId);
 
-        if (!optCurrentStore.isNone()) {
-          currentStore = optCurrentStore.get();
-        } else {
-          logger.error("Unknown current store: " + currentStoreId.get());
-          return;
-        }
-        if (!optTargetStore.isNone()) {
-          targetStore = optTargetStore.get();
-        } else {
-          logger.error("Unknown target store: " + targetStoreId);
-          return;
-        }
+      if (!optCurrentStore.isNone()) {
+        currentStore = optCurrentStore.get();
+      } else {
+        logger.error("Unknown current store: " + currentStoreId.get());
+        continue;
+      }
+      if (!optTargetStore.isNone()) {
+        targetStore = optTargetStore.get();
+      } else {
+        logger.error("Unknown target store: " + targetStoreId);
+        continue;
+      }
 
-        //If the content is already local, or is moving from a remote to the local
-        if (isLocalAssetStoreId(currentStoreId.get()) || isLocalAssetStoreId(targetStoreId)) {
-          logger.debug("Moving {} from {} to {}", s.toString(), currentStoreId, targetStoreId);
+      //If the content is already local, or is moving from a remote to the local
+      if (isLocalAssetStoreId(currentStoreId.get()) || isLocalAssetStoreId(targetStoreId)) {
+        logger.debug("Moving {} from {} to {}", s.toString(), currentStoreId, targetStoreId);
 
-          try {
-            copyAssetsToStore(s, targetStore);
-            copyManifest(s, targetStore);
-          } catch (Exception e) {
-            chuck(e);
-          }
-          getDb().setStorageLocation(s, targetStoreId);
-          deleteAssetsFromStore(s, currentStore);
-        } else {
-          //Else, the content is *not* local and is going to a *different* remote
-          String intermediateStore = getLocalAssetStore().getStoreType();
-          logger.debug("Moving {} from {} to {}, then to {}",
-                  s.toString(), currentStoreId, intermediateStore, targetStoreId);
-          Version version = s.getVersion();
-          String mpId = s.getMediaPackage().getIdentifier().toString();
-          try {
-            moveSnapshotToStore(version, mpId, intermediateStore);
-            moveSnapshotToStore(version, mpId, targetStoreId);
-          } catch (NotFoundException e) {
-            chuck(e);
-          }
+        try {
+          copyAssetsToStore(s, targetStore);
+          copyManifest(s, targetStore);
+        } catch (Exception e) {
+          chuck(e);
+        }
+        getDb().setStorageLocation(s, targetStoreId);
+        deleteAssetsFromStore(s, currentStore);
+      } else {
+        //Else, the content is *not* local and is going to a *different* remote
+        String intermediateStore = getLocalAssetStore().getStoreType();
+        logger.debug("Moving {} from {} to {}, then to {}",
+                s.toString(), currentStoreId, intermediateStore, targetStoreId);
+        Version version = s.getVersion();
+        String mpId = s.getMediaPackage().getIdentifier().toString();
+        try {
+          moveSnapshotToStore(version, mpId, intermediateStore);
+          moveSnapshotToStore(version, mpId, targetStoreId);
+        } catch (NotFoundException e) {
+          chuck(e);
         }
       }
-    });
+    }
+    return count;
   }
 
   /**
@@ -250,7 +262,7 @@ public abstract class AbstractAssetManagerWithTieredStorage extends AbstractAsse
       throw new NotFoundException("Mediapackage " + mpId + " not found!");
     }
 
-    processOperations(results, targetStore);
+    processOperations(results.getRecords(), targetStore);
   }
 
   public RichAResult getSnapshotsByIdAndVersion(final String mpId, final Version version) {
@@ -269,26 +281,30 @@ public abstract class AbstractAssetManagerWithTieredStorage extends AbstractAsse
       throw new NotFoundException("Mediapackage " + mpId + "@" + version.toString() + " not found!");
     }
 
-    processOperations(results, targetStore);
+    processOperations(results.getRecords(), targetStore);
   }
 
   public RichAResult getSnapshotsByDate(final Date start, final Date end) {
+    return Enrichments.enrich(snapshotsByDateQuery(start, end).run());
+  }
+
+  public Stream<ARecord> streamSnapshotsByDate(final Date start, final Date end) {
+    return snapshotsByDateQuery(start, end).runPaged(MOVE_PAGE_SIZE);
+  }
+
+  private ASelectQuery snapshotsByDateQuery(final Date start, final Date end) {
     RequireUtil.notNull(start, "start");
     RequireUtil.notNull(end, "end");
     AQueryBuilder q = createQuery();
-    ASelectQuery query = baseQuery(q).where(q.archived().ge(start)).where(q.archived().le(end));
-    return Enrichments.enrich(query.run());
+    return baseQuery(q).where(q.archived().ge(start)).where(q.archived().le(end));
   }
 
   public void moveSnapshotsByDate(final Date start, final Date end, final String targetStore)
           throws NotFoundException {
-    RichAResult results = getSnapshotsByDate(start, end);
-
-    if (results.getRecords().isEmpty()) {
+    // snapshots are fetched page by page since a date range may match a large part of the archive
+    if (processOperations(streamSnapshotsByDate(start, end), targetStore) == 0) {
       throw new NotFoundException("No media packages found between " + start + " and " + end);
     }
-
-    processOperations(results, targetStore);
   }
 
   public RichAResult getSnapshotsByIdAndDate(final String mpId, final Date start, final Date end) {
@@ -302,13 +318,13 @@ public abstract class AbstractAssetManagerWithTieredStorage extends AbstractAsse
 
   public void moveSnapshotsByIdAndDate(final String mpId, final Date start, final Date end, final String targetStore)
           throws NotFoundException {
-    RichAResult results = getSnapshotsByDate(start, end);
+    RichAResult results = getSnapshotsByIdAndDate(mpId, start, end);
 
     if (results.getRecords().isEmpty()) {
       throw new NotFoundException("No media package with id " + mpId + " found between " + start + " and " + end);
     }
 
-    processOperations(results, targetStore);
+    processOperations(results.getRecords(), targetStore);
   }
 
   /** Returns true if the store id is equal to the local asset store's id */
@@ -359,6 +375,9 @@ public abstract class AbstractAssetManagerWithTieredStorage extends AbstractAsse
     final Version version = snap.getVersion();
     final String prettyMpId = mpId + "@v" + version;
     logger.debug("Moving assets for snapshot {} to store {}", prettyMpId, store.getStoreType());
+    // the storage locations are only updated once all assets have been verified, since a failed verification removes
+    // all assets of the snapshot from the store again
+    final List<String> movedElementIds = new ArrayList<>();
     for (final MediaPackageElement e : snap.getMediaPackage().getElements()) {
       if (!MOVABLE_TYPES.contains(e.getElementType())) {
         logger.debug("Skipping {} because type is {}", e.getIdentifier(), e.getElementType());
@@ -367,9 +386,12 @@ public abstract class AbstractAssetManagerWithTieredStorage extends AbstractAsse
       logger.debug("Moving {} to store {}", e.getIdentifier(), store.getStoreType());
       final StoragePath storagePath = StoragePath.mk(orgId, mpId, version, e.getIdentifier());
       if (store.contains(storagePath)) {
+        // the copy may stem from a move which has been interrupted, so it is verified like a new one
+        verifyAsset(snap, e, storagePath, store);
         logger.debug("Element {} (version {}) is already in store {} so skipping it", e.getIdentifier(),
                 version.toString(),
                 store.getStoreType());
+        movedElementIds.add(e.getIdentifier());
         continue;
       }
       final Opt<StoragePath> existingAssetOpt = findAssetInVersionsAndStores(e.getChecksum().toString(), store.getStoreType());
@@ -386,8 +408,34 @@ public abstract class AbstractAssetManagerWithTieredStorage extends AbstractAsse
         final Opt<Long> size = e.getSize() > 0 ? Opt.some(e.getSize()) : Opt.<Long>none();
         store.put(storagePath, Source.mk(e.getURI(), size, Opt.nul(e.getMimeType())));
       }
-      getDb().setAssetStorageLocation(VersionImpl.mk(version), mpId, e.getIdentifier(), store.getStoreType());
+      verifyAsset(snap, e, storagePath, store);
+      movedElementIds.add(e.getIdentifier());
+    }
+    for (final String elementId : movedElementIds) {
+      getDb().setAssetStorageLocation(VersionImpl.mk(version), mpId, elementId, store.getStoreType());
+    }
+  }
+
+  /**
+   * Read an asset back from a store and compare it to the checksum of its element. If they do not match, all assets of
+   * the snapshot are removed from the store again, so the next attempt to move the snapshot starts over.
+   * The snapshot has not been switched to the store at this point, so none of its removed assets are in use.
+   */
+  private void verifyAsset(Snapshot snap, MediaPackageElement e, StoragePath storagePath, AssetStore store)
+          throws IOException {
+    final Checksum expected = e.getChecksum();
+    if (!verifyMovedAssets || expected == null) {
+      return;
+    }
+    final Opt<InputStream> in = store.get(storagePath);
+    final Checksum actual = in.isSome() ? Checksum.create(expected.getType(), in.get()) : null;
+    if (!expected.equals(actual)) {
+      deleteAssetsFromStore(snap, store);
+      throw new AssetManagerException(format("Checksum of element %s of snapshot %s@v%s in store %s is %s but should be %s",
+              e.getIdentifier(), snap.getMediaPackage().getIdentifier(), snap.getVersion(), store.getStoreType(),
+              actual, expected));
     }
+    logger.debug("Verified checksum of element {} in store {}", e.getIdentifier(), store.getStoreType());
   }
 
   /** Deletes the content of a snapshot from a store */
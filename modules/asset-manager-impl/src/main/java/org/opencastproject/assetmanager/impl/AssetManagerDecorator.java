@@ -26,12 +26,14 @@ import org.opencastproject.assetmanager.api.Property;
 import org.opencastproject.assetmanager.api.Snapshot;
 import org.opencastproject.assetmanager.api.Version;
 import org.opencastproject.assetmanager.api.query.AQueryBuilder;
+import org.opencastproject.assetmanager.api.query.ARecord;
 import org.opencastproject.assetmanager.api.query.RichAResult;
 import org.opencastproject.assetmanager.impl.storage.AssetStore;
 import org.opencastproject.assetmanager.impl.storage.RemoteAssetStore;
 import org.opencastproject.mediapackage.MediaPackage;
 import org.opencastproject.util.NotFoundException;
 
+import com.entwinemedia.fn.Stream;
 import com.entwinemedia.fn.data.Opt;
 
 import java.util.Date;
@@ -157,6 +159,11 @@ public class AssetManagerDecorator<A extends TieredStorageAssetManager> implemen
     return delegate.getSnapshotsByDate(start, end);
   }
 
+  @Override
+  public Stream<ARecord> streamSnapshotsByDate(Date start, Date end) {
+    return delegate.streamSnapshotsByDate(start, end);
+  }
+
   @Override
   public void moveSnapshotsByDate(Date start, Date end, String targetStore) throws NotFoundException {
     delegate.moveSnapshotsByDate(start, end, targetStore);
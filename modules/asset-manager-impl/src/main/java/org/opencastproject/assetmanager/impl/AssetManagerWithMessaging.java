@@ -20,14 +20,12 @@
  */
 package org.opencastproject.assetmanager.impl;
 
-import static org.opencastproject.assetmanager.api.fn.Enrichments.enrich;
 import static org.opencastproject.util.RequireUtil.notEmpty;
 
 import org.opencastproject.assetmanager.api.Snapshot;
-import org.opencastproject.assetmanager.api.fn.Snapshots;
 import org.opencastproject.assetmanager.api.query.ADeleteQuery;
 import org.opencastproject.assetmanager.api.query.AQueryBuilder;
-import org.opencastproject.assetmanager.api.query.RichAResult;
+import org.opencastproject.assetmanager.api.query.ARecord;
 import org.opencastproject.assetmanager.api.query.Target;
 import org.opencastproject.assetmanager.impl.query.AbstractADeleteQuery.DeleteSnapshotHandler;
 import org.opencastproject.index.IndexProducer;
@@ -49,12 +47,14 @@ import org.opencastproject.security.api.User;
 import org.opencastproject.security.util.SecurityUtil;
 import org.opencastproject.workspace.api.Workspace;
 
+import com.entwinemedia.fn.Fn2;
+
 import org.apache.commons.lang3.text.WordUtils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.util.Date;
-import java.util.List;
+import java.util.HashMap;
 import java.util.Map;
 
 /**
@@ -67,6 +67,9 @@ public class AssetManagerWithMessaging extends AssetManagerDecorator<TieredStora
   /** Log facility */
   private static final Logger logger = LoggerFactory.getLogger(AssetManagerWithMessaging.class);
 
+  /** Number of snapshots to fetch at once when repopulating an index */
+  private static final int REPOPULATE_PAGE_SIZE = 100;
+
   private final MessageSender messageSender;
   private final MessageReceiver messageReceiver;
   private final AuthorizationService authSvc;
@@ -129,42 +132,50 @@ public class AssetManagerWithMessaging extends AssetManagerDecorator<TieredStora
           getSecurityService().setUser(systemUser);
 
           final AQueryBuilder q = delegate.createQuery();
-          final RichAResult r = enrich(q.select(q.snapshot()).where(q.version().isLatest()).run());
-          final int total = r.countSnapshots();
+          // only the IDs are fetched to determine the total
+          final int total = q.select(q.nothing()).where(q.version().isLatest()).runPaged(REPOPULATE_PAGE_SIZE)
+                  .foldl(0, new Fn2<Integer, ARecord, Integer>() {
+                    @Override public Integer apply(Integer sum, ARecord record) {
+                      return sum + 1;
+                    }
+                  });
           logger.info("Populating index '{}' with {} snapshots | start", indexName, total);
           final int responseInterval = (total < 100) ? 1 : (total / 100);
           int current = 0;
 
-          final Map<String, List<Snapshot>> byOrg = r.getSnapshots().groupMulti(Snapshots.getOrganizationId);
-          for (String orgId : byOrg.keySet()) {
-            final Organization snapshotOrg;
+          // stream the snapshots page by page instead of loading all of them into memory at once
+          final Map<String, Organization> orgs = new HashMap<>();
+          for (ARecord record : q.select(q.snapshot()).where(q.version().isLatest()).runPaged(REPOPULATE_PAGE_SIZE)) {
+            if (current >= total) {
+              // snapshots taken after the total was determined have been sent to the index already
+              break;
+            }
+            current += 1;
+            final Snapshot snapshot = record.getSnapshot().get();
+            final String orgId = snapshot.getOrganizationId();
             try {
-              snapshotOrg = AssetManagerWithMessaging.this.orgDir.getOrganization(orgId);
+              Organization snapshotOrg = orgs.get(orgId);
+              if (snapshotOrg == null) {
+                snapshotOrg = AssetManagerWithMessaging.this.orgDir.getOrganization(orgId);
+                orgs.put(orgId, snapshotOrg);
+              }
               getSecurityService().setOrganization(snapshotOrg);
               getSecurityService().setUser(SecurityUtil.createSystemUser(systemUserName, snapshotOrg));
-
-              for (Snapshot snapshot : byOrg.get(orgId)) {
-                current += 1;
-                try {
-                  TakeSnapshot takeSnapshot = mkTakeSnapshotMessage(snapshot, null);
-                  getMessageSender().sendObjectMessage(AssetManagerItem.ASSETMANAGER_QUEUE_PREFIX + WordUtils.capitalize(indexName),
-                          MessageSender.DestinationType.Queue, takeSnapshot);
-                } catch (Throwable t) {
-                  logger.error("Unable to recreate event {} from organization {}",
-                          snapshot.getMediaPackage().getIdentifier().toString(), orgId, t);
-                }
-                if (((current % responseInterval) == 0) || (current == total)) {
-                  getMessageSender().sendObjectMessage(IndexProducer.RESPONSE_QUEUE,
-                          MessageSender.DestinationType.Queue, IndexRecreateObject.update(indexName, getService(),
-                                  total, current));
-                }
-              }
+              TakeSnapshot takeSnapshot = mkTakeSnapshotMessage(snapshot, null);
+              getMessageSender().sendObjectMessage(AssetManagerItem.ASSETMANAGER_QUEUE_PREFIX + WordUtils.capitalize(indexName),
+                      MessageSender.DestinationType.Queue, takeSnapshot);
             } catch (Throwable t) {
-              logger.error("Unable to recreate event index for organization {}", orgId, t);
+              logger.error("Unable to recreate event {} from organization {}",
+                      snapshot.getMediaPackage().getIdentifier().toString(), orgId, t);
             } finally {
               getSecurityService().setOrganization(defaultOrg);
               getSecurityService().setUser(systemUser);
             }
+            if (((current % responseInterval) == 0) || (current == total)) {
+              getMessageSender().sendObjectMessage(IndexProducer.RESPONSE_QUEUE,
+                      MessageSender.DestinationType.Queue, IndexRecreateObject.update(indexName, getService(),
+                              total, current));
+            }
           }
           getMessageSender().sendObjectMessage(IndexProducer.RESPONSE_QUEUE, MessageSender.DestinationType.Queue,
                   IndexRecreateObject.end(indexName, getService()));
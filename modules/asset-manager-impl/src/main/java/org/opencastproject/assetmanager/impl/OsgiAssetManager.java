@@ -27,6 +27,7 @@ import org.opencastproject.assetmanager.api.Property;
 import org.opencastproject.assetmanager.api.Snapshot;
 import org.opencastproject.assetmanager.api.Version;
 import org.opencastproject.assetmanager.api.query.AQueryBuilder;
+import org.opencastproject.assetmanager.api.query.ARecord;
 import org.opencastproject.assetmanager.api.query.RichAResult;
 import org.opencastproject.assetmanager.impl.persistence.Database;
 import org.opencastproject.assetmanager.impl.storage.AssetStore;
@@ -41,6 +42,7 @@ import org.opencastproject.security.util.SecurityUtil;
 import org.opencastproject.util.NotFoundException;
 import org.opencastproject.workspace.api.Workspace;
 
+import com.entwinemedia.fn.Stream;
 import com.entwinemedia.fn.data.Opt;
 
 import org.apache.commons.lang3.BooleanUtils;
@@ -102,6 +104,10 @@ public class OsgiAssetManager implements AssetManager, TieredStorageAssetManager
   public synchronized void activate(ComponentContext cc) {
     logger.info("Activating AssetManager");
     final Database db = new Database(emf);
+    final int populated = db.populateLatestSnapshots();
+    if (populated > 0) {
+      logger.info("Added the latest snapshots of {} media packages to the latest snapshot table", populated);
+    }
     final String systemUserName = SecurityUtil.getSystemUserName(cc);
     // create the core asset manager
     final AbstractAssetManagerWithTieredStorage core = new AbstractAssetManagerWithTieredStorage() {
@@ -156,6 +162,8 @@ public class OsgiAssetManager implements AssetManager, TieredStorageAssetManager
         return secSvc.getOrganization().getId();
       }
     };
+    core.setVerifyMovedAssets(BooleanUtils.toBooleanDefaultIfNull(
+            BooleanUtils.toBooleanObject(Objects.toString(cc.getProperties().get("verifyMovedAssets"), null)), true));
     // compose with ActiveMQ messaging
     final AssetManagerWithMessaging withMessaging = new AssetManagerWithMessaging(
             core,
@@ -370,6 +378,11 @@ public class OsgiAssetManager implements AssetManager, TieredStorageAssetManager
     return delegate.getSnapshotsByDate(start, end);
   }
 
+  @Override
+  public Stream<ARecord> streamSnapshotsByDate(Date start, Date end) {
+    return delegate.streamSnapshotsByDate(start, end);
+  }
+
   @Override
   public void moveSnapshotsByDate(Date start, Date end, String targetStore) throws NotFoundException {
     delegate.moveSnapshotsByDate(start, end, targetStore);
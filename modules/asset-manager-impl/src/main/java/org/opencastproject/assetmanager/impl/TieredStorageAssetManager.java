@@ -23,11 +23,13 @@ package org.opencastproject.assetmanager.impl;
 import org.opencastproject.assetmanager.api.AssetManager;
 import org.opencastproject.assetmanager.api.Snapshot;
 import org.opencastproject.assetmanager.api.Version;
+import org.opencastproject.assetmanager.api.query.ARecord;
 import org.opencastproject.assetmanager.api.query.RichAResult;
 import org.opencastproject.assetmanager.impl.storage.AssetStore;
 import org.opencastproject.assetmanager.impl.storage.RemoteAssetStore;
 import org.opencastproject.util.NotFoundException;
 
+import com.entwinemedia.fn.Stream;
 import com.entwinemedia.fn.data.Opt;
 
 import java.util.Date;
@@ -105,6 +107,20 @@ public interface TieredStorageAssetManager extends AssetManager {
    */
   RichAResult getSnapshotsByDate(Date start, Date end);
 
+  /**
+   * Returns a lazy stream of all versions of all mediapackages archived within the date range. Records are fetched
+   * page by page while the stream is consumed, so this should be preferred over {@link #getSnapshotsByDate(Date, Date)}
+   * for large date ranges.
+   *
+   * @param start
+   *   The start {@link Date} to filter by
+   * @param end
+   *   The end{@link Date} to filter by
+   * @return
+   *   The stream of records filtered by date
+   */
+  Stream<ARecord> streamSnapshotsByDate(Date start, Date end);
+
   /**
    * Moves all versions of all mediapackages archived within a data range to a new storage location.
    *
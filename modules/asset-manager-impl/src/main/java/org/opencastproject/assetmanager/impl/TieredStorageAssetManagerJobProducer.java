@@ -33,6 +33,7 @@ import org.opencastproject.security.api.SecurityService;
 import org.opencastproject.security.api.UserDirectoryService;
 import org.opencastproject.serviceregistry.api.ServiceRegistry;
 import org.opencastproject.serviceregistry.api.ServiceRegistryException;
+import org.opencastproject.util.LoadUtil;
 import org.opencastproject.util.NotFoundException;
 import org.opencastproject.util.RequireUtil;
 
@@ -45,7 +46,6 @@ import org.slf4j.LoggerFactory;
 import java.util.Date;
 import java.util.LinkedList;
 import java.util.List;
-import java.util.function.Consumer;
 
 public class TieredStorageAssetManagerJobProducer extends AbstractJobProducer {
 
@@ -56,6 +56,9 @@ public class TieredStorageAssetManagerJobProducer extends AbstractJobProducer {
   public static final Float JOB_LOAD = 0.1f;
   public static final Float NONTERMINAL_JOB_LOAD = 0.1f;
 
+  /** The key to look for in the service configuration file to override the {@link #JOB_LOAD} of moving a snapshot */
+  public static final String MOVE_JOB_LOAD_KEY = "job.load.assetmanager.move";
+
   public enum Operation {
     MoveById, MoveByIdAndVersion, MoveByIdAndDate, MoveByDate
   }
@@ -68,6 +71,9 @@ public class TieredStorageAssetManagerJobProducer extends AbstractJobProducer {
   private UserDirectoryService userDirectoryService = null;
   private OrganizationDirectoryService organizationDirectoryService = null;
 
+  /** The load of a job moving a single snapshot. Limits the number of concurrent transfers per node. */
+  private float moveJobLoad = JOB_LOAD;
+
   public TieredStorageAssetManagerJobProducer() {
     super(JOB_TYPE);
   }
@@ -82,6 +88,9 @@ public class TieredStorageAssetManagerJobProducer extends AbstractJobProducer {
   public void activate(ComponentContext cc) {
     logger.info("Activating tiered storage assetmanager job service");
     super.activate(cc);
+    if (cc != null) {
+      moveJobLoad = LoadUtil.getConfiguredLoadValue(cc.getProperties(), MOVE_JOB_LOAD_KEY, JOB_LOAD, serviceRegistry);
+    }
   }
 
   public boolean datastoreExists(String storeId) {
@@ -149,7 +158,7 @@ public class TieredStorageAssetManagerJobProducer extends AbstractJobProducer {
     args.add(version.toString());
 
     try {
-      return serviceRegistry.createJob(JOB_TYPE, Operation.MoveByIdAndVersion.toString(), args, null, true, JOB_LOAD);
+      return serviceRegistry.createJob(JOB_TYPE, Operation.MoveByIdAndVersion.toString(), args, null, true, moveJobLoad);
     } catch (ServiceRegistryException e) {
       throw new AssetManagerException("Unable to create a job", e);
     }
@@ -256,8 +265,7 @@ public class TieredStorageAssetManagerJobProducer extends AbstractJobProducer {
    *  The number of subjobs spawned
    */
   protected String internalMoveByDate(final Date start, final Date end, final String targetStorage) {
-    RichAResult results = tsam.getSnapshotsByDate(start, end);
-    List<Job> subjobs = spawnSubjobs(results, targetStorage);
+    List<Job> subjobs = spawnSubjobs(tsam.streamSnapshotsByDate(start, end), targetStorage);
     return Integer.toString(subjobs.size());
   }
 
@@ -314,7 +322,8 @@ public class TieredStorageAssetManagerJobProducer extends AbstractJobProducer {
   }
 
   /**
-   * Spawns the subjobs based on the stream of records
+   * Spawns the subjobs based on the stream of records. Snapshots which already are in the target storage are skipped,
+   * so a move which has been interrupted can be resumed by running it again.
    *
    * @param records
    *  The stream of records containing the snapshots to move to the new target storage
@@ -323,15 +332,17 @@ public class TieredStorageAssetManagerJobProducer extends AbstractJobProducer {
    * @return
    *  The set of subjobs
    */
-  private List<Job> spawnSubjobs(final RichAResult records, final String targetStorage) {
+  private List<Job> spawnSubjobs(final Iterable<ARecord> records, final String targetStorage) {
     List<Job> jobs = new LinkedList<>();
-    records.forEach(new Consumer<ARecord>() {
-      @Override
-      public void accept(ARecord record) {
-        Snapshot snap = record.getSnapshot().get();
-        jobs.add(moveByIdAndVersion(snap.getVersion(), snap.getMediaPackage().getIdentifier().toString(), targetStorage));
+    for (ARecord record : records) {
+      Snapshot snap = record.getSnapshot().get();
+      if (targetStorage.equals(snap.getStorageId())) {
+        logger.debug("Snapshot {}@{} is already in store {}", snap.getMediaPackage().getIdentifier(),
+                snap.getVersion(), targetStorage);
+        continue;
       }
-    });
+      jobs.add(moveByIdAndVersion(snap.getVersion(), snap.getMediaPackage().getIdentifier().toString(), targetStorage));
+    }
     return jobs;
   }
 
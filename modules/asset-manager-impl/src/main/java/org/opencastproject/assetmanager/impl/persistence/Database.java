@@ -34,6 +34,7 @@ import org.opencastproject.util.persistencefn.PersistenceEnvs;
 import org.opencastproject.util.persistencefn.Queries;
 
 import com.entwinemedia.fn.Fn;
+import com.entwinemedia.fn.Fn2;
 import com.entwinemedia.fn.Fx;
 import com.entwinemedia.fn.data.Opt;
 import com.mysema.query.Tuple;
@@ -96,6 +97,24 @@ public class Database implements EntityPaths {
     });
   }
 
+  /**
+   * Run a Querydsl query inside a persistence context/transaction. The query function gets access to the entity
+   * manager of the transaction, too.
+   *
+   * @param q the query function to run
+   */
+  public <A> A run(final Fn2<JPAQueryFactory, EntityManager, A> q) {
+    return penv.tx(new Fn<EntityManager, A>() {
+      @Override public A apply(final EntityManager em) {
+        return q.apply(new JPAQueryFactory(TEMPLATES, new Provider<EntityManager>() {
+          @Override public EntityManager get() {
+            return em;
+          }
+        }), em);
+      }
+    });
+  }
+
   public void logQuery(JPAQuery q) {
     logger.debug("\n---\nQUERY\n{}\n---", q);
   }
@@ -181,6 +200,7 @@ public class Database implements EntityPaths {
       @Override public SnapshotDto apply(EntityManager em) {
         // persist snapshot
         em.persist(snapshotDto);
+        LatestSnapshotDto.update(em, snapshotDto);
         // persist assets
         for (MediaPackageElement e : pmp.getElements()) {
           final AssetDto a = AssetDto.mk(
@@ -197,6 +217,19 @@ public class Database implements EntityPaths {
     });
   }
 
+  /**
+   * Fill the latest snapshot projection if it is empty, e.g. after an upgrade.
+   *
+   * @return the number of media packages added to the projection
+   */
+  public int populateLatestSnapshots() {
+    return penv.tx(new Fn<EntityManager, Integer>() {
+      @Override public Integer apply(EntityManager em) {
+        return LatestSnapshotDto.populate(em);
+      }
+    });
+  }
+
   public void setStorageLocation(Snapshot snapshot, final String storageId) {
     setStorageLocation(VersionImpl.mk(snapshot.getVersion()), snapshot.getMediaPackage().getIdentifier().toString(), storageId);
   }
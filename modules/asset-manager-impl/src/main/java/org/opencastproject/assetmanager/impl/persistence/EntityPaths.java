@@ -33,6 +33,7 @@ public interface EntityPaths {
   QPropertyDto Q_PROPERTY = QPropertyDto.propertyDto;
   QSnapshotDto Q_SNAPSHOT = QSnapshotDto.snapshotDto;
   QAssetDto Q_ASSET = QAssetDto.assetDto;
+  QLatestSnapshotDto Q_LATEST_SNAPSHOT = QLatestSnapshotDto.latestSnapshotDto;
   Stream<QSnapshotDto> $Q_SNAPSHOT = $(Q_SNAPSHOT);
   Stream<QPropertyDto> $Q_PROPERTY = $(Q_PROPERTY);
   Stream<EntityPath<?>> $NO_ENTITY = empty();
@@ -0,0 +1,165 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.opencastproject.assetmanager.impl.persistence;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.EntityManager;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+/**
+ * Projection of the latest snapshot of each media package. It is maintained whenever snapshots are added or deleted so
+ * that queries for the latest version do not need to determine the maximum version over all snapshots.
+ */
+@Entity(name = "LatestSnapshot")
+@Table(name = "oc_assets_snapshot_latest", indexes = {
+    @Index(name = "IX_oc_assets_snapshot_latest_snapshot_id", columnList = ("snapshot_id"), unique = true),
+    @Index(name = "IX_oc_assets_snapshot_latest_org_series_owner", columnList = ("organization_id, series_id, owner"))
+  })
+@NamedQueries({
+        @NamedQuery(name = "LatestSnapshot.count", query = "select count(l) from LatestSnapshot l"),
+        @NamedQuery(name = "LatestSnapshot.deleteByMediaPackages", query = "delete from LatestSnapshot l "
+                + "where l.mediaPackageId in :mediaPackageIds"),
+        @NamedQuery(name = "LatestSnapshot.findSnapshots", query = "select s.id, s.mediaPackageId, s.version, "
+                + "s.organizationId, s.seriesId, s.owner from Snapshot s where s.mediaPackageId in :mediaPackageIds "
+                + "and s.version = (select max(s2.version) from Snapshot s2 where s2.mediaPackageId = s.mediaPackageId)")})
+public final class LatestSnapshotDto {
+  /** Maximum number of media packages to refresh with a single query */
+  private static final int BATCH_SIZE = 500;
+
+  /** Fills the projection from the snapshot table */
+  private static final String POPULATE_SQL = "INSERT INTO oc_assets_snapshot_latest "
+          + "(mediapackage_id, snapshot_id, version, organization_id, series_id, owner) "
+          + "SELECT s.mediapackage_id, s.id, s.version, s.organization_id, s.series_id, s.owner "
+          + "FROM oc_assets_snapshot s WHERE s.version = "
+          + "(SELECT MAX(s2.version) FROM oc_assets_snapshot s2 WHERE s2.mediapackage_id = s.mediapackage_id)";
+
+  @Id
+  @Column(name = "mediapackage_id", length = 128)
+  private String mediaPackageId;
+
+  @Column(name = "snapshot_id", nullable = false)
+  private Long snapshotId;
+
+  @Column(name = "version", nullable = false)
+  private Long version;
+
+  @Column(name = "organization_id", length = 128, nullable = false)
+  private String organizationId;
+
+  @Column(name = "series_id", length = 128)
+  private String seriesId;
+
+  @Column(name = "owner", length = 256, nullable = false)
+  private String owner;
+
+  /** Create a new DTO. */
+  public static LatestSnapshotDto mk(Long snapshotId, String mediaPackageId, Long version, String organizationId,
+          String seriesId, String owner) {
+    final LatestSnapshotDto dto = new LatestSnapshotDto();
+    dto.mediaPackageId = mediaPackageId;
+    dto.set(snapshotId, version, organizationId, seriesId, owner);
+    return dto;
+  }
+
+  private void set(Long snapshotId, Long version, String organizationId, String seriesId, String owner) {
+    this.snapshotId = snapshotId;
+    this.version = version;
+    this.organizationId = organizationId;
+    this.seriesId = seriesId;
+    this.owner = owner;
+  }
+
+  public String getMediaPackageId() {
+    return mediaPackageId;
+  }
+
+  public Long getSnapshotId() {
+    return snapshotId;
+  }
+
+  public Long getVersion() {
+    return version;
+  }
+
+  /**
+   * Make a newly persisted snapshot the latest one of its media package unless a later version is already known.
+   * Call this inside the transaction that persists the snapshot.
+   */
+  public static void update(EntityManager em, SnapshotDto snapshot) {
+    final Long snapshotVersion = snapshot.getVersion().value();
+    final LatestSnapshotDto latest = em.find(LatestSnapshotDto.class, snapshot.getMediaPackageId());
+    if (latest == null) {
+      em.persist(mk(snapshot.getId(), snapshot.getMediaPackageId(), snapshotVersion, snapshot.getOrganizationId(),
+              snapshot.getSeriesId(), snapshot.getOwner()));
+    } else if (latest.version < snapshotVersion) {
+      latest.set(snapshot.getId(), snapshotVersion, snapshot.getOrganizationId(), snapshot.getSeriesId(),
+              snapshot.getOwner());
+    }
+  }
+
+  /**
+   * Determine the latest snapshot of the given media packages again, e.g. after snapshots have been deleted. Media
+   * packages without any remaining snapshot are removed from the projection.
+   *
+   * @return the media packages without any remaining snapshot
+   */
+  public static Set<String> refresh(EntityManager em, Collection<String> mediaPackageIds) {
+    final List<String> ids = new ArrayList<>(mediaPackageIds);
+    final Set<String> removed = new HashSet<>(mediaPackageIds);
+    for (int i = 0; i < ids.size(); i += BATCH_SIZE) {
+      final List<String> batch = ids.subList(i, Math.min(i + BATCH_SIZE, ids.size()));
+      em.createNamedQuery("LatestSnapshot.deleteByMediaPackages")
+              .setParameter("mediaPackageIds", batch)
+              .executeUpdate();
+      final List<Object[]> snapshots = em.createNamedQuery("LatestSnapshot.findSnapshots", Object[].class)
+              .setParameter("mediaPackageIds", batch)
+              .getResultList();
+      for (Object[] s : snapshots) {
+        em.persist(mk((Long) s[0], (String) s[1], (Long) s[2], (String) s[3], (String) s[4], (String) s[5]));
+        removed.remove((String) s[1]);
+      }
+    }
+    return removed;
+  }
+
+  /**
+   * Fill an empty projection from the snapshot table, e.g. after upgrading an existing installation.
+   *
+   * @return the number of media packages added to the projection
+   */
+  public static int populate(EntityManager em) {
+    if (em.createNamedQuery("LatestSnapshot.count", Long.class).getSingleResult() > 0) {
+      return 0;
+    }
+    return em.createNativeQuery(POPULATE_SQL).executeUpdate();
+  }
+}
@@ -169,6 +169,18 @@ public class SnapshotDto {
     return mediaPackageId;
   }
 
+  public String getSeriesId() {
+    return seriesId;
+  }
+
+  public String getOrganizationId() {
+    return organizationId;
+  }
+
+  public String getOwner() {
+    return owner;
+  }
+
   public String getStorageId() {
     return storageId;
   }
@@ -38,6 +38,7 @@ public final class ARecordImpl implements ARecord {
   private final Stream<Property> properties;
   private Opt<Snapshot> snapshot;
   private Opt<SnapshotDto> snapshotDto;
+  private Fn<Snapshot, Snapshot> prepare = null;
 
   public ARecordImpl(
           long snapshotId,
@@ -70,6 +71,19 @@ public final class ARecordImpl implements ARecord {
       this.snapshotDto = Opt.some(snapshotDto);
   }
 
+  /**
+   * Create a record whose snapshot is decoded from <code>snapshotDto</code> only on first access.
+   * The decoded snapshot is then passed through <code>prepare</code>.
+   */
+  public ARecordImpl(
+          long snapshotId,
+          String mediaPackageId,
+          Stream<Property> properties,
+          SnapshotDto snapshotDto,
+          Fn<Snapshot, Snapshot> prepare) {
+    this(snapshotId, mediaPackageId, properties, snapshotDto);
+    this.prepare = prepare;
+  }
 
   /** Get the database ID of the snapshot. */
   public long getSnapshotId() {
@@ -87,13 +101,15 @@ public final class ARecordImpl implements ARecord {
   /**
    * Get the snapshot if set.
    * Otherwise try to convert snapshotDto to {@link Snapshot} with method call {@link SnapshotDto#toSnapshot()},
-   * cache and return the result.
+   * cache and return the result. If a preparation function has been given it is applied to the converted snapshot.
    *
    * @return the snapshot
    */
   @Override public Opt<Snapshot> getSnapshot() {
-    if (snapshot.isNone() && snapshotDto.isSome())
-      snapshot = Opt.some(snapshotDto.get().toSnapshot());
+    if (snapshot.isNone() && snapshotDto.isSome()) {
+      final Snapshot s = snapshotDto.get().toSnapshot();
+      snapshot = Opt.some(prepare != null ? prepare.apply(s) : s);
+    }
     return snapshot;
   }
 
@@ -30,11 +30,13 @@ import org.opencastproject.assetmanager.impl.RuntimeTypes;
 import org.opencastproject.assetmanager.impl.VersionImpl;
 import org.opencastproject.assetmanager.impl.persistence.Conversions;
 import org.opencastproject.assetmanager.impl.persistence.EntityPaths;
+import org.opencastproject.assetmanager.impl.persistence.LatestSnapshotDto;
 import org.opencastproject.assetmanager.impl.persistence.QPropertyDto;
 import org.opencastproject.assetmanager.impl.persistence.QSnapshotDto;
 import org.opencastproject.assetmanager.impl.storage.DeletionSelector;
 
 import com.entwinemedia.fn.Fn;
+import com.entwinemedia.fn.Fn2;
 import com.entwinemedia.fn.data.SetB;
 import com.mysema.query.Tuple;
 import com.mysema.query.jpa.JPASubQuery;
@@ -51,6 +53,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Set;
 
+import javax.persistence.EntityManager;
+
 public abstract class AbstractADeleteQuery implements ADeleteQuery, DeleteQueryContributor, EntityPaths {
   private static final Logger logger = LoggerFactory.getLogger(AbstractADeleteQuery.class);
 
@@ -94,9 +98,9 @@ public abstract class AbstractADeleteQuery implements ADeleteQuery, DeleteQueryC
     // resolve AST
     final DeleteQueryContribution c = contributeDelete(owner);
     // run all queries in a single transaction
-    final DeletionResult deletion = am.getDb().run(new Fn<JPAQueryFactory, DeletionResult>() {
-      @Override public DeletionResult apply(final JPAQueryFactory jpa) {
-        return runQueries(jpa, c);
+    final DeletionResult deletion = am.getDb().run(new Fn2<JPAQueryFactory, EntityManager, DeletionResult>() {
+      @Override public DeletionResult apply(final JPAQueryFactory jpa, final EntityManager em) {
+        return runQueries(jpa, em, c);
       }
     });
     logger.debug("Pure query ms " + (System.nanoTime() - startTime) / 1000000);
@@ -118,7 +122,7 @@ public abstract class AbstractADeleteQuery implements ADeleteQuery, DeleteQueryC
   }
 
   /** Run this in a transaction. */
-  private DeletionResult runQueries(JPAQueryFactory jpa, DeleteQueryContribution c) {
+  private DeletionResult runQueries(JPAQueryFactory jpa, EntityManager em, DeleteQueryContribution c) {
     // # create Querydsl delete clause
     // # from
     // put into a set to remove duplicates
@@ -179,26 +183,14 @@ HAVING v = (SELECT count(*)
       final JPADeleteClause qMain = jpa.delete(Q_SNAPSHOT).where(where);
       am.getDb().logDelete(formatQueryName(c.name, "main"), qMain);
       final long deletedItems = qMain.execute();
-      // <BLOCK>
-      // TODO Bad solution. Yields all media package IDs which can easily be thousands
-      // TODO The above SQL solution does not work with H2 so I suspect the query is not 100% clean
-      // TODO Rework the query and replace this code.
+      final Set<String> d = $(deletedSnapshots).map(new Fn<Tuple, String>() {
+        @Override public String apply(Tuple tuple) {
+          return tuple.get(Q_SNAPSHOT.mediaPackageId);
+        }
+      }).toSet(SetB.MH);
+      // keep the latest snapshot projection in sync and
       // calculate deleted episodes, i.e. where all snapshots have been deleted
-      final Set<String> deletedEpisodes;
-      {
-        final List<String> remainingSnapshots = jpa.query()
-                .from(Q_SNAPSHOT)
-                .distinct()
-                .list(Q_SNAPSHOT.mediaPackageId);
-        final Set<String> d = $(deletedSnapshots).map(new Fn<Tuple, String>() {
-          @Override public String apply(Tuple tuple) {
-            return tuple.get(Q_SNAPSHOT.mediaPackageId);
-          }
-        }).toSet(SetB.MH);
-        d.removeAll(remainingSnapshots);
-        deletedEpisodes = Collections.unmodifiableSet(d);
-      }
-      // </BLOCK>
+      final Set<String> deletedEpisodes = Collections.unmodifiableSet(LatestSnapshotDto.refresh(em, d));
       return new DeletionResult(deletedItems, deletedSnapshots, deletedEpisodes);
     } else if (from instanceof QPropertyDto) {
       // from Property
@@ -54,10 +54,15 @@ import com.mysema.query.types.expr.BooleanExpression;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Set;
+import java.util.TreeMap;
 
 public abstract class AbstractASelectQuery implements ASelectQuery, SelectQueryContributor, EntityPaths {
   protected static final Logger logger = LoggerFactory.getLogger(AbstractASelectQuery.class);
@@ -110,6 +115,15 @@ public abstract class AbstractASelectQuery implements ASelectQuery, SelectQueryC
     });
   }
 
+  @Override public Stream<ARecord> runPaged(final int pageSize) {
+    RequireUtil.min(pageSize, 1);
+    return $(new Iterable<ARecord>() {
+      @Override public Iterator<ARecord> iterator() {
+        return new PagedIterator(pageSize);
+      }
+    });
+  }
+
   private AResult run(JPAQueryFactory f) {
     // run query and map the result to records
     final long startTime = System.nanoTime();
@@ -117,56 +131,7 @@ public abstract class AbstractASelectQuery implements ASelectQuery, SelectQueryC
     final SelectQueryContribution r = contributeSelect(f);
     final boolean toFetchProperties = r.fetch.exists(Booleans.<Expression<?>>eq(QPropertyDto.propertyDto));
     // # create Querydsl query
-    final JPAQuery q = f.query();
-    // # from
-    {
-      // Make sure that the snapshotDto is always contained in the from clause because the media package ID and
-      //   the ID are always selected.
-      // Use a mutable hash set to be able to use the removeAll operation.
-      final Set<EntityPath<?>> from = Stream.<EntityPath<?>>mk(Q_SNAPSHOT)
-              .append(r.from) // all collected from clauses
-              .append(r.join.map(Join.getFrom)) // all from clauses from the joins
-              .toSet(SetB.MH);
-      // Now remove everything that will be joined. Adding them in both the from and a join
-      //   clause is not allowed.
-      from.removeAll(r.join.map(Join.getJoin).toSet());
-      q.from(JpaFns.toEntityPathArray(from));
-    }
-    // # join
-    if (!r.join.isEmpty()) {
-      // Group joins by entity and combine all "on" clauses with "or" expressions.
-      // This way there is only one join clause per distinct entity which eliminates the need to alias entities
-      //   like this `new QPropertyDto("alias")`.
-      // Entity aliasing produces many issues which seem to cause a huge rewrite of the query building mechanism
-      //   so it should be prevented at all costs.
-      final Map<EntityPath<?>, BooleanExpression> joins = r.join.foldl(
-              new HashMap<EntityPath<?>, BooleanExpression>(),
-              new Fn2<Map<EntityPath<?>, BooleanExpression>, Join, Map<EntityPath<?>, BooleanExpression>>() {
-                @Override
-                public Map<EntityPath<?>, BooleanExpression> apply(Map<EntityPath<?>, BooleanExpression> sum, Join join) {
-                  // get the on expression saved with the join, may be null
-                  final BooleanExpression existing = sum.get(join.join);
-                  final BooleanExpression combined;
-                  // combine the existing and the current expression
-                  if (existing == null) {
-                    combined = join.on;
-                  } else if (existing.equals(join.on)) {
-                    // if both expressions are equal there is no need to combine them
-                    combined = existing;
-                  } else {
-                    // if different combine with logical "or"
-                    combined = existing.or(join.on);
-                  }
-                  sum.put(join.join, combined);
-                  return sum;
-                }
-              });
-      for (final Map.Entry<EntityPath<?>, BooleanExpression> j : joins.entrySet()) {
-        q.leftJoin(j.getKey()).on(j.getValue());
-      }
-    }
-    // # where
-    q.where(r.where.orNull());
+    final JPAQuery q = mkQuery(f, r);
     // # paging
     for (Integer a : r.offset) {
       q.offset(a);
@@ -185,15 +150,7 @@ public abstract class AbstractASelectQuery implements ASelectQuery, SelectQueryC
     }
     // # fetch
     // create parameters for fetch clause, i.e. Querydsl's list() method
-    final List<Expression<?>> fetch;
-    {
-      // check if the media package ID needs to be selected separately
-      if (r.fetch.exists(MandatoryFetch.exists)) {
-        fetch = r.fetch.toList();
-      } else {
-        fetch = r.fetch.append(MandatoryFetch.fetch).toList();
-      }
-    }
+    final List<Expression<?>> fetch = mkFetch(r);
     // Run the query and transform the result into records
     final Stream<ARecordImpl> records;
     {
@@ -226,20 +183,7 @@ public abstract class AbstractASelectQuery implements ASelectQuery, SelectQueryC
         // Extract records and properties and link them together.
 
         // group properties after their media package ID and make sure that no duplicate properties occur
-        final Map<String, Set<Property>> propertiesPerMp = $(result).bind(toProperty)
-                .foldl(new HashMap<String, Set<Property>>(), new Fn2<Map<String, Set<Property>>, Property, Map<String, Set<Property>>>() {
-                  @Override
-                  public Map<String, Set<Property>> apply(Map<String, Set<Property>> sum, Property p) {
-                    final String mpId = p.getId().getMediaPackageId();
-                    final Set<Property> props = sum.get(mpId);
-                    if (props != null) {
-                      props.add(p);
-                    } else {
-                      sum.put(mpId, SetB.MH.mk(p));
-                    }
-                    return sum;
-                  }
-                });
+        final Map<String, Set<Property>> propertiesPerMp = groupProperties(result);
         // group records after their media package ID
         final Map<String, List<ARecordImpl>> distinctRecords = $($(result).map(toARecord(r)).toSet()).groupMulti(ARecordImpl.getMediaPackageId);
         records = $(distinctRecords.values()).bind(new Fn<List<ARecordImpl>, Iterable<ARecordImpl>>() {
@@ -266,6 +210,189 @@ public abstract class AbstractASelectQuery implements ASelectQuery, SelectQueryC
     return new AResultImpl(AbstractASelectQuery.<ARecord>vary(records), sizeOf(records), r.offset.getOr(0), r.limit.getOr(-1), searchTime);
   }
 
+  /**
+   * Fetch the page of records following the snapshot with database ID <code>afterId</code>.
+   * <p>
+   * The snapshot IDs of the page are determined first, so that a page always contains complete records even if
+   * properties are fetched, which yields multiple rows per snapshot.
+   * Any order or paging of the query is ignored.
+   *
+   * @return the records of the page, ordered by their snapshot ID
+   */
+  private List<ARecord> runPage(JPAQueryFactory f, long afterId, int pageSize) {
+    final long startTime = System.nanoTime();
+    final SelectQueryContribution r = contributeSelect(f);
+    final boolean toFetchProperties = r.fetch.exists(Booleans.<Expression<?>>eq(QPropertyDto.propertyDto));
+    // # keyset pagination on the snapshot ID
+    final JPAQuery qIds = mkQuery(f, r)
+            .where(Q_SNAPSHOT.id.gt(afterId))
+            .orderBy(Q_SNAPSHOT.id.asc())
+            .limit(pageSize)
+            .distinct();
+    am.getDb().logQuery(qIds);
+    final List<Long> ids = qIds.list(Q_SNAPSHOT.id);
+    if (ids.isEmpty()) {
+      return Collections.emptyList();
+    }
+    // # fetch the records of the page
+    final JPAQuery q = mkQuery(f, r).where(Q_SNAPSHOT.id.in(ids));
+    if (!toFetchProperties) {
+      q.distinct();
+    }
+    am.getDb().logQuery(q);
+    final List<Tuple> result = q.list(JpaFns.toExpressionArray(mkFetch(r)));
+    final Map<String, Set<Property>> propertiesPerMp = toFetchProperties
+            ? groupProperties(result)
+            : Collections.<String, Set<Property>>emptyMap();
+    // use a sorted map to remove duplicate rows and to keep the order of the snapshot IDs
+    final Map<Long, ARecordImpl> records = new TreeMap<>();
+    for (Tuple tuple : result) {
+      final ARecordImpl record = toARecord(r).apply(tuple);
+      if (!records.containsKey(record.getSnapshotId())) {
+        final Set<Property> properties = propertiesPerMp.get(record.getMediaPackageId());
+        records.put(record.getSnapshotId(), new ARecordImpl(
+                record.getSnapshotId(),
+                record.getMediaPackageId(),
+                properties != null ? $(properties) : Stream.<Property>empty(),
+                record.getSnapshotDto().orNull(),
+                prepareForDelivery));
+      }
+    }
+    logger.debug("Page of {} records after snapshot {} took {} ms", records.size(), afterId,
+            (System.nanoTime() - startTime) / 1000000);
+    return new ArrayList<ARecord>(records.values());
+  }
+
+  /** Create a query from the from, join and where clauses of a contribution. */
+  private JPAQuery mkQuery(JPAQueryFactory f, SelectQueryContribution r) {
+    final JPAQuery q = f.query();
+    // # from
+    {
+      // Make sure that the snapshotDto is always contained in the from clause because the media package ID and
+      //   the ID are always selected.
+      // Use a mutable hash set to be able to use the removeAll operation.
+      final Set<EntityPath<?>> from = Stream.<EntityPath<?>>mk(Q_SNAPSHOT)
+              .append(r.from) // all collected from clauses
+              .append(r.join.map(Join.getFrom)) // all from clauses from the joins
+              .toSet(SetB.MH);
+      // Now remove everything that will be joined. Adding them in both the from and a join
+      //   clause is not allowed.
+      from.removeAll(r.join.map(Join.getJoin).toSet());
+      q.from(JpaFns.toEntityPathArray(from));
+    }
+    // # join
+    if (!r.join.isEmpty()) {
+      // Group joins by entity and combine all "on" clauses with "or" expressions.
+      // This way there is only one join clause per distinct entity which eliminates the need to alias entities
+      //   like this `new QPropertyDto("alias")`.
+      // Entity aliasing produces many issues which seem to cause a huge rewrite of the query building mechanism
+      //   so it should be prevented at all costs.
+      final Map<EntityPath<?>, BooleanExpression> joins = r.join.foldl(
+              new HashMap<EntityPath<?>, BooleanExpression>(),
+              new Fn2<Map<EntityPath<?>, BooleanExpression>, Join, Map<EntityPath<?>, BooleanExpression>>() {
+                @Override
+                public Map<EntityPath<?>, BooleanExpression> apply(Map<EntityPath<?>, BooleanExpression> sum, Join join) {
+                  // get the on expression saved with the join, may be null
+                  final BooleanExpression existing = sum.get(join.join);
+                  final BooleanExpression combined;
+                  // combine the existing and the current expression
+                  if (existing == null) {
+                    combined = join.on;
+                  } else if (existing.equals(join.on)) {
+                    // if both expressions are equal there is no need to combine them
+                    combined = existing;
+                  } else {
+                    // if different combine with logical "or"
+                    combined = existing.or(join.on);
+                  }
+                  sum.put(join.join, combined);
+                  return sum;
+                }
+              });
+      for (final Map.Entry<EntityPath<?>, BooleanExpression> j : joins.entrySet()) {
+        q.leftJoin(j.getKey()).on(j.getValue());
+      }
+    }
+    // # where
+    q.where(r.where.orNull());
+    return q;
+  }
+
+  /** Create the parameters for the fetch clause, i.e. Querydsl's list() method. */
+  private static List<Expression<?>> mkFetch(SelectQueryContribution r) {
+    // check if the media package ID needs to be selected separately
+    if (r.fetch.exists(MandatoryFetch.exists)) {
+      return r.fetch.toList();
+    } else {
+      return r.fetch.append(MandatoryFetch.fetch).toList();
+    }
+  }
+
+  /** Group the fetched properties after their media package ID and make sure that no duplicate properties occur. */
+  private static Map<String, Set<Property>> groupProperties(List<Tuple> result) {
+    return $(result).bind(toProperty)
+            .foldl(new HashMap<String, Set<Property>>(), new Fn2<Map<String, Set<Property>>, Property, Map<String, Set<Property>>>() {
+              @Override
+              public Map<String, Set<Property>> apply(Map<String, Set<Property>> sum, Property p) {
+                final String mpId = p.getId().getMediaPackageId();
+                final Set<Property> props = sum.get(mpId);
+                if (props != null) {
+                  props.add(p);
+                } else {
+                  sum.put(mpId, SetB.MH.mk(p));
+                }
+                return sum;
+              }
+            });
+  }
+
+  /** Make sure that delivered media packages have valid URIs. */
+  private final Fn<Snapshot, Snapshot> prepareForDelivery = new Fn<Snapshot, Snapshot>() {
+    @Override public Snapshot apply(Snapshot snapshot) {
+      return am.getHttpAssetProvider().prepareForDelivery(snapshot);
+    }
+  };
+
+  /**
+   * Iterates over the records of the query page by page. Each page is fetched in its own transaction when the
+   * previous one has been consumed.
+   */
+  private final class PagedIterator implements Iterator<ARecord> {
+    private final int pageSize;
+    private Iterator<ARecord> page = Collections.emptyIterator();
+    private long lastId = Long.MIN_VALUE;
+    private boolean exhausted = false;
+
+    PagedIterator(int pageSize) {
+      this.pageSize = pageSize;
+    }
+
+    @Override public boolean hasNext() {
+      while (!page.hasNext() && !exhausted) {
+        final List<ARecord> records = am.getDb().run(new Fn<JPAQueryFactory, List<ARecord>>() {
+          @Override public List<ARecord> apply(JPAQueryFactory f) {
+            return runPage(f, lastId, pageSize);
+          }
+        });
+        if (records.size() < pageSize) {
+          exhausted = true;
+        }
+        if (!records.isEmpty()) {
+          lastId = ((ARecordImpl) records.get(records.size() - 1)).getSnapshotId();
+        }
+        page = records.iterator();
+      }
+      return page.hasNext();
+    }
+
+    @Override public ARecord next() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      return page.next();
+    }
+  }
+
   /**
    * Transform a Querydsl result {@link Tuple} into an {@link ARecord}.
    * To do the transformation I need to know what targets have been selected.
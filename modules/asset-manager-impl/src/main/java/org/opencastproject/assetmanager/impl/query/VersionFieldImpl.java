@@ -39,22 +39,17 @@ public class VersionFieldImpl extends AbstractSnapshotField<Version, Long> imple
     return RuntimeTypes.convert(version).value();
   }
 
+  /**
+   * Uses the latest snapshot projection instead of determining the maximum version of each media package.
+   */
   @Override public Predicate isLatest() {
-    return mkFirstLatestPredicate(true);
+    return mkPredicate(Q_SNAPSHOT.id.in(new JPASubQuery().from(Q_LATEST_SNAPSHOT).list(Q_LATEST_SNAPSHOT.snapshotId)));
   }
 
   @Override public Predicate isFirst() {
-    return mkFirstLatestPredicate(false);
-  }
-
-  /**
-   * @param isLatest
-   *         true - latest version; false - first version
-   */
-  private Predicate mkFirstLatestPredicate(boolean isLatest) {
     return mkPredicate(Q_SNAPSHOT.version.eq(
             new JPASubQuery().from(Q_SNAPSHOT_ALIAS)
                     .where(Q_SNAPSHOT_ALIAS.mediaPackageId.eq(Q_SNAPSHOT.mediaPackageId))
-                    .unique(isLatest ? Q_SNAPSHOT_ALIAS.version.max() : Q_SNAPSHOT_ALIAS.version.min())));
+                    .unique(Q_SNAPSHOT_ALIAS.version.min())));
   }
 }
@@ -21,8 +21,12 @@
 package org.opencastproject.assetmanager.impl;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.opencastproject.assetmanager.api.fn.Enrichments.enrich;
 
+import org.opencastproject.assetmanager.api.Version;
 import org.opencastproject.assetmanager.impl.persistence.EntityPaths;
+import org.opencastproject.assetmanager.impl.query.AbstractADeleteQuery.DeleteSnapshotHandler;
 import org.opencastproject.mediapackage.MediaPackage;
 import org.opencastproject.security.api.DefaultOrganization;
 
@@ -30,6 +34,10 @@ import com.mysema.query.jpa.JPASubQuery;
 
 import org.junit.Test;
 
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
 public class AbstractAssetManagerDeleteSnapshotTest extends AbstractAssetManagerDeleteTestBase implements EntityPaths {
   // run asset manager or raw JPA queries
   private static final boolean RUN_RAW_QUERIES = false;
@@ -100,6 +108,35 @@ public class AbstractAssetManagerDeleteSnapshotTest extends AbstractAssetManager
     assertStoreSize(3 * 2);
   }
 
+  /**
+   * After deleting the latest version of an episode, the previous version should be the latest one.
+   */
+  @Test
+  public void testDeleteLatestVersion() throws Exception {
+    final String[] mp = createAndAddMediaPackagesSimple(2, 3, 3);
+    final Set<String> deletedEpisodes = new HashSet<>();
+    final DeleteSnapshotHandler handler = new DeleteSnapshotHandler() {
+      @Override public void notifyDeleteSnapshot(String mpId, VersionImpl version) {
+      }
+
+      @Override public void notifyDeleteEpisode(String mpId) {
+        deletedEpisodes.add(mpId);
+      }
+    };
+    assertEquals(1, RuntimeTypes.convert(q.delete(OWNER, q.snapshot())
+            .where(q.mediaPackageId(mp[0]).and(q.version().isLatest()))).run(handler));
+    assertTrue("Deleting a non-final version must not delete the episode", deletedEpisodes.isEmpty());
+    assertEquals(2, q.select(q.snapshot()).where(q.version().isLatest()).run().getSize());
+    final Version latest = enrich(q.select(q.snapshot()).where(q.mediaPackageId(mp[0]).and(q.version().isLatest()))
+            .run()).getSnapshots().head2().getVersion();
+    assertEquals(2, q.select(q.snapshot()).where(q.mediaPackageId(mp[0])).run().getSize());
+    assertEquals(0, q.select(q.snapshot()).where(q.mediaPackageId(mp[0]).and(q.version().gt(latest))).run().getSize());
+    // deleting the remaining versions removes the episode from the latest versions
+    assertEquals(2, RuntimeTypes.convert(q.delete(OWNER, q.snapshot()).where(q.mediaPackageId(mp[0]))).run(handler));
+    assertEquals(1, q.select(q.snapshot()).where(q.version().isLatest()).run().getSize());
+    assertEquals(Collections.singleton(mp[0]), deletedEpisodes);
+  }
+
   /**
    * If, after deleting versions of an episode no version remains, all properties of the episode should be deleted.
    */
@@ -141,6 +141,25 @@ public class AbstractAssetManagerSelectTest extends AbstractAssetManagerTestBase
     assertEquals("The result set should contain media package " + mp[0], mp[0], r.getSnapshots().head2().getMediaPackage().getIdentifier().toString());
   }
 
+  @Test
+  public void testRunPaged() throws Exception {
+    final String[] mp = createAndAddMediaPackagesSimple(5, 2, 2);
+    am.setProperty(p.approved.mk(mp[0], true));
+    am.setProperty(p.count.mk(mp[0], 1L));
+    final List<ARecord> records = q.select(q.snapshot(), q.propertiesOf(p.namespace()))
+            .where(q.version().isLatest())
+            .page(0, 1)
+            .runPaged(2).toList();
+    assertEquals("All latest snapshots should be streamed regardless of the page size", 5, records.size());
+    assertThat("Each media package should be streamed once",
+               $(records).map(ARecords.getMediaPackageId).toList(), Matchers.containsInAnyOrder(mp));
+    for (ARecord record : records) {
+      assertEquals("Properties should be attached to their record",
+                   record.getMediaPackageId().equals(mp[0]) ? 2 : 0, record.getProperties().toList().size());
+      assertTrue("Snapshot should be decoded", record.getSnapshot().isSome());
+    }
+  }
+
   @Test
   public void testSelectProperties() throws Exception {
     final MediaPackage mp1 = mkMediaPackage();
@@ -73,6 +73,7 @@ public class AbstractTieredStorageAssetManagerTest<A extends TieredStorageAssetM
         Queries.sql.update(entityManager, "delete from oc_assets_asset");
         Queries.sql.update(entityManager, "delete from oc_assets_properties");
         Queries.sql.update(entityManager, "delete from oc_assets_snapshot");
+        Queries.sql.update(entityManager, "delete from oc_assets_snapshot_latest");
         Queries.sql.update(entityManager, "delete from oc_assets_version_claim");
         return null;
       }
@@ -228,6 +229,59 @@ public class AbstractTieredStorageAssetManagerTest<A extends TieredStorageAssetM
     };
   }
 
+  /**
+   * Create a test asset store which returns different content than has been put into it.
+   */
+  protected RemoteAssetStore mkCorruptingRemoteAssetStore(String storeType) {
+    return mkCorruptingRemoteAssetStore(storeType, null);
+  }
+
+  /**
+   * Create a test asset store which returns different content than has been put into it for the given elements. The
+   * set may be changed later on. If it is <code>null</code> all elements are corrupted.
+   */
+  protected RemoteAssetStore mkCorruptingRemoteAssetStore(String storeType, final Set<String> corruptElementIds) {
+    final RemoteAssetStore delegate = mkRemoteAssetStore(storeType);
+    return new RemoteAssetStore() {
+      @Override public void put(StoragePath path, Source source) throws AssetStoreException {
+        delegate.put(path, source);
+      }
+
+      @Override public boolean copy(StoragePath from, StoragePath to) throws AssetStoreException {
+        return delegate.copy(from, to);
+      }
+
+      @Override public Opt<InputStream> get(StoragePath path) throws AssetStoreException {
+        if (corruptElementIds != null && !corruptElementIds.contains(path.getMediaPackageElementId())) {
+          return delegate.get(path);
+        }
+        return IoSupport.openClassPathResource("/log4j.properties").toOpt();
+      }
+
+      @Override public boolean contains(StoragePath path) throws AssetStoreException {
+        return delegate.contains(path);
+      }
+
+      @Override public boolean delete(DeletionSelector sel) throws AssetStoreException {
+        return delegate.delete(sel);
+      }
+
+      @Override public Option<Long> getTotalSpace() {
+        return delegate.getTotalSpace();
+      }
+
+      @Override public Option<Long> getUsableSpace() {
+        return delegate.getUsableSpace();
+      }
+
+      @Override public Option<Long> getUsedSpace() {
+        return delegate.getUsedSpace();
+      }
+
+      @Override public String getStoreType() { return storeType; }
+    };
+  }
+
   /**
    * Create a test asset store.
    */
@@ -276,6 +276,7 @@ public abstract class AssetManagerTestBase<A extends AssetManager> {
         Queries.sql.update(entityManager, "delete from oc_assets_asset");
         Queries.sql.update(entityManager, "delete from oc_assets_properties");
         Queries.sql.update(entityManager, "delete from oc_assets_snapshot");
+        Queries.sql.update(entityManager, "delete from oc_assets_snapshot_latest");
         Queries.sql.update(entityManager, "delete from oc_assets_version_claim");
         return null;
       }
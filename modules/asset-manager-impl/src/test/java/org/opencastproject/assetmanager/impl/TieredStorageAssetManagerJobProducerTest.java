@@ -20,6 +20,9 @@
  */
 package org.opencastproject.assetmanager.impl;
 
+import org.opencastproject.assetmanager.api.AssetManagerException;
+import org.opencastproject.assetmanager.api.Snapshot;
+import org.opencastproject.assetmanager.impl.storage.RemoteAssetStore;
 import org.opencastproject.job.api.Job;
 import org.opencastproject.job.api.JobImpl;
 import org.opencastproject.serviceregistry.api.ServiceRegistry;
@@ -35,8 +38,10 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 
 import java.util.Date;
+import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Set;
 
 import junitparams.JUnitParamsRunner;
 
@@ -193,6 +198,69 @@ public class TieredStorageAssetManagerJobProducerTest extends AbstractTieredStor
     EasyMock.verify(sr);
   }
 
+  @Test
+  public void testInternalByDateSkipsMovedSnapshots() throws Exception {
+    Date start = new Date(-10000L);
+    String[] mp = createAndAddMediaPackagesSimple(1, 2, 2, Opt.<String>none());
+    Date end = new Date(new Date().getTime() + 10000L);
+    am.moveSnapshotToStore(VersionImpl.mk(0L), mp[0], REMOTE_STORE_1_ID);
+    //Only the version which has not been moved yet needs a job
+    createIdAndVersionExpectation(mp[0], 1, 2);
+    EasyMock.replay(sr);
+
+    Assert.assertEquals("Only the second version should move",
+            "1", tsamjp.internalMoveByDate(start, end, REMOTE_STORE_1_ID));
+    EasyMock.verify(sr);
+  }
+
+  @Test
+  public void testProcessByIdAndVersionCorruptCopy() throws Exception {
+    RemoteAssetStore corruptingStore = mkCorruptingRemoteAssetStore(REMOTE_STORE_2_ID);
+    am.addRemoteAssetStore(corruptingStore);
+    String[] mp = createAndAddMediaPackagesSimple(1, 1, 1, Opt.<String>none());
+    EasyMock.replay(sr);
+
+    try {
+      tsamjp.internalMoveByIdAndVersion(VersionImpl.mk(0L), mp[0], REMOTE_STORE_2_ID);
+      Assert.fail("Moving a snapshot to a store returning corrupt copies should fail");
+    } catch (AssetManagerException e) {
+      // expected
+    }
+    Assert.assertEquals("The snapshot should stay in its store",
+            LOCAL_STORE_ID, am.getSnapshotStorageLocation(VersionImpl.mk(0L), mp[0]).get());
+    Assert.assertEquals("The corrupt copies should be removed",
+            Long.valueOf(0L), corruptingStore.getUsedSpace().get());
+  }
+
+  @Test
+  public void testProcessByIdAndVersionRetryAfterCorruptCopy() throws Exception {
+    Set<String> corruptElementIds = new HashSet<>();
+    RemoteAssetStore corruptingStore = mkCorruptingRemoteAssetStore(REMOTE_STORE_2_ID, corruptElementIds);
+    am.addRemoteAssetStore(corruptingStore);
+    Snapshot snapshot = am.takeSnapshot(OWNER, mkMediaPackage(mkCatalog(), mkCatalog()));
+    String mpId = snapshot.getMediaPackage().getIdentifier().toString();
+    // only the second asset is corrupted, so the first one has already been copied and verified
+    corruptElementIds.add(snapshot.getMediaPackage().getElements()[1].getIdentifier());
+    EasyMock.replay(sr);
+
+    try {
+      tsamjp.internalMoveByIdAndVersion((VersionImpl) snapshot.getVersion(), mpId, REMOTE_STORE_2_ID);
+      Assert.fail("Moving a snapshot to a store returning corrupt copies should fail");
+    } catch (AssetManagerException e) {
+      // expected
+    }
+    Assert.assertEquals("The snapshot should stay in its store",
+            LOCAL_STORE_ID, am.getSnapshotStorageLocation(snapshot.getVersion(), mpId).get());
+
+    // none of the assets may still be recorded as being in the store, otherwise the retry cannot copy them
+    corruptElementIds.clear();
+    tsamjp.internalMoveByIdAndVersion((VersionImpl) snapshot.getVersion(), mpId, REMOTE_STORE_2_ID);
+    Assert.assertEquals("The snapshot should have been moved",
+            REMOTE_STORE_2_ID, am.getSnapshotStorageLocation(snapshot.getVersion(), mpId).get());
+    Assert.assertEquals("Both assets should be in the store",
+            Long.valueOf(2L), corruptingStore.getUsedSpace().get());
+  }
+
   @Test
   public void testByDateAndId() throws ServiceRegistryException {
     String[] mp = createAndAddMediaPackagesSimple(1, 2, 2, Opt.<String>none());
@@ -21,6 +21,8 @@ DROP TABLE IF EXISTS oc_archive_version_claim;
 
 DROP TABLE IF EXISTS oc_assets_snapshot;
 
+DROP TABLE IF EXISTS oc_assets_snapshot_latest;
+
 DROP TABLE IF EXISTS oc_assets_asset;
 
 DROP TABLE IF EXISTS oc_assets_properties;
@@ -0,0 +1,62 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.assetmanager.aws;
+
+import com.amazonaws.event.ProgressEvent;
+import com.amazonaws.event.SyncProgressListener;
+import com.google.common.util.concurrent.RateLimiter;
+
+/**
+ * Limits the bandwidth used by transfers from and to AWS. All transfers sharing a throttle share its bandwidth.
+ * <p>
+ * The AWS SDK notifies synchronous progress listeners from the thread reading or writing the data, so blocking in
+ * {@link #progressChanged(ProgressEvent)} slows down the transfer itself.
+ */
+public class AwsBandwidthThrottle extends SyncProgressListener {
+
+  private final RateLimiter rateLimiter;
+
+  /**
+   * @param bytesPerSecond
+   *          the maximum number of bytes to transfer per second
+   */
+  public AwsBandwidthThrottle(long bytesPerSecond) {
+    if (bytesPerSecond <= 0)
+      throw new IllegalArgumentException("Bandwidth must be positive");
+    rateLimiter = RateLimiter.create(bytesPerSecond);
+  }
+
+  @Override
+  public void progressChanged(ProgressEvent event) {
+    switch (event.getEventType()) {
+      case REQUEST_BYTE_TRANSFER_EVENT:
+      case RESPONSE_BYTE_TRANSFER_EVENT:
+        final long bytes = event.getBytesTransferred();
+        if (bytes > 0) {
+          rateLimiter.acquire((int) Math.min(bytes, Integer.MAX_VALUE));
+        }
+        break;
+      default:
+        break;
+    }
+  }
+}
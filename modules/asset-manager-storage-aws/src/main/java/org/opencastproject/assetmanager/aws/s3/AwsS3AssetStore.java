@@ -22,6 +22,7 @@
 package org.opencastproject.assetmanager.aws.s3;
 
 import org.opencastproject.assetmanager.aws.AwsAbstractArchive;
+import org.opencastproject.assetmanager.aws.AwsBandwidthThrottle;
 import org.opencastproject.assetmanager.aws.AwsUploadOperationResult;
 import org.opencastproject.assetmanager.aws.persistence.AwsAssetDatabase;
 import org.opencastproject.assetmanager.aws.persistence.AwsAssetMapping;
@@ -39,12 +40,16 @@ import com.amazonaws.auth.AWSStaticCredentialsProvider;
 import com.amazonaws.auth.BasicAWSCredentials;
 import com.amazonaws.auth.DefaultAWSCredentialsProviderChain;
 import com.amazonaws.client.builder.AwsClientBuilder;
+import com.amazonaws.client.builder.ExecutorFactory;
 import com.amazonaws.services.s3.AmazonS3;
 import com.amazonaws.services.s3.AmazonS3ClientBuilder;
 import com.amazonaws.services.s3.model.BucketVersioningConfiguration;
+import com.amazonaws.services.s3.model.GetObjectRequest;
+import com.amazonaws.services.s3.model.PutObjectRequest;
 import com.amazonaws.services.s3.model.S3Object;
 import com.amazonaws.services.s3.model.SetBucketVersioningConfigurationRequest;
 import com.amazonaws.services.s3.transfer.TransferManager;
+import com.amazonaws.services.s3.transfer.TransferManagerBuilder;
 import com.amazonaws.services.s3.transfer.Upload;
 
 import org.apache.commons.lang3.StringUtils;
@@ -59,6 +64,8 @@ import java.io.File;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Dictionary;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Component(
   property = {
@@ -81,6 +88,12 @@ public class AwsS3AssetStore extends AwsAbstractArchive implements RemoteAssetSt
   public static final String AWS_S3_BUCKET_CONFIG = "org.opencastproject.assetmanager.aws.s3.bucket";
   public static final String AWS_S3_ENDPOINT_CONFIG = "org.opencastproject.assetmanager.aws.s3.endpoint";
   public static final String AWS_S3_PATH_STYLE_CONFIG = "org.opencastproject.assetmanager.aws.s3.path.style";
+  public static final String AWS_S3_MAX_BANDWIDTH_CONFIG = "org.opencastproject.assetmanager.aws.s3.max.bandwidth";
+  public static final String AWS_S3_UPLOAD_THREADS_CONFIG = "org.opencastproject.assetmanager.aws.s3.upload.threads";
+  public static final String AWS_S3_UPLOAD_PART_SIZE_CONFIG = "org.opencastproject.assetmanager.aws.s3.upload.part.size";
+
+  /** The default number of threads uploading parts of objects concurrently */
+  public static final int DEFAULT_UPLOAD_THREADS = 10;
 
   /** The AWS client and transfer manager */
   private AmazonS3 s3 = null;
@@ -95,6 +108,9 @@ public class AwsS3AssetStore extends AwsAbstractArchive implements RemoteAssetSt
 
   private boolean bucketCreated = false;
 
+  /** Limits the bandwidth of all transfers of this store, null if unlimited */
+  private AwsBandwidthThrottle throttle = null;
+
   /** OSGi Di */
   @Override
   @Reference(name = "workspace")
@@ -172,7 +188,31 @@ public class AwsS3AssetStore extends AwsAbstractArchive implements RemoteAssetSt
               .withCredentials(provider)
               .build();
 
-      s3TransferManager = new TransferManager(s3);
+      // All uploads of this node share a bounded pool of threads uploading the parts of multipart uploads
+      final int uploadThreads = OsgiUtil.getOptCfgAsInt(cc.getProperties(), AWS_S3_UPLOAD_THREADS_CONFIG)
+              .getOrElse(DEFAULT_UPLOAD_THREADS);
+      logger.info("AWS upload threads: {}", uploadThreads);
+      TransferManagerBuilder transferManagerBuilder = TransferManagerBuilder.standard()
+              .withS3Client(s3)
+              .withExecutorFactory(new ExecutorFactory() {
+                @Override
+                public ExecutorService newExecutor() {
+                  return Executors.newFixedThreadPool(uploadThreads);
+                }
+              });
+      for (Integer partSize : OsgiUtil.getOptCfgAsInt(cc.getProperties(), AWS_S3_UPLOAD_PART_SIZE_CONFIG)) {
+        logger.info("AWS upload part size: {} MiB", partSize);
+        transferManagerBuilder = transferManagerBuilder.withMinimumUploadPartSize(partSize * 1024L * 1024L);
+      }
+      s3TransferManager = transferManagerBuilder.build();
+
+      // Optional bandwidth limit in megabit per second
+      for (Integer maxBandwidth : OsgiUtil.getOptCfgAsInt(cc.getProperties(), AWS_S3_MAX_BANDWIDTH_CONFIG)) {
+        if (maxBandwidth > 0) {
+          logger.info("AWS bandwidth is limited to {} Mbit/s", maxBandwidth);
+          throttle = new AwsBandwidthThrottle(maxBandwidth * 125000L);
+        }
+      }
 
       logger.info("AwsS3ArchiveAssetStore activated!");
     }
@@ -221,7 +261,10 @@ public class AwsS3AssetStore extends AwsAbstractArchive implements RemoteAssetSt
     // Use TransferManager to take advantage of multipart upload.
     // TransferManager processes all transfers asynchronously, so this call will return immediately.
     logger.info("Uploading {} to archive bucket {}...", objectName, bucketName);
-    Upload upload = s3TransferManager.upload(bucketName, objectName, origin);
+    Upload upload = throttle == null
+            ? s3TransferManager.upload(bucketName, objectName, origin)
+            : s3TransferManager.upload(new PutObjectRequest(bucketName, objectName, origin)
+                    .withGeneralProgressListener(throttle));
     long start = System.currentTimeMillis();
 
     S3Object obj = null;
@@ -253,7 +296,9 @@ public class AwsS3AssetStore extends AwsAbstractArchive implements RemoteAssetSt
    *
    */
   protected InputStream getObject(AwsAssetMapping map) {
-    S3Object object = s3.getObject(bucketName, map.getObjectKey());
+    S3Object object = throttle == null
+            ? s3.getObject(bucketName, map.getObjectKey())
+            : s3.getObject(new GetObjectRequest(bucketName, map.getObjectKey()).withGeneralProgressListener(throttle));
     return object.getObjectContent();
   }
 
@@ -0,0 +1,171 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.util;
+
+import org.apache.commons.lang3.StringUtils;
+import org.osgi.framework.BundleContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Node wide budget of CPU threads available to native processes such as ffmpeg and ffprobe.
+ * <p>
+ * The job load only limits how many jobs a node accepts. It does not limit the processes these jobs start, so several
+ * services running on the same node may easily oversubscribe its CPUs. Services therefore allocate threads from this
+ * budget before starting a native process and release them once the process has finished. If the budget is
+ * exhausted, the allocation blocks until enough threads become available again.
+ * <p>
+ * The budget is shared by all services of a node and defaults to the number of available processors. It can be set
+ * using the {@link #MAX_THREADS_PROPERTY} framework property.
+ */
+public final class NativeProcessBudget {
+
+  /** The framework property to configure the number of threads available to native processes */
+  public static final String MAX_THREADS_PROPERTY = "org.opencastproject.process.max.threads";
+
+  private static final Logger logger = LoggerFactory.getLogger(NativeProcessBudget.class);
+
+  private static final Object lock = new Object();
+
+  /** The number of threads available to native processes */
+  private static int maxThreads = Runtime.getRuntime().availableProcessors();
+
+  /** The number of threads currently allocated */
+  private static int usedThreads = 0;
+
+  private NativeProcessBudget() {
+  }
+
+  /**
+   * Reads the budget from the {@link #MAX_THREADS_PROPERTY} framework property. If the property is not set, the budget
+   * is left unchanged.
+   *
+   * @param bundleContext
+   *          the bundle context
+   */
+  public static void configure(BundleContext bundleContext) {
+    String value = StringUtils.trimToNull(bundleContext.getProperty(MAX_THREADS_PROPERTY));
+    if (value == null)
+      return;
+    try {
+      setMaxThreads(Integer.parseInt(value));
+    } catch (IllegalArgumentException e) {
+      logger.warn("Ignoring invalid value '{}' of {}, using {} threads", value, MAX_THREADS_PROPERTY, getMaxThreads());
+    }
+  }
+
+  /**
+   * Sets the number of threads available to native processes.
+   *
+   * @param threads
+   *          the number of threads
+   * @throws IllegalArgumentException
+   *           if threads is less than one
+   */
+  public static void setMaxThreads(int threads) {
+    if (threads < 1)
+      throw new IllegalArgumentException("The number of threads must be positive");
+    synchronized (lock) {
+      if (maxThreads != threads)
+        logger.info("Native processes may use up to {} threads", threads);
+      maxThreads = threads;
+      lock.notifyAll();
+    }
+  }
+
+  /** Returns the number of threads available to native processes. */
+  public static int getMaxThreads() {
+    synchronized (lock) {
+      return maxThreads;
+    }
+  }
+
+  /**
+   * Returns the number of threads a native process may use when running on behalf of a job with the given load. Since a
+   * job's load is meant to reflect the number of cores it keeps busy, this is the load rounded up, but at least one and
+   * at most the whole budget.
+   *
+   * @param load
+   *          the job load
+   * @return the number of threads
+   */
+  public static int threadsForLoad(float load) {
+    return Math.max(1, Math.min(getMaxThreads(), (int) Math.ceil(load)));
+  }
+
+  /**
+   * Allocates threads from the budget, waiting until enough threads are available. A request larger than the budget
+   * is reduced to the budget.
+   *
+   * @param threads
+   *          the number of threads the native process is going to use
+   * @return the allocation, which has to be closed once the process has finished
+   * @throws InterruptedException
+   *           if the thread was interrupted while waiting for the allocation
+   */
+  public static Allocation allocate(int threads) throws InterruptedException {
+    synchronized (lock) {
+      int requested = Math.max(1, Math.min(threads, maxThreads));
+      boolean waiting = false;
+      // An idle budget always grants the request, even if it has been shrunk in the meantime
+      while (usedThreads > 0 && usedThreads + requested > maxThreads) {
+        if (!waiting) {
+          logger.debug("Waiting for {} of {} threads to become available for a native process", requested,
+                  maxThreads);
+          waiting = true;
+        }
+        lock.wait();
+      }
+      usedThreads += requested;
+      return new Allocation(requested);
+    }
+  }
+
+  /** Threads allocated to a native process. */
+  public static final class Allocation implements AutoCloseable {
+
+    private final int threads;
+    private boolean released = false;
+
+    private Allocation(int threads) {
+      this.threads = threads;
+    }
+
+    /** Returns the number of allocated threads. */
+    public int getThreads() {
+      return threads;
+    }
+
+    /** Returns the threads to the budget. */
+    @Override
+    public void close() {
+      synchronized (lock) {
+        if (!released) {
+          released = true;
+          usedThreads -= threads;
+          lock.notifyAll();
+        }
+      }
+    }
+  }
+
+}
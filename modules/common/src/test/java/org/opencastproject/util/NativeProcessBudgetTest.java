@@ -0,0 +1,88 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.util.NativeProcessBudget.Allocation;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+public class NativeProcessBudgetTest {
+
+  private int maxThreads;
+
+  @Before
+  public void setUp() {
+    maxThreads = NativeProcessBudget.getMaxThreads();
+    NativeProcessBudget.setMaxThreads(4);
+  }
+
+  @After
+  public void tearDown() {
+    NativeProcessBudget.setMaxThreads(maxThreads);
+  }
+
+  @Test
+  public void testThreadsForLoad() {
+    assertEquals(1, NativeProcessBudget.threadsForLoad(0.2f));
+    assertEquals(2, NativeProcessBudget.threadsForLoad(1.5f));
+    assertEquals(4, NativeProcessBudget.threadsForLoad(8f));
+  }
+
+  @Test
+  public void testAllocationIsLimitedToBudget() throws Exception {
+    try (Allocation allocation = NativeProcessBudget.allocate(10)) {
+      assertEquals(4, allocation.getThreads());
+    }
+  }
+
+  @Test
+  public void testAllocationWaitsForBudget() throws Exception {
+    final Allocation first = NativeProcessBudget.allocate(3);
+    final CountDownLatch allocated = new CountDownLatch(1);
+    Thread waiter = new Thread(() -> {
+      try (Allocation second = NativeProcessBudget.allocate(2)) {
+        allocated.countDown();
+      } catch (InterruptedException ignore) {
+      }
+    });
+    waiter.start();
+    assertFalse(allocated.await(200, TimeUnit.MILLISECONDS));
+    first.close();
+    // Closing an allocation twice must not release its threads again
+    first.close();
+    assertTrue(allocated.await(5, TimeUnit.SECONDS));
+    waiter.join();
+    try (Allocation all = NativeProcessBudget.allocate(4)) {
+      assertEquals(4, all.getThreads());
+    }
+  }
+
+}
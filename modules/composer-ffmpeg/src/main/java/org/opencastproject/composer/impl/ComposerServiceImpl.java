@@ -33,6 +33,7 @@ import org.opencastproject.composer.api.EncoderException;
 import org.opencastproject.composer.api.EncodingProfile;
 import org.opencastproject.composer.api.LaidOutElement;
 import org.opencastproject.composer.api.VideoClip;
+import org.opencastproject.composer.impl.jmx.EncodingStatistics;
 import org.opencastproject.composer.layout.Dimension;
 import org.opencastproject.composer.layout.Layout;
 import org.opencastproject.composer.layout.Serializer;
@@ -69,6 +70,7 @@ import org.opencastproject.util.FileSupport;
 import org.opencastproject.util.JsonObj;
 import org.opencastproject.util.LoadUtil;
 import org.opencastproject.util.MimeTypes;
+import org.opencastproject.util.NativeProcessBudget;
 import org.opencastproject.util.NotFoundException;
 import org.opencastproject.util.PathSupport;
 import org.opencastproject.util.ReadinessIndicator;
@@ -111,15 +113,16 @@ import java.util.Arrays;
 import java.util.Collection;
 import java.util.Dictionary;
 import java.util.HashMap;
-import java.util.HashSet;
 import java.util.LinkedList;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Properties;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
 /** FFMPEG based implementation of the composer service api. */
@@ -217,16 +220,43 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
   public static final String MULTI_ENCODE_FADE_MILLISECONDS = "org.composer.multi_encode.fade.milliseconds";
   private int multiEncodeFade = DEFAULT_MULTI_ENCODE_FADE_MILLISECONDS;
 
+  /** Encoding profile extension marking profiles which may be used to encode a track in independent segments */
+  public static final String PROFILE_SEGMENTABLE = "segmentable";
+
+  /** Minimum track duration in seconds from which on segmented encoding is used. Zero disables segmented encoding. */
+  public static final long DEFAULT_SEGMENTED_ENCODE_MIN_DURATION = 0;
+  public static final String SEGMENTED_ENCODE_MIN_DURATION = "org.composer.segmented_encode.min.duration";
+  private long segmentedEncodeMinDuration = DEFAULT_SEGMENTED_ENCODE_MIN_DURATION;
+
+  /** Targeted duration in seconds of each segment */
+  public static final long DEFAULT_SEGMENTED_ENCODE_SEGMENT_DURATION = 300;
+  public static final String SEGMENTED_ENCODE_SEGMENT_DURATION = "org.composer.segmented_encode.segment.duration";
+  private long segmentedEncodeSegmentDuration = DEFAULT_SEGMENTED_ENCODE_SEGMENT_DURATION;
+
+  /** How often the encoding of a single segment is attempted before the whole encoding fails */
+  public static final int DEFAULT_SEGMENTED_ENCODE_MAX_ATTEMPTS = 3;
+  public static final String SEGMENTED_ENCODE_MAX_ATTEMPTS = "org.composer.segmented_encode.max.attempts";
+  private int segmentedEncodeMaxAttempts = DEFAULT_SEGMENTED_ENCODE_MAX_ATTEMPTS;
+
+  /** Load of a segmented encoding job which only splits, waits for and joins the segments */
+  public static final float DEFAULT_JOB_LOAD_SEGMENTED_ENCODE = 0.2f;
+  public static final String JOB_LOAD_SEGMENTED_ENCODE = "job.load.segmented.encode";
+  private float segmentedEncodeJobLoad = DEFAULT_JOB_LOAD_SEGMENTED_ENCODE;
+
   /** default transition */
   private int transitionDuration = (int) (DEFAULT_PROCESS_SMIL_CLIP_TRANSITION_DURATION * 1000);
 
   /** List of available operations on jobs */
   enum Operation {
-    Encode, Image, ImageConversion, Mux, Trim, Composite, Concat, ImageToVideo, ParallelEncode, Demux, ProcessSmil, MultiEncode
+    Encode, Image, ImageConversion, Mux, Trim, Composite, Concat, ImageToVideo, ParallelEncode, Demux, ProcessSmil,
+    MultiEncode, EncodeSegment
   }
 
   /** tracked encoder engines */
-  private Set<EncoderEngine> activeEncoder = new HashSet<>();
+  private Set<EncoderEngine> activeEncoder = ConcurrentHashMap.newKeySet();
+
+  /** Statistics about the running and past encodings */
+  private EncodingStatistics encodingStatistics = null;
 
   /** Encoding profile manager */
   private EncodingProfileScanner profileScanner = null;
@@ -273,6 +303,7 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     ffmpegBinary = StringUtils.defaultString(cc.getBundleContext().getProperty(CONFIG_FFMPEG_PATH),
             FFMPEG_BINARY_DEFAULT);
     logger.debug("ffmpeg binary: {}", ffmpegBinary);
+    NativeProcessBudget.configure(cc.getBundleContext());
     logger.info("Activating composer service");
   }
 
@@ -298,8 +329,10 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
   public Job encode(Track sourceTrack, String profileId) throws EncoderException, MediaPackageException {
     try {
       final EncodingProfile profile = profileScanner.getProfile(profileId);
+      // The actual encoding of segmented jobs happens in child jobs carrying the profile's load
+      final float load = isSegmentedEncoding(sourceTrack, profile) ? segmentedEncodeJobLoad : profile.getJobLoad();
       return serviceRegistry.createJob(JOB_TYPE, Operation.Encode.toString(),
-              Arrays.asList(profileId, MediaPackageElementParser.getAsXml(sourceTrack)), profile.getJobLoad());
+              Arrays.asList(profileId, MediaPackageElementParser.getAsXml(sourceTrack)), load);
     } catch (ServiceRegistryException e) {
       throw new EncoderException("Unable to create a job", e);
     }
@@ -385,6 +418,14 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     // Get the encoding profile
     final EncodingProfile profile = getProfile(job, profileId);
 
+    if (tracks.size() == 1) {
+      final Entry<String, Track> track = tracks.entrySet().iterator().next();
+      if (isSegmentedEncoding(track.getValue(), profile)) {
+        return segmentedEncode(job, track.getKey(), track.getValue(), files.get(track.getKey()), profile,
+                targetTrackId);
+      }
+    }
+
     List <String> trackMsg = new LinkedList<>();
     for (Entry<String, Track> track: tracks.entrySet()) {
       trackMsg.add(format("%s: %s", track.getKey(), track.getValue().getIdentifier()));
@@ -430,6 +471,208 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     return some(inspectedTrack);
   }
 
+  /**
+   * Checks if a track should be encoded with the given profile by splitting it into segments which are encoded in
+   * separate jobs.
+   *
+   * @param track
+   *          the track to encode
+   * @param profile
+   *          the encoding profile
+   * @return true if segmented encoding is enabled, the profile allows it and the track is long enough
+   */
+  private boolean isSegmentedEncoding(Track track, EncodingProfile profile) {
+    return segmentedEncodeMinDuration > 0
+            && profile != null
+            && Boolean.parseBoolean(profile.getExtension(PROFILE_SEGMENTABLE))
+            && track.hasVideo()
+            && track.getDuration() != null
+            && track.getDuration() >= segmentedEncodeMinDuration * 1000L;
+  }
+
+  /**
+   * Encodes a track by splitting its video at keyframes, encoding each segment in its own job and losslessly joining
+   * the encoded segments afterwards. Segments are dispatched through the service registry and may therefore be encoded
+   * on any composer node. Failed segments are retried up to the configured number of attempts. The audio is encoded
+   * over the whole track by this job and added when joining the segments, since audio encoded in segments would have
+   * gaps at the segment boundaries.
+   *
+   * @param job
+   *          the encoding job, which becomes the parent of the segment jobs
+   * @param name
+   *          name of the source track
+   * @param track
+   *          the source track
+   * @param source
+   *          the local copy of the source track
+   * @param profile
+   *          the encoding profile
+   * @param targetTrackId
+   *          the identifier of the resulting track
+   * @return the encoded track
+   * @throws EncoderException
+   *           if splitting, encoding or joining fails
+   */
+  private Option<Track> segmentedEncode(final Job job, final String name, final Track track, final File source,
+          final EncodingProfile profile, final String targetTrackId) throws EncoderException, MediaPackageException {
+    logger.info("Encoding {} into {} in segments of {}s using profile {}", track.getIdentifier(), targetTrackId,
+            segmentedEncodeSegmentDuration, profile.getIdentifier());
+
+    final List<URI> segmentURIs = new ArrayList<>();
+    URI[] encodedURIs = new URI[0];
+    final List<File> encodedFiles = new ArrayList<>();
+    File audio = null;
+    final EncoderEngine encoder = getEncoderEngine();
+    try {
+      // Split the source and make the segments available to all nodes
+      List<File> segments;
+      try {
+        segments = encoder.segment(source, segmentedEncodeSegmentDuration);
+      } catch (EncoderException e) {
+        Map<String, String> params = new HashMap<>();
+        params.put(name, track.getIdentifier());
+        params.put("profile", profile.getIdentifier());
+        params.put("properties", "segmented");
+        incident().recordFailure(job, ENCODING_FAILED, e, params, detailsFor(e, encoder));
+        throw e;
+      }
+      try {
+        segmentURIs.addAll(putToCollection(job, segments, "source segment"));
+      } finally {
+        FileUtils.deleteQuietly(segments.get(0).getParentFile());
+      }
+      logger.info("Split {} into {} segments", track.getIdentifier(), segmentURIs.size());
+
+      // Encode the audio over the whole track
+      if (track.hasAudio()) {
+        audio = encodeSegmentedAudio(job, name, track, source, profile, encoder);
+      }
+
+      // Encode the segments, retrying failed ones
+      encodedURIs = new URI[segmentURIs.size()];
+      List<Integer> pending = new ArrayList<>();
+      for (int i = 0; i < segmentURIs.size(); i++) {
+        pending.add(i);
+      }
+      for (int attempt = 1; !pending.isEmpty(); attempt++) {
+        if (attempt > segmentedEncodeMaxAttempts) {
+          throw new EncoderException(format("Encoding of segments %s of %s failed %d times", pending,
+                  track.getIdentifier(), segmentedEncodeMaxAttempts));
+        }
+        Map<Integer, Job> segmentJobs = new HashMap<>();
+        for (int i : pending) {
+          try {
+            segmentJobs.put(i, serviceRegistry.createJob(JOB_TYPE, Operation.EncodeSegment.toString(),
+                    Arrays.asList(profile.getIdentifier(), segmentURIs.get(i).toString()), profile.getJobLoad()));
+          } catch (ServiceRegistryException e) {
+            incident().recordJobCreationIncident(job, e);
+            throw new EncoderException("Unable to create a segment encoding job", e);
+          }
+        }
+        // The barrier updates status and payload of the segment jobs
+        new JobBarrier(job, serviceRegistry, segmentJobs.values().toArray(new Job[0])).waitForJobs();
+        pending.clear();
+        for (Entry<Integer, Job> segmentJob : segmentJobs.entrySet()) {
+          final Job finished = segmentJob.getValue();
+          if (finished.getStatus() == Job.Status.FINISHED && StringUtils.isNotBlank(finished.getPayload())) {
+            encodedURIs[segmentJob.getKey()] = URI.create(finished.getPayload());
+          } else {
+            logger.warn("Encoding segment {} of {} failed in job {} (attempt {} of {})", segmentJob.getKey(),
+                    track.getIdentifier(), finished.getId(), attempt, segmentedEncodeMaxAttempts);
+            pending.add(segmentJob.getKey());
+          }
+        }
+        pending.sort(null);
+      }
+
+      // Join the encoded segments
+      for (URI encodedURI : encodedURIs) {
+        encodedFiles.add(loadURIIntoWorkspace(job, "encoded segment", encodedURI));
+      }
+      File output;
+      try {
+        output = encoder.concatSegments(encodedFiles, audio);
+      } catch (EncoderException e) {
+        Map<String, String> params = new HashMap<>();
+        params.put(name, track.getIdentifier());
+        params.put("profile", profile.getIdentifier());
+        params.put("properties", "segmented");
+        incident().recordFailure(job, CONCAT_FAILED, e, params, detailsFor(e, encoder));
+        throw e;
+      }
+
+      // Put the file in the workspace
+      URI workspaceURI = putToCollection(job, output, "encoded file");
+
+      // Have the encoded track inspected and return the result
+      Track inspectedTrack = inspect(job, workspaceURI);
+      inspectedTrack.setIdentifier(targetTrackId);
+      return some(inspectedTrack);
+    } finally {
+      activeEncoder.remove(encoder);
+      cleanupWorkspace(segmentURIs.toArray(new URI[0]));
+      for (File file : encodedFiles) {
+        FileUtils.deleteQuietly(file);
+      }
+      FileUtils.deleteQuietly(audio);
+      cleanupWorkspace(Arrays.stream(encodedURIs).filter(Objects::nonNull).toArray(URI[]::new));
+    }
+  }
+
+  /**
+   * Encodes the audio of a segmented encoding over the whole track.
+   *
+   * @return the encoded audio
+   * @throws EncoderException
+   *           if encoding fails
+   */
+  private File encodeSegmentedAudio(final Job job, final String name, final Track track, final File source,
+          final EncodingProfile profile, final EncoderEngine encoder) throws EncoderException {
+    try {
+      return encoder.encodeAudio(source, profile);
+    } catch (EncoderException e) {
+      Map<String, String> params = new HashMap<>();
+      params.put(name, track.getIdentifier());
+      params.put("profile", profile.getIdentifier());
+      params.put("properties", "segmented audio");
+      incident().recordFailure(job, ENCODING_FAILED, e, params, detailsFor(e, encoder));
+      throw e;
+    }
+  }
+
+  /**
+   * Encodes a single segment of a segmented encoding.
+   *
+   * @param job
+   *          the segment encoding job
+   * @param segmentURI
+   *          workspace URI of the source segment
+   * @param profileId
+   *          the encoding profile
+   * @return workspace URI of the encoded segment
+   * @throws EncoderException
+   *           if encoding fails
+   */
+  private URI encodeSegment(final Job job, final URI segmentURI, final String profileId) throws EncoderException {
+    final File segment = loadURIIntoWorkspace(job, "segment", segmentURI);
+    final EncodingProfile profile = getProfile(job, profileId);
+    final EncoderEngine encoder = getEncoderEngine();
+    File output;
+    try {
+      output = encoder.encode(segment, profile, null);
+    } catch (EncoderException e) {
+      Map<String, String> params = new HashMap<>();
+      params.put("segment", segmentURI.toString());
+      params.put("profile", profile.getIdentifier());
+      params.put("properties", "EMPTY");
+      incident().recordFailure(job, ENCODING_FAILED, e, params, detailsFor(e, encoder));
+      throw e;
+    } finally {
+      activeEncoder.remove(encoder);
+    }
+    return putToCollection(job, output, "encoded segment");
+  }
+
   /**
    * Encodes audio and video track to a file. If both an audio and a video track are given, they are muxed together into
    * one movie container.
@@ -1388,6 +1631,9 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
           serialized = encode(job, Collections.map(tuple("video", firstTrack)), encodingProfile).map(
                   MediaPackageElementParser.getAsXml()).getOrElse("");
           break;
+        case EncodeSegment:
+          serialized = encodeSegment(job, new URI(arguments.get(1)), encodingProfile).toString();
+          break;
         case ParallelEncode:
           firstTrack = (Track) MediaPackageElementParser.getFromXml(arguments.get(1));
           serialized = MediaPackageElementParser.getArrayAsXml(parallelEncode(job, firstTrack, encodingProfile));
@@ -1603,6 +1849,13 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
 
   private EncoderEngine getEncoderEngine() {
     EncoderEngine engine = new EncoderEngine(ffmpegBinary);
+    // Pin the encoder to the cores the current job has been accounted for
+    Job currentJob = serviceRegistry.getCurrentJob();
+    if (currentJob != null && currentJob.getJobLoad() != null)
+      engine.setThreads(NativeProcessBudget.threadsForLoad(currentJob.getJobLoad()));
+    if (currentJob != null)
+      engine.setJobId(currentJob.getId());
+    engine.setStatistics(encodingStatistics);
     activeEncoder.add(engine);
     return engine;
   }
@@ -1929,6 +2182,17 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     this.profileScanner = scanner;
   }
 
+  /**
+   * Sets the statistics the encodings of this node are reported to.
+   *
+   * @param encodingStatistics
+   *          the encoding statistics
+   */
+  @Reference(name = "encodingStatistics")
+  protected void setEncodingStatistics(EncodingStatistics encodingStatistics) {
+    this.encodingStatistics = encodingStatistics;
+  }
+
   /**
    * Callback for setting the security service.
    *
@@ -2098,6 +2362,26 @@ public class ComposerServiceImpl extends AbstractJobProducer implements Composer
     }
     transitionDuration = (int) (1000 * LoadUtil.getConfiguredLoadValue(properties,
             PROCESS_SMIL_CLIP_TRANSITION_DURATION, DEFAULT_PROCESS_SMIL_CLIP_TRANSITION_DURATION, serviceRegistry));
+
+    segmentedEncodeJobLoad = LoadUtil.getConfiguredLoadValue(properties, JOB_LOAD_SEGMENTED_ENCODE,
+            DEFAULT_JOB_LOAD_SEGMENTED_ENCODE, serviceRegistry);
+    segmentedEncodeMinDuration = NumberUtils.toLong(
+            StringUtils.trimToNull((String) properties.get(SEGMENTED_ENCODE_MIN_DURATION)),
+            DEFAULT_SEGMENTED_ENCODE_MIN_DURATION);
+    long segmentDuration = NumberUtils.toLong(
+            StringUtils.trimToNull((String) properties.get(SEGMENTED_ENCODE_SEGMENT_DURATION)),
+            DEFAULT_SEGMENTED_ENCODE_SEGMENT_DURATION);
+    if (segmentDuration < 1) {
+      throw new ConfigurationException(SEGMENTED_ENCODE_SEGMENT_DURATION, "must be at least one second");
+    }
+    segmentedEncodeSegmentDuration = segmentDuration;
+    int maxAttempts = NumberUtils.toInt(
+            StringUtils.trimToNull((String) properties.get(SEGMENTED_ENCODE_MAX_ATTEMPTS)),
+            DEFAULT_SEGMENTED_ENCODE_MAX_ATTEMPTS);
+    if (maxAttempts < 1) {
+      throw new ConfigurationException(SEGMENTED_ENCODE_MAX_ATTEMPTS, "must be at least one");
+    }
+    segmentedEncodeMaxAttempts = maxAttempts;
   }
 
   /**
@@ -25,9 +25,11 @@ package org.opencastproject.composer.impl;
 import org.opencastproject.composer.api.EncoderException;
 import org.opencastproject.composer.api.EncodingProfile;
 import org.opencastproject.composer.api.VideoClip;
+import org.opencastproject.composer.impl.jmx.EncodingStatistics;
 import org.opencastproject.mediapackage.AdaptivePlaylist;
 import org.opencastproject.mediapackage.identifier.IdImpl;
 import org.opencastproject.util.IoSupport;
+import org.opencastproject.util.NativeProcessBudget;
 import org.opencastproject.util.data.Collections;
 import org.opencastproject.util.data.Tuple;
 
@@ -40,6 +42,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.BufferedReader;
 import java.io.File;
+import java.io.IOException;
 import java.io.InputStreamReader;
 import java.text.DecimalFormat;
 import java.text.DecimalFormatSymbols;
@@ -81,6 +84,16 @@ public class EncoderEngine implements AutoCloseable {
   private String binary = "ffmpeg";
   /** Set of processes to clean up */
   private Set<Process> processes = new HashSet<>();
+  /** The number of threads per output the encoder may use or 0 to leave the choice to ffmpeg */
+  private int threads = 0;
+  /** The job the encoder is working for */
+  private Long jobId = null;
+  /** Statistics to report the encodings to */
+  private EncodingStatistics statistics = null;
+  /** Progress of the running encoding */
+  private volatile EncodingProgress progress = null;
+  /** Whether ffmpeg should report the resources used by an encoding */
+  private boolean benchmark = false;
 
   private final Pattern outputPattern = Pattern.compile("Output .* (\\S+) to '(.*)':");
   // ffmpeg4 generates HLS output files and may use a .tmp suffix while writing
@@ -100,6 +113,57 @@ public class EncoderEngine implements AutoCloseable {
     this.binary = binary;
   }
 
+  /**
+   * Sets the number of threads the encoder may use for each output. Encoding profiles can refer to it as
+   * <code>#{threads}</code>, which is 0 and therefore lets ffmpeg choose if no number of threads has been set.
+   *
+   * @param threads
+   *          the number of threads
+   */
+  void setThreads(int threads) {
+    this.threads = Math.max(1, threads);
+  }
+
+  /**
+   * Sets the job the encoder is working for, which is used to report the encoding progress.
+   *
+   * @param jobId
+   *          the job identifier
+   */
+  void setJobId(Long jobId) {
+    this.jobId = jobId;
+  }
+
+  /**
+   * Sets the statistics the encodings and their progress are reported to.
+   *
+   * @param statistics
+   *          the encoding statistics
+   */
+  void setStatistics(EncodingStatistics statistics) {
+    this.statistics = statistics;
+  }
+
+  /**
+   * Enables the resource usage report of ffmpeg. The CPU time and the peak memory usage of an encoding will then be
+   * available from its progress.
+   *
+   * @param benchmark
+   *          <code>true</code> to enable the report
+   */
+  void setBenchmark(boolean benchmark) {
+    this.benchmark = benchmark;
+  }
+
+  /**
+   * Returns the progress of the running encoding.
+   *
+   * @return the progress or <code>null</code> if no encoding has been started yet
+   */
+  EncodingProgress getProgress() {
+    return progress;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -177,8 +241,21 @@ public class EncoderEngine implements AutoCloseable {
    */
   List<File> process(Map<String, File> source, EncodingProfile profile, Map<String, String> properties)
           throws EncoderException {
+    return process(source, profile, properties, Collections.<String>nil());
+  }
+
+  /**
+   * Executes the command line encoder like {@link #process(Map, EncodingProfile, Map)}, adding options to the output
+   * file of the profile.
+   *
+   * @param outputOptions
+   *          options inserted right before the last argument of the profile's command, which is the output file
+   */
+  private List<File> process(Map<String, File> source, EncodingProfile profile, Map<String, String> properties,
+          List<String> outputOptions) throws EncoderException {
     // Fist, update the parameters
     Map<String, String> params = new HashMap<>();
+    params.put("threads", Integer.toString(threads));
     if (properties != null)
       params.putAll(properties);
     // build command
@@ -214,12 +291,18 @@ public class EncoderEngine implements AutoCloseable {
 
     // create encoder process.
     final List<String> command = buildCommand(profile, params);
+    command.addAll(command.size() - 1, outputOptions);
+    final int outputs = countOutputs(expandCommandline(profile, params));
     logger.info("Executing encoding command: {}", command);
 
     List<File> outFiles = new ArrayList<>();
     BufferedReader in = null;
     Process encoderProcess = null;
+    NativeProcessBudget.Allocation allocation = null;
+    boolean successful = false;
+    startProgress(profile.getIdentifier());
     try {
+      allocation = NativeProcessBudget.allocate(getBudgetThreads(outputs));
       ProcessBuilder processBuilder = new ProcessBuilder(command);
       processBuilder.redirectErrorStream(REDIRECT_ERROR_STREAM);
       encoderProcess = processBuilder.start();
@@ -239,6 +322,7 @@ public class EncoderEngine implements AutoCloseable {
       }
 
       logger.info("Tracks {} successfully encoded using profile '{}'", source, profile.getIdentifier());
+      successful = true;
       return outFiles;
     } catch (Exception e) {
       logger.warn("Error while encoding {}  using profile '{}'",
@@ -254,6 +338,9 @@ public class EncoderEngine implements AutoCloseable {
     } finally {
       IoSupport.closeQuietly(in);
       IoSupport.closeQuietly(encoderProcess);
+      if (allocation != null)
+        allocation.close();
+      finishProgress(successful);
     }
   }
 
@@ -275,15 +362,36 @@ public class EncoderEngine implements AutoCloseable {
    */
 
   protected List<File> process(List<String> commandopts) throws EncoderException {
+    return process(commandopts, 1);
+  }
+
+  /**
+   * Runs the raw command like {@link #process(List)}, charging the thread budget for each output it writes.
+   *
+   * @param commandopts
+   *          tokenized ffmpeg command
+   * @param outputs
+   *          the number of outputs the command writes
+   * @return encoded media as a result of running the command
+   * @throws EncoderException
+   *           if it fails
+   */
+  protected List<File> process(List<String> commandopts, int outputs) throws EncoderException {
     logger.trace("Process raw command -  {}", commandopts);
     // create encoder process. using working dir of the
     // current java process
     Process encoderProcess = null;
     BufferedReader in = null;
     List<File> outFiles = new ArrayList<>();
+    NativeProcessBudget.Allocation allocation = null;
+    boolean successful = false;
+    startProgress(null);
     try {
+      allocation = NativeProcessBudget.allocate(getBudgetThreads(outputs));
       List<String> command = new ArrayList<>();
       command.add(binary);
+      command.add("-progress");
+      command.add("pipe:1");
       command.addAll(commandopts);
       logger.info("Executing encoding command: {}", StringUtils.join(command, " "));
 
@@ -304,6 +412,7 @@ public class EncoderEngine implements AutoCloseable {
       }
       logger.info("Video track successfully encoded '{}'",
               new Object[] { StringUtils.join(commandopts, " ") });
+      successful = true;
       return outFiles; // return output as a list of files
     } catch (Exception e) {
       logger.warn("Error while encoding video tracks using '{}': {}",
@@ -318,9 +427,35 @@ public class EncoderEngine implements AutoCloseable {
     } finally {
       IoSupport.closeQuietly(in);
       IoSupport.closeQuietly(encoderProcess);
+      if (allocation != null)
+        allocation.close();
+      finishProgress(successful);
     }
   }
 
+  /**
+   * Starts tracking the progress of a new encoding.
+   *
+   * @param profile
+   *          the encoding profile or <code>null</code> for raw commands
+   */
+  private void startProgress(String profile) {
+    progress = new EncodingProgress(jobId, profile);
+    if (statistics != null)
+      statistics.started(progress);
+  }
+
+  /**
+   * Stops tracking the progress of the running encoding.
+   *
+   * @param successful
+   *          whether the encoding has been successful
+   */
+  private void finishProgress(boolean successful) {
+    if (statistics != null && progress != null)
+      statistics.finished(progress, successful);
+  }
+
   /**
    * Deletes all valid files found in a list
    *
@@ -341,19 +476,10 @@ public class EncoderEngine implements AutoCloseable {
   }
 
   /**
-   * Creates the command that is sent to the commandline encoder.
-   *
-   * @return the commandline
-   * @throws EncoderException
-   *           in case of any error
+   * Returns the command line of a profile with its command line extensions inserted, but no other parameters replaced.
    */
-  private List<String> buildCommand(final EncodingProfile profile, final Map<String, String> argumentReplacements)
-          throws EncoderException {
-    List<String> command = new ArrayList<>();
-    command.add(binary);
-    command.add("-nostdin");
-    command.add("-nostats");
-
+  private static String expandCommandline(final EncodingProfile profile,
+          final Map<String, String> argumentReplacements) {
     String commandline = profile.getExtension(CMD_SUFFIX);
 
     // Handle command line extensions before parsing:
@@ -366,6 +492,54 @@ public class EncoderEngine implements AutoCloseable {
         commandline = commandline.replace("#{" + shortKey + "}", argumentReplacements.get(key));
       }
     }
+    return commandline;
+  }
+
+  /**
+   * Counts the output files of a command line, which are the arguments naming a file in the output directory after the
+   * output name. Other files written to the output directory, like HLS segments, are not counted.
+   *
+   * @param commandline
+   *          the command line of a profile before its parameters are replaced
+   * @return the number of outputs, at least one
+   */
+  static int countOutputs(String commandline) {
+    int outputs = 0;
+    for (String arg : StringUtils.split(StringUtils.defaultString(commandline))) {
+      if (arg.contains("#{out.dir}") && arg.contains("#{out.name}"))
+        outputs++;
+    }
+    return Math.max(1, outputs);
+  }
+
+  /**
+   * Returns the number of threads to allocate from the budget for a process writing the given number of outputs. Each
+   * output is encoded with up to {@link #threads} threads. If ffmpeg chooses the number of threads, one thread per
+   * output is accounted for.
+   */
+  private int getBudgetThreads(int outputs) {
+    return Math.max(1, threads) * Math.max(1, outputs);
+  }
+
+  /**
+   * Creates the command that is sent to the commandline encoder.
+   *
+   * @return the commandline
+   * @throws EncoderException
+   *           in case of any error
+   */
+  private List<String> buildCommand(final EncodingProfile profile, final Map<String, String> argumentReplacements)
+          throws EncoderException {
+    List<String> command = new ArrayList<>();
+    command.add(binary);
+    command.add("-nostdin");
+    command.add("-nostats");
+    command.add("-progress");
+    command.add("pipe:1");
+    if (benchmark)
+      command.add("-benchmark");
+
+    String commandline = expandCommandline(profile, argumentReplacements);
 
     String[] arguments;
     try {
@@ -402,6 +576,113 @@ public class EncoderEngine implements AutoCloseable {
     return encode(mediaSource, format, properties);
   }
 
+  /**
+   * Encodes only the audio of a media file using the audio settings of the given profile. This is used by segmented
+   * encodings, which encode the audio over the whole track to avoid gaps at the segment boundaries.
+   *
+   * @param mediaSource
+   *          the file to encode
+   * @param format
+   *          the encoding profile
+   * @return the encoded audio file
+   * @throws EncoderException
+   *           if encoding fails
+   */
+  File encodeAudio(File mediaSource, EncodingProfile format) throws EncoderException {
+    List<File> output = process(Collections.map(Tuple.tuple("video", mediaSource)), format, null,
+            Arrays.asList("-vn", "-sn", "-dn"));
+    if (output.size() != 1) {
+      throw new EncoderException(String.format("Encode expects one output file (%s found)", output.size()));
+    }
+    return output.get(0);
+  }
+
+  /**
+   * Splits the video of a media file into segments of roughly the given duration without re-encoding it. Since the
+   * stream is copied, cuts can only happen at keyframes and the segments may therefore be slightly longer than
+   * requested. Audio is not included, since encoding it in segments would add gaps at the segment boundaries.
+   *
+   * @param mediaSource
+   *          the file to split
+   * @param segmentDuration
+   *          the targeted duration of each segment in seconds
+   * @return the segments in playback order
+   * @throws EncoderException
+   *           if splitting fails
+   */
+  List<File> segment(File mediaSource, long segmentDuration) throws EncoderException {
+    final File segmentDir = new File(mediaSource.getAbsoluteFile().getParentFile(),
+            FilenameUtils.getBaseName(mediaSource.getName()) + "_segments_" + UUID.randomUUID().toString());
+    if (!segmentDir.mkdirs()) {
+      throw new EncoderException("Unable to create segment directory " + segmentDir);
+    }
+    final String pattern = new File(segmentDir, "segment_%05d." + FilenameUtils.getExtension(mediaSource.getName()))
+            .getAbsolutePath();
+    try {
+      process(Arrays.asList("-nostdin", "-nostats", "-i", mediaSource.getAbsolutePath(),
+              "-map", "0:v", "-an", "-c", "copy",
+              "-f", "segment", "-segment_time", Long.toString(segmentDuration), "-reset_timestamps", "1",
+              pattern));
+    } catch (EncoderException e) {
+      FileUtils.deleteQuietly(segmentDir);
+      throw e;
+    }
+    File[] segments = segmentDir.listFiles();
+    if (segments == null || segments.length == 0) {
+      FileUtils.deleteQuietly(segmentDir);
+      throw new EncoderException("Splitting " + mediaSource + " did not produce any segments");
+    }
+    // The segment names are zero padded, so the lexical order is the playback order
+    Arrays.sort(segments);
+    return Arrays.asList(segments);
+  }
+
+  /**
+   * Losslessly joins video segments which have been encoded using the same settings and adds the separately encoded
+   * audio.
+   *
+   * @param segments
+   *          the video segments in playback order
+   * @param audio
+   *          the encoded audio or <code>null</code> if there is none
+   * @return the joined file, located next to the first segment
+   * @throws EncoderException
+   *           if joining fails
+   */
+  File concatSegments(List<File> segments, File audio) throws EncoderException {
+    if (segments.isEmpty()) {
+      throw new IllegalArgumentException("At least one segment must be specified.");
+    }
+    final File first = segments.get(0).getAbsoluteFile();
+    final File output = new File(first.getParentFile(), FilenameUtils.getBaseName(first.getName()) + "_"
+            + UUID.randomUUID().toString() + "." + FilenameUtils.getExtension(first.getName()));
+    final File list = new File(first.getParentFile(), output.getName() + ".txt");
+    try {
+      List<String> lines = new ArrayList<>(segments.size());
+      for (File segment : segments) {
+        lines.add("file '" + segment.getAbsolutePath().replace("'", "'\\''") + "'");
+      }
+      FileUtils.writeLines(list, "UTF-8", lines);
+      List<String> command = new ArrayList<>(Arrays.asList("-nostdin", "-nostats", "-f", "concat", "-safe", "0",
+              "-i", list.getAbsolutePath()));
+      if (audio != null) {
+        command.addAll(Arrays.asList("-i", audio.getAbsolutePath(), "-map", "0:v", "-map", "1:a"));
+      } else {
+        command.addAll(Arrays.asList("-map", "0:v"));
+      }
+      command.addAll(Arrays.asList("-c", "copy", output.getAbsolutePath()));
+      process(command);
+    } catch (IOException e) {
+      throw new EncoderException("Unable to write segment list " + list, e);
+    } finally {
+      FileUtils.deleteQuietly(list);
+    }
+    if (!output.isFile()) {
+      throw new EncoderException("Joining segments did not produce " + output);
+    }
+    return output;
+  }
+
   /**
    * Processes the command options by replacing the templates with their actual values.
    *
@@ -441,6 +722,13 @@ public class EncoderEngine implements AutoCloseable {
     if ("".equals(message))
       return;
 
+    // Progress reports go to trace logging
+    EncodingProgress current = progress;
+    if (current != null && current.update(message)) {
+      logger.trace(message);
+      return;
+    }
+
     // Others go to trace logging
     if (StringUtils.startsWithAny(message.toLowerCase(),
           "ffmpeg version", "configuration", "lib", "size=", "frame=", "built with")) {
@@ -1319,8 +1607,174 @@ public class EncoderEngine implements AutoCloseable {
     return clauses; // if no edits, there are no clauses
   }
 
+  /**
+   * Checks whether all clips are cut from the same input track.
+   *
+   * @param edits
+   *          - flat list of triplets: input track index, in point and out point
+   * @return true if there is only one source track
+   */
+  private static boolean isSingleSource(List<Long> edits) {
+    for (int i = 3; i < edits.size(); i += 3) {
+      if (!edits.get(i).equals(edits.get(0)))
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Checks whether an encoding profile only copies the streams into a new container. Such profiles do not need a filter
+   * graph and can be cut at keyframes without re-encoding.
+   *
+   * @param profile
+   *          - the encoding profile
+   * @return true if every stream kept by the profile is copied into a single output and no filters are used
+   */
+  static boolean isStreamCopy(EncodingProfile profile) {
+    String ffmpgCmd = profile.getExtension(CMD_SUFFIX);
+    if (ffmpgCmd == null || profile.getExtension(ADAPTIVE_TYPE_SUFFIX) != null)
+      return false;
+    List<String> cmdToken;
+    try {
+      cmdToken = Arrays.asList(CommandLineUtils.translateCommandline(ffmpgCmd));
+    } catch (Exception e) {
+      return false;
+    }
+    boolean videoCopy = false;
+    boolean audioCopy = false;
+    int outputs = 0;
+    for (int i = 0; i < cmdToken.size(); i++) {
+      String opt = cmdToken.get(i);
+      String value = (i + 1 < cmdToken.size()) ? cmdToken.get(i + 1) : "";
+      if (opt.contains("#{out.name}"))
+        outputs++;
+      if (opt.startsWith("-vf") || opt.startsWith("-af") || opt.startsWith("-filter") || opt.startsWith("-lavfi")) {
+        return false;
+      } else if ("-c".equals(opt) || "-codec".equals(opt)) {
+        videoCopy = audioCopy = "copy".equals(value);
+      } else if ("-c:v".equals(opt) || "-codec:v".equals(opt) || "-vcodec".equals(opt)) {
+        videoCopy = "copy".equals(value);
+      } else if ("-c:a".equals(opt) || "-codec:a".equals(opt) || "-acodec".equals(opt)) {
+        audioCopy = "copy".equals(value);
+      } else if ("-vn".equals(opt)) {
+        videoCopy = true;
+      } else if ("-an".equals(opt)) {
+        audioCopy = true;
+      }
+    }
+    return videoCopy && audioCopy && outputs == 1;
+  }
+
+  /**
+   * Returns the output options of a stream copy profile which still apply when its streams are read from the concat
+   * demuxer. Input options, stream mappings, codec and time options are left out since the segments replace the inputs
+   * and the streams are always copied.
+   *
+   * @param cmdToken
+   *          - the tokenized command of the profile, ending with its output file
+   * @return the output options of the profile
+   */
+  static List<String> getStreamCopyOutputOptions(List<String> cmdToken) {
+    int input = cmdToken.lastIndexOf("-i");
+    List<String> options = new ArrayList<>();
+    for (int i = input < 0 ? 0 : input + 2; i < cmdToken.size() - 1; i++) {
+      String opt = cmdToken.get(i);
+      boolean hasValue = opt.startsWith("-") && i + 1 < cmdToken.size() - 1 && !cmdToken.get(i + 1).startsWith("-");
+      if ("-c".equals(opt) || opt.startsWith("-c:") || opt.startsWith("-codec") || "-vcodec".equals(opt)
+              || "-acodec".equals(opt) || "-map".equals(opt) || "-ss".equals(opt) || "-t".equals(opt)
+              || "-to".equals(opt) || "-avoid_negative_ts".equals(opt)) {
+        if (hasValue)
+          i++;
+        continue;
+      }
+      options.add(opt);
+    }
+    return options;
+  }
+
+  /**
+   * Cuts and joins segments of one input track without re-encoding it. All segments are read through the concat demuxer
+   * using in and out points, so the whole edit is a single ffmpeg run writing one output per profile. Since the streams
+   * are copied, cuts snap to the keyframe before each in point. Other output options of the profiles like the container
+   * format or muxer flags are kept.
+   *
+   * @param input
+   *          - the source track
+   * @param clips
+   *          - the segments to keep, in playback order
+   * @param profiles
+   *          - stream copy profiles, one output each
+   * @param params
+   *          - parameters shared by all profiles
+   * @param hasVideo
+   *          - has video, from inspection
+   * @param hasAudio
+   *          - has audio
+   * @return the edited tracks
+   * @throws EncoderException
+   *           - if it fails
+   */
+  private List<File> streamCopyTrimConcat(File input, List<VideoClip> clips, List<EncodingProfile> profiles,
+          Map<String, String> params, boolean hasVideo, boolean hasAudio) throws EncoderException {
+    DecimalFormatSymbols ffmpegFormat = new DecimalFormatSymbols();
+    ffmpegFormat.setDecimalSeparator('.');
+    DecimalFormat f = new DecimalFormat("0.000", ffmpegFormat);
+    final File list = new File(input.getAbsoluteFile().getParentFile(),
+            FilenameUtils.getBaseName(input.getName()) + "_" + UUID.randomUUID().toString() + ".ffconcat");
+    try {
+      List<String> lines = new ArrayList<>(clips.size() * 3 + 1);
+      lines.add("ffconcat version 1.0");
+      for (VideoClip clip : clips) {
+        lines.add("file '" + input.getAbsolutePath().replace("'", "'\\''") + "'");
+        lines.add("inpoint " + f.format(clip.getStart()));
+        lines.add("outpoint " + f.format(clip.getEnd()));
+      }
+      FileUtils.writeLines(list, "UTF-8", lines);
+
+      List<String> command = new ArrayList<>();
+      command.add("-nostats");
+      command.add("-hide_banner");
+      command.add("-f");
+      command.add("concat");
+      command.add("-safe");
+      command.add("0");
+      command.add("-i");
+      command.add(list.getAbsolutePath());
+      for (EncodingProfile profile : profiles) {
+        params.put("out.name", params.get("out.name.base") + "_" + IdImpl.fromUUID().toString());
+        params.put("out.suffix", processParameters(profile.getSuffix(), params));
+        String[] arguments = CommandLineUtils.translateCommandline(
+                processParameters(profile.getExtension(CMD_SUFFIX), params));
+        List<String> cmdToken = Arrays.asList(arguments);
+        if (hasVideo && !cmdToken.contains("-vn")) {
+          command.add("-map");
+          command.add("0:v?");
+        }
+        if (hasAudio && !cmdToken.contains("-an")) {
+          command.add("-map");
+          command.add("0:a?");
+        }
+        command.add("-c");
+        command.add("copy");
+        command.add("-avoid_negative_ts");
+        command.add("make_zero");
+        command.addAll(getStreamCopyOutputOptions(cmdToken));
+        command.add(cmdToken.get(cmdToken.size() - 1)); // output file
+      }
+      return process(command, profiles.size());
+    } catch (EncoderException e) {
+      throw e;
+    } catch (Exception e) {
+      logger.error("Stream copy of edited segments failed: {}", e.getMessage());
+      throw new EncoderException("Cannot cut the inputs", e);
+    } finally {
+      FileUtils.deleteQuietly(list);
+    }
+  }
+
   private Map<String, String> getParamsFromFile(File parentFile) {
     Map<String, String> params = new HashMap<>();
+    params.put("threads", Integer.toString(threads));
     String videoInput = FilenameUtils.normalize(parentFile.getAbsolutePath());
     params.put("in.video.path", videoInput);
     params.put("in.video.name", FilenameUtils.getBaseName(videoInput));
@@ -1368,6 +1822,13 @@ public class EncoderEngine implements AutoCloseable {
     if (edits == null && inputs.size() > 1) {
       throw new IllegalArgumentException("If there is no editing, only one track can be specified.");
     }
+    // Cutting a single track for stream copy profiles only needs the concat demuxer, not a filter graph
+    boolean streamCopy = edits != null && !edits.isEmpty() && isSingleSource(edits) && profiles != null
+            && !profiles.isEmpty() && profiles.stream().allMatch(EncoderEngine::isStreamCopy);
+    if (streamCopy && transitionDuration > 0) {
+      logger.info("Stream copy profiles cannot apply transitions, cutting without them");
+      transitionDuration = 0;
+    }
     List<VideoClip> clips = null;
     if (edits != null) {
       clips = new ArrayList<VideoClip>(edits.size() / 3);
@@ -1398,6 +1859,9 @@ public class EncoderEngine implements AutoCloseable {
       logger.error("Missing encoding profiles");
       throw new EncoderException("Missing encoding profile(s)");
     }
+    if (streamCopy) {
+      return streamCopyTrimConcat(inputs.get(clips.get(0).getSrc()), clips, profiles, params, hasVideo, hasAudio);
+    }
     try {
       List<String> command = new ArrayList<>();
       List<String> clauses = makeEdits(clips, transitionDuration, hasVideo, hasAudio); // map inputs into [ov]
@@ -1405,6 +1869,8 @@ public class EncoderEngine implements AutoCloseable {
       // Entry point for multiencode here, if edits is empty, then use raw channels instead of output from edits
       String videoOut = (clips == null) ? "[0:v]" : "[ov]";
       String audioOut = (clips == null) ? "[0:a]" : "[oa]";
+      // Every profile except an adaptive streaming group encodes one output
+      final int outputs = (int) profiles.stream().filter(p -> p.getExtension(ADAPTIVE_TYPE_SUFFIX) == null).count();
       OutputAggregate outmaps = new OutputAggregate(profiles, params, (hasVideo ? videoOut : null),
               (hasAudio ? audioOut : null)); // map outputs from ov and oa
       if (hasAudio) {
@@ -1430,7 +1896,7 @@ public class EncoderEngine implements AutoCloseable {
         command.addAll(commandSplit(outpad)); // split by space
       }
       if (outmaps.hasAdaptivePlaylist()) {
-        List<File> results = process(command); // Run the ffmpeg command
+        List<File> results = process(command, outputs); // Run the ffmpeg command
         // Sort list of segmented mp4s because the output segments are numbered
         List<File> segments = results.stream().filter(AdaptivePlaylist.isHLSFilePred.negate())
                 .collect(Collectors.toList());
@@ -1450,7 +1916,7 @@ public class EncoderEngine implements AutoCloseable {
         // Adjust the playlists to use new names
         return AdaptivePlaylist.hlsRenameAllFiles(results, renames);
       }
-      return process(command); // Run the ffmpeg command and return outputs
+      return process(command, outputs); // Run the ffmpeg command and return outputs
     } catch (Exception e) {
       logger.error("MultiTrimConcat failed to run command {} ", e.getMessage());
       throw new EncoderException("Cannot encode the inputs",e);
@@ -0,0 +1,236 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.composer.impl;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Progress of a single ffmpeg process, as reported by its <code>-progress</code> output.
+ */
+public class EncodingProgress {
+
+  /** Time stamps as used by ffmpeg, e.g. 00:01:02.345678 */
+  private static final Pattern TIME_PATTERN = Pattern.compile("(\\d+):(\\d{2}):(\\d{2}(?:\\.\\d+)?)");
+
+  /** The duration line ffmpeg prints for each input */
+  private static final Pattern DURATION_PATTERN = Pattern.compile("^Duration: ([^,]+),");
+
+  /** The resource usage ffmpeg reports if run with <code>-benchmark</code> */
+  private static final Pattern BENCH_TIME_PATTERN = Pattern.compile("utime=([\\d.]+)s stime=([\\d.]+)s");
+  private static final Pattern BENCH_RSS_PATTERN = Pattern.compile("maxrss=(\\d+)(?:kB|KiB)");
+
+  private final Long jobId;
+  private final String profile;
+  private final long started = System.currentTimeMillis();
+
+  private volatile long duration = -1L;
+  private volatile long frames = 0L;
+  private volatile long time = 0L;
+  private volatile double speed = 0.0;
+  private volatile boolean finished = false;
+  private volatile long cpuTime = -1L;
+  private volatile long maxRss = -1L;
+
+  /**
+   * Creates a new progress for an encoding.
+   *
+   * @param jobId
+   *          the job the encoding is running for, may be <code>null</code>
+   * @param profile
+   *          the encoding profile or <code>null</code> for raw ffmpeg commands
+   */
+  EncodingProgress(Long jobId, String profile) {
+    this.jobId = jobId;
+    this.profile = profile;
+  }
+
+  /**
+   * Updates the progress from a line of ffmpeg output.
+   *
+   * @param line
+   *          the trimmed output line
+   * @return <code>true</code> if the line was part of the progress report
+   */
+  boolean update(String line) {
+    // Use the duration of the first input unless it has been set explicitly
+    if (duration < 0 && line.startsWith("Duration: ")) {
+      Matcher matcher = DURATION_PATTERN.matcher(line);
+      if (matcher.find())
+        duration = parseTime(matcher.group(1));
+      return false;
+    }
+    if (line.startsWith("bench: ")) {
+      Matcher matcher = BENCH_TIME_PATTERN.matcher(line);
+      if (matcher.find())
+        cpuTime = Math.round((Double.parseDouble(matcher.group(1)) + Double.parseDouble(matcher.group(2))) * 1000.0);
+      matcher = BENCH_RSS_PATTERN.matcher(line);
+      if (matcher.find())
+        maxRss = Long.parseLong(matcher.group(1));
+      return true;
+    }
+    int separator = line.indexOf('=');
+    if (separator <= 0)
+      return false;
+    String key = line.substring(0, separator);
+    String value = line.substring(separator + 1).trim();
+    try {
+      switch (key) {
+        case "frame":
+          frames = Long.parseLong(value);
+          return true;
+        case "out_time":
+          long outTime = parseTime(value);
+          if (outTime >= 0)
+            time = outTime;
+          return true;
+        case "speed":
+          if (value.endsWith("x"))
+            speed = Double.parseDouble(value.substring(0, value.length() - 1));
+          return true;
+        case "progress":
+          finished = "end".equals(value);
+          return true;
+        case "fps":
+        case "bitrate":
+        case "total_size":
+        case "out_time_us":
+        case "out_time_ms":
+        case "dup_frames":
+        case "drop_frames":
+          return true;
+        default:
+          // Per stream quality values such as stream_0_0_q
+          return key.startsWith("stream_");
+      }
+    } catch (NumberFormatException e) {
+      // ffmpeg reports N/A as long as a value is unknown
+      return true;
+    }
+  }
+
+  /** Sets the duration of the media to encode in milliseconds. */
+  void setDuration(long duration) {
+    this.duration = duration;
+  }
+
+  /** Returns the job the encoding is running for or <code>null</code>. */
+  public Long getJobId() {
+    return jobId;
+  }
+
+  /** Returns the encoding profile or <code>null</code> for raw ffmpeg commands. */
+  public String getProfile() {
+    return profile;
+  }
+
+  /** Returns the number of encoded frames. */
+  public long getFrames() {
+    return frames;
+  }
+
+  /** Returns the position in the media the encoding has reached in milliseconds. */
+  public long getTime() {
+    return time;
+  }
+
+  /** Returns the duration of the media in milliseconds or -1 if unknown. */
+  public long getDuration() {
+    return duration;
+  }
+
+  /** Returns the encoding speed relative to real time, 0 if unknown. */
+  public double getSpeed() {
+    return speed;
+  }
+
+  /** Returns the time the encoding has been running in milliseconds. */
+  public long getElapsed() {
+    return System.currentTimeMillis() - started;
+  }
+
+  /** Returns whether ffmpeg reported the end of the encoding. */
+  public boolean isFinished() {
+    return finished;
+  }
+
+  /** Returns the CPU time used by ffmpeg in milliseconds or -1 if it has not been reported. */
+  public long getCpuTime() {
+    return cpuTime;
+  }
+
+  /** Returns the peak memory usage of ffmpeg in kilobytes or -1 if it has not been reported. */
+  public long getMaxRss() {
+    return maxRss;
+  }
+
+  /** Returns the progress in percent or -1 if the duration is unknown. */
+  public double getPercentage() {
+    if (finished)
+      return 100.0;
+    if (duration <= 0)
+      return -1.0;
+    return Math.min(100.0, 100.0 * time / duration);
+  }
+
+  /** Returns the estimated remaining time in milliseconds or -1 if it cannot be estimated yet. */
+  public long getRemaining() {
+    if (finished)
+      return 0L;
+    if (duration <= 0 || speed <= 0)
+      return -1L;
+    return Math.max(0L, (long) ((duration - time) / speed));
+  }
+
+  /** Returns the progress as a map, suitable for serialization. */
+  public Map<String, Object> toMap() {
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put("job", jobId);
+    map.put("profile", profile);
+    map.put("frames", frames);
+    map.put("time", time);
+    map.put("duration", duration);
+    map.put("percentage", getPercentage());
+    map.put("speed", speed);
+    map.put("elapsed", getElapsed());
+    map.put("remaining", getRemaining());
+    return map;
+  }
+
+  @Override
+  public String toString() {
+    return String.format("job %s, profile %s: %.1f%% at %.2fx, %d ms remaining", jobId, profile, getPercentage(), speed,
+            getRemaining());
+  }
+
+  /** Parses an ffmpeg time stamp into milliseconds, -1 if it cannot be parsed. */
+  static long parseTime(String value) {
+    Matcher matcher = TIME_PATTERN.matcher(value.trim());
+    if (!matcher.matches())
+      return -1L;
+    return (Long.parseLong(matcher.group(1)) * 3600L + Long.parseLong(matcher.group(2)) * 60L) * 1000L
+            + Math.round(Double.parseDouble(matcher.group(3)) * 1000.0);
+  }
+
+}
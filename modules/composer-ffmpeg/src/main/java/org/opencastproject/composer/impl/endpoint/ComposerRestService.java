@@ -29,6 +29,8 @@ import org.opencastproject.composer.api.EncodingProfile;
 import org.opencastproject.composer.api.EncodingProfileImpl;
 import org.opencastproject.composer.api.EncodingProfileList;
 import org.opencastproject.composer.api.LaidOutElement;
+import org.opencastproject.composer.impl.EncodingProgress;
+import org.opencastproject.composer.impl.jmx.EncodingStatistics;
 import org.opencastproject.composer.layout.Dimension;
 import org.opencastproject.composer.layout.Layout;
 import org.opencastproject.composer.layout.Serializer;
@@ -54,6 +56,8 @@ import org.opencastproject.util.doc.rest.RestQuery;
 import org.opencastproject.util.doc.rest.RestResponse;
 import org.opencastproject.util.doc.rest.RestService;
 
+import com.google.gson.Gson;
+
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.math.NumberUtils;
 import org.osgi.service.component.ComponentContext;
@@ -66,6 +70,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import javax.servlet.http.HttpServletResponse;
 import javax.ws.rs.DefaultValue;
@@ -143,6 +148,9 @@ public class ComposerRestService extends AbstractJobProducerEndpoint {
   /** The composer service */
   protected ComposerService composerService = null;
 
+  /** The statistics of the encodings running on this node */
+  protected EncodingStatistics encodingStatistics = null;
+
   /** The service registry */
   protected ServiceRegistry serviceRegistry = null;
 
@@ -176,6 +184,17 @@ public class ComposerRestService extends AbstractJobProducerEndpoint {
     this.composerService = composerService;
   }
 
+  /**
+   * Sets the statistics of the encodings running on this node.
+   *
+   * @param encodingStatistics
+   *          the encoding statistics
+   */
+  @Reference(name = "encodingStatistics")
+  public void setEncodingStatistics(EncodingStatistics encodingStatistics) {
+    this.encodingStatistics = encodingStatistics;
+  }
+
   /**
    * Callback from OSGi that is called when this service is activated.
    *
@@ -930,6 +949,25 @@ public class ComposerRestService extends AbstractJobProducerEndpoint {
     return Response.ok(profile).build();
   }
 
+  @GET
+  @Path("progress/{jobId}.json")
+  @Produces(MediaType.APPLICATION_JSON)
+  @RestQuery(name = "progress", description = "Returns the progress of the encodings a job is running on this node", pathParameters = { @RestParameter(name = "jobId", description = "the job ID", isRequired = true, type = RestParameter.Type.INTEGER) }, responses = {
+          @RestResponse(description = "Results in a JSON list describing the progress of each running encoding", responseCode = HttpServletResponse.SC_OK),
+          @RestResponse(description = "If the job is not encoding on this node", responseCode = HttpServletResponse.SC_NOT_FOUND) }, returnDescription = "")
+  public Response getProgress(@PathParam("jobId") long jobId) throws NotFoundException {
+    List<Map<String, Object>> result = new ArrayList<>();
+    for (EncodingProgress progress : encodingStatistics.getProgress(jobId)) {
+      Map<String, Object> map = progress.toMap();
+      if (progress.getProfile() != null)
+        map.put("averageSpeed", encodingStatistics.getAverageSpeed(progress.getProfile()));
+      result.add(map);
+    }
+    if (result.isEmpty())
+      throw new NotFoundException();
+    return Response.ok(new Gson().toJson(result)).build();
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -0,0 +1,160 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.composer.impl.jmx;
+
+import org.opencastproject.composer.impl.EncodingProgress;
+import org.opencastproject.util.jmx.JmxUtil;
+
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.management.ObjectInstance;
+
+/**
+ * Keeps track of the running encodings and of the speed measured for each encoding profile on this node.
+ */
+@Component(
+  property = {
+    "service.description=Encoding Statistics"
+  },
+  immediate = true,
+  service = EncodingStatistics.class
+)
+public class EncodingStatistics implements EncodingStatisticsMXBean {
+
+  /** Weight of the most recent measurement in the average speed */
+  private static final double SMOOTHING = 0.2;
+
+  private final Set<EncodingProgress> running = ConcurrentHashMap.newKeySet();
+
+  private final Map<String, Double> speedByProfile = new ConcurrentHashMap<>();
+
+  /** The JMX registration of the statistics */
+  private ObjectInstance registeredMXBean = null;
+
+  /**
+   * OSGi callback on component activation.
+   */
+  @Activate
+  void activate() {
+    registeredMXBean = JmxUtil.registerMXBean(this, "EncodingStatistics");
+  }
+
+  /**
+   * OSGi callback on component deactivation.
+   */
+  @Deactivate
+  void deactivate() {
+    if (registeredMXBean != null)
+      JmxUtil.unregisterMXBean(registeredMXBean);
+  }
+
+  /**
+   * @see org.opencastproject.composer.impl.jmx.EncodingStatisticsMXBean#getRunningEncodings()
+   */
+  @Override
+  public int getRunningEncodings() {
+    return running.size();
+  }
+
+  /**
+   * @see org.opencastproject.composer.impl.jmx.EncodingStatisticsMXBean#getEncodingProgress()
+   */
+  @Override
+  public List<String> getEncodingProgress() {
+    List<String> progress = new ArrayList<>();
+    for (EncodingProgress encoding : running) {
+      progress.add(encoding.toString());
+    }
+    return progress;
+  }
+
+  /**
+   * @see org.opencastproject.composer.impl.jmx.EncodingStatisticsMXBean#getAverageSpeedByProfile()
+   */
+  @Override
+  public Map<String, Double> getAverageSpeedByProfile() {
+    return new TreeMap<>(speedByProfile);
+  }
+
+  /**
+   * Returns the average speed measured for an encoding profile.
+   *
+   * @param profile
+   *          the encoding profile
+   * @return the average speed relative to real time or <code>null</code> if the profile has not been used yet
+   */
+  public Double getAverageSpeed(String profile) {
+    return speedByProfile.get(profile);
+  }
+
+  /**
+   * Returns the progress of the encodings running for a job.
+   *
+   * @param jobId
+   *          the job identifier
+   * @return the progress of the job's encodings
+   */
+  public List<EncodingProgress> getProgress(long jobId) {
+    List<EncodingProgress> progress = new ArrayList<>();
+    for (EncodingProgress encoding : running) {
+      if (encoding.getJobId() != null && encoding.getJobId() == jobId)
+        progress.add(encoding);
+    }
+    return progress;
+  }
+
+  /**
+   * Registers a starting encoding.
+   *
+   * @param progress
+   *          the progress of the encoding
+   */
+  public void started(EncodingProgress progress) {
+    running.add(progress);
+  }
+
+  /**
+   * Unregisters an encoding and, if it was successful, records its speed.
+   *
+   * @param progress
+   *          the progress of the encoding
+   * @param successful
+   *          whether the encoding has been successful
+   */
+  public void finished(EncodingProgress progress, boolean successful) {
+    running.remove(progress);
+    if (successful && progress.getProfile() != null && progress.getSpeed() > 0) {
+      speedByProfile.merge(progress.getProfile(), progress.getSpeed(),
+              (average, speed) -> (1 - SMOOTHING) * average + SMOOTHING * speed);
+    }
+  }
+
+}
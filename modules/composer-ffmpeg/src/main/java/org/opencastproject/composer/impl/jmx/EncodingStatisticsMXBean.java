@@ -0,0 +1,53 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.composer.impl.jmx;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * JMX Bean interface exposing encoding statistics.
+ */
+public interface EncodingStatisticsMXBean {
+
+  /**
+   * Gets the number of encodings currently running on this node
+   *
+   * @return the number of running encodings
+   */
+  int getRunningEncodings();
+
+  /**
+   * Gets the progress of the encodings currently running on this node
+   *
+   * @return one description per running encoding
+   */
+  List<String> getEncodingProgress();
+
+  /**
+   * Gets the average encoding speed relative to real time, by encoding profile
+   *
+   * @return the average speed of each encoding profile used on this node
+   */
+  Map<String, Double> getAverageSpeedByProfile();
+
+}
@@ -22,6 +22,8 @@ package org.opencastproject.composer.impl;
 
 import static org.easymock.EasyMock.anyBoolean;
 import static org.easymock.EasyMock.capture;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
 import org.opencastproject.composer.api.EncoderException;
@@ -288,6 +290,7 @@ public class ComplexCmdsEncoderEngineTest {
               job.setPayload(composerService.process(job));
               return job;
             }).anyTimes();
+    EasyMock.expect(serviceRegistry.getCurrentJob()).andReturn(null).anyTimes();
     EasyMock.replay(serviceRegistry);
 
     // Create and populate the composer service
@@ -318,6 +321,39 @@ public class ComplexCmdsEncoderEngineTest {
   }
 
 
+  @Test
+  public void testSegmentAndConcat() throws Exception {
+    List<File> segments = engine.segment(sourceAudioVideoLarger, 1);
+    try {
+      assertTrue(segments.size() > 1);
+      for (File segment : segments) {
+        assertTrue(segment.isFile());
+      }
+      File joined = engine.concatSegments(segments, null);
+      assertTrue(joined.isFile());
+      assertTrue(joined.getName().endsWith(".mp4"));
+      FileUtils.deleteQuietly(joined);
+    } finally {
+      FileUtils.deleteQuietly(segments.get(0).getParentFile());
+    }
+  }
+
+  @Test
+  public void testSegmentAndConcatWithAudio() throws Exception {
+    List<File> segments = engine.segment(sourceAudioVideoLarger, 1);
+    File audio = null;
+    try {
+      audio = engine.encodeAudio(sourceAudioVideoLarger, profileScanner.getProfile("h264-lbr.http"));
+      assertTrue(audio.isFile());
+      File joined = engine.concatSegments(segments, audio);
+      assertTrue(joined.isFile());
+      FileUtils.deleteQuietly(joined);
+    } finally {
+      FileUtils.deleteQuietly(audio);
+      FileUtils.deleteQuietly(segments.get(0).getParentFile());
+    }
+  }
+
   @Test
   public void testConcatEdit() throws Exception {
     URL sourceUrl = getClass().getResource("/audiovideo.mov");
@@ -560,6 +596,51 @@ public class ComplexCmdsEncoderEngineTest {
     }
   }
 
+  @Test
+  public void testMultiTrimConcatStreamCopy() throws EncoderException {
+    if (!ffmpegInstalled)
+      return;
+    EncodingProfile copyProfile = profileScanner.getProfile("av.work");
+    assertTrue(EncoderEngine.isStreamCopy(copyProfile));
+    assertFalse(EncoderEngine.isStreamCopy(profileScanner.getProfile("h264-low.http")));
+    List<Long> edits = new ArrayList<Long>();
+    edits.add((long) 0);
+    edits.add((long) 0);
+    edits.add((long) 3000);
+    edits.add((long) 0);
+    edits.add((long) 5000);
+    edits.add((long) 8000);
+
+    // Transitions are ignored when the streams are copied
+    List<File> outputs = engine.multiTrimConcat(Arrays.asList(sourceAudioVideo), edits,
+            Arrays.asList(copyProfile), 2000, true, true);
+    assertEquals(1, outputs.size());
+    assertTrue(outputs.get(0).exists());
+    assertTrue(outputs.get(0).length() > 0);
+    assertTrue(outputs.get(0).length() < sourceAudioVideo.length());
+  }
+
+  @Test
+  public void testCountOutputs() {
+    assertEquals(1, EncoderEngine.countOutputs("-i #{in.video.path} -c copy #{out.dir}/#{out.name}#{out.suffix}"));
+    assertEquals(2, EncoderEngine.countOutputs("-i #{in.video.path} -s 320x240 #{out.dir}/#{out.name}#{out.suffix.low}"
+            + " -s 640x480 #{out.dir}/#{out.name}#{out.suffix.high}"));
+    // HLS segments and playlist names are not outputs of their own
+    assertEquals(1, EncoderEngine.countOutputs("-f hls -hls_segment_filename #{out.dir}/segment_%v.mp4"
+            + " -master_pl_name #{out.name}#{out.suffix} #{out.dir}/variant_%v.m3u8"));
+  }
+
+  @Test
+  public void testStreamCopyOutputOptions() {
+    List<String> cmdToken = Arrays.asList("-strict", "unofficial", "-i", "in.mp4", "-ss", "5", "-t", "10", "-map",
+            "0:v:0", "-c:v", "copy", "-c:a", "copy", "-f", "mp4", "-movflags", "+faststart", "-metadata",
+            "title=edited", "out.mp4");
+    assertEquals(Arrays.asList("-f", "mp4", "-movflags", "+faststart", "-metadata", "title=edited"),
+            EncoderEngine.getStreamCopyOutputOptions(cmdToken));
+    cmdToken = Arrays.asList("-i", "in.mp4", "-shortest", "-c", "copy", "out.mp4");
+    assertEquals(Arrays.asList("-shortest"), EncoderEngine.getStreamCopyOutputOptions(cmdToken));
+  }
+
   // Test Audio Only
   @Test
   public void testMultiEncodeHLS2ProfilesA() throws Exception {
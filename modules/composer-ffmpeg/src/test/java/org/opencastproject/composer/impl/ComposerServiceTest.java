@@ -236,6 +236,7 @@ public class ComposerServiceTest {
               job.setPayload(composerService.process(job));
               return job;
             }).anyTimes();
+    EasyMock.expect(serviceRegistry.getCurrentJob()).andReturn(null).anyTimes();
     composerService.setServiceRegistry(serviceRegistry);
     composerService.setProfileScanner(profileScanner);
     composerService.setWorkspace(workspace);
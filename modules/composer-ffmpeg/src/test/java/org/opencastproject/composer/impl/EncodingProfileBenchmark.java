@@ -0,0 +1,247 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.composer.impl;
+
+import org.opencastproject.composer.api.EncodingProfile;
+import org.opencastproject.util.NativeProcessBudget;
+import org.opencastproject.util.data.Collections;
+import org.opencastproject.util.data.Tuple;
+
+import com.google.gson.GsonBuilder;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Assume;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Measures the cost of the encoding profiles by running them against generated reference clips.
+ * <p>
+ * For each profile and clip, the wall time, the CPU time and the peak memory usage of ffmpeg as well as the bitrate of
+ * the output are recorded. The ratio of CPU time to wall time is the number of cores an encoding keeps busy, which is
+ * what a job load is meant to express. The highest ratio across all clips is reported as the recommended
+ * <code>jobload</code> of the profile on the machine the benchmark is running on.
+ * <p>
+ * The reference clips are synthesized by ffmpeg, so results are comparable between nodes. The benchmark is not part of
+ * the regular build. Run it using:
+ *
+ * <pre>
+ * mvn test -Dtest=EncodingProfileBenchmark -Dcomposer.benchmark=true
+ * </pre>
+ *
+ * The following system properties can be used to configure the benchmark:
+ * <ul>
+ * <li><code>composer.benchmark.profiles</code>: directory containing the encoding profiles (default: etc/encoding)</li>
+ * <li><code>composer.benchmark.filter</code>: regular expression the profile identifiers have to match</li>
+ * <li><code>composer.benchmark.clips</code>: clips as comma separated <code>WIDTHxHEIGHT@SECONDS</code> (default:
+ * 640x360@30,1280x720@30,1920x1080@30)</li>
+ * <li><code>composer.benchmark.report</code>: the JSON report to write (default: target/encoding-benchmark.json)</li>
+ * </ul>
+ */
+public class EncodingProfileBenchmark {
+
+  /** Logging facility */
+  private static final Logger logger = LoggerFactory.getLogger(EncodingProfileBenchmark.class);
+
+  /** FFmpeg binary location */
+  private static final String FFMPEG_BINARY = "ffmpeg";
+
+  private static final Pattern CLIP_PATTERN = Pattern.compile("(\\d+)x(\\d+)@(\\d+)");
+
+  /** File pointer to the working directory */
+  private static final File workingDirectory = new File("target", "benchmark");
+
+  /** The ffmpeg version used for the benchmark */
+  private static String ffmpegVersion = null;
+
+  @BeforeClass
+  public static void testForFFmpeg() {
+    Assume.assumeTrue(Boolean.getBoolean("composer.benchmark"));
+    try {
+      Process p = new ProcessBuilder(FFMPEG_BINARY, "-version").redirectErrorStream(true).start();
+      try (BufferedReader in = new BufferedReader(new InputStreamReader(p.getInputStream(), StandardCharsets.UTF_8))) {
+        ffmpegVersion = in.readLine();
+        while (in.readLine() != null) {
+          // drain
+        }
+      }
+      if (p.waitFor() != 0)
+        throw new IllegalStateException();
+    } catch (Throwable t) {
+      logger.warn("Skipping encoding profile benchmark due to missing ffmpeg");
+      Assume.assumeNoException(t);
+    }
+  }
+
+  @Test
+  public void benchmark() throws Exception {
+    final File profileDir = new File(System.getProperty("composer.benchmark.profiles", "../../etc/encoding"));
+    final Pattern filter = Pattern.compile(System.getProperty("composer.benchmark.filter", ".*"));
+    final File report = new File(System.getProperty("composer.benchmark.report", "target/encoding-benchmark.json"));
+    FileUtils.forceMkdir(workingDirectory);
+
+    // Load the profiles which encode a single video
+    Map<String, EncodingProfile> profiles = new TreeMap<>();
+    File[] profileFiles = profileDir.listFiles((dir, name) -> name.endsWith(".properties"));
+    if (profileFiles == null)
+      throw new IllegalArgumentException("No encoding profiles found in " + profileDir.getAbsolutePath());
+    EncodingProfileScanner scanner = new EncodingProfileScanner();
+    for (File file : profileFiles) {
+      for (EncodingProfile profile : scanner.loadFromProperties(file).values()) {
+        String command = profile.getExtension(EncoderEngine.CMD_SUFFIX);
+        if (filter.matcher(profile.getIdentifier()).matches() && command != null
+                && command.contains("#{in.video.path}") && !command.contains("#{in.audio.path}")) {
+          profiles.put(profile.getIdentifier(), profile);
+        }
+      }
+    }
+
+    // Create the reference clips
+    List<Map<String, Object>> clips = new ArrayList<>();
+    Map<String, File> clipFiles = new LinkedHashMap<>();
+    for (String clip : System.getProperty("composer.benchmark.clips", "640x360@30,1280x720@30,1920x1080@30")
+            .split(",")) {
+      Matcher matcher = CLIP_PATTERN.matcher(clip.trim());
+      if (!matcher.matches())
+        throw new IllegalArgumentException("Invalid clip definition " + clip);
+      String size = matcher.group(1) + "x" + matcher.group(2);
+      int duration = Integer.parseInt(matcher.group(3));
+      File file = createClip(size, duration);
+      clipFiles.put(clip.trim(), file);
+      Map<String, Object> description = new LinkedHashMap<>();
+      description.put("clip", clip.trim());
+      description.put("size", size);
+      description.put("duration", duration);
+      clips.add(description);
+    }
+
+    // Run the profiles
+    List<Map<String, Object>> results = new ArrayList<>();
+    for (EncodingProfile profile : profiles.values()) {
+      List<Map<String, Object>> runs = new ArrayList<>();
+      double maxLoad = 0.0;
+      for (Map.Entry<String, File> clip : clipFiles.entrySet()) {
+        Map<String, Object> run = run(profile, clip.getKey(), clip.getValue());
+        if (run.containsKey("load"))
+          maxLoad = Math.max(maxLoad, (Double) run.get("load"));
+        runs.add(run);
+      }
+      Map<String, Object> result = new LinkedHashMap<>();
+      result.put("profile", profile.getIdentifier());
+      result.put("name", profile.getName());
+      result.put("configuredLoad", profile.getJobLoad());
+      if (maxLoad > 0)
+        result.put("recommendedLoad", Math.max(0.1, Math.ceil(maxLoad * 10.0) / 10.0));
+      result.put("runs", runs);
+      results.add(result);
+      logger.info("Profile {}: configured load {}, recommended load {}", profile.getIdentifier(),
+              profile.getJobLoad(), result.get("recommendedLoad"));
+    }
+
+    Map<String, Object> node = new LinkedHashMap<>();
+    node.put("cores", Runtime.getRuntime().availableProcessors());
+    node.put("os", System.getProperty("os.name") + " " + System.getProperty("os.version"));
+    node.put("arch", System.getProperty("os.arch"));
+    node.put("ffmpeg", ffmpegVersion);
+
+    Map<String, Object> json = new LinkedHashMap<>();
+    json.put("node", node);
+    json.put("clips", clips);
+    json.put("profiles", results);
+    FileUtils.write(report, new GsonBuilder().setPrettyPrinting().create().toJson(json), StandardCharsets.UTF_8);
+    logger.info("Wrote encoding profile benchmark report to {}", report.getAbsolutePath());
+  }
+
+  /**
+   * Runs an encoding profile on a clip and measures its cost.
+   */
+  private Map<String, Object> run(EncodingProfile profile, String clip, File source) {
+    Map<String, Object> run = new LinkedHashMap<>();
+    run.put("clip", clip);
+    Map<String, String> params = new HashMap<>();
+    params.put("time", "1.0");
+    try (EncoderEngine engine = new EncoderEngine(FFMPEG_BINARY)) {
+      engine.setBenchmark(true);
+      engine.setThreads(NativeProcessBudget.getMaxThreads());
+      long start = System.nanoTime();
+      List<File> output = engine.process(Collections.map(Tuple.tuple("video", source)), profile, params);
+      long wallTime = (System.nanoTime() - start) / 1000000L;
+      EncodingProgress progress = engine.getProgress();
+      long size = 0L;
+      for (File file : output) {
+        size += file.length();
+        FileUtils.deleteQuietly(file);
+      }
+      run.put("wallTime", wallTime);
+      run.put("cpuTime", progress.getCpuTime());
+      run.put("maxRss", progress.getMaxRss());
+      run.put("outputSize", size);
+      if (progress.getDuration() > 0)
+        run.put("outputBitrate", size * 8L * 1000L / progress.getDuration());
+      if (progress.getCpuTime() >= 0 && wallTime > 0)
+        run.put("load", (double) progress.getCpuTime() / wallTime);
+    } catch (Exception e) {
+      logger.warn("Profile {} failed on clip {}: {}", profile.getIdentifier(), clip, e.getMessage());
+      run.put("error", e.getMessage());
+    }
+    return run;
+  }
+
+  /**
+   * Creates a reference clip with a synthetic video and audio signal.
+   */
+  private File createClip(String size, int duration) throws Exception {
+    File clip = new File(workingDirectory, "clip-" + size + "-" + duration + "s.mp4");
+    if (clip.isFile())
+      return clip;
+    Process process = new ProcessBuilder(FFMPEG_BINARY, "-nostdin", "-nostats", "-y",
+            "-f", "lavfi", "-i", "testsrc2=size=" + size + ":rate=25:duration=" + duration,
+            "-f", "lavfi", "-i", "sine=frequency=440:duration=" + duration,
+            "-c:v", "libx264", "-preset", "veryfast", "-pix_fmt", "yuv420p", "-c:a", "aac", "-shortest",
+            clip.getAbsolutePath()).redirectErrorStream(true).start();
+    try (BufferedReader in = new BufferedReader(new InputStreamReader(process.getInputStream(),
+            StandardCharsets.UTF_8))) {
+      while (in.readLine() != null) {
+        // drain
+      }
+    }
+    if (process.waitFor() != 0 || !clip.isFile())
+      throw new IllegalStateException("Unable to create reference clip " + clip);
+    return clip;
+  }
+
+}
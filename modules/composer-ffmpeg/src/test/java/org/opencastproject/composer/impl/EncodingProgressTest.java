@@ -0,0 +1,83 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.composer.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+public class EncodingProgressTest {
+
+  @Test
+  public void testParseTime() {
+    assertEquals(3723500L, EncodingProgress.parseTime("01:02:03.500000"));
+    assertEquals(10000L, EncodingProgress.parseTime("00:00:10.00"));
+    assertEquals(-1L, EncodingProgress.parseTime("N/A"));
+  }
+
+  @Test
+  public void testProgressReport() {
+    EncodingProgress progress = new EncodingProgress(42L, "mp4-preview");
+    assertEquals(-1.0, progress.getPercentage(), 0.0);
+    assertEquals(-1L, progress.getRemaining());
+
+    assertFalse(progress.update("Duration: 00:01:40.00, start: 0.000000, bitrate: 1205 kb/s"));
+    assertFalse(progress.update("Stream #0:0(und): Video: h264"));
+    assertTrue(progress.update("frame=250"));
+    assertTrue(progress.update("fps=50.00"));
+    assertTrue(progress.update("stream_0_0_q=28.0"));
+    assertTrue(progress.update("out_time=00:00:10.000000"));
+    assertTrue(progress.update("speed=2.5x"));
+    assertTrue(progress.update("progress=continue"));
+
+    assertEquals(100000L, progress.getDuration());
+    assertEquals(250L, progress.getFrames());
+    assertEquals(10.0, progress.getPercentage(), 0.001);
+    assertEquals(36000L, progress.getRemaining());
+
+    assertTrue(progress.update("speed=N/A"));
+    assertTrue(progress.update("progress=end"));
+    assertEquals(100.0, progress.getPercentage(), 0.0);
+    assertEquals(0L, progress.getRemaining());
+  }
+
+  @Test
+  public void testBenchmarkReport() {
+    EncodingProgress progress = new EncodingProgress(null, "mp4-preview");
+    assertEquals(-1L, progress.getCpuTime());
+    assertTrue(progress.update("bench: utime=12.500s stime=0.750s rtime=5.000s"));
+    assertTrue(progress.update("bench: maxrss=204800kB"));
+    assertEquals(13250L, progress.getCpuTime());
+    assertEquals(204800L, progress.getMaxRss());
+  }
+
+  @Test
+  public void testDurationOfFirstInput() {
+    EncodingProgress progress = new EncodingProgress(null, null);
+    progress.update("Duration: 00:00:30.00, start: 0.000000, bitrate: 128 kb/s");
+    progress.update("Duration: 00:01:00.00, start: 0.000000, bitrate: 128 kb/s");
+    assertEquals(30000L, progress.getDuration());
+  }
+
+}
@@ -287,6 +287,7 @@ public class ProcessSmilTest {
               job.setPayload(composerService.process(job));
               return job;
             }).anyTimes();
+    EasyMock.expect(serviceRegistry.getCurrentJob()).andReturn(null).anyTimes();
     EasyMock.expect(serviceRegistry.incident()).andAnswer(() -> {
         Incidents incidents = new Incidents(serviceRegistry, incidentService);
         return incidents;
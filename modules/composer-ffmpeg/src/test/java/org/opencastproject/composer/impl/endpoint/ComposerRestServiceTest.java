@@ -26,6 +26,7 @@ import org.opencastproject.composer.api.ComposerService;
 import org.opencastproject.composer.api.EncodingProfile;
 import org.opencastproject.composer.api.EncodingProfileImpl;
 import org.opencastproject.composer.api.EncodingProfileList;
+import org.opencastproject.composer.impl.jmx.EncodingStatistics;
 import org.opencastproject.composer.layout.Dimension;
 import org.opencastproject.composer.layout.Serializer;
 import org.opencastproject.job.api.JaxbJob;
@@ -114,6 +115,7 @@ public class ComposerRestServiceTest {
     // Set up the rest endpoint
     restService = new ComposerRestService();
     restService.setComposerService(composer);
+    restService.setEncodingStatistics(new EncodingStatistics());
     restService.activate(null);
   }
 
@@ -143,6 +145,11 @@ public class ComposerRestServiceTest {
     Assert.assertEquals(new JaxbJob(job), response.getEntity());
   }
 
+  @Test(expected = NotFoundException.class)
+  public void testProgressOfJobNotEncoding() throws Exception {
+    restService.getProgress(job.getId());
+  }
+
   @Test
   public void testMux() throws Exception {
     Response response = restService.mux(generateAudioTrack(), generateVideoTrack(), profileId);
@@ -22,17 +22,45 @@
 package org.opencastproject.distribution.api;
 
 import org.opencastproject.job.api.AbstractJobProducer;
+import org.opencastproject.mediapackage.MediaPackageElement;
+import org.opencastproject.security.api.Organization;
 import org.opencastproject.security.api.OrganizationDirectoryService;
 import org.opencastproject.security.api.SecurityService;
 import org.opencastproject.security.api.TrustedHttpClient;
+import org.opencastproject.security.api.User;
 import org.opencastproject.security.api.UserDirectoryService;
 import org.opencastproject.serviceregistry.api.ServiceRegistry;
 import org.opencastproject.workspace.api.Workspace;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Dictionary;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 public abstract class AbstractDistributionService extends AbstractJobProducer {
 
+  /** The logger */
+  private static final Logger logger = LoggerFactory.getLogger(AbstractDistributionService.class);
+
+  /** Configuration key for the number of elements of a job which are distributed concurrently */
+  public static final String DISTRIBUTION_PARALLELISM_KEY = "distribution.parallelism";
+
+  /** The default number of elements of a job which are distributed concurrently */
+  public static final int DEFAULT_DISTRIBUTION_PARALLELISM = 4;
+
+  /** The number of elements of a job which are distributed concurrently */
+  protected int distributionParallelism = DEFAULT_DISTRIBUTION_PARALLELISM;
+
   /** Path to the distribution directory */
   protected File distributionDirectory = null;
 
@@ -63,6 +91,118 @@ public abstract class AbstractDistributionService extends AbstractJobProducer {
     super(jobType);
   }
 
+  /**
+   * Distributes a single element.
+   *
+   * @param <A>
+   *          the element type
+   */
+  @FunctionalInterface
+  protected interface ElementDistribution<A> {
+    MediaPackageElement distribute(A element) throws DistributionException;
+  }
+
+  /**
+   * Reads the number of elements of a job to distribute concurrently from the service configuration.
+   *
+   * @param properties
+   *          the service configuration, may be <code>null</code>
+   */
+  protected void updateDistributionParallelism(@SuppressWarnings("rawtypes") Dictionary properties) {
+    Object value = properties == null ? null : properties.get(DISTRIBUTION_PARALLELISM_KEY);
+    distributionParallelism = DEFAULT_DISTRIBUTION_PARALLELISM;
+    if (value != null) {
+      try {
+        distributionParallelism = Math.max(1, Integer.parseInt(value.toString().trim()));
+      } catch (NumberFormatException e) {
+        logger.warn("Invalid configuration for {}: {}", DISTRIBUTION_PARALLELISM_KEY, value);
+      }
+    }
+    logger.debug("Distributing up to {} elements of a job concurrently", distributionParallelism);
+  }
+
+  /**
+   * Distributes elements using up to {@link #distributionParallelism} threads, each of them running in the security
+   * context of the calling thread. If an element fails, the elements not yet started are skipped and the failure of the
+   * first element in order is thrown once the running distributions have finished. The elements distributed until then
+   * are only logged, they are not returned.
+   *
+   * @param elements
+   *          the elements to distribute
+   * @param distribution
+   *          the distribution of a single element
+   * @return the distributed elements in the order of <code>elements</code>
+   * @throws DistributionException
+   *           if the distribution of an element fails
+   */
+  protected <A> List<MediaPackageElement> distributeConcurrently(Collection<A> elements,
+          ElementDistribution<A> distribution) throws DistributionException {
+    final List<MediaPackageElement> distributed = new ArrayList<>(elements.size());
+    if (elements.isEmpty())
+      return distributed;
+    if (distributionParallelism <= 1 || elements.size() == 1) {
+      for (A element : elements) {
+        distributed.add(distribution.distribute(element));
+      }
+      return distributed;
+    }
+
+    final Organization organization = securityService.getOrganization();
+    final User user = securityService.getUser();
+    final AtomicInteger completed = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(Math.min(distributionParallelism, elements.size()));
+    try {
+      final List<Future<MediaPackageElement>> futures = new ArrayList<>(elements.size());
+      for (A element : elements) {
+        futures.add(executor.submit(() -> {
+          securityService.setOrganization(organization);
+          securityService.setUser(user);
+          try {
+            final MediaPackageElement result = distribution.distribute(element);
+            completed.incrementAndGet();
+            return result;
+          } finally {
+            securityService.setOrganization(null);
+            securityService.setUser(null);
+          }
+        }));
+      }
+
+      DistributionException failure = null;
+      for (Future<MediaPackageElement> future : futures) {
+        try {
+          distributed.add(future.get());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          futures.forEach(f -> f.cancel(true));
+          throw new DistributionException("Interrupted while distributing elements", e);
+        } catch (ExecutionException e) {
+          failure = e.getCause() instanceof DistributionException ? (DistributionException) e.getCause()
+                  : new DistributionException(e.getCause());
+          break;
+        }
+      }
+      if (failure != null) {
+        // Skip the elements not yet started and wait for the running ones
+        futures.forEach(f -> f.cancel(false));
+        executor.shutdown();
+        try {
+          executor.awaitTermination(Long.MAX_VALUE, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        logger.warn("Distribution failed, {} of {} elements have been distributed", completed.get(),
+                elements.size());
+        throw failure;
+      }
+      logger.debug("Distributed {} elements with up to {} concurrent distributions", elements.size(),
+              distributionParallelism);
+      return distributed;
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
   /**
    * Callback for the OSGi environment to set the workspace reference.
    *
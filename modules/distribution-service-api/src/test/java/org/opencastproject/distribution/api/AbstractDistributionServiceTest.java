@@ -0,0 +1,176 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.distribution.api;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.opencastproject.job.api.Job;
+import org.opencastproject.mediapackage.MediaPackageElement;
+import org.opencastproject.mediapackage.attachment.AttachmentImpl;
+import org.opencastproject.security.api.DefaultOrganization;
+import org.opencastproject.security.api.JaxbOrganization;
+import org.opencastproject.security.api.JaxbRole;
+import org.opencastproject.security.api.JaxbUser;
+import org.opencastproject.security.api.Organization;
+import org.opencastproject.security.api.SecurityService;
+import org.opencastproject.security.api.User;
+
+import org.easymock.EasyMock;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public class AbstractDistributionServiceTest {
+
+  private final ThreadLocal<Organization> organization = new ThreadLocal<>();
+  private final ThreadLocal<User> user = new ThreadLocal<>();
+
+  private TestDistributionService service;
+
+  /** A distribution service running the distributions of the tests. */
+  private static final class TestDistributionService extends AbstractDistributionService {
+    TestDistributionService() {
+      super("distribute");
+    }
+
+    @Override
+    protected String process(Job job) throws Exception {
+      return null;
+    }
+  }
+
+  @Before
+  public void setUp() {
+    // The security context is kept per thread like the one of the real security service
+    SecurityService securityService = EasyMock.createNiceMock(SecurityService.class);
+    EasyMock.expect(securityService.getOrganization()).andAnswer(organization::get).anyTimes();
+    EasyMock.expect(securityService.getUser()).andAnswer(user::get).anyTimes();
+    securityService.setOrganization(EasyMock.anyObject());
+    EasyMock.expectLastCall().andAnswer(() -> {
+      organization.set((Organization) EasyMock.getCurrentArguments()[0]);
+      return null;
+    }).anyTimes();
+    securityService.setUser(EasyMock.anyObject());
+    EasyMock.expectLastCall().andAnswer(() -> {
+      user.set((User) EasyMock.getCurrentArguments()[0]);
+      return null;
+    }).anyTimes();
+    EasyMock.replay(securityService);
+
+    service = new TestDistributionService();
+    service.setSecurityService(securityService);
+    service.distributionParallelism = 4;
+  }
+
+  private static MediaPackageElement createElement(String id) {
+    MediaPackageElement element = new AttachmentImpl();
+    element.setIdentifier(id);
+    return element;
+  }
+
+  private static List<String> getIdentifiers(List<MediaPackageElement> elements) {
+    List<String> ids = new ArrayList<>();
+    for (MediaPackageElement element : elements) {
+      ids.add(element.getIdentifier());
+    }
+    return ids;
+  }
+
+  @Test
+  public void testDistributionOrder() throws Exception {
+    List<Integer> elements = Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7);
+    List<MediaPackageElement> distributed = service.distributeConcurrently(elements, element -> {
+      // Later elements finish first
+      sleep(10 * (elements.size() - element));
+      return createElement(Integer.toString(element));
+    });
+
+    assertEquals(Arrays.asList("0", "1", "2", "3", "4", "5", "6", "7"), getIdentifiers(distributed));
+  }
+
+  @Test
+  public void testFirstFailure() throws Exception {
+    final DistributionException failure = new DistributionException("failed");
+    final AtomicInteger started = new AtomicInteger();
+    final AtomicInteger running = new AtomicInteger();
+    service.distributionParallelism = 2;
+    List<Integer> elements = Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9);
+    try {
+      service.distributeConcurrently(elements, element -> {
+        started.incrementAndGet();
+        running.incrementAndGet();
+        try {
+          if (element == 0)
+            throw failure;
+          sleep(100);
+          return createElement(Integer.toString(element));
+        } finally {
+          running.decrementAndGet();
+        }
+      });
+      fail("Failure not reported");
+    } catch (DistributionException e) {
+      assertSame(failure, e);
+    }
+
+    // The elements not yet started are skipped and the running ones have finished
+    assertTrue(started.get() < elements.size());
+    assertEquals(0, running.get());
+  }
+
+  @Test
+  public void testSecurityContextPropagation() throws Exception {
+    final Organization org = new DefaultOrganization();
+    final User usr = new JaxbUser("user", "test", JaxbOrganization.fromOrganization(org), new JaxbRole[0]);
+    organization.set(org);
+    user.set(usr);
+    final List<List<Object>> contexts = new CopyOnWriteArrayList<>();
+
+    service.distributeConcurrently(Arrays.asList(0, 1, 2, 3), element -> {
+      contexts.add(Arrays.asList(organization.get(), user.get()));
+      return createElement(Integer.toString(element));
+    });
+
+    assertEquals(4, contexts.size());
+    for (List<Object> context : contexts) {
+      assertEquals(Arrays.asList(org, usr), context);
+    }
+  }
+
+  private static void sleep(long millis) throws DistributionException {
+    try {
+      Thread.sleep(millis);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new DistributionException(e);
+    }
+  }
+
+}
@@ -270,6 +270,7 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
               DEFAULT_RETRACT_JOB_LOAD, serviceRegistry);
       restoreJobLoad = LoadUtil.getConfiguredLoadValue(cc.getProperties(), RESTORE_JOB_LOAD_KEY,
               DEFAULT_RESTORE_JOB_LOAD, serviceRegistry);
+      updateDistributionParallelism(cc.getProperties());
 
       // Explicit credentials are optional.
       AWSCredentialsProvider provider = null;
@@ -395,16 +396,13 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
     notNull(channelId, "channelId");
 
     final Set<MediaPackageElement> elements = getElements(mediapackage, elementIds);
-    List<MediaPackageElement> distributedElements = new ArrayList<>();
 
     if (AdaptivePlaylist.hasHLSPlaylist(elements)) {
       return distributeHLSElements(channelId, mediapackage, elements, checkAvailability);
     }
 
-    for (MediaPackageElement element : elements) {
-      MediaPackageElement distributedElement = distributeElement(channelId, mediapackage, element, checkAvailability);
-      distributedElements.add(distributedElement);
-    }
+    List<MediaPackageElement> distributedElements = distributeConcurrently(elements,
+            element -> distributeElement(channelId, mediapackage, element, checkAvailability));
     return distributedElements.toArray(new MediaPackageElement[distributedElements.size()]);
   }
 
@@ -804,10 +802,8 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
     List<MediaPackageElement> nontrackElements = elements.stream()
             .filter(e -> e.getElementType() != MediaPackageElement.Type.Track).collect(Collectors.toList());
     // Distribute non track items
-    for (MediaPackageElement element : nontrackElements) {
-      MediaPackageElement distributedElement = distributeElement(channelId, mediapackage, element, checkAvailability);
-      distributedElements.add(distributedElement);
-    }
+    distributedElements.addAll(distributeConcurrently(nontrackElements,
+            element -> distributeElement(channelId, mediapackage, element, checkAvailability)));
     // Then get all tracks from mediapackage and sort them by flavor
     // Each flavor is one video with multiple renditions
     List<Track> trackElements = elements.stream().filter(e -> e.getElementType() == MediaPackageElement.Type.Track)
@@ -859,15 +855,11 @@ public class AwsS3DistributionServiceImpl extends AbstractDistributionService
           } else {
             transformedTracks.addAll(tracks); // not playlists, distribute anyway
           }
-          for (Track track : transformedTracks) {
-            MediaPackageElement distributedElement;
+          distributedElements.addAll(distributeConcurrently(transformedTracks, track -> {
             if (AdaptivePlaylist.isPlaylist(track))
-              distributedElement = distributeElement(channelId, mediapackage, track, checkAvailability,
-                      new File(track.getURI()));
-            else
-              distributedElement = distributeElement(channelId, mediapackage, track, checkAvailability);
-            distributedElements.add(distributedElement);
-          }
+              return distributeElement(channelId, mediapackage, track, checkAvailability, new File(track.getURI()));
+            return distributeElement(channelId, mediapackage, track, checkAvailability);
+          }));
         } catch (MediaPackageException | NotFoundException | IOException e1) {
           logger.error("HLS Prepare failed for mediapackage {} in {}: {} ", elementSet.getKey(), mediapackage, e1);
           throw new DistributionException("Cannot distribute " + mediapackage);
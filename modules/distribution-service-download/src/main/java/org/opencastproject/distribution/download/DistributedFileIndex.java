@@ -0,0 +1,153 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.opencastproject.distribution.download;
+
+import org.opencastproject.util.Checksum;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Index of the distributed files by organization and checksum, used to find files which have already been distributed
+ * to another channel without comparing file contents.
+ * <p>
+ * The distribution directory may be shared with other nodes, so every indexed file is checked to still have the size
+ * and modification date it had when it was indexed before it is returned.
+ */
+public class DistributedFileIndex {
+
+  /** An indexed file. */
+  private static final class Entry {
+    private final String orgId;
+    private final Checksum checksum;
+    private final long size;
+    private final long modified;
+
+    Entry(String orgId, Checksum checksum, File file) {
+      this.orgId = orgId;
+      this.checksum = checksum;
+      this.size = file.length();
+      this.modified = file.lastModified();
+    }
+
+    boolean isValid(File file) {
+      return file.isFile() && file.length() == size && file.lastModified() == modified;
+    }
+  }
+
+  /** Distributed files by organization and checksum */
+  private final Map<String, Map<Checksum, Set<File>>> files = new HashMap<>();
+
+  /** Index entries by file */
+  private final Map<File, Entry> entries = new HashMap<>();
+
+  /**
+   * Returns a distributed file with the given checksum and size.
+   *
+   * @param orgId
+   *          the organization identifier
+   * @param checksum
+   *          the checksum of the file contents
+   * @param size
+   *          the size of the file
+   * @return the file or <code>null</code> if no such file has been indexed
+   */
+  public synchronized File find(String orgId, Checksum checksum, long size) {
+    final Map<Checksum, Set<File>> orgFiles = files.get(orgId);
+    if (orgFiles == null)
+      return null;
+    final Set<File> candidates = orgFiles.get(checksum);
+    if (candidates == null)
+      return null;
+    for (Iterator<File> i = candidates.iterator(); i.hasNext();) {
+      final File candidate = i.next();
+      final Entry entry = entries.get(candidate);
+      if (entry != null && entry.isValid(candidate)) {
+        if (entry.size == size)
+          return candidate;
+      } else {
+        // Changed or removed by another node
+        i.remove();
+        entries.remove(candidate);
+      }
+    }
+    if (candidates.isEmpty())
+      orgFiles.remove(checksum);
+    return null;
+  }
+
+  /**
+   * Returns the checksum of a distributed file.
+   *
+   * @param file
+   *          the distributed file
+   * @return the checksum or <code>null</code> if the file has not been indexed or has changed since
+   */
+  public synchronized Checksum getChecksum(File file) {
+    final Entry entry = entries.get(file);
+    return entry != null && entry.isValid(file) ? entry.checksum : null;
+  }
+
+  /**
+   * Adds a distributed file.
+   *
+   * @param orgId
+   *          the organization identifier
+   * @param checksum
+   *          the checksum of the file contents
+   * @param file
+   *          the distributed file
+   */
+  public synchronized void add(String orgId, Checksum checksum, File file) {
+    remove(file);
+    entries.put(file, new Entry(orgId, checksum, file));
+    files.computeIfAbsent(orgId, o -> new HashMap<>()).computeIfAbsent(checksum, c -> new LinkedHashSet<>()).add(file);
+  }
+
+  /**
+   * Removes a distributed file.
+   *
+   * @param file
+   *          the retracted file
+   */
+  public synchronized void remove(File file) {
+    final Entry entry = entries.remove(file);
+    if (entry == null)
+      return;
+    final Map<Checksum, Set<File>> orgFiles = files.get(entry.orgId);
+    final Set<File> candidates = orgFiles.get(entry.checksum);
+    candidates.remove(file);
+    if (candidates.isEmpty())
+      orgFiles.remove(entry.checksum);
+    if (orgFiles.isEmpty())
+      files.remove(entry.orgId);
+  }
+
+  /** Returns the number of indexed files. */
+  public synchronized int size() {
+    return entries.size();
+  }
+
+}
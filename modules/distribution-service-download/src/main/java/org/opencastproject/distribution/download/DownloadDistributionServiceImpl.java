@@ -40,6 +40,7 @@ import org.opencastproject.mediapackage.MediaPackageException;
 import org.opencastproject.mediapackage.MediaPackageParser;
 import org.opencastproject.mediapackage.Track;
 import org.opencastproject.serviceregistry.api.ServiceRegistryException;
+import org.opencastproject.util.Checksum;
 import org.opencastproject.util.FileSupport;
 import org.opencastproject.util.LoadUtil;
 import org.opencastproject.util.NotFoundException;
@@ -128,6 +129,9 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
 
   private Gson gson = new Gson();
 
+  /** Files distributed by this service, by their checksum */
+  private final DistributedFileIndex distributedFiles = new DistributedFileIndex();
+
   /**
    * Creates a new instance of the download distribution service.
    */
@@ -245,16 +249,12 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
     notNull(channelId, "channelId");
 
     final Set<MediaPackageElement> elements = getElements(channelId, mediapackage, elementIds);
-    List<MediaPackageElement> distributedElements = new ArrayList<MediaPackageElement>();
 
     if (AdaptivePlaylist.hasHLSPlaylist(elements)) {
       return distributeHLSElements(channelId, mediapackage, elements, checkAvailability, preserveReference);
-    } else
-      for (MediaPackageElement element : elements) {
-        MediaPackageElement distributedElement = distributeElement(channelId, mediapackage, element, checkAvailability,
-                preserveReference);
-        distributedElements.add(distributedElement);
-      }
+    }
+    List<MediaPackageElement> distributedElements = distributeConcurrently(elements,
+            element -> distributeElement(channelId, mediapackage, element, checkAvailability, preserveReference));
     return distributedElements.toArray(new MediaPackageElement[distributedElements.size()]);
   }
 
@@ -295,7 +295,7 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
 
       // Try to find a duplicated element source
       try {
-        source = findDuplicatedElementSource(source, mediapackageId);
+        source = findDuplicatedElementSource(source, element.getChecksum(), mediapackageId);
       } catch (IOException e) {
         logger.warn("Unable to find duplicated source {}: {}", source, ExceptionUtils.getMessage(e));
       }
@@ -317,6 +317,7 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
           throw new DistributionException(format("Unable to copy %s to %s", source, destination), e);
         }
       }
+      indexDistributedFile(element, destination);
       // Create a media package element representation of the distributed file
       MediaPackageElement distributedElement = (MediaPackageElement) element.clone();
       try {
@@ -364,20 +365,19 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
     List<MediaPackageElement> nontrackElements = elements.stream()
             .filter(e -> e.getElementType() != MediaPackageElement.Type.Track).collect(Collectors.toList());
     // Distribute non track items
-    for (MediaPackageElement element : nontrackElements) {
-      MediaPackageElement distributedElement = distributeElement(channelId, mediapackage, element, checkAvailability,
-              preserveReference);
-      distributedElements.add(distributedElement);
-    }
+    distributedElements.addAll(distributeConcurrently(nontrackElements,
+            element -> distributeElement(channelId, mediapackage, element, checkAvailability, preserveReference)));
     // Get all tracks and look for adaptive playlists
     List<Track> trackElements = elements.stream()
             .filter(e -> e.getElementType() == MediaPackageElement.Type.Track).map(e -> (Track) e)
             .collect(Collectors.toList());
+    // clone tracks to destination mp and put into mediapackage
+    List<MediaPackageElement> setUpTracks = distributeConcurrently(trackElements,
+            element -> setUpHLSElementforDistribution(channelId, mediapackage, element, preserveReference));
     HashMap<MediaPackageElementFlavor, List<Track>> trackElementsMap = new HashMap<MediaPackageElementFlavor, List<Track>>();
     // sort into one track list for each flavor - one video
-    for (Track element : trackElements) {
-      // clone track to destination mp and put into mediapackage
-      Track t = setUpHLSElementforDistribution(channelId, mediapackage, element, preserveReference);
+    for (MediaPackageElement setUpTrack : setUpTracks) {
+      Track t = (Track) setUpTrack;
       List<Track> l = trackElementsMap.get(t.getFlavor());
       if (l == null)
         l = new ArrayList<Track>();
@@ -392,10 +392,8 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
         // If this flavor is a HLS playlist and therefore has internal references
         if (tracks.stream().anyMatch(AdaptivePlaylist.isHLSTrackPred))
           tracks = AdaptivePlaylist.fixReferences(tracks, distributionDir); // replace with fixed elements
-        for (Track track : tracks) {
-          MediaPackageElement distributedElement = checkDistributeHLSElement(track, checkAvailability);
-          distributedElements.add(distributedElement);
-        }
+        distributedElements.addAll(distributeConcurrently(tracks,
+            track -> checkDistributeHLSElement(track, checkAvailability)));
       } catch (MediaPackageException | NotFoundException | IOException e1) {
         logger.error("HLS Prepare failed for mediapackage {} in {}: {} ", elementSet.getKey(), mediapackage, e1);
         throw new DistributionException("Cannot distribute " + mediapackage);
@@ -425,7 +423,7 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
 
     // Try to find a duplicated element source
     try {
-      source = findDuplicatedElementSource(source, mediapackageId);
+      source = findDuplicatedElementSource(source, element.getChecksum(), mediapackageId);
     } catch (IOException e) {
       logger.warn("Unable to find duplicated source {}: {}", source, ExceptionUtils.getMessage(e));
     }
@@ -451,6 +449,7 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
         throw new DistributionException(format("Unable to copy %s to %s", source, destination), e);
       }
     }
+    indexDistributedFile(element, destination);
 
     MediaPackageElement distributeElement = (MediaPackageElement) element.clone();
     // Create a media package element representation of the distributed file
@@ -630,6 +629,7 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
       }
 
       logger.debug("Retracting element {} ({})", element, elementFile);
+      distributedFiles.remove(elementFile);
 
       // Try to remove the file and its parent folder representing the mediapackage element id
       if (!FileUtils.deleteQuietly(elementFile.getParentFile())) {
@@ -717,18 +717,44 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
   }
 
   /**
-   * Try to find the same file being already distributed in one of the other channels
+   * Adds a distributed file to the index of distributed files if the element has a checksum.
+   *
+   * @param element
+   *          the distributed element
+   * @param file
+   *          the distributed file
+   */
+  private void indexDistributedFile(MediaPackageElement element, File file) {
+    if (element.getChecksum() != null)
+      distributedFiles.add(securityService.getOrganization().getId(), element.getChecksum(), file);
+  }
+
+  /**
+   * Try to find the same file being already distributed in one of the other channels. Files distributed by this
+   * service are looked up by their checksum; other files of the same size are compared by content.
    *
    * @param source
    *          the source file
+   * @param checksum
+   *          the element's checksum, may be <code>null</code>
    * @param mpId
    *          the element's mediapackage id
    * @return the found duplicated file or the given source if nothing has been found
    * @throws IOException
    *           if an I/O error occurs
    */
-  private File findDuplicatedElementSource(final File source, final String mpId) throws IOException {
+  private File findDuplicatedElementSource(final File source, final Checksum checksum, final String mpId)
+          throws IOException {
     String orgId = securityService.getOrganization().getId();
+    final long size = Files.size(source.toPath());
+    if (checksum != null) {
+      final File indexed = distributedFiles.find(orgId, checksum, size);
+      if (indexed != null) {
+        logger.debug("Found distributed file {} with the same checksum as {}", indexed, source);
+        return indexed;
+      }
+    }
+
     final Path rootPath = Paths.get(distributionDirectory.getAbsolutePath(), orgId);
 
     if (!Files.exists(rootPath))
@@ -747,8 +773,6 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
     if (mediaPackageDirectories.isEmpty())
       return source;
 
-    final long size = Files.size(source.toPath());
-
     final File[] result = new File[1];
     for (Path p : mediaPackageDirectories) {
       Files.walkFileTree(p, new SimpleFileVisitor<Path>() {
@@ -760,6 +784,10 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
           if (size != attrs.size())
             return FileVisitResult.CONTINUE;
 
+          // Indexed files have already been looked up by checksum
+          if (checksum != null && distributedFiles.getChecksum(file.toFile()) != null)
+            return FileVisitResult.CONTINUE;
+
           try (InputStream is1 = Files.newInputStream(source.toPath()); InputStream is2 = Files.newInputStream(file)) {
             if (!IOUtils.contentEquals(is1, is2))
               return FileVisitResult.CONTINUE;
@@ -836,6 +864,7 @@ public class DownloadDistributionServiceImpl extends AbstractDistributionService
             DEFAULT_DISTRIBUTE_JOB_LOAD, serviceRegistry);
     retractJobLoad = LoadUtil.getConfiguredLoadValue(properties, RETRACT_JOB_LOAD_KEY, DEFAULT_RETRACT_JOB_LOAD,
             serviceRegistry);
+    updateDistributionParallelism(properties);
   }
 
 }
@@ -0,0 +1,88 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.distribution.download;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+
+public class DistributedFileIndexTest {
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private final Checksum checksum = Checksum.create(ChecksumType.DEFAULT_TYPE, "0123456789abcdef0123456789abcdef");
+  private final Checksum otherChecksum = Checksum.create(ChecksumType.DEFAULT_TYPE, "fedcba9876543210fedcba9876543210");
+
+  private File createFile(String name, String content) throws Exception {
+    File file = testFolder.newFile(name);
+    FileUtils.writeStringToFile(file, content, "UTF-8");
+    return file;
+  }
+
+  @Test
+  public void testFind() throws Exception {
+    DistributedFileIndex index = new DistributedFileIndex();
+    File file = createFile("track.mp4", "content");
+    index.add("org1", checksum, file);
+
+    assertEquals(file, index.find("org1", checksum, file.length()));
+    assertNull(index.find("org2", checksum, file.length()));
+    assertNull(index.find("org1", otherChecksum, file.length()));
+    assertNull(index.find("org1", checksum, file.length() + 1));
+    assertEquals(checksum, index.getChecksum(file));
+  }
+
+  @Test
+  public void testRemove() throws Exception {
+    DistributedFileIndex index = new DistributedFileIndex();
+    File file = createFile("track.mp4", "content");
+    index.add("org1", checksum, file);
+    index.remove(file);
+
+    assertNull(index.find("org1", checksum, file.length()));
+    assertNull(index.getChecksum(file));
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  public void testChangedFile() throws Exception {
+    DistributedFileIndex index = new DistributedFileIndex();
+    File file = createFile("track.mp4", "content");
+    index.add("org1", checksum, file);
+    FileUtils.writeStringToFile(file, "other content", "UTF-8");
+
+    assertNull(index.getChecksum(file));
+    assertNull(index.find("org1", checksum, file.length()));
+    assertEquals(0, index.size());
+  }
+
+}
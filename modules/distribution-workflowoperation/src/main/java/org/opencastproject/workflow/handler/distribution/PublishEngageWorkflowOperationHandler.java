@@ -33,6 +33,7 @@ import org.opencastproject.distribution.api.DownloadDistributionService;
 import org.opencastproject.distribution.api.StreamingDistributionService;
 import org.opencastproject.job.api.Job;
 import org.opencastproject.job.api.JobContext;
+import org.opencastproject.mediapackage.AdaptivePlaylist;
 import org.opencastproject.mediapackage.Attachment;
 import org.opencastproject.mediapackage.Catalog;
 import org.opencastproject.mediapackage.MediaPackage;
@@ -78,10 +79,13 @@ import java.net.URL;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
 import java.util.UUID;
@@ -291,19 +295,28 @@ public class PublishEngageWorkflowOperationHandler extends AbstractWorkflowOpera
       }
 
       removePublicationElement(mediaPackage);
+      Map<String, MediaPackageElement> unchangedElements = Collections.emptyMap();
       switch (republishStrategy) {
         case ("merge"):
           // nothing to do here. other publication strategies can be added to this list later on
           break;
+        case ("delta"):
+          unchangedElements = retractChangedFromEngage(mediaPackage, downloadElementIds, downloadSubflavor);
+          break;
         default:
           retractFromEngage(mediaPackage);
       }
 
+      // Elements which are already published with the same content do not need to be transferred again
+      Set<String> distributeElementIds = new HashSet<>(downloadElementIds);
+      distributeElementIds.removeAll(unchangedElements.keySet());
+
       List<Job> jobs = new ArrayList<Job>();
       //distribute Elements
       try {
-        if (downloadElementIds.size() > 0) {
-          Job job = downloadDistributionService.distribute(CHANNEL_ID, mediaPackage, downloadElementIds, checkAvailability);
+        if (distributeElementIds.size() > 0) {
+          Job job = downloadDistributionService.distribute(CHANNEL_ID, mediaPackage, distributeElementIds,
+                  checkAvailability);
           if (job != null) {
             jobs.add(job);
           }
@@ -321,7 +334,7 @@ public class PublishEngageWorkflowOperationHandler extends AbstractWorkflowOpera
         throw new WorkflowOperationException(e);
       }
 
-      if (jobs.size() < 1) {
+      if (jobs.size() < 1 && unchangedElements.isEmpty()) {
         logger.info("No mediapackage element was found for distribution to engage");
         return createResult(mediaPackage, Action.CONTINUE);
       }
@@ -334,8 +347,9 @@ public class PublishEngageWorkflowOperationHandler extends AbstractWorkflowOpera
 
       String engageUrlString = null;
       try {
-        MediaPackage mediaPackageForSearch = getMediaPackageForSearchIndex(mediaPackage, jobs, downloadSubflavor,
-                targetDownloadTags, downloadElementIds, streamingSubflavor, streamingElementIds, targetStreamingTags);
+        MediaPackage mediaPackageForSearch = getMediaPackageForSearchIndex(mediaPackage, jobs, unchangedElements,
+                downloadSubflavor, targetDownloadTags, downloadElementIds, streamingSubflavor, streamingElementIds,
+                targetStreamingTags);
 
         // MH-10216, check if only merging into existing mediapackage
         removePublicationElement(mediaPackage);
@@ -464,11 +478,30 @@ public class PublishEngageWorkflowOperationHandler extends AbstractWorkflowOpera
           MediaPackageElementFlavor downloadSubflavor, String[] downloadTargetTags, Set<String> downloadElementIds,
           MediaPackageElementFlavor streamingSubflavor, Set<String> streamingElementIds, String[] streamingTargetTags)
           throws MediaPackageException, NotFoundException, ServiceRegistryException, WorkflowOperationException {
+    return getMediaPackageForSearchIndex(current, jobs, Collections.emptyMap(), downloadSubflavor, downloadTargetTags,
+            downloadElementIds, streamingSubflavor, streamingElementIds, streamingTargetTags);
+  }
+
+  /**
+   * Returns a mediapackage that only contains elements that are marked for distribution, taking elements which are
+   * already published with the same content from the existing publication.
+   *
+   * @param unchangedElements
+   *          published elements by the identifier of the source element they have been distributed for
+   * @see #getMediaPackageForSearchIndex(MediaPackage, List, MediaPackageElementFlavor, String[], Set,
+   *      MediaPackageElementFlavor, Set, String[])
+   */
+  protected MediaPackage getMediaPackageForSearchIndex(MediaPackage current, List<Job> jobs,
+          Map<String, MediaPackageElement> unchangedElements, MediaPackageElementFlavor downloadSubflavor,
+          String[] downloadTargetTags, Set<String> downloadElementIds, MediaPackageElementFlavor streamingSubflavor,
+          Set<String> streamingElementIds, String[] streamingTargetTags)
+          throws MediaPackageException, NotFoundException, ServiceRegistryException, WorkflowOperationException {
     MediaPackage mp = (MediaPackage) current.clone();
 
     // All the jobs have passed, let's update the mediapackage with references to the distributed elements
     List<String> elementsToPublish = new ArrayList<String>();
     Map<String, String> distributedElementIds = new HashMap<String, String>();
+    List<MediaPackageElement> allDistributedElements = new ArrayList<>();
 
     for (Job entry : jobs) {
       Job job = serviceRegistry.getJob(entry.getId());
@@ -489,55 +522,67 @@ public class PublishEngageWorkflowOperationHandler extends AbstractWorkflowOpera
       if (distributedElements == null || distributedElements.size() < 1)
         continue;
 
-      for (MediaPackageElement distributedElement : distributedElements) {
-
-        String sourceElementId = distributedElement.getIdentifier();
-        if (sourceElementId != null) {
-          MediaPackageElement sourceElement = mp.getElementById(sourceElementId);
-
-          // Make sure the mediapackage is prompted to create a new identifier for this element
-          distributedElement.setIdentifier(null);
-          if (sourceElement != null) {
-            // Adjust the flavor and tags for downloadable elements
-            if (downloadElementIds.contains(sourceElementId)) {
-              if (downloadSubflavor != null) {
-                MediaPackageElementFlavor flavor = sourceElement.getFlavor();
-                if (flavor != null) {
-                  MediaPackageElementFlavor newFlavor = new MediaPackageElementFlavor(flavor.getType(),
-                          downloadSubflavor.getSubtype());
-                  distributedElement.setFlavor(newFlavor);
-                }
+      allDistributedElements.addAll(distributedElements);
+    }
+
+    // Unchanged elements look as if they had just been distributed to their existing location
+    for (Map.Entry<String, MediaPackageElement> unchanged : unchangedElements.entrySet()) {
+      MediaPackageElement sourceElement = mp.getElementById(unchanged.getKey());
+      if (sourceElement == null)
+        continue;
+      MediaPackageElement distributedElement = (MediaPackageElement) sourceElement.clone();
+      distributedElement.setURI(unchanged.getValue().getURI());
+      allDistributedElements.add(distributedElement);
+    }
+
+    for (MediaPackageElement distributedElement : allDistributedElements) {
+
+      String sourceElementId = distributedElement.getIdentifier();
+      if (sourceElementId != null) {
+        MediaPackageElement sourceElement = mp.getElementById(sourceElementId);
+
+        // Make sure the mediapackage is prompted to create a new identifier for this element
+        distributedElement.setIdentifier(null);
+        if (sourceElement != null) {
+          // Adjust the flavor and tags for downloadable elements
+          if (downloadElementIds.contains(sourceElementId)) {
+            if (downloadSubflavor != null) {
+              MediaPackageElementFlavor flavor = sourceElement.getFlavor();
+              if (flavor != null) {
+                MediaPackageElementFlavor newFlavor = new MediaPackageElementFlavor(flavor.getType(),
+                        downloadSubflavor.getSubtype());
+                distributedElement.setFlavor(newFlavor);
               }
             }
-            // Adjust the flavor and tags for streaming elements
-            else if (streamingElementIds.contains(sourceElementId)) {
-              if (streamingSubflavor != null && streamingElementIds.contains(sourceElementId)) {
-                MediaPackageElementFlavor flavor = sourceElement.getFlavor();
-                if (flavor != null) {
-                  MediaPackageElementFlavor newFlavor = new MediaPackageElementFlavor(flavor.getType(),
-                          streamingSubflavor.getSubtype());
-                  distributedElement.setFlavor(newFlavor);
-                }
+          }
+          // Adjust the flavor and tags for streaming elements
+          else if (streamingElementIds.contains(sourceElementId)) {
+            if (streamingSubflavor != null && streamingElementIds.contains(sourceElementId)) {
+              MediaPackageElementFlavor flavor = sourceElement.getFlavor();
+              if (flavor != null) {
+                MediaPackageElementFlavor newFlavor = new MediaPackageElementFlavor(flavor.getType(),
+                        streamingSubflavor.getSubtype());
+                distributedElement.setFlavor(newFlavor);
               }
             }
-            // Copy references from the source elements to the distributed elements
-            MediaPackageReference ref = sourceElement.getReference();
-            if (ref != null && mp.getElementByReference(ref) != null) {
-              MediaPackageReference newReference = (MediaPackageReference) ref.clone();
-              distributedElement.setReference(newReference);
-            }
+          }
+          // Copy references from the source elements to the distributed elements
+          MediaPackageReference ref = sourceElement.getReference();
+          if (ref != null && mp.getElementByReference(ref) != null) {
+            MediaPackageReference newReference = (MediaPackageReference) ref.clone();
+            distributedElement.setReference(newReference);
           }
         }
+      }
 
-        if (isStreamingFormat(distributedElement))
-            applyTags(distributedElement, streamingTargetTags);
-        else applyTags(distributedElement, downloadTargetTags);
+      if (isStreamingFormat(distributedElement))
+          applyTags(distributedElement, streamingTargetTags);
+      else applyTags(distributedElement, downloadTargetTags);
 
-        // Add the new element to the mediapackage
-        mp.add(distributedElement);
-        elementsToPublish.add(distributedElement.getIdentifier());
-        distributedElementIds.put(sourceElementId, distributedElement.getIdentifier());
-      }
+      // Add the new element to the mediapackage
+      mp.add(distributedElement);
+      elementsToPublish.add(distributedElement.getIdentifier());
+      distributedElementIds.put(sourceElementId, distributedElement.getIdentifier());
     }
 
     // Mark everything that is set for removal
@@ -715,22 +760,7 @@ public class PublishEngageWorkflowOperationHandler extends AbstractWorkflowOpera
         for (MediaPackageElement element : distributedMediaPackage.getElements()) {
           elementIds.add(element.getIdentifier());
         }
-        //bulk retraction
-        if (elementIds.size() > 0) {
-          Job  retractDownloadDistributionJob = downloadDistributionService.retract(CHANNEL_ID, distributedMediaPackage, elementIds);
-          if (retractDownloadDistributionJob != null) {
-            jobs.add(retractDownloadDistributionJob);
-          }
-        }
-
-        if (streamingDistributionService.publishToStreaming()) {
-          for (MediaPackageElement element : distributedMediaPackage.getElements()) {
-            Job retractStreamingJob = streamingDistributionService.retract(CHANNEL_ID, distributedMediaPackage, element.getIdentifier());
-            if (retractStreamingJob != null) {
-              jobs.add(retractStreamingJob);
-            }
-          }
-        }
+        jobs.addAll(retractElements(distributedMediaPackage, elementIds));
 
         Job deleteSearchJob = null;
         logger.info("Retracting already published Elements for Mediapackage: {}", mediaPackage.getIdentifier().toString());
@@ -751,4 +781,126 @@ public class PublishEngageWorkflowOperationHandler extends AbstractWorkflowOpera
       logger.error("Retraction failed of Mediapackage: { }", mediaPackage.getIdentifier().toString(), ex);
     }
   }
+
+  /**
+   * Retracts the given elements of the published mediapackage from the download channel and all elements from the
+   * streaming channel.
+   *
+   * @return the retraction jobs
+   */
+  private List<Job> retractElements(MediaPackage distributedMediaPackage, Set<String> elementIds)
+          throws DistributionException {
+    List<Job> jobs = new ArrayList<Job>();
+    //bulk retraction
+    if (elementIds.size() > 0) {
+      Job  retractDownloadDistributionJob = downloadDistributionService.retract(CHANNEL_ID, distributedMediaPackage, elementIds);
+      if (retractDownloadDistributionJob != null) {
+        jobs.add(retractDownloadDistributionJob);
+      }
+    }
+
+    if (streamingDistributionService.publishToStreaming()) {
+      for (MediaPackageElement element : distributedMediaPackage.getElements()) {
+        Job retractStreamingJob = streamingDistributionService.retract(CHANNEL_ID, distributedMediaPackage, element.getIdentifier());
+        if (retractStreamingJob != null) {
+          jobs.add(retractStreamingJob);
+        }
+      }
+    }
+    return jobs;
+  }
+
+  /**
+   * Retracts those published elements which are not going to be reused by the new publication. The media package stays
+   * in the search index until it is replaced by the new publication.
+   *
+   * @param mediaPackage
+   *          the mediapackage to publish
+   * @param downloadElementIds
+   *          identifiers of the elements selected for download distribution
+   * @param downloadSubflavor
+   *          flavor to be applied to elements distributed to download
+   * @return the published elements which can be reused, by the identifier of the source element
+   * @throws WorkflowOperationException
+   *           if retracting the changed elements fails
+   */
+  private Map<String, MediaPackageElement> retractChangedFromEngage(MediaPackage mediaPackage,
+          Set<String> downloadElementIds, MediaPackageElementFlavor downloadSubflavor)
+          throws WorkflowOperationException {
+    MediaPackage distributedMediaPackage = getDistributedMediapackage(mediaPackage.toString());
+    if (distributedMediaPackage == null)
+      return Collections.emptyMap();
+
+    Map<String, MediaPackageElement> unchangedElements = getUnchangedElements(mediaPackage, downloadElementIds,
+            downloadSubflavor, distributedMediaPackage);
+    Set<String> unchangedIds = unchangedElements.values().stream().map(MediaPackageElement::getIdentifier)
+            .collect(Collectors.toSet());
+    Set<String> elementIds = new HashSet<String>();
+    for (MediaPackageElement element : distributedMediaPackage.getElements()) {
+      if (!unchangedIds.contains(element.getIdentifier()))
+        elementIds.add(element.getIdentifier());
+    }
+    logger.info("Republishing {}: {} elements are unchanged, retracting {} published elements",
+            mediaPackage.getIdentifier(), unchangedElements.size(), elementIds.size());
+
+    try {
+      List<Job> jobs = retractElements(distributedMediaPackage, elementIds);
+      if (!waitForStatus(jobs.toArray(new Job[jobs.size()])).isSuccess()) {
+        throw new WorkflowOperationException("One of the retraction jobs did not complete successfully");
+      }
+    } catch (DistributionException e) {
+      throw new WorkflowOperationException(e);
+    }
+    return unchangedElements;
+  }
+
+  /**
+   * Finds the elements selected for download distribution which are already published with the same content. A
+   * published element matches if it has the same type, the flavor the element would be published with and the same
+   * checksum. Each published element matches at most one element. Published elements stored below the directory of
+   * another selected element are not reused, since distributing that element may overwrite them. Elements without
+   * checksum and the tracks of HLS publications, whose playlists refer to each other, are always distributed again.
+   *
+   * @param mediaPackage
+   *          the mediapackage to publish
+   * @param downloadElementIds
+   *          identifiers of the elements selected for download distribution
+   * @param downloadSubflavor
+   *          flavor to be applied to elements distributed to download
+   * @param publishedMp
+   *          the mediapackage that is currently published
+   * @return the matching published elements by the identifier of the source element
+   */
+  protected Map<String, MediaPackageElement> getUnchangedElements(MediaPackage mediaPackage,
+          Set<String> downloadElementIds, MediaPackageElementFlavor downloadSubflavor, MediaPackage publishedMp) {
+    List<MediaPackageElement> downloadElements = downloadElementIds.stream().map(mediaPackage::getElementById)
+            .filter(Objects::nonNull).collect(Collectors.toList());
+    boolean adaptive = AdaptivePlaylist.hasHLSPlaylist(downloadElements);
+    List<MediaPackageElement> candidates = Arrays.stream(publishedMp.getElements())
+            .filter(e -> e.getChecksum() != null && !isStreamingFormat(e)).collect(Collectors.toList());
+
+    Map<String, MediaPackageElement> unchangedElements = new HashMap<>();
+    for (MediaPackageElement element : downloadElements) {
+      if (element.getChecksum() == null || adaptive && element.getElementType() == MediaPackageElement.Type.Track)
+        continue;
+      MediaPackageElementFlavor flavor = element.getFlavor();
+      if (flavor != null && downloadSubflavor != null)
+        flavor = new MediaPackageElementFlavor(flavor.getType(), downloadSubflavor.getSubtype());
+      for (Iterator<MediaPackageElement> i = candidates.iterator(); i.hasNext();) {
+        MediaPackageElement published = i.next();
+        if (published.getElementType() == element.getElementType()
+                && element.getChecksum().equals(published.getChecksum())
+                && Objects.equals(flavor, published.getFlavor())
+                && downloadElementIds.stream().noneMatch(id -> !id.equals(element.getIdentifier())
+                        && published.getURI().getPath().contains("/" + id + "/"))) {
+          logger.debug("{} {} is already published as {}", element.getElementType(), element.getIdentifier(),
+                  published.getURI());
+          unchangedElements.put(element.getIdentifier(), published);
+          i.remove();
+          break;
+        }
+      }
+    }
+    return unchangedElements;
+  }
 }
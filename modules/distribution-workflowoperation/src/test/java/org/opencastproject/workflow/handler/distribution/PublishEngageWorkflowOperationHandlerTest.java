@@ -24,10 +24,14 @@ package org.opencastproject.workflow.handler.distribution;
 import static org.junit.Assert.assertEquals;
 
 import org.opencastproject.mediapackage.MediaPackage;
+import org.opencastproject.mediapackage.MediaPackageBuilderFactory;
 import org.opencastproject.mediapackage.MediaPackageElement;
+import org.opencastproject.mediapackage.MediaPackageElementFlavor;
 import org.opencastproject.mediapackage.identifier.Id;
 import org.opencastproject.mediapackage.identifier.IdImpl;
 import org.opencastproject.security.api.Organization;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
 import org.opencastproject.workflow.api.WorkflowOperationException;
 
 import org.easymock.EasyMock;
@@ -35,7 +39,9 @@ import org.junit.Test;
 
 import java.net.URI;
 import java.net.URISyntaxException;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Map;
 
 public class PublishEngageWorkflowOperationHandlerTest {
@@ -77,6 +83,45 @@ public class PublishEngageWorkflowOperationHandlerTest {
 
   }
 
+  @Test
+  public void testUnchangedElements() throws Exception {
+    MediaPackageElementFlavor delivery = MediaPackageElementFlavor.parseFlavor("*/delivery");
+    MediaPackage mp = MediaPackageBuilderFactory.newInstance().newMediaPackageBuilder().createNew();
+    MediaPackageElement catalog = addElement(mp, "catalog", MediaPackageElement.Type.Catalog,
+            "dublincore/episode", "http://localhost/files/catalog.xml", "new");
+    MediaPackageElement track = addElement(mp, "track", MediaPackageElement.Type.Track, "presenter/source",
+            "http://localhost/files/track.mp4", "media");
+    MediaPackageElement copy = addElement(mp, "copy", MediaPackageElement.Type.Track, "presenter/source",
+            "http://localhost/files/copy.mp4", "media");
+
+    MediaPackage published = MediaPackageBuilderFactory.newInstance().newMediaPackageBuilder().createNew();
+    addElement(published, "p1", MediaPackageElement.Type.Catalog, "dublincore/delivery",
+            "http://localhost/static/engage-player/mp/catalog/catalog.xml", "old");
+    MediaPackageElement publishedTrack = addElement(published, "p2", MediaPackageElement.Type.Track,
+            "presenter/delivery", "http://localhost/static/engage-player/mp/track/track.mp4", "media");
+
+    PublishEngageWorkflowOperationHandler publishEngagePublish = new PublishEngageWorkflowOperationHandler();
+    Map<String, MediaPackageElement> unchanged = publishEngagePublish.getUnchangedElements(mp,
+            new HashSet<>(Arrays.asList(catalog.getIdentifier(), track.getIdentifier(), copy.getIdentifier())),
+            delivery, published);
+
+    // The changed catalog is distributed again, the published track is reused only once
+    assertEquals(1, unchanged.size());
+    assertEquals(publishedTrack, unchanged.get(track.getIdentifier()));
+
+    // Without a matching flavor, nothing is reused
+    assertEquals(0, publishEngagePublish.getUnchangedElements(mp,
+            new HashSet<>(Arrays.asList(track.getIdentifier())), null, published).size());
+  }
+
+  private MediaPackageElement addElement(MediaPackage mp, String id, MediaPackageElement.Type type, String flavor,
+          String uri, String checksum) throws Exception {
+    MediaPackageElement element = mp.add(new URI(uri), type, MediaPackageElementFlavor.parseFlavor(flavor));
+    element.setIdentifier(id);
+    element.setChecksum(Checksum.create(ChecksumType.DEFAULT_TYPE, checksum));
+    return element;
+  }
+
   // Util to set org properties with player path
   private Organization getOrgWithPlayerPath() {
     org = EasyMock.createNiceMock(Organization.class);
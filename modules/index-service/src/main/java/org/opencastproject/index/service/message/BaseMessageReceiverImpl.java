@@ -29,6 +29,7 @@ import org.opencastproject.message.broker.api.MessageSender;
 import org.opencastproject.message.broker.api.MessageSender.DestinationType;
 import org.opencastproject.message.broker.api.index.IndexRecreateObject;
 import org.opencastproject.message.broker.api.index.IndexRecreateObject.Status;
+import org.opencastproject.message.broker.api.scheduler.SchedulerItemList;
 import org.opencastproject.security.api.SecurityService;
 import org.opencastproject.util.OsgiUtil;
 import org.opencastproject.util.data.Effect2;
@@ -129,14 +130,7 @@ public abstract class BaseMessageReceiverImpl<T extends Serializable> {
           }
           securityService.setOrganization(baseMessage.getOrganization());
           securityService.setUser(baseMessage.getUser());
-          if (baseMessage.getObject() instanceof IndexRecreateObject) {
-            IndexRecreateObject obj = (IndexRecreateObject) baseMessage.getObject();
-            if (Status.End.equals(obj.getStatus()))
-              messageSender.sendObjectMessage(IndexProducer.RESPONSE_QUEUE, MessageSender.DestinationType.Queue,
-                      IndexRecreateObject.end(obj.getIndexName(), obj.getService()));
-          } else {
-            lockService.synchronize(baseMessage.getId().get(), execute.curry(baseMessage.getObject()).toFn());
-          }
+          handleMessage(baseMessage, lockService);
         } catch (InterruptedException e) {
           logger.error("Problem while getting {} message events", clazzName, e);
         } catch (ExecutionException e) {
@@ -154,6 +148,25 @@ public abstract class BaseMessageReceiverImpl<T extends Serializable> {
     }
   }
 
+  /**
+   * Processes a received message, synchronized by the identifier of the affected object. Scheduler messages carrying
+   * the updates of several events are processed event by event, each one synchronized by its own identifier.
+   */
+  void handleMessage(BaseMessage baseMessage, MessageReceiverLockService lockService) {
+    if (baseMessage.getObject() instanceof IndexRecreateObject) {
+      IndexRecreateObject obj = (IndexRecreateObject) baseMessage.getObject();
+      if (Status.End.equals(obj.getStatus()))
+        messageSender.sendObjectMessage(IndexProducer.RESPONSE_QUEUE, MessageSender.DestinationType.Queue,
+                IndexRecreateObject.end(obj.getIndexName(), obj.getService()));
+    } else if (baseMessage.getObject() instanceof SchedulerItemList) {
+      for (SchedulerItemList eventItems : ((SchedulerItemList) baseMessage.getObject()).getBatch()) {
+        lockService.synchronize(eventItems.getId(), execute.curry(eventItems).toFn());
+      }
+    } else {
+      lockService.synchronize(baseMessage.getId().get(), execute.curry(baseMessage.getObject()).toFn());
+    }
+  }
+
   private final Effect2<Serializable, String> execute = new Effect2<Serializable, String>() {
     @Override
     @SuppressWarnings("unchecked")
@@ -54,8 +54,10 @@ public class SchedulerMessageReceiverImpl extends BaseMessageReceiverImpl<Schedu
 
   @Override
   protected void execute(SchedulerItemList messageContent) {
-    for (SchedulerItem item : messageContent.getItems()) {
-      executeSingle(messageContent.getId(), item);
+    for (SchedulerItemList eventItems : messageContent.getBatch()) {
+      for (SchedulerItem item : eventItems.getItems()) {
+        executeSingle(eventItems.getId(), item);
+      }
     }
   }
 
@@ -24,6 +24,7 @@ import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotNull;
 
 import org.opencastproject.index.service.impl.index.event.Event;
+import org.opencastproject.message.broker.api.BaseMessage;
 import org.opencastproject.message.broker.api.scheduler.SchedulerItem;
 import org.opencastproject.message.broker.api.scheduler.SchedulerItemList;
 import org.opencastproject.metadata.dublincore.DublinCoreCatalog;
@@ -31,17 +32,24 @@ import org.opencastproject.metadata.dublincore.DublinCores;
 import org.opencastproject.security.api.DefaultOrganization;
 import org.opencastproject.security.api.SecurityService;
 
+import com.entwinemedia.fn.Fn;
+
 import org.junit.Before;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
 public class SchedulerMessageReceiverImplTest {
 
   private SchedulerMessageReceiverImpl scheduler;
+  private SecurityService securityService;
   private final TestSearchIndex index = new TestSearchIndex();
 
   @Before
   public void setUp() throws Exception {
-    SecurityService securityService = TestSearchIndex.createSecurityService(new DefaultOrganization());
+    securityService = TestSearchIndex.createSecurityService(new DefaultOrganization());
     scheduler = new SchedulerMessageReceiverImpl();
     scheduler.setSecurityService(securityService);
     scheduler.setSearchIndex(index);
@@ -68,4 +76,28 @@ public class SchedulerMessageReceiverImplTest {
     assertEquals("Creator has been updated", "Hans", event.getCreator());
   }
 
+  @Test
+  public void testHandleBatchMessage() throws Exception {
+    final List<Object> lockedResources = new ArrayList<>();
+    MessageReceiverLockService lockService = new MessageReceiverLockService() {
+      @Override
+      public <K, A> A synchronize(K resource, Fn<K, A> function) {
+        lockedResources.add(resource);
+        return super.synchronize(resource, function);
+      }
+    };
+    DublinCoreCatalog catalog = DublinCores.read(getClass().getResourceAsStream("/dublincore.xml"));
+    SchedulerItemList batch = new SchedulerItemList(Arrays.asList(
+            new SchedulerItemList("uuid-1", SchedulerItem.updateCatalog(catalog)),
+            new SchedulerItemList("uuid-2", SchedulerItem.updateCatalog(catalog))));
+
+    // Batch messages have no identifier of their own, each event has to be locked separately
+    scheduler.handleMessage(new BaseMessage(securityService.getOrganization(), securityService.getUser(),
+            batch), lockService);
+    assertEquals(Arrays.<Object> asList("uuid-1", "uuid-2"), lockedResources);
+    Event event = index.getEventResult();
+    assertNotNull(event);
+    assertEquals("uuid-2", event.getIdentifier());
+  }
+
 }
@@ -25,6 +25,7 @@ import org.opencastproject.inspection.ffmpeg.api.MediaAnalyzer;
 import org.opencastproject.inspection.ffmpeg.api.MediaAnalyzerException;
 import org.opencastproject.inspection.ffmpeg.api.MediaContainerMetadata;
 import org.opencastproject.inspection.ffmpeg.api.VideoStreamMetadata;
+import org.opencastproject.util.NativeProcessBudget;
 import org.opencastproject.util.ProcessRunner;
 import org.opencastproject.util.ProcessRunner.ProcessInfo;
 
@@ -105,7 +106,7 @@ public class FFmpegAnalyzer implements MediaAnalyzer {
     MediaContainerMetadata metadata = new MediaContainerMetadata();
 
     final StringBuilder sb = new StringBuilder();
-    try {
+    try (NativeProcessBudget.Allocation allocation = NativeProcessBudget.allocate(1)) {
       ProcessInfo info = ProcessRunner.mk(binary, command.toArray(new String[command.size()]));
       int exitCode = ProcessRunner.run(info, new Pred<String>() {
         @Override
@@ -122,6 +123,9 @@ public class FFmpegAnalyzer implements MediaAnalyzer {
     } catch (IOException e) {
       logger.error("Error executing ffprobe", e);
       throw new MediaAnalyzerException("Error while running ffprobe " + binary, e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new MediaAnalyzerException("Interrupted while waiting to run ffprobe " + binary, e);
     }
 
     JSONParser parser = new JSONParser();
@@ -0,0 +1,243 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.inspection.ffmpeg;
+
+import org.opencastproject.mediapackage.MediaPackageElement;
+import org.opencastproject.mediapackage.MediaPackageElementParser;
+import org.opencastproject.mediapackage.Track;
+import org.opencastproject.mediapackage.track.TrackImpl;
+import org.opencastproject.util.Checksum;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Node local, file based cache of inspection results.
+ * <p>
+ * Entries are keyed by the element's URI together with the size and the modification date of the local copy in the
+ * workspace, so that a file which changed in any way is inspected again. Each entry is the track as produced by the
+ * inspection, serialized to XML, which contains the container metadata, the streams and the checksum. Since the
+ * cache lives on disk, the results survive a restart of the node.
+ * <p>
+ * The cache is bounded both in the number of entries and in their age. Reading an entry refreshes its modification
+ * date, so the entries that are evicted first once the cache is full are the least recently used ones.
+ */
+class InspectionCache {
+
+  private static final Logger logger = LoggerFactory.getLogger(InspectionCache.class);
+
+  /** File extension of the cache entries */
+  private static final String ENTRY_SUFFIX = ".xml";
+
+  /** Fraction of the maximum number of entries that is kept when the cache is cleaned up */
+  private static final double CLEANUP_RATIO = 0.9;
+
+  /** The directory holding the cache entries */
+  private final File directory;
+
+  /** The (estimated) number of entries in the cache */
+  private final AtomicInteger size = new AtomicInteger();
+
+  /** The maximum number of entries, 0 disables the cache */
+  private volatile int maxEntries;
+
+  /** The maximum age of an entry in milliseconds, 0 for no limit */
+  private volatile long maxAge;
+
+  /**
+   * Creates a new cache in the given directory. Entries of a previous instance are reused.
+   *
+   * @param directory
+   *          the cache directory
+   * @param maxEntries
+   *          the maximum number of entries, 0 disables the cache
+   * @param maxAge
+   *          the maximum age of an entry in seconds, 0 for no limit
+   * @throws IOException
+   *           if the cache directory cannot be created
+   */
+  InspectionCache(File directory, int maxEntries, long maxAge) throws IOException {
+    FileUtils.forceMkdir(directory);
+    this.directory = directory;
+    this.size.set(listEntries().length);
+    configure(maxEntries, maxAge);
+    logger.info("Using media inspection cache at {} holding {} entries", directory, size.get());
+  }
+
+  /**
+   * Updates the eviction settings of the cache.
+   *
+   * @param maxEntries
+   *          the maximum number of entries, 0 disables the cache
+   * @param maxAge
+   *          the maximum age of an entry in seconds, 0 for no limit
+   */
+  void configure(int maxEntries, long maxAge) {
+    this.maxEntries = maxEntries;
+    this.maxAge = TimeUnit.SECONDS.toMillis(maxAge);
+    if (maxEntries == 0) {
+      clear();
+    } else {
+      cleanup();
+    }
+  }
+
+  /**
+   * Returns the cached inspection result for the given file.
+   *
+   * @param uri
+   *          the element's URI
+   * @param file
+   *          the local copy of the element
+   * @param accurateFrameCount
+   *          whether the frame count has been determined by decoding the media
+   * @return the cached track or <code>null</code> if there is no valid entry
+   */
+  TrackImpl get(URI uri, File file, boolean accurateFrameCount) {
+    if (maxEntries == 0)
+      return null;
+    File entry = getEntry(uri, file, accurateFrameCount);
+    if (!entry.isFile())
+      return null;
+    long now = System.currentTimeMillis();
+    if (maxAge > 0 && now - entry.lastModified() > maxAge) {
+      remove(entry);
+      return null;
+    }
+    try {
+      MediaPackageElement element = MediaPackageElementParser.getFromXml(
+              new String(Files.readAllBytes(entry.toPath()), StandardCharsets.UTF_8));
+      if (!(element instanceof TrackImpl) || !uri.equals(element.getURI())) {
+        remove(entry);
+        return null;
+      }
+      if (!entry.setLastModified(now))
+        logger.debug("Unable to update the access time of inspection cache entry {}", entry);
+      logger.debug("Found inspection result of {} in the cache", uri);
+      return (TrackImpl) element;
+    } catch (Exception e) {
+      logger.warn("Removing unreadable inspection cache entry {}: {}", entry, e.getMessage());
+      remove(entry);
+      return null;
+    }
+  }
+
+  /**
+   * Stores the inspection result of the given file.
+   *
+   * @param uri
+   *          the element's URI
+   * @param file
+   *          the local copy of the element
+   * @param accurateFrameCount
+   *          whether the frame count has been determined by decoding the media
+   * @param track
+   *          the inspection result
+   */
+  void put(URI uri, File file, boolean accurateFrameCount, Track track) {
+    if (maxEntries == 0)
+      return;
+    File entry = getEntry(uri, file, accurateFrameCount);
+    File tmp = new File(directory, entry.getName() + ".tmp-" + Thread.currentThread().getId());
+    try {
+      boolean existed = entry.isFile();
+      Files.write(tmp.toPath(), MediaPackageElementParser.getAsXml(track).getBytes(StandardCharsets.UTF_8));
+      Files.move(tmp.toPath(), entry.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      if (!existed && size.incrementAndGet() > maxEntries)
+        cleanup();
+    } catch (Exception e) {
+      logger.warn("Unable to store inspection result of {} in the cache: {}", uri, e.getMessage());
+      FileUtils.deleteQuietly(tmp);
+    }
+  }
+
+  /**
+   * Removes expired entries and, if the cache holds more than the maximum number of entries, the least recently used
+   * ones.
+   */
+  synchronized void cleanup() {
+    File[] entries = listEntries();
+    long now = System.currentTimeMillis();
+    int remaining = entries.length;
+    if (maxAge > 0) {
+      for (File entry : entries) {
+        if (now - entry.lastModified() > maxAge && entry.delete())
+          remaining--;
+      }
+    }
+    if (remaining > maxEntries) {
+      entries = listEntries();
+      Arrays.sort(entries, Comparator.comparingLong(File::lastModified));
+      int evict = entries.length - (int) (maxEntries * CLEANUP_RATIO);
+      for (int i = 0; i < evict; i++) {
+        if (entries[i].delete())
+          remaining--;
+      }
+      logger.debug("Evicted {} entries from the inspection cache", evict);
+    }
+    size.set(Math.max(remaining, 0));
+  }
+
+  /** Removes all entries from the cache. */
+  synchronized void clear() {
+    for (File entry : listEntries()) {
+      FileUtils.deleteQuietly(entry);
+    }
+    size.set(0);
+  }
+
+  private void remove(File entry) {
+    if (entry.delete())
+      size.decrementAndGet();
+  }
+
+  private File[] listEntries() {
+    File[] entries = directory.listFiles((dir, name) -> name.endsWith(ENTRY_SUFFIX));
+    return entries == null ? new File[0] : entries;
+  }
+
+  private File getEntry(URI uri, File file, boolean accurateFrameCount) {
+    String key = uri + "\n" + file.length() + "\n" + file.lastModified() + "\n" + accurateFrameCount;
+    try {
+      MessageDigest digest = MessageDigest.getInstance("SHA-256");
+      return new File(directory, Checksum.convertToHex(digest.digest(key.getBytes(StandardCharsets.UTF_8)))
+              + ENTRY_SUFFIX);
+    } catch (NoSuchAlgorithmException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+
+}
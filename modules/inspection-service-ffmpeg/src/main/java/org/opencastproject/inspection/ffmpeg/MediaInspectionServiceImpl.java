@@ -35,8 +35,10 @@ import org.opencastproject.security.api.UserDirectoryService;
 import org.opencastproject.serviceregistry.api.ServiceRegistry;
 import org.opencastproject.serviceregistry.api.ServiceRegistryException;
 import org.opencastproject.util.LoadUtil;
+import org.opencastproject.util.NativeProcessBudget;
 import org.opencastproject.workspace.api.Workspace;
 
+import org.apache.commons.lang3.StringUtils;
 import org.osgi.service.cm.ConfigurationException;
 import org.osgi.service.cm.ManagedService;
 import org.osgi.service.component.ComponentContext;
@@ -46,6 +48,8 @@ import org.osgi.service.component.annotations.Reference;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.File;
+import java.io.IOException;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Dictionary;
@@ -75,6 +79,21 @@ public class MediaInspectionServiceImpl extends AbstractJobProducer implements M
   /** The key to look for in the service configuration file to override the {@link DEFAULT_ENRICH_JOB_LOAD} */
   public static final String ENRICH_JOB_LOAD_KEY = "job.load.enrich";
 
+  /** The key to look for in the service configuration file to configure the maximum number of cached results */
+  public static final String CACHE_MAX_ENTRIES_KEY = "inspection.cache.max.entries";
+
+  /** The key to look for in the service configuration file to configure the maximum age of cached results */
+  public static final String CACHE_MAX_AGE_KEY = "inspection.cache.max.age";
+
+  /** The default maximum number of cached inspection results */
+  public static final int DEFAULT_CACHE_MAX_ENTRIES = 10000;
+
+  /** The default maximum age of cached inspection results in seconds (30 days) */
+  public static final long DEFAULT_CACHE_MAX_AGE = 2592000L;
+
+  /** The name of the inspection cache directory below the storage directory */
+  public static final String CACHE_DIR = "inspection-cache";
+
   /** The load introduced on the system by creating an inspect job */
   private float inspectJobLoad = DEFAULT_INSPECT_JOB_LOAD;
 
@@ -96,6 +115,15 @@ public class MediaInspectionServiceImpl extends AbstractJobProducer implements M
 
   private volatile MediaInspector inspector;
 
+  /** The cache of inspection results, <code>null</code> if no storage directory is configured */
+  private InspectionCache cache = null;
+
+  /** The maximum number of cached inspection results */
+  private int cacheMaxEntries = DEFAULT_CACHE_MAX_ENTRIES;
+
+  /** The maximum age of cached inspection results in seconds */
+  private long cacheMaxAge = DEFAULT_CACHE_MAX_AGE;
+
   /** Creates a new media inspection service instance. */
   public MediaInspectionServiceImpl() {
     super(JOB_TYPE);
@@ -115,7 +143,20 @@ public class MediaInspectionServiceImpl extends AbstractJobProducer implements M
       logger.debug("FFprobe config binary: {}", path);
       ffprobeBinary = path;
     }
-    inspector = new MediaInspector(workspace, ffprobeBinary);
+    NativeProcessBudget.configure(cc.getBundleContext());
+
+    /* Configure the inspection cache */
+    final String storageDir = cc.getBundleContext().getProperty("org.opencastproject.storage.dir");
+    if (storageDir == null) {
+      logger.info("No storage directory configured, inspection results will not be cached");
+    } else {
+      try {
+        cache = new InspectionCache(new File(storageDir, CACHE_DIR), cacheMaxEntries, cacheMaxAge);
+      } catch (IOException e) {
+        logger.warn("Unable to create inspection cache in {}, inspection results will not be cached", storageDir, e);
+      }
+    }
+    inspector = new MediaInspector(workspace, ffprobeBinary, cache);
   }
 
   @Override
@@ -128,6 +169,25 @@ public class MediaInspectionServiceImpl extends AbstractJobProducer implements M
             serviceRegistry);
     enrichJobLoad = LoadUtil.getConfiguredLoadValue(properties, ENRICH_JOB_LOAD_KEY, DEFAULT_ENRICH_JOB_LOAD,
             serviceRegistry);
+
+    String maxEntries = StringUtils.trimToNull((String) properties.get(CACHE_MAX_ENTRIES_KEY));
+    String maxAge = StringUtils.trimToNull((String) properties.get(CACHE_MAX_AGE_KEY));
+    try {
+      cacheMaxEntries = maxEntries == null ? DEFAULT_CACHE_MAX_ENTRIES : Integer.parseInt(maxEntries);
+    } catch (NumberFormatException e) {
+      throw new ConfigurationException(CACHE_MAX_ENTRIES_KEY, "Not an integer: " + maxEntries);
+    }
+    if (cacheMaxEntries < 0)
+      throw new ConfigurationException(CACHE_MAX_ENTRIES_KEY, "Must not be negative");
+    try {
+      cacheMaxAge = maxAge == null ? DEFAULT_CACHE_MAX_AGE : Long.parseLong(maxAge);
+    } catch (NumberFormatException e) {
+      throw new ConfigurationException(CACHE_MAX_AGE_KEY, "Not an integer: " + maxAge);
+    }
+    if (cacheMaxAge < 0)
+      throw new ConfigurationException(CACHE_MAX_AGE_KEY, "Must not be negative");
+    if (cache != null)
+      cache.configure(cacheMaxEntries, cacheMaxAge);
   }
 
   /**
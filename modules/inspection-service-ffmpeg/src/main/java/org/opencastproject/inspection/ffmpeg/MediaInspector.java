@@ -38,6 +38,7 @@ import org.opencastproject.mediapackage.MediaPackageElementFlavor;
 import org.opencastproject.mediapackage.Stream;
 import org.opencastproject.mediapackage.Track;
 import org.opencastproject.mediapackage.UnsupportedElementException;
+import org.opencastproject.mediapackage.track.AbstractStreamImpl;
 import org.opencastproject.mediapackage.track.AudioStreamImpl;
 import org.opencastproject.mediapackage.track.TrackImpl;
 import org.opencastproject.mediapackage.track.VideoStreamImpl;
@@ -58,8 +59,6 @@ import org.slf4j.LoggerFactory;
 import java.io.File;
 import java.io.IOException;
 import java.net.URI;
-import java.util.Dictionary;
-import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -75,9 +74,17 @@ public class MediaInspector {
   private final Workspace workspace;
   private final String ffprobePath;
 
+  /** The cache of inspection results, may be <code>null</code> */
+  private final InspectionCache cache;
+
   public MediaInspector(Workspace workspace, String ffprobePath) {
+    this(workspace, ffprobePath, null);
+  }
+
+  public MediaInspector(Workspace workspace, String ffprobePath, InspectionCache cache) {
     this.workspace = workspace;
     this.ffprobePath = ffprobePath;
+    this.cache = cache;
   }
 
   /**
@@ -110,8 +117,8 @@ public class MediaInspector {
         throw new MediaInspectionException("Can not inspect files without a filename extension");
       }
 
-      MediaContainerMetadata metadata = getFileMetadata(file, getAccurateFrameCount(options));
-      if (metadata == null) {
+      TrackImpl result = inspectFile(trackURI, file, getAccurateFrameCount(options), true);
+      if (result == null) {
         throw new MediaInspectionException("Media analyzer returned no metadata from " + file);
       } else {
         MediaPackageElementBuilder elementBuilder = MediaPackageElementBuilderFactory.newInstance().newElementBuilder();
@@ -125,33 +132,18 @@ public class MediaInspector {
         track = (TrackImpl) element;
 
         // Duration
-        if (metadata.getDuration() != null && metadata.getDuration() > 0)
-          track.setDuration(metadata.getDuration());
+        if (result.getDuration() != null && result.getDuration() > 0)
+          track.setDuration(result.getDuration());
 
         // Checksum
-        try {
-          track.setChecksum(Checksum.create(ChecksumType.DEFAULT_TYPE, file));
-        } catch (IOException e) {
-          throw new MediaInspectionException("Unable to read " + file, e);
-        }
+        track.setChecksum(result.getChecksum());
 
         // Mimetype
-        track.setMimeType(metadata.getMimeType());
-        track.setMaster(metadata.getAdaptiveMaster());
+        track.setMimeType(result.getMimeType());
+        track.setMaster(result.isMaster());
 
-        // Audio metadata
-        try {
-          addAudioStreamMetadata(track, metadata);
-        } catch (Exception e) {
-          throw new MediaInspectionException("Unable to extract audio metadata from " + file, e);
-        }
-
-        // Videometadata
-        try {
-          addVideoStreamMetadata(track, metadata);
-        } catch (Exception e) {
-          throw new MediaInspectionException("Unable to extract video metadata from " + file, e);
-        }
+        // Audio and video metadata
+        addStreams(track, result);
 
         return track;
       }
@@ -221,8 +213,9 @@ public class MediaInspector {
         throw new MediaInspectionException("Can not inspect files without a filename extension");
       }
 
-      MediaContainerMetadata metadata = getFileMetadata(file, getAccurateFrameCount(options));
-      if (metadata == null) {
+      boolean checksum = originalTrack.getChecksum() == null || override;
+      TrackImpl result = inspectFile(originalTrackUrl, file, getAccurateFrameCount(options), checksum);
+      if (result == null) {
         throw new MediaInspectionException("Unable to acquire media metadata for " + originalTrackUrl);
       } else {
         TrackImpl track = null;
@@ -241,7 +234,7 @@ public class MediaInspector {
         track.setIdentifier(originalTrack.getIdentifier());
         // If HLS
         if (!originalTrack.hasMaster() || override)
-          track.setMaster(metadata.getAdaptiveMaster());
+          track.setMaster(result.isMaster());
         else
           track.setMaster(originalTrack.isMaster());
         track.setMimeType(originalTrack.getMimeType());
@@ -254,39 +247,17 @@ public class MediaInspector {
 
         // enrich the new track with basic info
         if (track.getDuration() == null || override)
-          track.setDuration(metadata.getDuration());
-        if (track.getChecksum() == null || override) {
-          try {
-            track.setChecksum(Checksum.create(ChecksumType.DEFAULT_TYPE, file));
-          } catch (IOException e) {
-            throw new MediaInspectionException("Unable to read " + file, e);
-          }
-        }
+          track.setDuration(result.getDuration());
+        if (checksum)
+          track.setChecksum(result.getChecksum());
 
         // Add the mime type if it's not already present
         if (track.getMimeType() == null || override) {
-            track.setMimeType(metadata.getMimeType());
+            track.setMimeType(result.getMimeType());
         }
 
-        // find all streams
-        Dictionary<String, Stream> streamsId2Stream = new Hashtable<String, Stream>();
-        for (Stream stream : originalTrack.getStreams()) {
-          streamsId2Stream.put(stream.getIdentifier(), stream);
-        }
-
-        // audio list
-        try {
-          addAudioStreamMetadata(track, metadata);
-        } catch (Exception e) {
-          throw new MediaInspectionException("Unable to extract audio metadata from " + file, e);
-        }
-
-        // video list
-        try {
-          addVideoStreamMetadata(track, metadata);
-        } catch (Exception e) {
-          throw new MediaInspectionException("Unable to extract video metadata from " + file, e);
-        }
+        // audio and video list
+        addStreams(track, result);
 
         logger.info("Successfully inspected track {}", track);
         return track;
@@ -356,6 +327,78 @@ public class MediaInspector {
     }
   }
 
+  /**
+   * Inspects the given file. The result is looked up in the inspection cache first, so that neither the media analyzer
+   * nor the checksum calculation need to read a file which has been inspected before.
+   *
+   * @param uri
+   *          the element uri
+   * @param file
+   *          the local copy of the element
+   * @param accurateFrameCount
+   *          whether the frame count should be determined by decoding the media
+   * @param checksum
+   *          whether the result needs to contain the file's checksum
+   * @return a track holding the file's duration, mime type, streams and checksum or <code>null</code> if the media
+   *         analyzer returned no metadata
+   * @throws MediaInspectionException
+   *           if inspecting the file fails
+   */
+  private TrackImpl inspectFile(URI uri, File file, boolean accurateFrameCount, boolean checksum)
+          throws MediaInspectionException {
+    TrackImpl result = cache == null ? null : cache.get(uri, file, accurateFrameCount);
+    boolean modified = false;
+    if (result == null) {
+      MediaContainerMetadata metadata = getFileMetadata(file, accurateFrameCount);
+      if (metadata == null)
+        return null;
+      result = TrackImpl.fromURI(uri);
+      result.setDuration(metadata.getDuration());
+      result.setMimeType(metadata.getMimeType());
+      result.setMaster(metadata.getAdaptiveMaster());
+
+      // Audio metadata
+      try {
+        addAudioStreamMetadata(result, metadata);
+      } catch (Exception e) {
+        throw new MediaInspectionException("Unable to extract audio metadata from " + file, e);
+      }
+
+      // Videometadata
+      try {
+        addVideoStreamMetadata(result, metadata);
+      } catch (Exception e) {
+        throw new MediaInspectionException("Unable to extract video metadata from " + file, e);
+      }
+      modified = true;
+    }
+    if (checksum && result.getChecksum() == null) {
+      try {
+        result.setChecksum(Checksum.create(ChecksumType.DEFAULT_TYPE, file));
+      } catch (IOException e) {
+        throw new MediaInspectionException("Unable to read " + file, e);
+      }
+      modified = true;
+    }
+    if (modified && cache != null)
+      cache.put(uri, file, accurateFrameCount, result);
+    return result;
+  }
+
+  /**
+   * Copies the audio and video streams of an inspection result to the track.
+   *
+   * @param track
+   *          the track
+   * @param result
+   *          the inspection result
+   */
+  private void addStreams(TrackImpl track, TrackImpl result) {
+    for (Stream stream : result.getStreams()) {
+      track.addStream((AbstractStreamImpl) stream);
+    }
+  }
+
   /**
    * Asks the media analyzer to extract the file's metadata.
    *
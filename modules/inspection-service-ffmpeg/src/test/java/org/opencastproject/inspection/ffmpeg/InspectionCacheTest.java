@@ -0,0 +1,117 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.inspection.ffmpeg;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+
+import org.opencastproject.mediapackage.track.AudioStreamImpl;
+import org.opencastproject.mediapackage.track.TrackImpl;
+import org.opencastproject.util.Checksum;
+import org.opencastproject.util.ChecksumType;
+import org.opencastproject.util.MimeTypes;
+
+import org.apache.commons.io.FileUtils;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+
+public class InspectionCacheTest {
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private File media;
+  private URI uri;
+
+  @Before
+  public void setUp() throws Exception {
+    media = testFolder.newFile("media.mp4");
+    FileUtils.write(media, "media", StandardCharsets.UTF_8);
+    uri = media.toURI();
+  }
+
+  private TrackImpl inspectionResult() throws Exception {
+    TrackImpl track = TrackImpl.fromURI(uri);
+    track.setDuration(1000L);
+    track.setMimeType(MimeTypes.parseMimeType("video/mp4"));
+    track.setChecksum(Checksum.create(ChecksumType.DEFAULT_TYPE, media));
+    AudioStreamImpl audio = new AudioStreamImpl("audio-1");
+    audio.setChannels(2);
+    track.addStream(audio);
+    return track;
+  }
+
+  @Test
+  public void testCachedResultIsReused() throws Exception {
+    InspectionCache cache = new InspectionCache(testFolder.newFolder("cache"), 10, 0);
+    assertNull(cache.get(uri, media, false));
+    cache.put(uri, media, false, inspectionResult());
+
+    // A new instance picks up the entries of the previous one
+    cache = new InspectionCache(new File(testFolder.getRoot(), "cache"), 10, 0);
+    TrackImpl cached = cache.get(uri, media, false);
+    assertNotNull(cached);
+    assertEquals(1000L, cached.getDuration().longValue());
+    assertEquals(inspectionResult().getChecksum(), cached.getChecksum());
+    assertEquals(1, cached.getAudio().size());
+    assertEquals(2, cached.getAudio().get(0).getChannels().intValue());
+
+    // The result for an accurate frame count is a separate entry
+    assertNull(cache.get(uri, media, true));
+  }
+
+  @Test
+  public void testModifiedFileIsNotServedFromCache() throws Exception {
+    InspectionCache cache = new InspectionCache(testFolder.newFolder("cache"), 10, 0);
+    cache.put(uri, media, false, inspectionResult());
+    FileUtils.write(media, "modified media", StandardCharsets.UTF_8);
+    assertNull(cache.get(uri, media, false));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedEntriesAreEvicted() throws Exception {
+    File directory = testFolder.newFolder("cache");
+    InspectionCache cache = new InspectionCache(directory, 2, 0);
+    cache.put(uri, media, false, inspectionResult());
+    directory.listFiles()[0].setLastModified(System.currentTimeMillis() - 60000L);
+    cache.put(uri, media, true, inspectionResult());
+    File other = testFolder.newFile("other.mp4");
+    cache.put(other.toURI(), other, false, inspectionResult());
+    assertEquals(1, directory.listFiles().length);
+    assertNull(cache.get(uri, media, false));
+  }
+
+  @Test
+  public void testDisabledCache() throws Exception {
+    InspectionCache cache = new InspectionCache(testFolder.newFolder("cache"), 0, 0);
+    cache.put(uri, media, false, inspectionResult());
+    assertNull(cache.get(uri, media, false));
+  }
+
+}
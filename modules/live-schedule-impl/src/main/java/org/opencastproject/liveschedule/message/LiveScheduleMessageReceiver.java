@@ -24,6 +24,7 @@ import org.opencastproject.message.broker.api.BaseMessage;
 import org.opencastproject.message.broker.api.MessageItem;
 import org.opencastproject.message.broker.api.MessageReceiver;
 import org.opencastproject.message.broker.api.MessageSender;
+import org.opencastproject.message.broker.api.scheduler.SchedulerItemList;
 import org.opencastproject.security.api.SecurityService;
 
 import com.google.common.util.concurrent.Striped;
@@ -111,13 +112,7 @@ public class LiveScheduleMessageReceiver {
               securityService.setOrganization(baseMessage.getOrganization());
               securityService.setUser(baseMessage.getUser());
               if (handler != null) {
-                Lock l = lock.get(baseMessage.getId().get());
-                try {
-                  l.lock();
-                  handler.execute((MessageItem) baseMessage.getObject());
-                } finally {
-                  l.unlock();
-                }
+                handleMessage(handler, (MessageItem) baseMessage.getObject());
               }
             }
           });
@@ -138,6 +133,30 @@ public class LiveScheduleMessageReceiver {
     }
   }
 
+  /**
+   * Passes a message to its update handler, synchronized by media package. Scheduler messages carrying the updates of
+   * several events are passed on event by event.
+   */
+  static void handleMessage(UpdateHandler handler, MessageItem messageItem) {
+    if (messageItem instanceof SchedulerItemList) {
+      for (SchedulerItemList eventItems : ((SchedulerItemList) messageItem).getBatch()) {
+        executeLocked(handler, eventItems);
+      }
+    } else {
+      executeLocked(handler, messageItem);
+    }
+  }
+
+  private static void executeLocked(UpdateHandler handler, MessageItem messageItem) {
+    Lock l = lock.get(messageItem.getId());
+    try {
+      l.lock();
+      handler.execute(messageItem);
+    } finally {
+      l.unlock();
+    }
+  }
+
   // === Set by OSGI begin
   public void setMessageReceiver(MessageReceiver messageReceiver) {
     this.messageReceiver = messageReceiver;
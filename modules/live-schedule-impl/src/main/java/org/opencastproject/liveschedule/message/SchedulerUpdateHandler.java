@@ -50,8 +50,10 @@ public class SchedulerUpdateHandler extends UpdateHandler {
 
   protected void execute(MessageItem messageItem) {
     SchedulerItemList schedulerItemList = (SchedulerItemList) messageItem;
-    for (SchedulerItem item : schedulerItemList.getItems()) {
-      executeSingle(schedulerItemList.getId(), item);
+    for (SchedulerItemList eventItems : schedulerItemList.getBatch()) {
+      for (SchedulerItem item : eventItems.getItems()) {
+        executeSingle(eventItems.getId(), item);
+      }
     }
   }
 
@@ -0,0 +1,68 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.opencastproject.liveschedule.message;
+
+import static org.junit.Assert.assertEquals;
+
+import org.opencastproject.message.broker.api.MessageItem;
+import org.opencastproject.message.broker.api.scheduler.SchedulerItem;
+import org.opencastproject.message.broker.api.scheduler.SchedulerItemList;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class LiveScheduleMessageReceiverTest {
+
+  /** Collects the identifiers of the messages passed to the handler */
+  private static final class RecordingHandler extends UpdateHandler {
+    private final List<String> ids = new ArrayList<>();
+
+    RecordingHandler() {
+      super("SCHEDULER.Liveschedule");
+    }
+
+    @Override
+    protected void execute(MessageItem message) {
+      ids.add(message.getId());
+    }
+  }
+
+  @Test
+  public void testHandleSingleMessage() throws Exception {
+    RecordingHandler handler = new RecordingHandler();
+    LiveScheduleMessageReceiver.handleMessage(handler, new SchedulerItemList("mp-1", SchedulerItem.delete()));
+    assertEquals(Arrays.asList("mp-1"), handler.ids);
+  }
+
+  @Test
+  public void testHandleBatchMessage() throws Exception {
+    RecordingHandler handler = new RecordingHandler();
+    SchedulerItemList batch = new SchedulerItemList(Arrays.asList(
+            new SchedulerItemList("mp-1", SchedulerItem.delete()),
+            new SchedulerItemList("mp-2", SchedulerItem.delete())));
+    LiveScheduleMessageReceiver.handleMessage(handler, batch);
+    assertEquals(Arrays.asList("mp-1", "mp-2"), handler.ids);
+  }
+
+}
@@ -24,26 +24,54 @@ package org.opencastproject.message.broker.api.scheduler;
 import org.opencastproject.message.broker.api.MessageItem;
 
 import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class SchedulerItemList implements MessageItem, Serializable {
   private final String id;
   private final SchedulerItem[] items;
+  private final SchedulerItemList[] batch;
 
   public SchedulerItemList(final String id, final SchedulerItem ... items) {
     this.id = id;
     this.items = items;
+    this.batch = null;
   }
 
   public SchedulerItemList(final String id, final List<SchedulerItem> items) {
     this.id = id;
     this.items = items.toArray(new SchedulerItem[0]);
+    this.batch = null;
+  }
+
+  /**
+   * Creates a single message carrying the updates of multiple events, e.g. when scheduling many events at once. Such
+   * a message has no identifier of its own, receivers have to process it event by event using {@link #getBatch()}.
+   *
+   * @param batch
+   *          the updates of the individual events
+   */
+  public SchedulerItemList(final List<SchedulerItemList> batch) {
+    this.id = null;
+    this.items = new SchedulerItem[0];
+    this.batch = batch.toArray(new SchedulerItemList[0]);
   }
 
   public SchedulerItem[] getItems() {
     return items;
   }
 
+  /**
+   * Returns the updates of all events carried by this message. For messages about a single event this is a list only
+   * containing the message itself.
+   *
+   * @return the updates per event
+   */
+  public List<SchedulerItemList> getBatch() {
+    return batch == null ? Collections.singletonList(this) : Arrays.asList(batch);
+  }
+
   @Override
   public String getId() {
     return id;
@@ -0,0 +1,309 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.scheduler.impl;
+
+import com.entwinemedia.fn.data.Opt;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Keeps the rendered calendar entries of each capture agent in memory so that agent polls don't have to query the
+ * database and the asset manager and render every event again.
+ * <p>
+ * Feeds are loaded on the first request for an agent. Changed events are only marked as dirty and rendered again on the
+ * next request, removed events are dropped right away. Feeds expire after a configurable time so that changes not
+ * made through the scheduler, like updated series metadata, eventually show up as well.
+ */
+public class CalendarFeedCache {
+
+  /** Logging utility */
+  private static final Logger logger = LoggerFactory.getLogger(CalendarFeedCache.class);
+
+  /** Events which ended more than this long ago are no longer part of a calendar */
+  private static final long PAST_EVENT_MARGIN = TimeUnit.HOURS.toMillis(1);
+
+  private static final String CALENDAR_END = "END:VCALENDAR\r\n";
+
+  /** Loads rendered calendar entries */
+  public interface Loader {
+
+    /**
+     * Renders all events of a capture agent which have not ended more than an hour ago.
+     *
+     * @param agentId
+     *          the capture agent identifier
+     * @return the rendered events
+     * @throws Exception
+     *           if loading the events fails
+     */
+    List<FeedEvent> loadAll(String agentId) throws Exception;
+
+    /**
+     * Renders the given events if they are still scheduled on the capture agent.
+     *
+     * @param agentId
+     *          the capture agent identifier
+     * @param mediaPackageIds
+     *          the events to render
+     * @return the rendered events, events no longer scheduled on the agent are left out
+     * @throws Exception
+     *           if loading the events fails
+     */
+    List<FeedEvent> load(String agentId, Collection<String> mediaPackageIds) throws Exception;
+  }
+
+  /** A rendered calendar entry */
+  public static final class FeedEvent {
+    private final String mediaPackageId;
+    private final String seriesId;
+    private final long start;
+    private final long end;
+    private final String vevent;
+
+    /**
+     * @param mediaPackageId
+     *          the event identifier
+     * @param seriesId
+     *          the series of the event, may be <code>null</code>
+     * @param start
+     *          the start date
+     * @param end
+     *          the end date
+     * @param vevent
+     *          the serialized <code>VEVENT</code> component
+     */
+    public FeedEvent(String mediaPackageId, String seriesId, Date start, Date end, String vevent) {
+      this.mediaPackageId = mediaPackageId;
+      this.seriesId = seriesId;
+      this.start = start.getTime();
+      this.end = end.getTime();
+      this.vevent = vevent;
+    }
+
+    public String getMediaPackageId() {
+      return mediaPackageId;
+    }
+  }
+
+  private static final class Feed {
+    private final Map<String, FeedEvent> events = new HashMap<>();
+    private final Set<String> dirty = new HashSet<>();
+  }
+
+  /** The calendar up to its first component */
+  private final String calendarStart;
+
+  /** Counts modifications so that feeds loaded while events changed are not cached */
+  private final AtomicLong modifications = new AtomicLong();
+
+  private volatile Cache<String, Feed> feeds;
+
+  /**
+   * Creates a new cache.
+   *
+   * @param emptyCalendar
+   *          the serialized calendar without any components
+   * @param expireSeconds
+   *          seconds after which feeds are loaded again, <code>0</code> disables caching
+   */
+  public CalendarFeedCache(String emptyCalendar, int expireSeconds) {
+    if (!emptyCalendar.endsWith(CALENDAR_END)) {
+      throw new IllegalArgumentException("Not a serialized calendar: " + emptyCalendar);
+    }
+    this.calendarStart = emptyCalendar.substring(0, emptyCalendar.length() - CALENDAR_END.length());
+    setExpiration(expireSeconds);
+  }
+
+  /**
+   * Sets the time after which feeds are loaded again and drops all cached feeds.
+   *
+   * @param expireSeconds
+   *          seconds after which feeds are loaded again, <code>0</code> disables caching
+   */
+  public synchronized void setExpiration(int expireSeconds) {
+    modifications.incrementAndGet();
+    feeds = CacheBuilder.newBuilder().expireAfterWrite(expireSeconds, TimeUnit.SECONDS).build();
+  }
+
+  /**
+   * Drops all cached feeds.
+   */
+  public synchronized void invalidateAll() {
+    modifications.incrementAndGet();
+    feeds.invalidateAll();
+  }
+
+  /**
+   * Returns the calendar of a capture agent.
+   *
+   * @param orgId
+   *          the organization identifier
+   * @param agentId
+   *          the capture agent identifier
+   * @param seriesId
+   *          optional series filter
+   * @param cutoff
+   *          optional date before which events must start
+   * @param loader
+   *          renders events not yet cached
+   * @return the serialized iCalendar
+   * @throws Exception
+   *           if loading events fails
+   */
+  public String getCalendar(String orgId, String agentId, Opt<String> seriesId, Opt<Date> cutoff, Loader loader)
+          throws Exception {
+    final String key = key(orgId, agentId);
+    final Cache<String, Feed> feeds = this.feeds;
+    Feed feed = feeds.getIfPresent(key);
+    if (feed == null) {
+      final long generation = modifications.get();
+      feed = new Feed();
+      for (FeedEvent event : loader.loadAll(agentId)) {
+        feed.events.put(event.mediaPackageId, event);
+      }
+      // Only keep the feed if no event changed while loading it, it might miss the change otherwise
+      synchronized (this) {
+        if (modifications.get() == generation) {
+          feeds.put(key, feed);
+        }
+      }
+    }
+
+    final List<FeedEvent> events;
+    synchronized (feed) {
+      if (!feed.dirty.isEmpty()) {
+        final Set<String> dirty = new HashSet<>(feed.dirty);
+        logger.debug("Rendering {} changed events of the calendar of agent '{}'", dirty.size(), agentId);
+        final List<FeedEvent> loaded = loader.load(agentId, dirty);
+        feed.events.keySet().removeAll(dirty);
+        for (FeedEvent event : loaded) {
+          feed.events.put(event.mediaPackageId, event);
+        }
+        feed.dirty.removeAll(dirty);
+      }
+      events = new ArrayList<>(feed.events.values());
+    }
+    return toCalendar(events, seriesId, cutoff);
+  }
+
+  /**
+   * Serializes the given events into a calendar.
+   *
+   * @param events
+   *          the rendered events
+   * @param seriesId
+   *          optional series filter
+   * @param cutoff
+   *          optional date before which events must start
+   * @return the serialized iCalendar
+   */
+  public String toCalendar(List<FeedEvent> events, Opt<String> seriesId, Opt<Date> cutoff) {
+    final long endedBefore = System.currentTimeMillis() - PAST_EVENT_MARGIN;
+    final List<FeedEvent> included = new ArrayList<>(events.size());
+    for (FeedEvent event : events) {
+      if (event.end < endedBefore) {
+        continue;
+      }
+      if (cutoff.isSome() && event.start >= cutoff.get().getTime()) {
+        continue;
+      }
+      if (seriesId.isSome() && !seriesId.get().equals(event.seriesId)) {
+        continue;
+      }
+      included.add(event);
+    }
+    included.sort(Comparator.<FeedEvent> comparingLong(e -> e.start).thenComparing(e -> e.mediaPackageId));
+
+    final StringBuilder calendar = new StringBuilder(calendarStart);
+    for (FeedEvent event : included) {
+      calendar.append(event.vevent);
+    }
+    return calendar.append(CALENDAR_END).toString();
+  }
+
+  /**
+   * Marks an event as changed. It is rendered again on the next request for its capture agent and removed from the
+   * calendars of any other agent.
+   *
+   * @param orgId
+   *          the organization identifier
+   * @param mediaPackageId
+   *          the event identifier
+   * @param agentId
+   *          the capture agent the event is now scheduled on
+   */
+  public synchronized void eventChanged(String orgId, String mediaPackageId, String agentId) {
+    modifications.incrementAndGet();
+    final String key = key(orgId, agentId);
+    for (Map.Entry<String, Feed> entry : feeds.asMap().entrySet()) {
+      if (entry.getKey().equals(key)) {
+        synchronized (entry.getValue()) {
+          entry.getValue().dirty.add(mediaPackageId);
+        }
+      } else if (entry.getKey().startsWith(orgId + "/")) {
+        synchronized (entry.getValue()) {
+          entry.getValue().events.remove(mediaPackageId);
+        }
+      }
+    }
+  }
+
+  /**
+   * Removes an event from all calendars.
+   *
+   * @param orgId
+   *          the organization identifier
+   * @param mediaPackageId
+   *          the event identifier
+   */
+  public synchronized void eventRemoved(String orgId, String mediaPackageId) {
+    modifications.incrementAndGet();
+    for (Map.Entry<String, Feed> entry : feeds.asMap().entrySet()) {
+      if (entry.getKey().startsWith(orgId + "/")) {
+        synchronized (entry.getValue()) {
+          entry.getValue().events.remove(mediaPackageId);
+          entry.getValue().dirty.remove(mediaPackageId);
+        }
+      }
+    }
+  }
+
+  private static String key(String orgId, String agentId) {
+    return orgId + "/" + agentId;
+  }
+}
@@ -26,6 +26,8 @@ import org.opencastproject.util.NotFoundException;
 
 import com.entwinemedia.fn.data.Opt;
 
+import net.fortuna.ical4j.model.Period;
+
 import java.util.Date;
 import java.util.List;
 import java.util.Map;
@@ -115,6 +117,16 @@ public interface SchedulerServiceDatabase {
       Opt<Map<String,String>> captureAgentProperties
   ) throws SchedulerServiceDatabaseException;
 
+  /**
+   * Creates or updates multiple events in a single transaction.
+   *
+   * @param events
+   *          the events to store
+   * @throws SchedulerServiceDatabaseException
+   *           If the events cannot be stored, in which case none of them is stored.
+   */
+  void storeEvents(List<ExtendedEventDto> events) throws SchedulerServiceDatabaseException;
+
   /**
    * Get the mediapackage IDs of all events scheduled on the given capture agent between the given start/end time.
    * Events which are only partially contained within the given interval are also included in the result set. The
@@ -135,6 +147,24 @@ public interface SchedulerServiceDatabase {
    */
   List<String> getEvents(String captureAgentId, Date start, Date end, int separationMillis) throws SchedulerServiceDatabaseException;
 
+  /**
+   * Retrieve all events which overlap at least one of the given periods on the given capture agent. This checks all
+   * periods, e.g. the recurrences of an RRULE, at once.
+   *
+   * @param captureAgentId
+   *          the capture agent ID of the capture agent to check
+   * @param periods
+   *          the periods to check
+   * @param separationMillis
+   *          number of milliseconds to prepend and append to each period
+   * @return The mediapackage IDs of the events overlapping any of the periods without duplicates, ordered by start date
+   *         ascending.
+   * @throws SchedulerServiceDatabaseException
+   *           If the database cannot be queried.
+   */
+  List<String> getEvents(String captureAgentId, List<Period> periods, int separationMillis)
+          throws SchedulerServiceDatabaseException;
+
   /**
    * Retrieve all events matching given filter ordered by start time ascending.
    *
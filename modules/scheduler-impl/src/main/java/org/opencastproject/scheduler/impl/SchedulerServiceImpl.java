@@ -80,6 +80,7 @@ import org.opencastproject.scheduler.api.SchedulerService;
 import org.opencastproject.scheduler.api.TechnicalMetadata;
 import org.opencastproject.scheduler.api.TechnicalMetadataImpl;
 import org.opencastproject.scheduler.api.Util;
+import org.opencastproject.scheduler.impl.CalendarFeedCache.FeedEvent;
 import org.opencastproject.scheduler.impl.persistence.ExtendedEventDto;
 import org.opencastproject.security.api.AccessControlList;
 import org.opencastproject.security.api.AccessControlUtil;
@@ -113,6 +114,7 @@ import com.google.gson.reflect.TypeToken;
 import net.fortuna.ical4j.model.Period;
 import net.fortuna.ical4j.model.TimeZoneRegistry;
 import net.fortuna.ical4j.model.TimeZoneRegistryFactory;
+import net.fortuna.ical4j.model.component.CalendarComponent;
 import net.fortuna.ical4j.model.property.RRule;
 
 import org.apache.commons.io.IOUtils;
@@ -133,6 +135,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Calendar;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.Comparator;
 import java.util.Date;
@@ -146,7 +149,12 @@ import java.util.Map.Entry;
 import java.util.Set;
 import java.util.TimeZone;
 import java.util.UUID;
+import java.util.concurrent.Callable;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Function;
 import java.util.stream.Collectors;
@@ -162,12 +170,27 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
   /** The last modifed cache configuration key */
   private static final String CFG_KEY_LAST_MODIFED_CACHE_EXPIRE = "last_modified_cache_expire";
 
+  /** The calendar cache configuration key */
+  private static final String CFG_KEY_CALENDAR_CACHE_EXPIRE = "calendar_cache_expire";
+
   /** The maintenance configuration key */
   private static final String CFG_KEY_MAINTENANCE = "maintenance";
 
   /** The default cache expire time in seconds */
   private static final int DEFAULT_CACHE_EXPIRE = 60;
 
+  /** The default calendar cache expire time in seconds */
+  private static final int DEFAULT_CALENDAR_CACHE_EXPIRE = 600;
+
+  /** The configuration key for the number of recurring events stored per transaction */
+  private static final String CFG_KEY_MULTIPLE_EVENTS_BATCH_SIZE = "multiple_events_batch_size";
+
+  /** The default number of recurring events stored per transaction */
+  private static final int DEFAULT_MULTIPLE_EVENTS_BATCH_SIZE = 100;
+
+  /** The number of threads preparing the occurrences of recurring events */
+  private static final int MULTIPLE_EVENTS_THREADS = 4;
+
   /** The Etag for an empty calendar */
   private static final String EMPTY_CALENDAR_ETAG = "mod0";
 
@@ -195,6 +218,16 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
   protected Cache<String, String> lastModifiedCache = CacheBuilder.newBuilder()
           .expireAfterWrite(DEFAULT_CACHE_EXPIRE, TimeUnit.SECONDS).build();
 
+  /** The number of recurring events stored per transaction */
+  private int multipleEventsBatchSize = DEFAULT_MULTIPLE_EVENTS_BATCH_SIZE;
+
+  /** Prepares the occurrences of recurring events, which mostly waits for the workspace and the asset manager */
+  private ExecutorService multipleEventsExecutor = null;
+
+  /** The rendered calendars of the capture agents */
+  protected CalendarFeedCache calendarFeeds = new CalendarFeedCache(
+          new CalendarGenerator(null).getCalendar().toString(), DEFAULT_CALENDAR_CACHE_EXPIRE);
+
   /** The message broker sender service */
   private MessageSender messageSender;
 
@@ -343,12 +376,15 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
     super.activate();
     this.componentContext = cc;
     systemUserName = SecurityUtil.getSystemUserName(cc);
+    multipleEventsExecutor = Executors.newFixedThreadPool(MULTIPLE_EVENTS_THREADS);
     logger.info("Activating Scheduler Service");
   }
 
   /** Callback from OSGi on service deactivation. */
   @Override
   public void deactivate() {
+    if (multipleEventsExecutor != null)
+      multipleEventsExecutor.shutdownNow();
     super.deactivate();
   }
 
@@ -364,6 +400,16 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
       } else {
         logger.info("Set last modified cache to default {}", getHumanReadableTimeString(DEFAULT_CACHE_EXPIRE));
       }
+      final int calendarCacheExpire = OsgiUtil.getOptCfg(properties, CFG_KEY_CALENDAR_CACHE_EXPIRE)
+              .bind(Strings.toInt).getOrElse(DEFAULT_CALENDAR_CACHE_EXPIRE);
+      calendarFeeds.setExpiration(calendarCacheExpire);
+      logger.info("Set calendar cache to {}", getHumanReadableTimeString(calendarCacheExpire));
+      final int batchSize = OsgiUtil.getOptCfg(properties, CFG_KEY_MULTIPLE_EVENTS_BATCH_SIZE)
+              .bind(Strings.toInt).getOrElse(DEFAULT_MULTIPLE_EVENTS_BATCH_SIZE);
+      if (batchSize < 1) {
+        throw new ConfigurationException(CFG_KEY_MULTIPLE_EVENTS_BATCH_SIZE, "must be a positive number");
+      }
+      multipleEventsBatchSize = batchSize;
       final Option<Boolean> maintenance = OsgiUtil.getOptCfgAsBoolean(properties, CFG_KEY_MAINTENANCE);
       if (maintenance.getOrElse(false)) {
         final String name = SchedulerServiceImpl.class.getName();
@@ -518,82 +564,69 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
 
       final Organization org = securityService.getOrganization();
       final User user = securityService.getUser();
-      periods.parallelStream().forEach(event -> SecurityUtil.runAs(securityService, org, user, () -> {
-        final int currentCounter = periods.indexOf(event);
-        MediaPackage mediaPackage = (MediaPackage) templateMp.clone();
-        Date startDate = new Date(event.getStart().getTime());
-        Date endDate = new Date(event.getEnd().getTime());
-        Id id = ids.get(currentCounter);
-
-        //Get, or make, the DC catalog
-        DublinCoreCatalog dc;
-        Opt<DublinCoreCatalog> dcOpt = DublinCoreUtil.loadEpisodeDublinCore(workspace,
-                templateMp);
-        if (dcOpt.isSome()) {
-          dc = dcOpt.get();
-          dc = (DublinCoreCatalog) dc.clone();
-          // make sure to bind the OC_PROPERTY namespace
-          dc.addBindings(XmlNamespaceContext
-                  .mk(XmlNamespaceBinding.mk(DublinCores.OC_PROPERTY_NS_PREFIX, DublinCores.OC_PROPERTY_NS_URI)));
-        } else {
-          dc = DublinCores.mkOpencastEpisode().getCatalog();
-        }
-
-        // Set the new media package identifier
-        mediaPackage.setIdentifier(id);
 
-        // Update dublincore title and temporal
-        String newTitle = dc.getFirst(DublinCore.PROPERTY_TITLE) + String.format(" %0" + Integer.toString(periods.size()).length() + "d", currentCounter + 1);
-        dc.set(DublinCore.PROPERTY_TITLE, newTitle);
-        DublinCoreValue eventTime = EncodingSchemeUtils.encodePeriod(new DCMIPeriod(startDate, endDate),
-                Precision.Second);
-        dc.set(DublinCore.PROPERTY_TEMPORAL, eventTime);
-        try {
-          mediaPackage = updateDublincCoreCatalog(mediaPackage, dc);
-        } catch (Exception e) {
-          Misc.chuck(e);
+      // The template catalog and access control list are the same for all occurrences, load them only once
+      final Opt<DublinCoreCatalog> templateDc = DublinCoreUtil.loadEpisodeDublinCore(workspace, templateMp);
+      final AccessControlList acl = authorizationService.getActiveAcl(templateMp).getA();
+      final int batchSize = multipleEventsBatchSize;
+      final List<Id> eventIds = new ArrayList<>(ids);
+
+      // Prepare the occurrences in parallel, then store each batch in one transaction with one message
+      for (int batchStart = 0; batchStart < periods.size(); batchStart += batchSize) {
+        final int batchEnd = Math.min(batchStart + batchSize, periods.size());
+        final PreparedEvent[] batch = new PreparedEvent[batchEnd - batchStart];
+        final int offset = batchStart;
+        final List<ExtendedEventDto> rows = new ArrayList<>(batch.length);
+        final List<SchedulerItemList> messages = new ArrayList<>(batch.length);
+        final List<Callable<Void>> preparations = new ArrayList<>(batch.length);
+        for (int i = batchStart; i < batchEnd; i++) {
+          final int index = i;
+          preparations.add(() -> {
+            SecurityUtil.runAs(securityService, org, user, () -> {
+              try {
+                batch[index - offset] = prepareEvent(periods.get(index), index, periods.size(),
+                    eventIds.get(index), captureAgentId, userIds, templateMp, templateDc, acl, wfProperties,
+                    caMetadata, seriesId, schedulingSource);
+              } catch (Exception e) {
+                Misc.chuck(e);
+              }
+            });
+            return null;
+          });
         }
-        mediaPackage.setTitle(newTitle);
-
-        String mediaPackageId = mediaPackage.getIdentifier().toString();
-        //Converting from iCal4j DateTime objects to plain Date objects to prevent AMQ issues below
-        Calendar cal = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
-        cal.setTime(event.getStart());
-        Date startDateTime = cal.getTime();
-        cal.setTime(event.getEnd());
-        Date endDateTime = cal.getTime();
-        // Load dublincore and acl for update
-        Opt<DublinCoreCatalog> dublinCore = DublinCoreUtil.loadEpisodeDublinCore(workspace, mediaPackage);
-        AccessControlList acl = authorizationService.getActiveAcl(mediaPackage).getA();
-
-        // Get updated agent properties
-        Map<String, String> finalCaProperties = getFinalAgentProperties(caMetadata, wfProperties, captureAgentId,
-                seriesId, dublinCore);
-
-        // Persist asset
-        String checksum = calculateChecksum(workspace, getEventCatalogUIAdapterFlavors(), startDateTime, endDateTime,
-                captureAgentId, userIds, mediaPackage, dublinCore, wfProperties, finalCaProperties, acl);
         try {
-          persistEvent(mediaPackageId, checksum, Opt.some(startDateTime), Opt.some(endDateTime),
-                Opt.some(captureAgentId), Opt.some(userIds), Opt.some(mediaPackage), Opt.some(wfProperties),
-                Opt.some(finalCaProperties), schedulingSource);
+          // Wait for all occurrences to be prepared, even if one failed, so that no snapshot of the batch is taken
+          // after it has been cleaned up
+          Throwable failure = null;
+          for (Future<Void> preparation : multipleEventsExecutor.invokeAll(preparations)) {
+            try {
+              preparation.get();
+            } catch (ExecutionException e) {
+              if (failure == null)
+                failure = e.getCause();
+            }
+          }
+          if (failure instanceof Exception)
+            throw (Exception) failure;
+          else if (failure != null)
+            throw new SchedulerException(failure);
+          for (PreparedEvent event : batch) {
+            rows.add(event.row);
+            messages.add(event.message);
+          }
+          persistence.storeEvents(rows);
         } catch (Exception e) {
-          Misc.chuck(e);
+          // The snapshots are taken while preparing the events, remove them if the batch could not be stored
+          deleteSnapshots(eventIds.subList(batchStart, batchEnd));
+          throw e;
         }
-
-        // Send updates
-        sendUpdateAddEvent(mediaPackageId, some(acl), dublinCore, Opt.some(startDateTime), Opt.some(endDateTime),
-                Opt.some(userIds), Opt.some(captureAgentId), Opt.some(finalCaProperties));
-
-        scheduledEvents.put(mediaPackageId, event);
-        for (MediaPackageElement mediaPackageElement : mediaPackage.getElements()) {
-          try {
-            workspace.delete(mediaPackage.getIdentifier().toString(), mediaPackageElement.getIdentifier());
-          } catch (NotFoundException | IOException e) {
-            logger.warn("Failed to delete media package element", e);
-          }
+        for (PreparedEvent event : batch) {
+          calendarFeeds.eventChanged(org.getId(), event.row.getMediaPackageId(), captureAgentId);
+          scheduledEvents.put(event.row.getMediaPackageId(), event.period);
         }
-      }));
+        sendSchedulerMessage(new SchedulerItemList(messages));
+        logger.info("Scheduled {} of {} events on capture agent '{}'", batchEnd, periods.size(), captureAgentId);
+      }
       return scheduledEvents;
     } catch (SchedulerException e) {
       throw e;
@@ -607,6 +640,119 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
     }
   }
 
+  /**
+   * Removes the scheduler snapshots of events which could not be stored. Failures are only logged to not hide the
+   * original error.
+   */
+  private void deleteSnapshots(List<Id> mediaPackageIds) {
+    try {
+      final AQueryBuilder query = assetManager.createQuery();
+      Predicate p = null;
+      for (Id id : mediaPackageIds) {
+        final Predicate np = query.mediaPackageId(id.toString());
+        p = p == null ? np : p.or(np);
+      }
+      final long deleted = query.delete(SNAPSHOT_OWNER, query.snapshot())
+              .where(withOrganization(query).and(p)).name("delete unstored events").run();
+      logger.info("Removed {} snapshots of events which could not be stored", deleted);
+    } catch (Exception e) {
+      logger.error("Unable to remove the snapshots of events which could not be stored: {}", mediaPackageIds, e);
+    }
+  }
+
+  /** An occurrence of a recurring event which has been prepared to be stored */
+  private static final class PreparedEvent {
+    private final Period period;
+    private final ExtendedEventDto row;
+    private final SchedulerItemList message;
+
+    PreparedEvent(Period period, ExtendedEventDto row, SchedulerItemList message) {
+      this.period = period;
+      this.row = row;
+      this.message = message;
+    }
+  }
+
+  /**
+   * Creates the media package, episode catalog and snapshot of one occurrence of a recurring event. The scheduler
+   * database row and the update message are returned to be stored and sent together with the other occurrences.
+   */
+  private PreparedEvent prepareEvent(Period event, int index, int count, Id id, String captureAgentId,
+          Set<String> userIds, MediaPackage templateMp, Opt<DublinCoreCatalog> templateDc, AccessControlList acl,
+          Map<String, String> wfProperties, Map<String, String> caMetadata, Opt<String> seriesId,
+          Opt<String> schedulingSource) throws Exception {
+    MediaPackage mediaPackage = (MediaPackage) templateMp.clone();
+    Date startDate = new Date(event.getStart().getTime());
+    Date endDate = new Date(event.getEnd().getTime());
+
+    //Get, or make, the DC catalog
+    DublinCoreCatalog dc;
+    if (templateDc.isSome()) {
+      dc = (DublinCoreCatalog) templateDc.get().clone();
+      // make sure to bind the OC_PROPERTY namespace
+      dc.addBindings(XmlNamespaceContext
+              .mk(XmlNamespaceBinding.mk(DublinCores.OC_PROPERTY_NS_PREFIX, DublinCores.OC_PROPERTY_NS_URI)));
+    } else {
+      dc = DublinCores.mkOpencastEpisode().getCatalog();
+    }
+
+    // Set the new media package identifier
+    mediaPackage.setIdentifier(id);
+
+    // Update dublincore title and temporal
+    String newTitle = dc.getFirst(DublinCore.PROPERTY_TITLE) + String.format(" %0" + Integer.toString(count).length() + "d", index + 1);
+    dc.set(DublinCore.PROPERTY_TITLE, newTitle);
+    DublinCoreValue eventTime = EncodingSchemeUtils.encodePeriod(new DCMIPeriod(startDate, endDate),
+            Precision.Second);
+    dc.set(DublinCore.PROPERTY_TEMPORAL, eventTime);
+    mediaPackage = updateDublincCoreCatalog(mediaPackage, dc);
+    mediaPackage.setTitle(newTitle);
+
+    String mediaPackageId = mediaPackage.getIdentifier().toString();
+    //Converting from iCal4j DateTime objects to plain Date objects to prevent AMQ issues below
+    Calendar cal = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+    cal.setTime(event.getStart());
+    Date startDateTime = cal.getTime();
+    cal.setTime(event.getEnd());
+    Date endDateTime = cal.getTime();
+    Opt<DublinCoreCatalog> dublinCore = Opt.some(dc);
+
+    // Get updated agent properties
+    Map<String, String> finalCaProperties = getFinalAgentProperties(caMetadata, wfProperties, captureAgentId,
+            seriesId, dublinCore);
+
+    // Persist asset
+    String checksum = calculateChecksum(workspace, getEventCatalogUIAdapterFlavors(), startDateTime, endDateTime,
+            captureAgentId, userIds, mediaPackage, dublinCore, wfProperties, finalCaProperties, acl);
+    assetManager.takeSnapshot(SNAPSHOT_OWNER, mediaPackage);
+
+    for (MediaPackageElement mediaPackageElement : mediaPackage.getElements()) {
+      try {
+        workspace.delete(mediaPackageId, mediaPackageElement.getIdentifier());
+      } catch (NotFoundException | IOException e) {
+        logger.warn("Failed to delete media package element", e);
+      }
+    }
+
+    final ExtendedEventDto row = new ExtendedEventDto();
+    row.setMediaPackageId(mediaPackageId);
+    row.setOrganization(securityService.getOrganization().getId());
+    row.setCaptureAgentId(captureAgentId);
+    row.setStartDate(startDateTime);
+    row.setEndDate(endDateTime);
+    row.setSource(schedulingSource.getOr(null));
+    row.setPresenters(String.join(",", userIds));
+    row.setLastModifiedDate(new Date());
+    row.setChecksum(checksum);
+    row.setWorkflowProperties(gson.toJson(wfProperties));
+    row.setCaptureAgentProperties(gson.toJson(finalCaProperties));
+
+    final SchedulerItemList message = new SchedulerItemList(mediaPackageId, updateAddEventItems(some(acl), dublinCore,
+            Opt.some(startDateTime), Opt.some(endDateTime), Opt.some(userIds), Opt.some(captureAgentId),
+            Opt.some(finalCaProperties)));
+    return new PreparedEvent(event, row, message);
+  }
+
   @Override
   public void updateEvent(final String mpId, Opt<Date> startDateTime, Opt<Date> endDateTime, Opt<String> captureAgentId,
           Opt<Set<String>> userIds, Opt<MediaPackage> mediaPackage, Opt<Map<String, String>> wfProperties,
@@ -845,6 +991,7 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
       if (extEvtOpt.isSome()) {
         String agentId = extEvtOpt.get().getCaptureAgentId();
         persistence.deleteEvent(mediaPackageId);
+        calendarFeeds.eventRemoved(securityService.getOrganization().getId(), mediaPackageId);
         if (StringUtils.isNotEmpty(agentId))
           touchLastEntry(agentId);
       }
@@ -1057,8 +1204,8 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
   private boolean checkPeriodOverlap(final List<Period> periods) {
     final List<Period> sortedPeriods = new ArrayList<>(periods);
     sortedPeriods.sort(Comparator.comparing(Period::getStart));
-    Period prior = periods.get(0);
-    for (Period current : periods.subList(1, periods.size())) {
+    Period prior = sortedPeriods.get(0);
+    for (Period current : sortedPeriods.subList(1, sortedPeriods.size())) {
       if (current.getStart().compareTo(prior.getEnd()) < 0) {
         return true;
       }
@@ -1082,18 +1229,23 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
 
     try {
       TimeZoneRegistry registry = TimeZoneRegistryFactory.getInstance().createRegistry();
-
-      Set<MediaPackage> events = new HashSet<>();
-
       for (Period event : periods) {
         event.setTimeZone(registry.getTimeZone(tz.getID()));
-        final Date startDate = event.getStart();
-        final Date endDate = event.getEnd();
-
-        events.addAll(findConflictingEvents(captureAgentId, startDate, endDate));
       }
 
-      return new ArrayList<>(events);
+      // Check all periods in a single lookup and load each conflicting event only once
+      final Organization organization = securityService.getOrganization();
+      final User user = SecurityUtil.createSystemUser(systemUserName, organization);
+      final List<MediaPackage> events = new ArrayList<>();
+      SecurityUtil.runAs(securityService, organization, user, () -> {
+        try {
+          events.addAll(persistence.getEvents(captureAgentId, periods, Util.EVENT_MINIMUM_SEPARATION_MILLISECONDS)
+            .stream().map(this::getEventMediaPackage).collect(Collectors.toList()));
+        } catch (SchedulerServiceDatabaseException e) {
+          logger.error("Failed to get conflicting events", e);
+        }
+      });
+      return events;
     } catch (Exception e) {
       throw new SchedulerException(e);
     }
@@ -1104,66 +1256,99 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
           throws SchedulerException {
 
     try {
-      final Map<String, ExtendedEventDto> searchResult = persistence.search(captureAgentId, Opt.none(), cutoff,
-          Opt.some(DateTime.now().minusHours(1).toDate()), Opt.none(), Opt.none()).stream()
-          .collect(Collectors.toMap(ExtendedEventDto::getMediaPackageId, Function.identity()));
-      final AQueryBuilder query = assetManager.createQuery();
-      final AResult result = query.select(query.snapshot())
-          .where(withOrganization(query).and(query.mediaPackageIds(searchResult.keySet().toArray(new String[0])))
-              .and(withOwner(query)).and(query.version().isLatest()))
-          .run();
-
-      final CalendarGenerator cal = new CalendarGenerator(seriesService);
-      for (final ARecord record : result.getRecords()) {
-        final Opt<MediaPackage> optMp = record.getSnapshot().map(episodeToMp);
-
-        // If the event media package is empty, skip the event
-        if (optMp.isNone()) {
-          logger.warn("Mediapackage for event '{}' can't be found, event is not recorded", record.getMediaPackageId());
-          continue;
-        }
-
-        if (seriesId.isSome() && !seriesId.get().equals(optMp.get().getSeries())) {
-          continue;
-        }
-
-        Opt<DublinCoreCatalog> catalogOpt = loadEpisodeDublinCoreFromAsset(record.getSnapshot().get());
-        if (catalogOpt.isNone()) {
-          logger.warn("No episode catalog available, skipping!");
-          continue;
-        }
+      if (captureAgentId.isSome()) {
+        return calendarFeeds.getCalendar(securityService.getOrganization().getId(), captureAgentId.get(), seriesId,
+            cutoff, new CalendarFeedCache.Loader() {
+              @Override
+              public List<FeedEvent> loadAll(String agentId) throws Exception {
+                return renderCalendarEvents(persistence.search(Opt.some(agentId), Opt.none(), Opt.none(),
+                    Opt.some(DateTime.now().minusHours(1).toDate()), Opt.none(), Opt.none()));
+              }
+
+              @Override
+              public List<FeedEvent> load(String agentId, Collection<String> mediaPackageIds) throws Exception {
+                final List<ExtendedEventDto> events = new ArrayList<>();
+                for (String mediaPackageId : mediaPackageIds) {
+                  for (ExtendedEventDto event : persistence.getEvent(mediaPackageId)) {
+                    if (agentId.equals(event.getCaptureAgentId())) {
+                      events.add(event);
+                    }
+                  }
+                }
+                return renderCalendarEvents(events);
+              }
+            });
+      }
 
-        final Map<String, String> caMetadata = deserializeExtendedEventProperties(searchResult.get(record.getMediaPackageId()).getCaptureAgentProperties());
+      final List<FeedEvent> events = renderCalendarEvents(persistence.search(Opt.none(), Opt.none(), cutoff,
+          Opt.some(DateTime.now().minusHours(1).toDate()), Opt.none(), Opt.none()));
+      return calendarFeeds.toCalendar(events, seriesId, cutoff);
 
-        // If the even properties are empty, skip the event
-        if (caMetadata.isEmpty()) {
-          logger.warn("Properties for event '{}' can't be found, event is not recorded", record.getMediaPackageId());
-          continue;
-        }
+    } catch (Exception e) {
+      throw new SchedulerException(e);
+    }
+  }
 
-        final String agentId = searchResult.get(record.getMediaPackageId()).getCaptureAgentId();
-        final Date start = searchResult.get(record.getMediaPackageId()).getStartDate();
-        final Date end = searchResult.get(record.getMediaPackageId()).getEndDate();
-        final Date lastModified = record.getSnapshot().get().getArchivalDate();
+  /**
+   * Renders the calendar entries of the given events. Events which can't be rendered are skipped with a warning.
+   */
+  private List<FeedEvent> renderCalendarEvents(List<ExtendedEventDto> events) throws Exception {
+    final List<FeedEvent> rendered = new ArrayList<>();
+    if (events.isEmpty()) {
+      return rendered;
+    }
+    final Map<String, ExtendedEventDto> searchResult = events.stream()
+        .collect(Collectors.toMap(ExtendedEventDto::getMediaPackageId, Function.identity()));
+    final AQueryBuilder query = assetManager.createQuery();
+    final AResult result = query.select(query.snapshot())
+        .where(withOrganization(query).and(query.mediaPackageIds(searchResult.keySet().toArray(new String[0])))
+            .and(withOwner(query)).and(query.version().isLatest()))
+        .run();
+
+    final CalendarGenerator cal = new CalendarGenerator(seriesService);
+    for (final ARecord record : result.getRecords()) {
+      final Opt<MediaPackage> optMp = record.getSnapshot().map(episodeToMp);
+
+      // If the event media package is empty, skip the event
+      if (optMp.isNone()) {
+        logger.warn("Mediapackage for event '{}' can't be found, event is not recorded", record.getMediaPackageId());
+        continue;
+      }
 
-        // Add the entry to the calendar, skip it with a warning if adding fails
-        try {
-          cal.addEvent(optMp.get(), catalogOpt.get(), agentId, start, end, lastModified, toPropertyString(caMetadata));
-        } catch (Exception e) {
-          logger.warn("Error adding event '{}' to calendar, event is not recorded", record.getMediaPackageId(), e);
-        }
+      Opt<DublinCoreCatalog> catalogOpt = loadEpisodeDublinCoreFromAsset(record.getSnapshot().get());
+      if (catalogOpt.isNone()) {
+        logger.warn("No episode catalog available, skipping!");
+        continue;
       }
 
-      // Only validate calendars with events. Without any events, the iCalendar won't validate
-      if (cal.getCalendar().getComponents().size() > 0) {
-        cal.getCalendar().validate();
+      final Map<String, String> caMetadata = deserializeExtendedEventProperties(searchResult.get(record.getMediaPackageId()).getCaptureAgentProperties());
+
+      // If the even properties are empty, skip the event
+      if (caMetadata.isEmpty()) {
+        logger.warn("Properties for event '{}' can't be found, event is not recorded", record.getMediaPackageId());
+        continue;
       }
 
-      return cal.getCalendar().toString();
+      final String agentId = searchResult.get(record.getMediaPackageId()).getCaptureAgentId();
+      final Date start = searchResult.get(record.getMediaPackageId()).getStartDate();
+      final Date end = searchResult.get(record.getMediaPackageId()).getEndDate();
+      final Date lastModified = record.getSnapshot().get().getArchivalDate();
 
-    } catch (Exception e) {
-      throw new SchedulerException(e);
+      // Add the entry to the calendar, skip it with a warning if adding or validating it fails
+      try {
+        if (cal.addEvent(optMp.get(), catalogOpt.get(), agentId, start, end, lastModified,
+            toPropertyString(caMetadata))) {
+          final List<CalendarComponent> components = cal.getCalendar().getComponents();
+          final CalendarComponent event = components.get(components.size() - 1);
+          event.validate();
+          rendered.add(new FeedEvent(record.getMediaPackageId(), optMp.get().getSeries(), start, end,
+              event.toString()));
+        }
+      } catch (Exception e) {
+        logger.warn("Error adding event '{}' to calendar, event is not recorded", record.getMediaPackageId(), e);
+      }
     }
+    return rendered;
   }
 
   @Override
@@ -1345,6 +1530,19 @@ public class SchedulerServiceImpl extends AbstractIndexProducer implements Sched
         wfProperties,
         caProperties
     );
+
+    // Render the event again on the next poll of its capture agent
+    final String orgId = securityService.getOrganization().getId();
+    String agentId = captureAgentId.getOr(null);
+    if (agentId == null) {
+      final Opt<ExtendedEventDto> event = persistence.getEvent(mpId);
+      agentId = event.isSome() ? event.get().getCaptureAgentId() : null;
+    }
+    if (agentId != null) {
+      calendarFeeds.eventChanged(orgId, mpId, agentId);
+    } else {
+      calendarFeeds.eventRemoved(orgId, mpId);
+    }
   }
 
   private List<SchedulerItem> updateAddEventItems(Opt<AccessControlList> acl, Opt<DublinCoreCatalog> dublinCore,
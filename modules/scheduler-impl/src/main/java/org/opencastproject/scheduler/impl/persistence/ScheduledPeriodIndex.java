@@ -0,0 +1,163 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.scheduler.impl.persistence;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+
+/**
+ * In-memory index of the scheduled periods of one organization, grouped by capture agent.
+ * <p>
+ * The periods of each capture agent are kept ordered by start date. Together with the longest duration ever indexed
+ * for that agent this allows to find all periods overlapping a given interval with a single range scan instead of a
+ * database query. This class is not thread-safe, callers need to synchronize access.
+ */
+final class ScheduledPeriodIndex {
+
+  /** Orders periods by start date and uses the mediapackage identifier to tell apart periods with equal start */
+  private static final Comparator<Entry> ORDER = Comparator.<Entry> comparingLong(e -> e.start)
+          .thenComparing(e -> e.mediaPackageId);
+
+  /** The indexed periods per capture agent */
+  private final Map<String, AgentPeriods> agents = new HashMap<>();
+
+  /** The indexed period of each mediapackage */
+  private final Map<String, Entry> entries = new HashMap<>();
+
+  /**
+   * Adds or replaces the scheduled period of an event.
+   *
+   * @param mediaPackageId
+   *          the mediapackage identifier
+   * @param captureAgentId
+   *          the capture agent the event is scheduled on
+   * @param start
+   *          the start of the period in milliseconds
+   * @param end
+   *          the end of the period in milliseconds
+   */
+  void put(String mediaPackageId, String captureAgentId, long start, long end) {
+    remove(mediaPackageId);
+    final Entry entry = new Entry(mediaPackageId, captureAgentId, start, end);
+    entries.put(mediaPackageId, entry);
+    agents.computeIfAbsent(captureAgentId, id -> new AgentPeriods()).add(entry);
+  }
+
+  /**
+   * Removes the scheduled period of an event if it is indexed.
+   *
+   * @param mediaPackageId
+   *          the mediapackage identifier
+   */
+  void remove(String mediaPackageId) {
+    final Entry entry = entries.remove(mediaPackageId);
+    if (entry == null) {
+      return;
+    }
+    final AgentPeriods periods = agents.get(entry.captureAgentId);
+    periods.periods.remove(entry);
+    if (periods.periods.isEmpty()) {
+      agents.remove(entry.captureAgentId);
+    }
+  }
+
+  /**
+   * Finds all events on a capture agent overlapping at least one of the given intervals. An event overlaps an interval
+   * if it starts before the interval ends and ends after the interval starts.
+   *
+   * @param captureAgentId
+   *          the capture agent to check
+   * @param intervals
+   *          pairs of start and end in milliseconds
+   * @return the mediapackage identifiers of the overlapping events without duplicates, ordered by start ascending
+   */
+  List<String> findOverlapping(String captureAgentId, List<long[]> intervals) {
+    final AgentPeriods periods = agents.get(captureAgentId);
+    if (periods == null) {
+      return new ArrayList<>();
+    }
+    final NavigableSet<Entry> result = new TreeSet<>(ORDER);
+    for (long[] interval : intervals) {
+      final long start = interval[0];
+      final long end = interval[1];
+      // Only periods starting less than the longest duration before the interval can reach into it
+      final Entry from = new Entry("", captureAgentId, saturatedSubtract(start, periods.maxDuration), 0);
+      final Entry to = new Entry("", captureAgentId, end, 0);
+      for (Entry entry : periods.periods.subSet(from, true, to, false)) {
+        if (entry.end > start) {
+          result.add(entry);
+        }
+      }
+    }
+    final List<String> ids = new ArrayList<>(result.size());
+    for (Entry entry : result) {
+      ids.add(entry.mediaPackageId);
+    }
+    return ids;
+  }
+
+  /** @return the number of indexed periods */
+  int size() {
+    return entries.size();
+  }
+
+  private static long saturatedSubtract(long a, long b) {
+    final long r = a - b;
+    return ((a ^ b) & (a ^ r)) < 0 ? Long.MIN_VALUE : r;
+  }
+
+  /** The periods of a single capture agent */
+  private static final class AgentPeriods {
+    private final NavigableSet<Entry> periods = new TreeSet<>(ORDER);
+
+    /**
+     * The longest duration indexed for this agent. It is never lowered on removal which keeps the range scans correct
+     * while at worst looking at a few more candidates.
+     */
+    private long maxDuration = 0;
+
+    void add(Entry entry) {
+      periods.add(entry);
+      maxDuration = Math.max(maxDuration, entry.end - entry.start);
+    }
+  }
+
+  private static final class Entry {
+    private final String mediaPackageId;
+    private final String captureAgentId;
+    private final long start;
+    private final long end;
+
+    Entry(String mediaPackageId, String captureAgentId, long start, long end) {
+      this.mediaPackageId = mediaPackageId;
+      this.captureAgentId = captureAgentId;
+      this.start = start;
+      this.end = end;
+    }
+  }
+}
@@ -29,11 +29,15 @@ import org.opencastproject.util.NotFoundException;
 import com.entwinemedia.fn.data.Opt;
 import com.google.gson.Gson;
 
+import net.fortuna.ical4j.model.Period;
+
 import org.joda.time.DateTime;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -64,6 +68,12 @@ public class SchedulerServiceDatabaseImpl implements SchedulerServiceDatabase {
 
   private static final Gson gson = new Gson();
 
+  /**
+   * Scheduled periods per organization, loaded lazily and kept in sync with every write. Conflict checks are answered
+   * from these indexes instead of querying the database once per period. All access is synchronized on this map.
+   */
+  private final Map<String, ScheduledPeriodIndex> periodIndexes = new HashMap<>();
+
   /** OSGi DI */
   public void setEntityManagerFactory(EntityManagerFactory emf) {
     this.emf = emf;
@@ -212,6 +222,7 @@ public class SchedulerServiceDatabaseImpl implements SchedulerServiceDatabase {
         em.merge(entity);
       }
       tx.commit();
+      updatePeriodIndex(entity);
     } catch (Exception e) {
       if (tx.isActive())
         tx.rollback();
@@ -223,22 +234,98 @@ public class SchedulerServiceDatabaseImpl implements SchedulerServiceDatabase {
   }
 
   @Override
-  @SuppressWarnings("unchecked")
+  public void storeEvents(List<ExtendedEventDto> events) throws SchedulerServiceDatabaseException {
+    EntityManager em = null;
+    EntityTransaction tx = null;
+    try {
+      em = emf.createEntityManager();
+      tx = em.getTransaction();
+      tx.begin();
+      for (ExtendedEventDto event : events) {
+        em.merge(event);
+      }
+      tx.commit();
+      for (ExtendedEventDto event : events) {
+        updatePeriodIndex(event);
+      }
+    } catch (Exception e) {
+      if (tx != null && tx.isActive())
+        tx.rollback();
+      throw new SchedulerServiceDatabaseException(e);
+    } finally {
+      if (em != null)
+        em.close();
+    }
+  }
+
+  @Override
   public List<String> getEvents(String captureAgentId, Date start, Date end, int separationMillis) throws SchedulerServiceDatabaseException {
-    final Date extendedStart = Date.from(start.toInstant().minusMillis(separationMillis));
-    final Date extendedEnd = Date.from(end.toInstant().plusMillis(separationMillis));
-    final EntityManager em = emf.createEntityManager();
-    final Query query = em.createNamedQuery("ExtendedEvent.findEvents")
-        .setParameter("org", securityService.getOrganization().getId())
-        .setParameter("ca", captureAgentId)
-        .setParameter("start", extendedStart)
-        .setParameter("end", extendedEnd);
+    return findOverlapping(captureAgentId,
+        Collections.singletonList(new long[] { start.getTime() - separationMillis, end.getTime() + separationMillis }));
+  }
+
+  @Override
+  public List<String> getEvents(String captureAgentId, List<Period> periods, int separationMillis)
+          throws SchedulerServiceDatabaseException {
+    final List<long[]> intervals = new ArrayList<>(periods.size());
+    for (Period period : periods) {
+      intervals.add(new long[] {
+          period.getStart().getTime() - separationMillis, period.getEnd().getTime() + separationMillis });
+    }
+    return findOverlapping(captureAgentId, intervals);
+  }
+
+  private List<String> findOverlapping(String captureAgentId, List<long[]> intervals)
+          throws SchedulerServiceDatabaseException {
+    final String orgId = securityService.getOrganization().getId();
+    synchronized (periodIndexes) {
+      ScheduledPeriodIndex index = periodIndexes.get(orgId);
+      if (index == null) {
+        index = loadPeriodIndex(orgId);
+        periodIndexes.put(orgId, index);
+      }
+      return index.findOverlapping(captureAgentId, intervals);
+    }
+  }
+
+  /**
+   * Loads the scheduled periods of an organization from the database. This is called while holding the lock on
+   * {@link #periodIndexes} so that writes committed during the load are applied to the index afterwards and not lost.
+   */
+  @SuppressWarnings("unchecked")
+  private ScheduledPeriodIndex loadPeriodIndex(String orgId) throws SchedulerServiceDatabaseException {
+    EntityManager em = null;
     try {
-      return query.getResultList();
+      em = emf.createEntityManager();
+      final List<Object[]> rows = em.createNamedQuery("ExtendedEvent.findPeriods")
+          .setParameter("org", orgId)
+          .getResultList();
+      final ScheduledPeriodIndex index = new ScheduledPeriodIndex();
+      for (Object[] row : rows) {
+        index.put((String) row[0], (String) row[1], ((Date) row[2]).getTime(), ((Date) row[3]).getTime());
+      }
+      logger.debug("Loaded {} scheduled periods of organization {}", index.size(), orgId);
+      return index;
     } catch (Exception e) {
       throw new SchedulerServiceDatabaseException(e);
     } finally {
-      em.close();
+      if (em != null)
+        em.close();
+    }
+  }
+
+  private void updatePeriodIndex(ExtendedEventDto event) {
+    synchronized (periodIndexes) {
+      final ScheduledPeriodIndex index = periodIndexes.get(event.getOrganization());
+      if (index == null) {
+        return;
+      }
+      if (event.getCaptureAgentId() != null && event.getStartDate() != null && event.getEndDate() != null) {
+        index.put(event.getMediaPackageId(), event.getCaptureAgentId(), event.getStartDate().getTime(),
+            event.getEndDate().getTime());
+      } else {
+        index.remove(event.getMediaPackageId());
+      }
     }
   }
 
@@ -318,6 +405,12 @@ public class SchedulerServiceDatabaseImpl implements SchedulerServiceDatabase {
       }
       em.remove(entity.get());
       tx.commit();
+      synchronized (periodIndexes) {
+        final ScheduledPeriodIndex index = periodIndexes.get(orgId);
+        if (index != null) {
+          index.remove(mediapackageId);
+        }
+      }
     } catch (NotFoundException e) {
       throw e;
     } catch (Exception e) {
@@ -0,0 +1,135 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.scheduler.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.scheduler.impl.CalendarFeedCache.FeedEvent;
+
+import com.entwinemedia.fn.data.Opt;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+public class CalendarFeedCacheTest {
+
+  private static final String EMPTY = "BEGIN:VCALENDAR\r\nVERSION:2.0\r\nEND:VCALENDAR\r\n";
+
+  private final Map<String, FeedEvent> scheduled = new HashMap<>();
+  private final List<String> loaded = new ArrayList<>();
+  private int fullLoads = 0;
+
+  private CalendarFeedCache cache;
+
+  private final CalendarFeedCache.Loader loader = new CalendarFeedCache.Loader() {
+    @Override
+    public List<FeedEvent> loadAll(String agentId) {
+      fullLoads++;
+      return new ArrayList<>(scheduled.values());
+    }
+
+    @Override
+    public List<FeedEvent> load(String agentId, Collection<String> mediaPackageIds) {
+      final List<FeedEvent> events = new ArrayList<>();
+      for (String id : mediaPackageIds) {
+        loaded.add(id);
+        if (scheduled.containsKey(id)) {
+          events.add(scheduled.get(id));
+        }
+      }
+      return events;
+    }
+  };
+
+  @Before
+  public void setUp() {
+    cache = new CalendarFeedCache(EMPTY, 600);
+  }
+
+  private static FeedEvent event(String id, String series, long startOffsetHours) {
+    final long start = System.currentTimeMillis() + startOffsetHours * 3600000L;
+    return new FeedEvent(id, series, new Date(start), new Date(start + 3600000L), "BEGIN:VEVENT\r\nUID:" + id
+            + "\r\nEND:VEVENT\r\n");
+  }
+
+  private String calendar() throws Exception {
+    return cache.getCalendar("org", "agent", Opt.none(), Opt.none(), loader);
+  }
+
+  @Test
+  public void testCalendarIsRenderedOnce() throws Exception {
+    scheduled.put("b", event("b", null, 2));
+    scheduled.put("a", event("a", null, 1));
+    final String calendar = calendar();
+    assertEquals("BEGIN:VCALENDAR\r\nVERSION:2.0\r\nBEGIN:VEVENT\r\nUID:a\r\nEND:VEVENT\r\n"
+            + "BEGIN:VEVENT\r\nUID:b\r\nEND:VEVENT\r\nEND:VCALENDAR\r\n", calendar);
+    assertEquals(calendar, calendar());
+    assertEquals(1, fullLoads);
+    assertTrue(loaded.isEmpty());
+  }
+
+  @Test
+  public void testChangedEventsAreRenderedAgain() throws Exception {
+    scheduled.put("a", event("a", null, 1));
+    calendar();
+
+    scheduled.put("b", event("b", null, 2));
+    cache.eventChanged("org", "b", "agent");
+    cache.eventChanged("org", "a", "other-agent");
+    final String calendar = calendar();
+    assertTrue(calendar.contains("UID:b"));
+    assertFalse(calendar.contains("UID:a"));
+    assertEquals(1, fullLoads);
+    assertEquals(1, loaded.size());
+
+    cache.eventRemoved("org", "b");
+    assertEquals(EMPTY, calendar());
+  }
+
+  @Test
+  public void testFilters() throws Exception {
+    scheduled.put("a", event("a", "series", 1));
+    scheduled.put("b", event("b", null, 5));
+    scheduled.put("c", event("c", null, -3));
+    calendar();
+
+    final String series = cache.getCalendar("org", "agent", Opt.some("series"), Opt.none(), loader);
+    assertTrue(series.contains("UID:a"));
+    assertFalse(series.contains("UID:b"));
+
+    final Date cutoff = new Date(System.currentTimeMillis() + 3 * 3600000L);
+    final String cut = cache.getCalendar("org", "agent", Opt.none(), Opt.some(cutoff), loader);
+    assertTrue(cut.contains("UID:a"));
+    assertFalse(cut.contains("UID:b"));
+    assertFalse(cut.contains("UID:c"));
+  }
+}
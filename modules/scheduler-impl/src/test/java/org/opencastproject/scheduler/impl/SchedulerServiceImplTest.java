@@ -184,6 +184,7 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Hashtable;
 import java.util.List;
 import java.util.Map;
 import java.util.Properties;
@@ -326,6 +327,7 @@ public class SchedulerServiceImplTest {
     schedSvc.setAssetManager(assetManager);
 
     schedSvc.lastModifiedCache.invalidateAll();
+    schedSvc.calendarFeeds.invalidateAll();
   }
 
   @After
@@ -884,6 +886,50 @@ public class SchedulerServiceImplTest {
     }
   }
 
+  @Test
+  public void testAddMultipleEventsBatched() throws Exception {
+    final Hashtable<String, String> properties = new Hashtable<>();
+    properties.put("multiple_events_batch_size", "7");
+    schedSvc.updated(properties);
+
+    final MessageSender messageSender = schedSvc.getMessageSender();
+    EasyMock.resetToNice(messageSender);
+    final Capture<SchedulerItemList> messages = Capture.newInstance(CaptureType.ALL);
+    messageSender.sendObjectMessage(eq(SchedulerItem.SCHEDULER_QUEUE), eq(MessageSender.DestinationType.Queue),
+            capture(messages));
+    EasyMock.expectLastCall().anyTimes();
+    EasyMock.replay(messageSender);
+
+    try {
+      final RRule rrule = new RRule("FREQ=WEEKLY;BYDAY=MO,WE,FR;BYHOUR=7;BYMINUTE=0");
+      final Date start = new Date(1546844400000L); // 2019-01-07T07:00:00Z
+      final Date end = new Date(1552892400000L); // 2019-03-18T07:00:00Z
+      final String captureAgentId = "Device B";
+      final MediaPackage mpTemplate = generateEvent(Opt.some("Recording1"));
+      final DublinCoreCatalog dublinCoreCatalog = generateEvent(captureAgentId,
+              Opt.some(mpTemplate.getIdentifier().toString()), Opt.some("Test Title"), start, end);
+      addDublinCore(Opt.some(mpTemplate.getIdentifier().toString()), mpTemplate, dublinCoreCatalog);
+      final Map<String, Period> scheduled = schedSvc.addMultipleEvents(rrule, start, end, 3600000L,
+              TimeZone.getTimeZone("UTC"), captureAgentId, Collections.emptySet(), mpTemplate, wfProperties,
+              Collections.singletonMap("foo", "bar"), Opt.none());
+
+      // One message per batch, carrying the updates of all events of the batch
+      assertEquals((scheduled.size() + 6) / 7, messages.getValues().size());
+      final Set<String> announced = new HashSet<>();
+      for (SchedulerItemList message : messages.getValues()) {
+        for (SchedulerItemList eventItems : message.getBatch()) {
+          assertTrue(eventItems.getItems().length > 0);
+          announced.add(eventItems.getId());
+        }
+      }
+      assertEquals(scheduled.keySet(), announced);
+      assertEquals(scheduled.size(), schedSvc.search(Opt.some(captureAgentId), Opt.none(), Opt.none(), Opt.none(),
+              Opt.none()).size());
+    } finally {
+      schedSvc.updated(new Hashtable<>());
+    }
+  }
+
   @Test
   public void testGetArchivedOnly() throws Exception {
     MediaPackage mediaPackage = generateEvent(Opt.some("1"));
@@ -0,0 +1,79 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.scheduler.impl.persistence;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public class ScheduledPeriodIndexTest {
+
+  private ScheduledPeriodIndex index;
+
+  @Before
+  public void setUp() {
+    index = new ScheduledPeriodIndex();
+    index.put("a", "agent1", 100, 200);
+    index.put("b", "agent1", 300, 400);
+    index.put("c", "agent1", 0, 1000);
+    index.put("d", "agent2", 100, 200);
+  }
+
+  @Test
+  public void testFindOverlapping() {
+    assertEquals(Arrays.asList("c", "a"), find("agent1", 150, 250));
+    assertEquals(Arrays.asList("c"), find("agent1", 200, 300));
+    assertEquals(Arrays.asList("d"), find("agent2", 0, 101));
+    assertTrue(find("agent2", 200, 300).isEmpty());
+    assertTrue(find("agent3", 0, 1000).isEmpty());
+  }
+
+  @Test
+  public void testFindOverlappingMultipleIntervals() {
+    assertEquals(Arrays.asList("c", "a", "b"),
+        index.findOverlapping("agent1", Arrays.asList(new long[] { 350, 360 }, new long[] { 110, 120 },
+            new long[] { 390, 500 })));
+  }
+
+  @Test
+  public void testUpdateAndRemove() {
+    index.put("c", "agent2", 500, 600);
+    assertEquals(Arrays.asList("a"), find("agent1", 150, 250));
+    assertEquals(Arrays.asList("c"), find("agent2", 550, 560));
+
+    index.remove("a");
+    index.remove("unknown");
+    assertTrue(find("agent1", 150, 250).isEmpty());
+    assertEquals(3, index.size());
+  }
+
+  private List<String> find(String captureAgentId, long start, long end) {
+    return index.findOverlapping(captureAgentId, Collections.singletonList(new long[] { start, end }));
+  }
+}
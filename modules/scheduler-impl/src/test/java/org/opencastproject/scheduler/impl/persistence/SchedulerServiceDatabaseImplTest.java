@@ -30,6 +30,9 @@ import org.opencastproject.util.NotFoundException;
 import com.entwinemedia.fn.data.Opt;
 import com.google.gson.Gson;
 
+import net.fortuna.ical4j.model.DateTime;
+import net.fortuna.ical4j.model.Period;
+
 import org.easymock.EasyMock;
 import org.junit.Assert;
 import org.junit.Before;
@@ -798,4 +801,30 @@ public class SchedulerServiceDatabaseImplTest {
     int count = schedulerDatabase.countEvents();
     Assert.assertEquals(4, count);
   }
+
+  @Test
+  public void testGetEventsForPeriods() throws Exception {
+    final String orgId = new DefaultOrganization().getId();
+    final long oneHourMillis = 60 * 60 * 1000;
+    final long base = 1546844400000L; // 2019-01-07T07:00:00Z
+    for (int i = 0; i < 3; i++) {
+      final Date start = new Date(base + 2 * i * oneHourMillis);
+      schedulerDatabase.storeEvent("mp" + i, orgId, Opt.some("agent1"), Opt.some(start),
+          Opt.some(new Date(start.getTime() + oneHourMillis)), Opt.none(), Opt.none(), Opt.none(), Opt.none(),
+          Opt.none(), Opt.none(), Opt.none(), Opt.none());
+    }
+    final List<Period> periods = Arrays.asList(
+        new Period(new DateTime(base + 4 * oneHourMillis + 1000), new DateTime(base + 5 * oneHourMillis)),
+        new Period(new DateTime(base + 1000), new DateTime(base + 2000)));
+    Assert.assertEquals(Arrays.asList("mp0", "mp2"), schedulerDatabase.getEvents("agent1", periods, 0));
+    Assert.assertTrue(schedulerDatabase.getEvents("agent2", periods, 0).isEmpty());
+
+    // Writes after the first lookup have to be visible to the next one
+    schedulerDatabase.deleteEvent("mp0");
+    schedulerDatabase.storeEvent("mp1", orgId, Opt.none(), Opt.some(new Date(base)), Opt.none(), Opt.none(),
+        Opt.none(), Opt.none(), Opt.none(), Opt.none(), Opt.none(), Opt.none(), Opt.none());
+    Assert.assertEquals(Arrays.asList("mp1", "mp2"), schedulerDatabase.getEvents("agent1", periods, 0));
+    Assert.assertEquals(Collections.singletonList("mp1"),
+        schedulerDatabase.getEvents("agent1", new Date(base), new Date(base + 1000), 0));
+  }
 }
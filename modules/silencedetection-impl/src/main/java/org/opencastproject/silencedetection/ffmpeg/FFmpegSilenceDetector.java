@@ -27,6 +27,7 @@ import org.opencastproject.silencedetection.api.MediaSegment;
 import org.opencastproject.silencedetection.api.MediaSegments;
 import org.opencastproject.silencedetection.api.SilenceDetectionFailedException;
 import org.opencastproject.silencedetection.impl.SilenceDetectionProperties;
+import org.opencastproject.util.NativeProcessBudget;
 import org.opencastproject.util.NotFoundException;
 import org.opencastproject.workspace.api.Workspace;
 
@@ -155,19 +156,24 @@ public class FFmpegSilenceDetector {
 
     ProcessBuilder pbuilder = new ProcessBuilder(command);
     List<String> segmentsStrings = new LinkedList<String>();
-    Process process = pbuilder.start();
-    try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-      String line = reader.readLine();
-      while (null != line) {
-        /* We want only lines from the silence detection filter */
-        logger.debug("FFmpeg output: {}", line);
-        if (line.startsWith("[silencedetect ")) {
-          segmentsStrings.add(line);
+    try (NativeProcessBudget.Allocation allocation = NativeProcessBudget.allocate(1)) {
+      Process process = pbuilder.start();
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
+        String line = reader.readLine();
+        while (null != line) {
+          /* We want only lines from the silence detection filter */
+          logger.debug("FFmpeg output: {}", line);
+          if (line.startsWith("[silencedetect ")) {
+            segmentsStrings.add(line);
+          }
+          line = reader.readLine();
         }
-        line = reader.readLine();
+      } catch (IOException e) {
+        logger.error("Error executing ffmpeg", e);
       }
-    } catch (IOException e) {
-      logger.error("Error executing ffmpeg", e);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SilenceDetectionFailedException("Interrupted while waiting to run ffmpeg", e);
     }
 
     /*
@@ -28,6 +28,8 @@ import org.opencastproject.statistics.api.DataResolution;
 import org.opencastproject.statistics.api.StatisticsProvider;
 import org.opencastproject.util.NotFoundException;
 
+import java.io.IOException;
+import java.io.Writer;
 import java.time.Instant;
 import java.time.ZoneId;
 import java.util.Map;
@@ -101,4 +103,82 @@ public interface StatisticsExportService {
           AbstractSearchIndex index, ZoneId zoneId, boolean fullMetadata, DetailLevel detailLevel, int limit, int offset,
           Map<String, String> filters)
           throws SearchIndexException, UnauthorizedException, NotFoundException;
+
+  /**
+   * Write a CSV representation for the query result based on the given parameters to a writer. Rows are written as
+   * soon as their data is available, so that large exports do not need to be kept in memory. The level of detail is
+   * determined by the configured provider mappings.
+   *
+   * @param writer
+   *          The writer to write the CSV data to. The writer is flushed, but not closed.
+   * @param provider
+   *          The provider to get the data from.
+   * @param resourceId
+   *          The id of the resource to get the data for.
+   * @param from
+   *          The start date of the time range to get the data for.
+   * @param to
+   *          The end date of the time range to get the data for.
+   * @param dataResolution
+   *          The data resolution.
+   * @param index
+   *          The index to get event or series meta data from.
+   * @param zoneId
+   *          The ZoneId to use for date formatting.
+   * @throws SearchIndexException
+   *           If the search index cannot be queried.
+   * @throws UnauthorizedException
+   *           If the user is not authorized to get the desired data.
+   * @throws NotFoundException
+   *           If the resource identified by resourceId could not be found.
+   * @throws IOException
+   *           If writing to the writer fails.
+   */
+  void writeCSV(Writer writer, StatisticsProvider provider, String resourceId, Instant from, Instant to,
+          DataResolution dataResolution, AbstractSearchIndex index, ZoneId zoneId)
+          throws SearchIndexException, UnauthorizedException, NotFoundException, IOException;
+
+  /**
+   * Write a CSV representation for the query result based on the given parameters to a writer. Rows are written as
+   * soon as their data is available, so that large exports do not need to be kept in memory.
+   *
+   * @param writer
+   *          The writer to write the CSV data to. The writer is flushed, but not closed.
+   * @param provider
+   *          The provider to get the data from.
+   * @param resourceId
+   *          The id of the resource to get the data for.
+   * @param from
+   *          The start date of the time range to get the data for.
+   * @param to
+   *          The end date of the time range to get the data for.
+   * @param dataResolution
+   *          The data resolution.
+   * @param index
+   *          The index to get event or series meta data from.
+   * @param zoneId
+   *          The ZoneId to use for date formatting.
+   * @param fullMetadata
+   *          When true, creates a full export with all available meta data fields.
+   * @param detailLevel
+   *          The level of detail to export the data with.
+   * @param limit
+   *         limit to use for pagination. Pass 0 for unlimited.
+   * @param offset
+   *         offset to use for pagination.
+   * @param filters
+   *         filters to apply when searching for events/series.
+   * @throws SearchIndexException
+   *           If the search index cannot be queried.
+   * @throws UnauthorizedException
+   *           If the user is not authorized to get the desired data.
+   * @throws NotFoundException
+   *           If the resource identified by resourceId could not be found.
+   * @throws IOException
+   *           If writing to the writer fails.
+   */
+  void writeCSV(Writer writer, StatisticsProvider provider, String resourceId, Instant from, Instant to,
+          DataResolution dataResolution, AbstractSearchIndex index, ZoneId zoneId, boolean fullMetadata,
+          DetailLevel detailLevel, int limit, int offset, Map<String, String> filters)
+          throws SearchIndexException, UnauthorizedException, NotFoundException, IOException;
 }
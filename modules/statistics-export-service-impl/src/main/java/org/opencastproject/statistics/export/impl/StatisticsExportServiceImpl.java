@@ -24,15 +24,21 @@ package org.opencastproject.statistics.export.impl;
 import static org.opencastproject.util.data.functions.Misc.chuck;
 
 import org.opencastproject.assetmanager.api.AssetManager;
+import org.opencastproject.assetmanager.api.Snapshot;
+import org.opencastproject.assetmanager.api.query.AQueryBuilder;
+import org.opencastproject.assetmanager.api.query.ARecord;
+import org.opencastproject.assetmanager.api.query.Predicate;
 import org.opencastproject.index.service.api.IndexService;
 import org.opencastproject.index.service.impl.index.AbstractSearchIndex;
 import org.opencastproject.index.service.impl.index.event.Event;
+import org.opencastproject.index.service.impl.index.event.EventIndexSchema;
 import org.opencastproject.index.service.impl.index.event.EventSearchQuery;
 import org.opencastproject.index.service.impl.index.series.Series;
+import org.opencastproject.index.service.impl.index.series.SeriesIndexSchema;
 import org.opencastproject.index.service.impl.index.series.SeriesSearchQuery;
 import org.opencastproject.matterhorn.search.SearchIndexException;
 import org.opencastproject.matterhorn.search.SearchQuery;
-import org.opencastproject.matterhorn.search.SearchResult;
+import org.opencastproject.matterhorn.search.SearchQuery.Order;
 import org.opencastproject.matterhorn.search.SearchResultItem;
 import org.opencastproject.mediapackage.MediaPackage;
 import org.opencastproject.metadata.dublincore.DublinCoreMetadataCollection;
@@ -40,6 +46,7 @@ import org.opencastproject.metadata.dublincore.MetadataField;
 import org.opencastproject.security.api.Organization;
 import org.opencastproject.security.api.SecurityService;
 import org.opencastproject.security.api.UnauthorizedException;
+import org.opencastproject.security.util.SecurityContext;
 import org.opencastproject.statistics.api.DataResolution;
 import org.opencastproject.statistics.api.StatisticsProvider;
 import org.opencastproject.statistics.api.StatisticsService;
@@ -61,6 +68,7 @@ import org.slf4j.LoggerFactory;
 
 import java.io.IOException;
 import java.io.StringWriter;
+import java.io.Writer;
 import java.time.Instant;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
@@ -73,6 +81,12 @@ import java.util.Dictionary;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 
 
@@ -84,12 +98,44 @@ public class StatisticsExportServiceImpl implements StatisticsExportService, Man
   private static final String CFG_KEY_SERIES_TO_EVENT_PROVIDER_MAPPINGS = "series.to.event.provider.mappings";
   private static final String CFG_KEY_ORGANIZATION_TO_EVENT_PROVIDER_MAPPINGS = "organization.to.event.provider.mappings";
   private static final String CFG_KEY_ORGANIZATION_TO_SERIES_PROVIDER_MAPPINGS = "organization.to.series.provider.mappings";
+  private static final String CFG_KEY_EXPORT_PARALLELISM = "export.parallelism";
+  private static final String CFG_KEY_EXPORT_PAGE_SIZE = "export.page.size";
 
+  private static final int DEFAULT_EXPORT_PARALLELISM = 4;
+  private static final int DEFAULT_EXPORT_PAGE_SIZE = 500;
+
+  /** Fetches a page of search results */
+  @FunctionalInterface
+  private interface PageFetcher<T> {
+    SearchResultItem<T>[] fetch(int limit, int offset) throws SearchIndexException;
+  }
+
+  /** The data of a single exported resource */
+  private static final class ExportRow {
+    private final String resourceId;
+    private final String title;
+    private final TimeSeries data;
+    /** The full metadata or <code>null</code> if only the title should be exported */
+    private final List<MetadataField> metadata;
+
+    private ExportRow(String resourceId, String title, TimeSeries data, List<MetadataField> metadata) {
+      this.resourceId = resourceId;
+      this.title = title;
+      this.data = data;
+      this.metadata = metadata;
+    }
+  }
 
   private Map<String, String> seriesToEventProviderMapping = new HashMap<>();
   private Map<String, String> organizationToEventProviderMapping = new HashMap<>();
   private Map<String, String> organizationToSeriesProviderMapping = new HashMap<>();
 
+  private int pageSize = DEFAULT_EXPORT_PAGE_SIZE;
+
+  /** Fetches the data of exported resources. Limits the number of parallel requests to the statistics providers. */
+  private final ThreadPoolExecutor executor = new ThreadPoolExecutor(DEFAULT_EXPORT_PARALLELISM,
+          DEFAULT_EXPORT_PARALLELISM, 60L, TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+
   private IndexService indexService;
   private SecurityService securityService;
   private StatisticsService statisticsService;
@@ -109,6 +155,36 @@ public class StatisticsExportServiceImpl implements StatisticsExportService, Man
     if (organizationToSeriesProviderMappings != null) {
       this.organizationToSeriesProviderMapping = getMapping(organizationToSeriesProviderMappings);
     }
+    final String parallelism = (String) dictionary.get(CFG_KEY_EXPORT_PARALLELISM);
+    setParallelism(parallelism == null ? DEFAULT_EXPORT_PARALLELISM : getPositiveInt(CFG_KEY_EXPORT_PARALLELISM,
+            parallelism));
+    final String exportPageSize = (String) dictionary.get(CFG_KEY_EXPORT_PAGE_SIZE);
+    this.pageSize = exportPageSize == null ? DEFAULT_EXPORT_PAGE_SIZE : getPositiveInt(CFG_KEY_EXPORT_PAGE_SIZE,
+            exportPageSize);
+  }
+
+  private static int getPositiveInt(String key, String value) {
+    try {
+      final int result = Integer.parseInt(value.trim());
+      if (result > 0) {
+        return result;
+      }
+    } catch (NumberFormatException e) {
+      // handled below
+    }
+    throw new ConfigurationException("Value of " + key + " must be a positive number: " + value);
+  }
+
+  private synchronized void setParallelism(int parallelism) {
+    // The core pool size must never exceed the maximum pool size
+    if (parallelism > executor.getMaximumPoolSize()) {
+      executor.setMaximumPoolSize(parallelism);
+      executor.setCorePoolSize(parallelism);
+    } else {
+      executor.setCorePoolSize(parallelism);
+      executor.setMaximumPoolSize(parallelism);
+    }
+    logger.debug("Fetching statistics data of up to {} resources in parallel", parallelism);
   }
 
   private Map<String, String> getMapping(String seriesProviderMappings) {
@@ -125,10 +201,12 @@ public class StatisticsExportServiceImpl implements StatisticsExportService, Man
 
   public void activate(ComponentContext cc) {
     logger.info("Activating Statistics Service");
+    executor.allowCoreThreadTimeOut(true);
   }
 
   public void deactivate(ComponentContext cc) {
     logger.info("Deactivating Statistics Service");
+    executor.shutdownNow();
   }
 
   public void setIndexService(IndexService indexService) {
@@ -176,41 +254,9 @@ public class StatisticsExportServiceImpl implements StatisticsExportService, Man
   public String getCSV(StatisticsProvider provider, String resourceId, Instant from, Instant to, DataResolution
       dataResolution, AbstractSearchIndex index, ZoneId zoneId) throws SearchIndexException, UnauthorizedException,
       NotFoundException {
-    if (!(provider instanceof TimeSeriesProvider)) {
-      throw new IllegalStateException("CSV export not supported for provider of type " + provider.getClass().getName());
-    }
     final StringWriter stringWriter = new StringWriter();
-    try (CSVPrinter printer = CSVFormat.RFC4180.print(stringWriter)) {
-      switch (provider.getResourceType()) {
-        case EPISODE:
-          printEvent(provider, resourceId, from, to, dataResolution, index, zoneId, printer, false, 0, 0);
-          break;
-        case SERIES:
-          if (seriesToEventProviderMapping.containsKey(provider.getId())) {
-            // Advanced: instead of exporting the series data we export the data of all series events
-            printSeriesEvents(provider, resourceId, from, to, dataResolution, index, zoneId, printer, false,
-                    0, 0, Collections.emptyMap());
-          } else {
-            // Default: just export series data
-            printSeries(provider, resourceId, from, to, dataResolution, index, zoneId, printer, false, 0, 0);
-          }
-          break;
-        case ORGANIZATION:
-          if (organizationToEventProviderMapping.containsKey(provider.getId())) {
-            // Advanced: instead of exporting the organization data we export the data of all organization events
-            printOrganizationEvents(provider, resourceId, from, to, dataResolution, index, zoneId, printer, false,
-                    0, 0, Collections.emptyMap());
-          } else if (organizationToSeriesProviderMapping.containsKey(provider.getId())) {
-            // Advanced: instead of exporting the organization data we export the data of all organization series
-            printOrganizationSeries(provider, resourceId, from, to, dataResolution, index, zoneId, printer, false,
-                    0, 0, Collections.emptyMap());
-          } else {
-            printOrganization(provider, resourceId, from, to, dataResolution, zoneId, printer, 0, 0);
-          }
-          break;
-        default:
-          throw new IllegalStateException("Unknown resource type: " + provider.getResourceType().name());
-      }
+    try {
+      writeCSV(stringWriter, provider, resourceId, from, to, dataResolution, index, zoneId);
     } catch (IOException e) {
       return chuck(e);
     }
@@ -222,47 +268,87 @@ public class StatisticsExportServiceImpl implements StatisticsExportService, Man
           dataResolution, AbstractSearchIndex index, ZoneId zoneId, boolean fullMetadata, DetailLevel detailLevel,
           int limit, int offset, Map<String, String> filters)
           throws SearchIndexException, UnauthorizedException, NotFoundException {
-    if (!(provider instanceof TimeSeriesProvider)) {
-      throw new IllegalStateException("CSV export not supported for provider of type " + provider.getClass().getName());
-    }
     final StringWriter stringWriter = new StringWriter();
-    try (CSVPrinter printer = CSVFormat.RFC4180.print(stringWriter)) {
-      switch (provider.getResourceType()) {
-        case EPISODE:
-          printEvent(provider, resourceId, from, to, dataResolution, index, zoneId, printer, fullMetadata, limit, offset);
-          break;
-        case SERIES:
-          if (detailLevel == DetailLevel.EPISODE) {
-            // Advanced: instead of exporting the series data we export the data of all series events
-            printSeriesEvents(provider, resourceId, from, to, dataResolution, index, zoneId, printer, fullMetadata,
-                    limit, offset, filters);
-          } else {
-            // Default: just export series data
-            printSeries(provider, resourceId, from, to, dataResolution, index, zoneId, printer, fullMetadata, limit, offset);
-          }
-          break;
-        case ORGANIZATION:
-          if (detailLevel == DetailLevel.EPISODE) {
-            // Advanced: instead of exporting the organization data we export the data of all organization events
-            printOrganizationEvents(provider, resourceId, from, to, dataResolution, index, zoneId, printer, fullMetadata,
-                    limit, offset, filters);
-          } else if (detailLevel == DetailLevel.SERIES) {
-            // Advanced: instead of exporting the organization data we export the data of all organization series
-            printOrganizationSeries(provider, resourceId, from, to, dataResolution, index, zoneId, printer, fullMetadata,
-                    limit, offset, filters);
-          } else {
-            printOrganization(provider, resourceId, from, to, dataResolution, zoneId, printer, limit, offset);
-          }
-          break;
-        default:
-          throw new IllegalStateException("Unknown resource type: " + provider.getResourceType().name());
-      }
+    try {
+      writeCSV(stringWriter, provider, resourceId, from, to, dataResolution, index, zoneId, fullMetadata, detailLevel,
+              limit, offset, filters);
     } catch (IOException e) {
       return chuck(e);
     }
     return stringWriter.toString();
   }
 
+  @Override
+  public void writeCSV(Writer writer, StatisticsProvider provider, String resourceId, Instant from, Instant to,
+          DataResolution dataResolution, AbstractSearchIndex index, ZoneId zoneId)
+          throws SearchIndexException, UnauthorizedException, NotFoundException, IOException {
+    writeCSV(writer, provider, resourceId, from, to, dataResolution, index, zoneId, false,
+            getMappedDetailLevel(provider), 0, 0, Collections.emptyMap());
+  }
+
+  @Override
+  public void writeCSV(Writer writer, StatisticsProvider provider, String resourceId, Instant from, Instant to,
+          DataResolution dataResolution, AbstractSearchIndex index, ZoneId zoneId, boolean fullMetadata,
+          DetailLevel detailLevel, int limit, int offset, Map<String, String> filters)
+          throws SearchIndexException, UnauthorizedException, NotFoundException, IOException {
+    if (!(provider instanceof TimeSeriesProvider)) {
+      throw new IllegalStateException("CSV export not supported for provider of type " + provider.getClass().getName());
+    }
+    // The printer is not closed since the writer is owned by the caller
+    final CSVPrinter printer = CSVFormat.RFC4180.print(writer);
+    switch (provider.getResourceType()) {
+      case EPISODE:
+        printEvent(provider, resourceId, from, to, dataResolution, index, zoneId, printer, fullMetadata, limit, offset);
+        break;
+      case SERIES:
+        if (detailLevel == DetailLevel.EPISODE) {
+          // Advanced: instead of exporting the series data we export the data of all series events
+          printSeriesEvents(provider, resourceId, from, to, dataResolution, index, zoneId, printer, fullMetadata,
+                  limit, offset, filters);
+        } else {
+          // Default: just export series data
+          printSeries(provider, resourceId, from, to, dataResolution, index, zoneId, printer, fullMetadata, limit, offset);
+        }
+        break;
+      case ORGANIZATION:
+        if (detailLevel == DetailLevel.EPISODE) {
+          // Advanced: instead of exporting the organization data we export the data of all organization events
+          printOrganizationEvents(provider, resourceId, from, to, dataResolution, index, zoneId, printer, fullMetadata,
+                  limit, offset, filters);
+        } else if (detailLevel == DetailLevel.SERIES) {
+          // Advanced: instead of exporting the organization data we export the data of all organization series
+          printOrganizationSeries(provider, resourceId, from, to, dataResolution, index, zoneId, printer, fullMetadata,
+                  limit, offset, filters);
+        } else {
+          printOrganization(provider, resourceId, from, to, dataResolution, zoneId, printer, limit, offset);
+        }
+        break;
+      default:
+        throw new IllegalStateException("Unknown resource type: " + provider.getResourceType().name());
+    }
+    printer.flush();
+  }
+
+  /**
+   * Get the detail level to export a provider with if no detail level is requested explicitly. This depends on the
+   * configured provider mappings.
+   */
+  private DetailLevel getMappedDetailLevel(StatisticsProvider provider) {
+    switch (provider.getResourceType()) {
+      case SERIES:
+        return seriesToEventProviderMapping.containsKey(provider.getId()) ? DetailLevel.EPISODE : DetailLevel.SERIES;
+      case ORGANIZATION:
+        if (organizationToEventProviderMapping.containsKey(provider.getId())) {
+          return DetailLevel.EPISODE;
+        } else if (organizationToSeriesProviderMapping.containsKey(provider.getId())) {
+          return DetailLevel.SERIES;
+        }
+        return DetailLevel.ORGANIZATION;
+      default:
+        return DetailLevel.EPISODE;
+    }
+  }
+
 
   private void printEvent(StatisticsProvider provider, String resourceId, Instant from, Instant to,
                           DataResolution dataResolution, AbstractSearchIndex index, ZoneId zoneId, CSVPrinter printer,
@@ -315,19 +401,7 @@ public class StatisticsExportServiceImpl implements StatisticsExportService, Man
       query = (EventSearchQuery) applyFilter(filter.getKey(), filter.getValue(), query);
     }
 
-    final SearchResult<Event> result = index.getByQuery(query);
-    boolean first = offset == 0;
-    for (SearchResultItem<Event> currentEvent : result.getItems()) {
-      final TimeSeries dataEvent = statisticsService.getTimeSeriesData(eventProvider,
-          currentEvent.getSource().getIdentifier(), from, to, dataResolution, zoneId);
-      if (fullMetadata) {
-        this.printFullEventData(printer, dataEvent, dataResolution, currentEvent.getSource().getIdentifier(), zoneId, first);
-      } else {
-        printData(printer, dataEvent, dataResolution, currentEvent.getSource().getIdentifier(),
-                currentEvent.getSource().getTitle(), zoneId, first);
-      }
-      first = false;
-    }
+    printEvents(eventProvider, query, from, to, dataResolution, index, zoneId, printer, fullMetadata, limit, offset);
   }
 
   private void printOrganization(StatisticsProvider provider, String resourceId, Instant from, Instant to,
@@ -362,19 +436,7 @@ public class StatisticsExportServiceImpl implements StatisticsExportService, Man
     for (Map.Entry<String, String> filter: filters.entrySet()) {
       query = (EventSearchQuery) applyFilter(filter.getKey(), filter.getValue(), query);
     }
-    final SearchResult<Event> result = index.getByQuery(query);
-    boolean first = offset == 0;
-    for (SearchResultItem<Event> currentEvent : result.getItems()) {
-      final TimeSeries dataEvent = statisticsService.getTimeSeriesData(eventProvider,
-              currentEvent.getSource().getIdentifier(), from, to, dataResolution, zoneId);
-      if (fullMetadata) {
-        this.printFullEventData(printer, dataEvent, dataResolution, currentEvent.getSource().getIdentifier(), zoneId, first);
-      } else {
-        printData(printer, dataEvent, dataResolution, currentEvent.getSource().getIdentifier(),
-                currentEvent.getSource().getTitle(), zoneId, first);
-      }
-      first = false;
-    }
+    printEvents(eventProvider, query, from, to, dataResolution, index, zoneId, printer, fullMetadata, limit, offset);
   }
 
 
@@ -397,18 +459,115 @@ public class StatisticsExportServiceImpl implements StatisticsExportService, Man
     for (Map.Entry<String, String> filter: filters.entrySet()) {
       query = (SeriesSearchQuery) applyFilter(filter.getKey(), filter.getValue(), query);
     }
-    final SearchResult<Series> result = index.getByQuery(query);
+    // Pages are fetched with separate queries, so their order must be well defined
+    final SeriesSearchQuery seriesQuery = (SeriesSearchQuery) query.withSortOrder(SeriesIndexSchema.UID,
+            Order.Ascending);
+    printPaged(
+        (pageLimit, pageOffset) -> index.getByQuery(
+            (SeriesSearchQuery) seriesQuery.withLimit(pageLimit).withOffset(pageOffset)).getItems(),
+        page -> series -> new ExportRow(
+            series.getIdentifier(),
+            series.getTitle(),
+            statisticsService.getTimeSeriesData(seriesProvider, series.getIdentifier(), from, to, dataResolution,
+                zoneId),
+            fullMetadata ? getSeriesMetadata(series.getIdentifier()) : null),
+        dataResolution, zoneId, printer, limit, offset);
+  }
+
+  private void printEvents(StatisticsProvider eventProvider, EventSearchQuery query, Instant from, Instant to,
+                           DataResolution dataResolution, AbstractSearchIndex index, ZoneId zoneId, CSVPrinter printer,
+                           boolean fullMetadata, int limit, int offset)
+          throws SearchIndexException, IOException {
+    // Pages are fetched with separate queries, so their order must be well defined
+    query.withSortOrder(EventIndexSchema.UID, Order.Ascending);
+    printPaged(
+        (pageLimit, pageOffset) -> index.getByQuery(
+            (EventSearchQuery) query.withLimit(pageLimit).withOffset(pageOffset)).getItems(),
+        page -> {
+          // Load the media packages of the whole page at once
+          final Map<String, MediaPackage> mediaPackages = fullMetadata
+              ? getMediaPackages(page.stream().map(Event::getIdentifier).collect(Collectors.toList()))
+              : Collections.emptyMap();
+          return event -> new ExportRow(
+              event.getIdentifier(),
+              event.getTitle(),
+              statisticsService.getTimeSeriesData(eventProvider, event.getIdentifier(), from, to, dataResolution,
+                  zoneId),
+              fullMetadata ? getEventMetadata(mediaPackages.get(event.getIdentifier())) : null);
+        },
+        dataResolution, zoneId, printer, limit, offset);
+  }
+
+  /**
+   * Print the rows of a list of resources fetched from the index. The index is queried page by page and the data of all
+   * resources of a page is fetched in parallel. Rows are printed in the order returned by the index, so at most one page
+   * of rows is held in memory.
+   *
+   * @param fetcher
+   *          Fetches a page of resources from the index.
+   * @param rowBuilder
+   *          Prepares fetching the data of the resources of a page, e.g. by loading data of all resources at once, and
+   *          returns a function fetching the data of a single resource. The returned function is called in parallel,
+   *          within the security context of the caller.
+   * @param limit
+   *          The maximum number of resources to print. 0 means unlimited.
+   * @param offset
+   *          The number of resources to skip.
+   */
+  private <T> void printPaged(PageFetcher<T> fetcher, Function<List<T>, Function<T, ExportRow>> rowBuilder,
+          DataResolution dataResolution,
+          ZoneId zoneId, CSVPrinter printer, int limit, int offset) throws SearchIndexException, IOException {
+    final SecurityContext securityContext = new SecurityContext(securityService, securityService.getOrganization(),
+        securityService.getUser());
     boolean first = offset == 0;
-    for (SearchResultItem<Series> currentSeries : result.getItems()) {
-      final TimeSeries dataEvent = statisticsService.getTimeSeriesData(seriesProvider,
-              currentSeries.getSource().getIdentifier(), from, to, dataResolution, zoneId);
-      if (fullMetadata) {
-        this.printFullSeriesData(printer, dataEvent, dataResolution, currentSeries.getSource().getIdentifier(), zoneId, first);
-      } else {
-        printData(printer, dataEvent, dataResolution, currentSeries.getSource().getIdentifier(),
-                currentSeries.getSource().getTitle(), zoneId, first);
+    int printed = 0;
+    while (limit == 0 || printed < limit) {
+      final int pageLimit = limit == 0 ? pageSize : Math.min(pageSize, limit - printed);
+      final SearchResultItem<T>[] items = fetcher.fetch(pageLimit, offset + printed);
+      final Function<T, ExportRow> pageRowBuilder = rowBuilder.apply(
+          Arrays.stream(items).map(SearchResultItem::getSource).collect(Collectors.toList()));
+      final List<Future<ExportRow>> rows = new ArrayList<>(items.length);
+      try {
+        for (SearchResultItem<T> item : items) {
+          rows.add(executor.submit(() -> securityContext.runInContext(() -> pageRowBuilder.apply(item.getSource()))));
+        }
+        for (Future<ExportRow> row : rows) {
+          printRow(printer, getRow(row), dataResolution, zoneId, first);
+          first = false;
+        }
+      } finally {
+        rows.forEach(row -> row.cancel(true));
+      }
+      printed += items.length;
+      if (items.length < pageLimit) {
+        break;
+      }
+    }
+  }
+
+  private static ExportRow getRow(Future<ExportRow> row) {
+    try {
+      return row.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while exporting statistics", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof RuntimeException) {
+        throw (RuntimeException) e.getCause();
+      }
+      throw new IllegalStateException("Unable to get statistics data", e.getCause());
+    }
+  }
+
+  private static void printRow(CSVPrinter printer, ExportRow row, DataResolution dataResolution, ZoneId zoneId,
+          boolean printHeader) throws IOException {
+    if (row.metadata == null) {
+      printData(printer, row.data, dataResolution, row.resourceId, row.title, zoneId, printHeader);
+    } else {
+      if (printHeader) {
+        printer.printRecord(getFullHeader(row.metadata));
       }
-      first = false;
+      printFullData(printer, row.data, dataResolution, row.resourceId, zoneId, row.metadata);
     }
   }
 
@@ -507,23 +666,49 @@ public class StatisticsExportServiceImpl implements StatisticsExportService, Man
   }
 
   private List<MetadataField> getEventMetadata(String resourceId) {
-    final Opt<MediaPackage> optMp = this.assetManager.getMediaPackage(resourceId);
-    if (optMp.isEmpty()) {
+    return getEventMetadata(this.assetManager.getMediaPackage(resourceId).orNull());
+  }
+
+  private List<MetadataField> getEventMetadata(MediaPackage mp) {
+    if (mp == null) {
       return Collections.emptyList();
     }
     final List<DublinCoreMetadataCollection> mdcs = this.indexService.getEventCatalogUIAdapters()
             .stream()
             .filter(a -> !a.equals(this.indexService.getCommonEventCatalogUIAdapter()))
             .filter(a -> !a.getFlavor().equals(this.indexService.getCommonEventCatalogUIAdapter().getFlavor()))
-            .map(adapter -> adapter.getFields(optMp.get()))
+            .map(adapter -> adapter.getFields(mp))
             .collect(Collectors.toList());
-    mdcs.add(0, this.indexService.getCommonEventCatalogUIAdapter().getFields(optMp.get()));
+    mdcs.add(0, this.indexService.getCommonEventCatalogUIAdapter().getFields(mp));
     return mdcs.stream()
             .map(DublinCoreMetadataCollection::getFields)
             .flatMap(Collection::stream)
             .collect(Collectors.toList());
   }
 
+  /**
+   * Loads the latest media packages of several events with a single asset manager query.
+   *
+   * @return the media packages by event identifier, events without snapshot are missing
+   */
+  private Map<String, MediaPackage> getMediaPackages(List<String> resourceIds) {
+    if (resourceIds.isEmpty()) {
+      return Collections.emptyMap();
+    }
+    final AQueryBuilder q = this.assetManager.createQuery();
+    Predicate p = null;
+    for (String resourceId : resourceIds) {
+      p = p == null ? q.mediaPackageId(resourceId) : p.or(q.mediaPackageId(resourceId));
+    }
+    final Map<String, MediaPackage> mediaPackages = new HashMap<>();
+    for (ARecord record : q.select(q.snapshot()).where(p.and(q.version().isLatest())).run().getRecords()) {
+      for (Snapshot snapshot : record.getSnapshot()) {
+        mediaPackages.put(record.getMediaPackageId(), snapshot.getMediaPackage());
+      }
+    }
+    return mediaPackages;
+  }
+
   private static SearchQuery applyFilter(final String name, final String value, final EventSearchQuery query) {
     if ("presenters".equals(name)) {
       return query.withPresenter(value);
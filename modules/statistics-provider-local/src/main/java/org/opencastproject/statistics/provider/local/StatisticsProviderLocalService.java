@@ -0,0 +1,246 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.statistics.provider.local;
+
+import org.opencastproject.statistics.api.StatisticsCoordinator;
+import org.opencastproject.statistics.api.StatisticsProvider;
+import org.opencastproject.statistics.api.StatisticsWriter;
+import org.opencastproject.statistics.provider.local.provider.LocalProviderConfiguration;
+import org.opencastproject.statistics.provider.local.provider.LocalTimeSeriesStatisticsProvider;
+import org.opencastproject.statistics.provider.local.store.ColumnarStatisticsStore;
+import org.opencastproject.statistics.provider.local.store.SeriesKey;
+import org.opencastproject.util.ConfigurationException;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.felix.fileinstall.ArtifactInstaller;
+import org.osgi.service.cm.ManagedService;
+import org.osgi.service.component.ComponentContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Dictionary;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Implements statistics providers which store their data in memory-mapped files on the local file system. No external
+ * service is required.
+ */
+public class StatisticsProviderLocalService implements ManagedService, ArtifactInstaller, StatisticsWriter {
+
+  /** Logging utility */
+  private static final Logger logger = LoggerFactory.getLogger(StatisticsProviderLocalService.class);
+
+  private static final String KEY_STORAGE_DIR = "storage.dir";
+  private static final String KEY_MAX_OPEN_SEGMENTS = "max.open.segments";
+
+  private static final String DEFAULT_STORAGE_SUBDIR = "statistics";
+  private static final int DEFAULT_MAX_OPEN_SEGMENTS = 10000;
+
+  private String defaultStorageDir;
+
+  private volatile ColumnarStatisticsStore store;
+
+  private StatisticsCoordinator statisticsCoordinator;
+  private Map<String, StatisticsProvider> fileNameToProvider = new ConcurrentHashMap<>();
+
+  public void setStatisticsCoordinator(StatisticsCoordinator service) {
+    this.statisticsCoordinator = service;
+  }
+
+  public void activate(ComponentContext cc) {
+    logger.info("Activating Statistics Provider Local Service");
+    final String storageDir = cc.getBundleContext().getProperty("org.opencastproject.storage.dir");
+    if (storageDir != null) {
+      defaultStorageDir = Paths.get(storageDir, DEFAULT_STORAGE_SUBDIR).toString();
+    }
+  }
+
+  public void deactivate(ComponentContext cc) {
+    logger.info("Deactivating Statistics Provider Local Service");
+    closeStore();
+  }
+
+  @Override
+  public void install(File file) throws Exception {
+    final String json = new String(Files.readAllBytes(file.toPath()), Charset.forName("utf-8"));
+    final LocalProviderConfiguration providerCfg = LocalProviderConfiguration.fromJson(json);
+    final boolean runningTotal;
+    switch (providerCfg.getType().toLowerCase()) {
+      case "timeseries":
+        runningTotal = false;
+        break;
+      case "runningtotal":
+        runningTotal = true;
+        break;
+      default:
+        throw new ConfigurationException("Unknown local statistics type: " + providerCfg.getType());
+    }
+    for (LocalProviderConfiguration.LocalProviderSource source : providerCfg.getSources()) {
+      if (!"SUM".equalsIgnoreCase(source.getAggregation())) {
+        throw new ConfigurationException("Unsupported aggregation for local statistics: " + source.getAggregation());
+      }
+    }
+    final StatisticsProvider provider = new LocalTimeSeriesStatisticsProvider(
+            this,
+            providerCfg.getId(),
+            providerCfg.getResourceType(),
+            providerCfg.getTitle(),
+            providerCfg.getDescription(),
+            providerCfg.getSources(),
+            runningTotal);
+    fileNameToProvider.put(file.getName(), provider);
+    if (store != null) {
+      statisticsCoordinator.addProvider(provider);
+    }
+  }
+
+  @Override
+  public void uninstall(File file) {
+    if (fileNameToProvider.containsKey(file.getName())) {
+      statisticsCoordinator.removeProvider(fileNameToProvider.get(file.getName()));
+      fileNameToProvider.remove(file.getName());
+    }
+  }
+
+  @Override
+  public boolean canHandle(File file) {
+    return "statistics".equals(file.getParentFile().getName())
+        && file.getName().endsWith(".json")
+        && file.getName().toUpperCase().startsWith("local.".toUpperCase());
+  }
+
+  @Override
+  public void update(File file) throws Exception {
+    uninstall(file);
+    install(file);
+  }
+
+  @Override
+  public void updated(Dictionary<String, ?> dictionary) throws org.osgi.service.cm.ConfigurationException {
+    String storageDir = defaultStorageDir;
+    int maxOpenSegments = DEFAULT_MAX_OPEN_SEGMENTS;
+    if (dictionary != null) {
+      final String storageDirValue = StringUtils.trimToNull((String) dictionary.get(KEY_STORAGE_DIR));
+      if (storageDirValue != null) {
+        storageDir = storageDirValue;
+      }
+      final String maxOpenSegmentsValue = StringUtils.trimToNull((String) dictionary.get(KEY_MAX_OPEN_SEGMENTS));
+      if (maxOpenSegmentsValue != null) {
+        try {
+          maxOpenSegments = Integer.parseInt(maxOpenSegmentsValue);
+        } catch (NumberFormatException e) {
+          throw new org.osgi.service.cm.ConfigurationException(KEY_MAX_OPEN_SEGMENTS, "Not a number", e);
+        }
+      }
+    }
+    if (storageDir == null) {
+      logger.warn("No storage directory configured. Local statistics are disabled.");
+      closeStore();
+      return;
+    }
+    openStore(storageDir, maxOpenSegments);
+  }
+
+  public ColumnarStatisticsStore getStore() {
+    return store;
+  }
+
+  private synchronized void openStore(String storageDir, int maxOpenSegments)
+          throws org.osgi.service.cm.ConfigurationException {
+    closeStore();
+    try {
+      store = new ColumnarStatisticsStore(Paths.get(storageDir), maxOpenSegments);
+    } catch (IOException | IllegalArgumentException e) {
+      throw new org.osgi.service.cm.ConfigurationException(KEY_STORAGE_DIR, "Unable to open statistics store", e);
+    }
+    fileNameToProvider.values().forEach(provider -> statisticsCoordinator.addProvider(provider));
+    statisticsCoordinator.addWriter(this);
+  }
+
+  private synchronized void closeStore() {
+    if (store != null) {
+      statisticsCoordinator.removeWriter(getId());
+      fileNameToProvider.values().forEach(provider -> statisticsCoordinator.removeProvider(provider));
+      store.close();
+      store = null;
+    }
+  }
+
+  @Override
+  public void writeDuration(
+          String organizationId,
+          String measurementName,
+          String retentionPolicy,
+          String organizationIdResourceName,
+          String fieldName,
+          TimeUnit temporalResolution,
+          Duration duration) {
+    double divider;
+    switch (temporalResolution) {
+      case MILLISECONDS:
+        divider = 1.0;
+        break;
+      case SECONDS:
+        divider = 1000.0;
+        break;
+      case MINUTES:
+        divider = 1000.0 * 60.0;
+        break;
+      case HOURS:
+        divider = 1000.0 * 60.0 * 60.0;
+        break;
+      case DAYS:
+        divider = 1000.0 * 60.0 * 60.0 * 24.0;
+        break;
+      default:
+        throw new RuntimeException("nanosecond and microsecond resolution not supported");
+    }
+    final ColumnarStatisticsStore currentStore = store;
+    if (currentStore == null) {
+      logger.warn("Local statistics store is not available. Dropping data point for measurement {}", measurementName);
+      return;
+    }
+    // Use the same naming as influx, where the retention policy prefixes the measurement
+    final String measurement = retentionPolicy == null ? measurementName : retentionPolicy + "." + measurementName;
+    final SeriesKey key = new SeriesKey(measurement, organizationIdResourceName, organizationId, fieldName);
+    try {
+      currentStore.add(key, Instant.now(), duration.toMillis() / divider);
+    } catch (IOException e) {
+      throw new RuntimeException("Unable to write statistics data point to " + key, e);
+    }
+  }
+
+  @Override
+  public String getId() {
+    return "local-writer";
+  }
+}
@@ -0,0 +1,4 @@
+/**
+ * Statistics provider storing its data locally
+ */
+package org.opencastproject.statistics.provider.local;
@@ -0,0 +1,165 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.statistics.provider.local.provider;
+
+import org.opencastproject.statistics.api.DataResolution;
+import org.opencastproject.statistics.api.ResourceType;
+import org.opencastproject.statistics.api.StatisticsProvider;
+import org.opencastproject.statistics.api.StatisticsUtil;
+import org.opencastproject.statistics.api.TimeSeries;
+import org.opencastproject.statistics.api.TimeSeriesProvider;
+import org.opencastproject.statistics.provider.local.StatisticsProviderLocalService;
+import org.opencastproject.statistics.provider.local.store.ColumnarStatisticsStore;
+import org.opencastproject.statistics.provider.local.store.SeriesKey;
+
+import com.google.common.collect.Ordering;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.OptionalLong;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Time series provider reading from the {@link ColumnarStatisticsStore} of the local statistics service. The values
+ * of each bucket are summed up. If configured as running total, each value additionally contains the sum of all values
+ * before the bucket.
+ */
+public class LocalTimeSeriesStatisticsProvider implements TimeSeriesProvider {
+
+  private final StatisticsProviderLocalService service;
+  private final String id;
+  private final ResourceType resourceType;
+  private final String title;
+  private final String description;
+  private final Set<LocalProviderConfiguration.LocalProviderSource> sources;
+  private final boolean runningTotal;
+
+  public LocalTimeSeriesStatisticsProvider(
+      StatisticsProviderLocalService service,
+      String id,
+      ResourceType resourceType,
+      String title,
+      String description,
+      Set<LocalProviderConfiguration.LocalProviderSource> sources,
+      boolean runningTotal) {
+    this.service = service;
+    this.id = id;
+    this.resourceType = resourceType;
+    this.title = title;
+    this.description = description;
+    this.sources = sources;
+    this.runningTotal = runningTotal;
+  }
+
+  @Override
+  public TimeSeries getValues(String resourceId, Instant from, Instant to, DataResolution resolution, ZoneId zoneId) {
+    final ColumnarStatisticsStore store = service.getStore();
+    if (store == null) {
+      throw new IllegalStateException("The local statistics store is not available");
+    }
+    final LocalProviderConfiguration.LocalProviderSource source = getSource(resolution);
+    final SeriesKey key = new SeriesKey(source.getMeasurement(), source.getResourceIdName(), resourceId,
+        source.getAggregationVariable());
+    final List<Instant> buckets = StatisticsUtil.getBuckets(from, to, resolution, zoneId);
+    final List<String> labels = buckets.stream().map(Instant::toString).collect(Collectors.toList());
+    final List<Double> values = new ArrayList<>(buckets.size());
+    try {
+      double previousTotal = 0;
+      if (runningTotal && !buckets.isEmpty()) {
+        final long firstBucketQuarter = ColumnarStatisticsStore.toEpochQuarter(
+            Ordering.natural().max(from, buckets.get(0)));
+        final OptionalLong firstQuarter = store.getFirstQuarter(key);
+        if (firstQuarter.isPresent()) {
+          previousTotal = store.sum(key, firstQuarter.getAsLong(), firstBucketQuarter);
+        }
+      }
+      for (int i = 0; i < buckets.size(); i++) {
+        final long start = ColumnarStatisticsStore.toEpochQuarter(Ordering.natural().max(from, buckets.get(i)));
+        final long end = i + 1 < buckets.size()
+            ? ColumnarStatisticsStore.toEpochQuarter(buckets.get(i + 1))
+            : ColumnarStatisticsStore.toEpochQuarter(to) + 1;
+        final double value = store.sum(key, start, end);
+        if (runningTotal) {
+          previousTotal += value;
+          values.add(previousTotal);
+        } else {
+          values.add(value);
+        }
+      }
+    } catch (IOException e) {
+      throw new IllegalStateException("Unable to read statistics of " + key, e);
+    }
+    final Double total = runningTotal ? null : values.stream().mapToDouble(v -> v).sum();
+    return new TimeSeries(labels, values, total);
+  }
+
+  @Override
+  public Set<DataResolution> getDataResolutions() {
+    return sources.stream().flatMap(s -> s.getResolutions().stream()).collect(Collectors.toSet());
+  }
+
+  private LocalProviderConfiguration.LocalProviderSource getSource(DataResolution resolution) {
+    return sources.stream()
+        .filter(s -> s.getResolutions().contains(resolution))
+        .findAny()
+        .orElseThrow(() -> new IllegalStateException("No source available for data resolution " + resolution.name()));
+  }
+
+  @Override
+  public String getId() {
+    return id;
+  }
+
+  @Override
+  public ResourceType getResourceType() {
+    return resourceType;
+  }
+
+  @Override
+  public String getTitle() {
+    return title;
+  }
+
+  @Override
+  public String getDescription() {
+    return description;
+  }
+
+  @Override
+  public int hashCode() {
+    return this.getId().hashCode();
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (!(o instanceof LocalTimeSeriesStatisticsProvider)) {
+      return false;
+    }
+    final StatisticsProvider other = (StatisticsProvider) o;
+    return this.getId().equals(other.getId());
+  }
+}
@@ -0,0 +1,237 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.statistics.provider.local.store;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.OptionalLong;
+
+/**
+ * File based store for statistics data points. Each {@link SeriesKey} gets its own directory containing one
+ * {@link MonthSegment} per month for which data has been written. Timestamps are truncated to full quarter hours, which
+ * is the finest resolution the store can answer queries with. This is fine enough to align buckets with the local time
+ * of every current time zone, including those with offsets of half or quarter hours.
+ *
+ * <p>
+ * Segments are memory-mapped on first access. At most {@code maxOpenSegments} segments stay mapped at a time; the least
+ * recently used ones are flushed and released when that limit is exceeded.
+ */
+public class ColumnarStatisticsStore implements Closeable {
+
+  /** Logging utility */
+  private static final Logger logger = LoggerFactory.getLogger(ColumnarStatisticsStore.class);
+
+  private static final String SEGMENT_SUFFIX = ".seg";
+
+  private static final DateTimeFormatter MONTH_FORMAT = DateTimeFormatter.ofPattern("uuuu-MM");
+
+  private static final long SECONDS_PER_QUARTER = 900L;
+
+  private final Path baseDir;
+
+  private final Map<Path, MonthSegment> segments;
+
+  public ColumnarStatisticsStore(Path baseDir, final int maxOpenSegments) throws IOException {
+    if (maxOpenSegments < 1) {
+      throw new IllegalArgumentException("maxOpenSegments must be positive");
+    }
+    this.baseDir = Files.createDirectories(baseDir);
+    this.segments = new LinkedHashMap<Path, MonthSegment>(16, 0.75f, true) {
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<Path, MonthSegment> eldest) {
+        if (size() > maxOpenSegments) {
+          eldest.getValue().flush();
+          return true;
+        }
+        return false;
+      }
+    };
+    logger.info("Storing statistics data in {}", this.baseDir);
+  }
+
+  /**
+   * Add a value to a series.
+   *
+   * @param key
+   *          the series to write to
+   * @param time
+   *          the time of the data point, truncated to the full quarter hour
+   * @param value
+   *          the value to add to the existing values of that quarter hour
+   */
+  public void add(SeriesKey key, Instant time, double value) throws IOException {
+    final long quarter = toEpochQuarter(time);
+    final YearMonth month = monthOf(quarter);
+    // Writes are rare compared to reads. Holding the lock while writing guarantees that a segment evicted concurrently
+    // is never updated through two different mappings at the same time.
+    synchronized (segments) {
+      getSegment(key, month, true).add((int) (quarter - monthStart(month)), value);
+    }
+  }
+
+  /**
+   * Sum up the values of a series in the range {@code [fromQuarter, toQuarter)}.
+   *
+   * @param key
+   *          the series to read
+   * @param fromQuarter
+   *          first quarter hour (inclusive) in quarter hours since the epoch
+   * @param toQuarter
+   *          last quarter hour (exclusive) in quarter hours since the epoch
+   * @return the sum of all values in the range
+   */
+  public double sum(SeriesKey key, long fromQuarter, long toQuarter) throws IOException {
+    double result = 0;
+    long quarter = fromQuarter;
+    while (quarter < toQuarter) {
+      final YearMonth month = monthOf(quarter);
+      final long start = monthStart(month);
+      final long end = Math.min(start + month.lengthOfMonth() * (long) MonthSegment.QUARTERS_PER_DAY, toQuarter);
+      final MonthSegment segment = getSegment(key, month, false);
+      if (segment != null) {
+        result += segment.sum((int) (quarter - start), (int) (end - start));
+      }
+      quarter = end;
+    }
+    return result;
+  }
+
+  /**
+   * Get the first quarter hour of the earliest month for which the series has data.
+   *
+   * @param key
+   *          the series to look up
+   * @return the first quarter hour in quarter hours since the epoch or nothing if the series has no data
+   */
+  public OptionalLong getFirstQuarter(SeriesKey key) throws IOException {
+    final Path dir = seriesDir(key);
+    if (!Files.isDirectory(dir)) {
+      return OptionalLong.empty();
+    }
+    YearMonth first = null;
+    try (DirectoryStream<Path> files = Files.newDirectoryStream(dir, "*" + SEGMENT_SUFFIX)) {
+      for (Path file : files) {
+        final String name = file.getFileName().toString();
+        try {
+          final YearMonth month = YearMonth.parse(name.substring(0, name.length() - SEGMENT_SUFFIX.length()),
+                  MONTH_FORMAT);
+          if (first == null || month.isBefore(first)) {
+            first = month;
+          }
+        } catch (DateTimeParseException e) {
+          logger.warn("Ignoring unexpected file {} in statistics store", file);
+        }
+      }
+    }
+    return first == null ? OptionalLong.empty() : OptionalLong.of(monthStart(first));
+  }
+
+  /**
+   * Write all modified segments back to disk.
+   */
+  public void flush() {
+    synchronized (segments) {
+      segments.values().forEach(MonthSegment::flush);
+    }
+  }
+
+  @Override
+  public void close() {
+    synchronized (segments) {
+      flush();
+      segments.clear();
+    }
+  }
+
+  /**
+   * Convert an instant to quarter hours since the epoch, rounding down.
+   */
+  public static long toEpochQuarter(Instant instant) {
+    return Math.floorDiv(instant.getEpochSecond(), SECONDS_PER_QUARTER);
+  }
+
+  private MonthSegment getSegment(SeriesKey key, YearMonth month, boolean create) throws IOException {
+    final Path file = seriesDir(key).resolve(MONTH_FORMAT.format(month) + SEGMENT_SUFFIX);
+    synchronized (segments) {
+      MonthSegment segment = segments.get(file);
+      if (segment == null) {
+        if (!create && !Files.exists(file)) {
+          return null;
+        }
+        Files.createDirectories(file.getParent());
+        segment = MonthSegment.open(file, month);
+        segments.put(file, segment);
+      }
+      return segment;
+    }
+  }
+
+  private Path seriesDir(SeriesKey key) {
+    return baseDir
+            .resolve(encode(key.getMeasurement()))
+            .resolve(encode(key.getField()))
+            .resolve(encode(key.getResourceIdName()))
+            .resolve(encode(key.getResourceId()));
+  }
+
+  private static YearMonth monthOf(long epochQuarter) {
+    return YearMonth.from(LocalDateTime.ofEpochSecond(epochQuarter * SECONDS_PER_QUARTER, 0, ZoneOffset.UTC));
+  }
+
+  private static long monthStart(YearMonth month) {
+    return month.atDay(1).atStartOfDay().toEpochSecond(ZoneOffset.UTC) / SECONDS_PER_QUARTER;
+  }
+
+  private static String encode(String name) {
+    try {
+      final String encoded = URLEncoder.encode(name, "UTF-8");
+      // Make sure a name can never point to the current or the parent directory. A single percent sign is never
+      // produced by the encoder and therefore safe to use for the empty name.
+      if (encoded.isEmpty()) {
+        return "%";
+      }
+      if (".".equals(encoded) || "..".equals(encoded)) {
+        return encoded.replace(".", "%2E");
+      }
+      return encoded;
+    } catch (UnsupportedEncodingException e) {
+      throw new IllegalStateException(e);
+    }
+  }
+}
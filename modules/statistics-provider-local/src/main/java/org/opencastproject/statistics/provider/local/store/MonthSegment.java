@@ -0,0 +1,132 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.statistics.provider.local.store;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.YearMonth;
+
+/**
+ * One month of a series, stored as a memory-mapped file of fixed size. The file holds three columns of doubles: one
+ * value per quarter hour, one per day and one for the whole month. Every write updates all three columns so that
+ * queries can use the coarsest rollup covering a range instead of summing up quarter hours.
+ */
+final class MonthSegment {
+
+  private static final int MAGIC = 0x4f435354;
+  private static final int VERSION = 2;
+
+  static final int QUARTERS_PER_DAY = 24 * 4;
+
+  private static final int MAX_DAYS = 31;
+  private static final int MAX_QUARTERS = MAX_DAYS * QUARTERS_PER_DAY;
+
+  private static final int HEADER_SIZE = 8;
+  private static final int QUARTERLY_OFFSET = HEADER_SIZE;
+  private static final int DAILY_OFFSET = QUARTERLY_OFFSET + MAX_QUARTERS * Double.BYTES;
+  private static final int MONTHLY_OFFSET = DAILY_OFFSET + MAX_DAYS * Double.BYTES;
+
+  static final int SIZE = MONTHLY_OFFSET + Double.BYTES;
+
+  private final MappedByteBuffer buffer;
+  private final int quartersInMonth;
+
+  private MonthSegment(MappedByteBuffer buffer, YearMonth month) {
+    this.buffer = buffer;
+    this.quartersInMonth = month.lengthOfMonth() * QUARTERS_PER_DAY;
+  }
+
+  /**
+   * Map the segment file for the given month, creating and initializing it if it does not exist yet.
+   */
+  static MonthSegment open(Path file, YearMonth month) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+            StandardOpenOption.WRITE)) {
+      final long size = channel.size();
+      if (size != 0 && size != SIZE) {
+        throw new IOException("Statistics segment " + file + " has unexpected size " + size);
+      }
+      final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, SIZE);
+      if (size == 0) {
+        buffer.putInt(0, MAGIC);
+        buffer.putInt(4, VERSION);
+      } else if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+        throw new IOException("Statistics segment " + file + " has an unknown format");
+      }
+      return new MonthSegment(buffer, month);
+    }
+  }
+
+  /**
+   * Add a value to the given quarter hour of the month and to the daily and monthly rollups.
+   *
+   * @param quarterOfMonth
+   *          zero based quarter hour relative to the start of the month
+   * @param value
+   *          the value to add
+   */
+  synchronized void add(int quarterOfMonth, double value) {
+    if (quarterOfMonth < 0 || quarterOfMonth >= quartersInMonth) {
+      throw new IllegalArgumentException("Quarter hour " + quarterOfMonth + " is outside of segment");
+    }
+    increment(QUARTERLY_OFFSET + quarterOfMonth * Double.BYTES, value);
+    increment(DAILY_OFFSET + (quarterOfMonth / QUARTERS_PER_DAY) * Double.BYTES, value);
+    increment(MONTHLY_OFFSET, value);
+  }
+
+  /**
+   * Sum up the values of the quarter hours in {@code [fromQuarter, toQuarter)}, relative to the start of the month.
+   */
+  synchronized double sum(int fromQuarter, int toQuarter) {
+    if (fromQuarter <= 0 && toQuarter >= quartersInMonth) {
+      return buffer.getDouble(MONTHLY_OFFSET);
+    }
+    double result = 0;
+    int quarter = Math.max(0, fromQuarter);
+    final int end = Math.min(quartersInMonth, toQuarter);
+    while (quarter < end) {
+      if (quarter % QUARTERS_PER_DAY == 0 && quarter + QUARTERS_PER_DAY <= end) {
+        result += buffer.getDouble(DAILY_OFFSET + (quarter / QUARTERS_PER_DAY) * Double.BYTES);
+        quarter += QUARTERS_PER_DAY;
+      } else {
+        result += buffer.getDouble(QUARTERLY_OFFSET + quarter * Double.BYTES);
+        quarter++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Write modified pages back to disk.
+   */
+  synchronized void flush() {
+    buffer.force();
+  }
+
+  private void increment(int offset, double value) {
+    buffer.putDouble(offset, buffer.getDouble(offset) + value);
+  }
+}
@@ -0,0 +1,83 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.statistics.provider.local.store;
+
+import java.util.Objects;
+
+/**
+ * Identifies one stored series of data points: a field of a measurement, restricted to a single resource.
+ */
+public final class SeriesKey {
+  private final String measurement;
+  private final String resourceIdName;
+  private final String resourceId;
+  private final String field;
+
+  public SeriesKey(String measurement, String resourceIdName, String resourceId, String field) {
+    this.measurement = Objects.requireNonNull(measurement, "measurement");
+    this.resourceIdName = Objects.requireNonNull(resourceIdName, "resourceIdName");
+    this.resourceId = Objects.requireNonNull(resourceId, "resourceId");
+    this.field = Objects.requireNonNull(field, "field");
+  }
+
+  public String getMeasurement() {
+    return measurement;
+  }
+
+  public String getResourceIdName() {
+    return resourceIdName;
+  }
+
+  public String getResourceId() {
+    return resourceId;
+  }
+
+  public String getField() {
+    return field;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (!(o instanceof SeriesKey)) {
+      return false;
+    }
+    final SeriesKey other = (SeriesKey) o;
+    return measurement.equals(other.measurement)
+        && resourceIdName.equals(other.resourceIdName)
+        && resourceId.equals(other.resourceId)
+        && field.equals(other.field);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(measurement, resourceIdName, resourceId, field);
+  }
+
+  @Override
+  public String toString() {
+    return measurement + "." + field + "[" + resourceIdName + "=" + resourceId + "]";
+  }
+}
@@ -0,0 +1,156 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+
+package org.opencastproject.statistics.provider.local.store;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Random;
+
+public class ColumnarStatisticsStoreTest {
+
+  private static final double DELTA = 1e-9;
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private final SeriesKey key = new SeriesKey("infinite.publishedhours", "organizationId", "mh_default_org", "hours");
+
+  private ColumnarStatisticsStore store;
+
+  @Before
+  public void setUp() throws Exception {
+    store = new ColumnarStatisticsStore(testFolder.getRoot().toPath(), 4);
+  }
+
+  @After
+  public void tearDown() {
+    store.close();
+  }
+
+  private static long hour(int year, int month, int day, int hour) {
+    return quarter(year, month, day, hour, 0);
+  }
+
+  private static long quarter(int year, int month, int day, int hour, int minute) {
+    return ColumnarStatisticsStore.toEpochQuarter(instant(year, month, day, hour, minute));
+  }
+
+  private static Instant instant(int year, int month, int day, int hour, int minute) {
+    return LocalDateTime.of(year, month, day, hour, minute).toInstant(ZoneOffset.UTC);
+  }
+
+  @Test
+  public void testSumAcrossRollups() throws Exception {
+    store.add(key, instant(2020, 1, 31, 23, 59), 1.0);
+    store.add(key, instant(2020, 2, 1, 0, 0), 2.0);
+    store.add(key, instant(2020, 2, 1, 0, 30), 3.0);
+    store.add(key, instant(2020, 2, 15, 12, 0), 4.0);
+    store.add(key, instant(2020, 2, 29, 23, 0), 5.0);
+    store.add(key, instant(2020, 3, 1, 0, 0), 6.0);
+
+    // whole month uses the monthly rollup
+    assertEquals(14.0, store.sum(key, hour(2020, 2, 1, 0), hour(2020, 3, 1, 0)), DELTA);
+    // single days and hours
+    assertEquals(5.0, store.sum(key, hour(2020, 2, 1, 0), hour(2020, 2, 2, 0)), DELTA);
+    assertEquals(4.0, store.sum(key, hour(2020, 2, 15, 12), hour(2020, 2, 15, 13)), DELTA);
+    assertEquals(0.0, store.sum(key, hour(2020, 2, 15, 13), hour(2020, 2, 29, 23)), DELTA);
+    // ranges spanning several months
+    assertEquals(21.0, store.sum(key, hour(2019, 1, 1, 0), hour(2021, 1, 1, 0)), DELTA);
+    assertEquals(10.0, store.sum(key, hour(2020, 1, 31, 23), hour(2020, 2, 15, 13)), DELTA);
+  }
+
+  @Test
+  public void testNegativeValues() throws Exception {
+    store.add(key, instant(2020, 5, 4, 10, 0), 2.5);
+    store.add(key, instant(2020, 5, 4, 10, 0), -1.0);
+    assertEquals(1.5, store.sum(key, hour(2020, 5, 1, 0), hour(2020, 6, 1, 0)), DELTA);
+  }
+
+  @Test
+  public void testPersistence() throws Exception {
+    store.add(key, instant(2019, 12, 24, 18, 0), 7.0);
+    store.close();
+    store = new ColumnarStatisticsStore(testFolder.getRoot().toPath(), 4);
+    assertEquals(7.0, store.sum(key, hour(2019, 12, 1, 0), hour(2020, 1, 1, 0)), DELTA);
+    assertEquals(hour(2019, 12, 1, 0), store.getFirstQuarter(key).getAsLong());
+  }
+
+  @Test
+  public void testSeriesAreSeparated() throws Exception {
+    final SeriesKey other = new SeriesKey("infinite.publishedhours", "organizationId", "..", "hours");
+    store.add(key, instant(2020, 1, 1, 0, 0), 1.0);
+    store.add(other, instant(2020, 1, 1, 0, 0), 2.0);
+    assertEquals(1.0, store.sum(key, hour(2020, 1, 1, 0), hour(2020, 1, 1, 1)), DELTA);
+    assertEquals(2.0, store.sum(other, hour(2020, 1, 1, 0), hour(2020, 1, 1, 1)), DELTA);
+    assertFalse(store.getFirstQuarter(new SeriesKey("unknown", "organizationId", "org", "hours")).isPresent());
+  }
+
+  @Test
+  public void testQuarterHours() throws Exception {
+    store.add(key, instant(2020, 2, 1, 5, 14), 1.0);
+    store.add(key, instant(2020, 2, 1, 5, 15), 2.0);
+    store.add(key, instant(2020, 2, 1, 5, 44), 3.0);
+    store.add(key, instant(2020, 2, 1, 5, 45), 4.0);
+
+    assertEquals(1.0, store.sum(key, quarter(2020, 2, 1, 5, 0), quarter(2020, 2, 1, 5, 15)), DELTA);
+    // A day in a time zone with an offset of +05:45 starts at a quarter hour in UTC
+    assertEquals(4.0, store.sum(key, quarter(2020, 2, 1, 5, 45), quarter(2020, 2, 2, 5, 45)), DELTA);
+    // A day in a time zone with an offset of +05:30 starts at a half hour in UTC
+    assertEquals(7.0, store.sum(key, quarter(2020, 2, 1, 5, 30), quarter(2020, 2, 2, 5, 30)), DELTA);
+  }
+
+  @Test
+  public void testRandomRangesMatchQuarterHourlySums() throws Exception {
+    final Random random = new Random(42);
+    final long start = hour(2018, 1, 1, 0);
+    final long end = hour(2021, 1, 1, 0);
+    final double[] quarterly = new double[(int) (end - start)];
+    for (int i = 0; i < 2000; i++) {
+      final int offset = random.nextInt(quarterly.length);
+      final double value = random.nextInt(100);
+      quarterly[offset] += value;
+      store.add(key, Instant.ofEpochSecond((start + offset) * 900 + random.nextInt(900)), value);
+    }
+    for (int i = 0; i < 200; i++) {
+      final int a = random.nextInt(quarterly.length);
+      final int b = random.nextInt(quarterly.length);
+      final int from = Math.min(a, b);
+      final int to = Math.max(a, b);
+      double expected = 0;
+      for (int q = from; q < to; q++) {
+        expected += quarterly[q];
+      }
+      assertEquals(expected, store.sum(key, start + from, start + to), DELTA);
+    }
+  }
+}
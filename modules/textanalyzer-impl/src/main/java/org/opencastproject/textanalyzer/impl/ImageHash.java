@@ -0,0 +1,99 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.textanalyzer.impl;
+
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+
+import javax.imageio.ImageIO;
+
+/**
+ * Perceptual difference hash of an image. Images which look alike, like the same slide extracted at different times,
+ * have hashes differing in only a few bits, while even small changes in the layout of a slide change many bits.
+ */
+final class ImageHash {
+
+  /** Width and height of the gradient grid, resulting in a hash of SIZE * SIZE bits */
+  private static final int SIZE = 16;
+
+  private final long[] bits = new long[SIZE * SIZE / Long.SIZE];
+
+  private ImageHash() {
+  }
+
+  /**
+   * Computes the hash of an image file.
+   *
+   * @param file
+   *          the image file
+   * @return the hash
+   * @throws IOException
+   *           if the image cannot be read
+   */
+  static ImageHash of(File file) throws IOException {
+    BufferedImage image = ImageIO.read(file);
+    if (image == null) {
+      throw new IOException("Unsupported image format of " + file);
+    }
+
+    // Scale to a grayscale image one pixel wider than the grid to compare horizontally adjacent pixels
+    BufferedImage scaled = new BufferedImage(SIZE + 1, SIZE, BufferedImage.TYPE_BYTE_GRAY);
+    Graphics2D g = scaled.createGraphics();
+    try {
+      g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+      g.drawImage(image, 0, 0, SIZE + 1, SIZE, null);
+    } finally {
+      g.dispose();
+    }
+
+    ImageHash hash = new ImageHash();
+    int bit = 0;
+    for (int y = 0; y < SIZE; y++) {
+      for (int x = 0; x < SIZE; x++) {
+        if (scaled.getRaster().getSample(x, y, 0) < scaled.getRaster().getSample(x + 1, y, 0)) {
+          hash.bits[bit / Long.SIZE] |= 1L << (bit % Long.SIZE);
+        }
+        bit++;
+      }
+    }
+    return hash;
+  }
+
+  /**
+   * Returns the number of differing bits between this and another hash.
+   *
+   * @param other
+   *          the other hash
+   * @return the hamming distance
+   */
+  int distance(ImageHash other) {
+    int distance = 0;
+    for (int i = 0; i < bits.length; i++) {
+      distance += Long.bitCount(bits[i] ^ other.bits[i]);
+    }
+    return distance;
+  }
+
+}
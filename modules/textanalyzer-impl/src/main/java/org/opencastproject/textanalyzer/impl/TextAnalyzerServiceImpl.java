@@ -26,6 +26,7 @@ import org.opencastproject.job.api.AbstractJobProducer;
 import org.opencastproject.job.api.Job;
 import org.opencastproject.mediapackage.Attachment;
 import org.opencastproject.mediapackage.Catalog;
+import org.opencastproject.mediapackage.MediaPackageElement;
 import org.opencastproject.mediapackage.MediaPackageElementBuilderFactory;
 import org.opencastproject.mediapackage.MediaPackageElementParser;
 import org.opencastproject.mediapackage.MediaPackageElements;
@@ -67,7 +68,13 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Dictionary;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 
 /**
  * Media analysis service that takes takes an image and returns text as extracted from that image.
@@ -79,7 +86,7 @@ public class TextAnalyzerServiceImpl extends AbstractJobProducer implements Text
 
   /** List of available operations on jobs */
   private enum Operation {
-    Extract
+    Extract, ExtractBatch
   };
 
   /** Resulting collection in the working file repository */
@@ -94,6 +101,27 @@ public class TextAnalyzerServiceImpl extends AbstractJobProducer implements Text
   /** The approximate load placed on the system by creating a text analysis job */
   private float analysisJobLoad = DEFAULT_ANALYSIS_JOB_LOAD;
 
+  /** The default number of images analyzed concurrently within a batch job */
+  public static final int DEFAULT_BATCH_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+
+  /** The key to look for in the service configuration file to override the {@link #DEFAULT_BATCH_THREADS} */
+  public static final String BATCH_THREADS_KEY = "analysis.batch.threads";
+
+  /** The number of images analyzed concurrently within a batch job */
+  private int batchThreads = DEFAULT_BATCH_THREADS;
+
+  /**
+   * The default maximum number of differing perceptual hash bits for two images to be considered the same. Only
+   * identical hashes are matched by default, since slides differing in a single word may differ in just a few bits.
+   */
+  public static final int DEFAULT_DUPLICATE_DISTANCE = 0;
+
+  /** The key to look for in the service configuration file to override the {@link #DEFAULT_DUPLICATE_DISTANCE} */
+  public static final String DUPLICATE_DISTANCE_KEY = "analysis.batch.duplicate.distance";
+
+  /** The maximum number of differing perceptual hash bits, negative values disable duplicate detection */
+  private int duplicateDistance = DEFAULT_DUPLICATE_DISTANCE;
+
   /** The text extraction implemenetation */
   private TextExtractor textExtractor = null;
 
@@ -152,6 +180,23 @@ public class TextAnalyzerServiceImpl extends AbstractJobProducer implements Text
     }
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.textanalyzer.api.TextAnalyzerService#extract(java.util.List)
+   */
+  @Override
+  public Job extract(List<Attachment> images) throws TextAnalyzerException, MediaPackageException {
+    try {
+      // The images of a batch are analyzed concurrently
+      return serviceRegistry.createJob(JOB_TYPE, Operation.ExtractBatch.toString(),
+              Arrays.asList(MediaPackageElementParser.getArrayAsXml(images)),
+              analysisJobLoad * Math.min(batchThreads, Math.max(1, images.size())));
+    } catch (ServiceRegistryException e) {
+      throw new TextAnalyzerException("Unable to create job", e);
+    }
+  }
+
   /**
    * Starts text extraction on the image and returns a receipt containing the final result in the form of an
    * Mpeg7Catalog.
@@ -236,6 +281,141 @@ public class TextAnalyzerServiceImpl extends AbstractJobProducer implements Text
     }
   }
 
+  /**
+   * Extracts the text of all images and returns a single Mpeg7Catalog containing one video segment per image. Images
+   * which are perceptually identical to an image analyzed before reuse its text instead of being analyzed again.
+   *
+   * @param job
+   *          the batch job
+   * @param images
+   *          the elements to analyze
+   * @return the resulting mpeg-7 catalog
+   * @throws TextAnalyzerException
+   */
+  private Catalog extract(Job job, List<Attachment> images) throws TextAnalyzerException {
+    ExecutorService executor = null;
+    try {
+      // Load the images and find the first occurrence of each distinct one
+      List<File> imageFiles = new ArrayList<>(images.size());
+      for (Attachment image : images) {
+        try {
+          imageFiles.add(workspace.get(image.getURI()));
+        } catch (NotFoundException e) {
+          throw new TextAnalyzerException("Image " + image.getURI() + " not found in workspace", e);
+        } catch (IOException e) {
+          throw new TextAnalyzerException("Unable to access " + image.getURI() + " in workspace", e);
+        }
+      }
+      int[] original = findDuplicates(imageFiles, duplicateDistance);
+
+      // Run the text extraction on all distinct images
+      logger.info("Starting text extraction from {} images", images.size());
+      executor = Executors.newFixedThreadPool(Math.min(batchThreads, Math.max(1, imageFiles.size())));
+      Map<Integer, Future<List<String>>> extractions = new HashMap<>();
+      for (int i = 0; i < imageFiles.size(); i++) {
+        if (original[i] == i) {
+          final File imageFile = imageFiles.get(i);
+          extractions.put(i, executor.submit(() -> textExtractor.extract(imageFile)));
+        }
+      }
+
+      Mpeg7CatalogImpl mpeg7 = Mpeg7CatalogImpl.newInstance();
+      MediaTime mediaTime = new MediaTimeImpl(0, 0);
+      Video avContent = mpeg7.addVideoContent("images", mediaTime, null);
+      TemporalDecomposition<VideoSegment> temporalDecomposition = (TemporalDecomposition<VideoSegment>) avContent
+              .getTemporalDecomposition();
+      int lines = 0;
+      for (int i = 0; i < images.size(); i++) {
+        List<String> extractedText;
+        try {
+          extractedText = extractions.get(original[i]).get();
+        } catch (ExecutionException e) {
+          logger.warn("Error extracting text from {}", imageFiles.get(i), e.getCause());
+          throw new TextAnalyzerException(e.getCause());
+        }
+        VideoText[] videoTexts = toVideoTexts(extractedText, images.get(i).getIdentifier());
+        lines += videoTexts.length;
+
+        VideoSegment videoSegment = temporalDecomposition.createSegment("segment-" + i);
+        videoSegment.setMediaTime(mediaTime);
+        SpatioTemporalDecomposition spatioTemporalDecomposition = videoSegment.createSpatioTemporalDecomposition(true,
+                false);
+        for (VideoText videoText : videoTexts) {
+          spatioTemporalDecomposition.addVideoText(videoText);
+        }
+      }
+      logger.info("Text extraction of {} images ({} distinct) finished, {} lines found", images.size(),
+              extractions.size(), lines);
+
+      URI uri;
+      try (InputStream in = mpeg7CatalogService.serialize(mpeg7)) {
+        uri = workspace.putInCollection(COLLECTION_ID, job.getId() + ".xml", in);
+      } catch (IOException e) {
+        throw new TextAnalyzerException("Unable to put mpeg7 into the workspace", e);
+      }
+      Catalog catalog = (Catalog) MediaPackageElementBuilderFactory.newInstance().newElementBuilder()
+              .newElement(Catalog.TYPE, MediaPackageElements.TEXTS);
+      catalog.setURI(uri);
+      return catalog;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new TextAnalyzerException(e);
+    } catch (TextAnalyzerException e) {
+      throw e;
+    } catch (Exception e) {
+      logger.warn("Error extracting text from {} images", images.size(), e);
+      throw new TextAnalyzerException(e);
+    } finally {
+      if (executor != null) {
+        executor.shutdownNow();
+      }
+      for (Attachment image : images) {
+        try {
+          workspace.delete(image.getURI());
+        } catch (Exception e) {
+          logger.warn("Unable to delete temporary text analysis image {}: {}", image.getURI(), e);
+        }
+      }
+    }
+  }
+
+  /**
+   * Finds images which look like an image earlier in the list.
+   *
+   * @param imageFiles
+   *          the images
+   * @param duplicateDistance
+   *          the maximum number of differing perceptual hash bits, negative values disable duplicate detection
+   * @return the index of the first image looking like the image at the respective position
+   */
+  static int[] findDuplicates(List<File> imageFiles, int duplicateDistance) {
+    int[] original = new int[imageFiles.size()];
+    List<Integer> distinct = new ArrayList<>();
+    ImageHash[] hashes = new ImageHash[imageFiles.size()];
+    for (int i = 0; i < imageFiles.size(); i++) {
+      original[i] = i;
+      if (duplicateDistance < 0) {
+        continue;
+      }
+      try {
+        hashes[i] = ImageHash.of(imageFiles.get(i));
+      } catch (IOException e) {
+        logger.debug("Unable to compute perceptual hash of {}: {}", imageFiles.get(i), e.getMessage());
+        continue;
+      }
+      for (int j : distinct) {
+        if (hashes[j].distance(hashes[i]) <= duplicateDistance) {
+          original[i] = j;
+          break;
+        }
+      }
+      if (original[i] == i) {
+        distinct.add(i);
+      }
+    }
+    return original;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -253,6 +433,12 @@ public class TextAnalyzerServiceImpl extends AbstractJobProducer implements Text
           Attachment element = (Attachment) MediaPackageElementParser.getFromXml(arguments.get(0));
           Catalog catalog = extract(job, element);
           return MediaPackageElementParser.getAsXml(catalog);
+        case ExtractBatch:
+          List<Attachment> images = new ArrayList<>();
+          for (MediaPackageElement image : MediaPackageElementParser.getArrayFromXml(arguments.get(0))) {
+            images.add((Attachment) image);
+          }
+          return MediaPackageElementParser.getAsXml(extract(job, images));
         default:
           throw new IllegalStateException("Don't know how to handle operation '" + operation + "'");
       }
@@ -280,7 +466,6 @@ public class TextAnalyzerServiceImpl extends AbstractJobProducer implements Text
 
     /* Call the text extractor implementation to extract the text from the
      * provided image file */
-    List<VideoText> videoTexts = new ArrayList<VideoText>();
     List<String> extractedText;
     try {
       extractedText = textExtractor.extract(imageFile);
@@ -288,6 +473,20 @@ public class TextAnalyzerServiceImpl extends AbstractJobProducer implements Text
       logger.warn("Error extracting text from {}", imageFile, e);
       throw new TextAnalyzerException(e);
     }
+    return toVideoTexts(extractedText, id);
+  }
+
+  /**
+   * Returns the video text elements for the lines of text extracted from an image.
+   *
+   * @param extractedText
+   *          the extracted lines of text
+   * @param id
+   *          the video text id
+   * @return the video text
+   */
+  private VideoText[] toVideoTexts(List<String> extractedText, String id) {
+    List<VideoText> videoTexts = new ArrayList<VideoText>();
 
     /* Get detected text as raw string */
     int i = 1;
@@ -428,5 +627,22 @@ public class TextAnalyzerServiceImpl extends AbstractJobProducer implements Text
   public void updated(@SuppressWarnings("rawtypes") Dictionary properties) throws ConfigurationException {
     analysisJobLoad = LoadUtil.getConfiguredLoadValue(properties, ANALYSIS_JOB_LOAD_KEY, DEFAULT_ANALYSIS_JOB_LOAD,
             serviceRegistry);
+
+    String threads = (String) properties.get(BATCH_THREADS_KEY);
+    try {
+      batchThreads = threads == null ? DEFAULT_BATCH_THREADS : Integer.parseInt(threads.trim());
+    } catch (NumberFormatException e) {
+      throw new ConfigurationException(BATCH_THREADS_KEY, "Found illegal value '" + threads + "'");
+    }
+    if (batchThreads < 1) {
+      throw new ConfigurationException(BATCH_THREADS_KEY, "Must be at least 1");
+    }
+
+    String distance = (String) properties.get(DUPLICATE_DISTANCE_KEY);
+    try {
+      duplicateDistance = distance == null ? DEFAULT_DUPLICATE_DISTANCE : Integer.parseInt(distance.trim());
+    } catch (NumberFormatException e) {
+      throw new ConfigurationException(DUPLICATE_DISTANCE_KEY, "Found illegal value '" + distance + "'");
+    }
   }
 }
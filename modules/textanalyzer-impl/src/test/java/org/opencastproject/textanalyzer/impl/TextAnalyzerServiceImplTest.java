@@ -0,0 +1,137 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.textanalyzer.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import javax.imageio.ImageIO;
+
+public class TextAnalyzerServiceImplTest {
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  /**
+   * Writes a generated slide with a title and a few lines of text represented by bars.
+   *
+   * @param name
+   *          the file name, whose extension defines the image format
+   * @param seed
+   *          the seed of the slide layout
+   * @param brightness
+   *          the value added to the gray level of the background
+   * @param word
+   *          whether to add a single word at the bottom of the slide
+   */
+  private File createSlide(String name, long seed, int brightness, boolean word) throws IOException {
+    BufferedImage image = new BufferedImage(640, 480, BufferedImage.TYPE_INT_RGB);
+    Graphics2D g = image.createGraphics();
+    try {
+      g.setColor(new Color(200 + brightness, 200 + brightness, 200 + brightness));
+      g.fillRect(0, 0, 640, 480);
+      g.setColor(Color.BLACK);
+      g.fillRect(40, 30, 400, 50);
+      Random random = new Random(seed);
+      for (int y = 120; y < 440; y += 50) {
+        g.fillRect(40 + random.nextInt(60), y, 100 + random.nextInt(460), 25);
+      }
+      if (word) {
+        g.fillRect(580, 420, 30, 20);
+      }
+    } finally {
+      g.dispose();
+    }
+    File file = new File(testFolder.getRoot(), name);
+    ImageIO.write(image, name.substring(name.lastIndexOf('.') + 1), file);
+    return file;
+  }
+
+  @Test
+  public void testHashStability() throws Exception {
+    File png = createSlide("slide.png", 1L, 0, false);
+    File bmp = createSlide("slide.bmp", 1L, 0, false);
+    assertEquals(0, ImageHash.of(png).distance(ImageHash.of(png)));
+    assertEquals(0, ImageHash.of(png).distance(ImageHash.of(bmp)));
+  }
+
+  @Test
+  public void testHashDistance() throws Exception {
+    ImageHash slide = ImageHash.of(createSlide("slide.png", 1L, 0, false));
+    ImageHash brighter = ImageHash.of(createSlide("brighter.png", 1L, 20, false));
+    ImageHash word = ImageHash.of(createSlide("word.png", 1L, 0, true));
+    ImageHash other = ImageHash.of(createSlide("other.png", 2L, 0, false));
+    assertTrue(slide.distance(brighter) <= 3);
+    assertTrue(slide.distance(word) > 0);
+    assertTrue(slide.distance(other) > 3);
+  }
+
+  @Test
+  public void testFindDuplicates() throws Exception {
+    File a = createSlide("a.png", 1L, 0, false);
+    File b = createSlide("b.png", 2L, 0, false);
+    File c = createSlide("c.png", 3L, 0, false);
+    File a2 = createSlide("a2.bmp", 1L, 0, false);
+    File b2 = createSlide("b2.png", 2L, 0, false);
+    File word = createSlide("word.png", 1L, 0, true);
+
+    // Every image refers to the first image of the batch showing the same slide
+    int[] original = TextAnalyzerServiceImpl.findDuplicates(Arrays.asList(a, b, a2, c, b2, word, a), 0);
+    assertArrayEquals(new int[] { 0, 1, 0, 3, 1, 5, 0 }, original);
+  }
+
+  @Test
+  public void testFindNearDuplicates() throws Exception {
+    File a = createSlide("a.png", 1L, 0, false);
+    File brighter = createSlide("brighter.png", 1L, 20, false);
+    File b = createSlide("b.png", 2L, 0, false);
+
+    assertArrayEquals(new int[] { 0, 0, 2 },
+            TextAnalyzerServiceImpl.findDuplicates(Arrays.asList(a, brighter, b), 3));
+  }
+
+  @Test
+  public void testFindDuplicatesDisabled() throws Exception {
+    File a = createSlide("a.png", 1L, 0, false);
+    File a2 = createSlide("a2.png", 1L, 0, false);
+    File broken = testFolder.newFile("broken.png");
+
+    assertArrayEquals(new int[] { 0, 1 }, TextAnalyzerServiceImpl.findDuplicates(Arrays.asList(a, a2), -1));
+    // Images which cannot be read are analyzed on their own
+    assertArrayEquals(new int[] { 0, 1, 0 },
+            TextAnalyzerServiceImpl.findDuplicates(Arrays.asList(a, broken, a2), 0));
+  }
+
+}
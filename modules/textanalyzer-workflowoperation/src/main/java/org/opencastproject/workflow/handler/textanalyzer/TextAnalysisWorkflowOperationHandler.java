@@ -210,7 +210,7 @@ public class TextAnalysisWorkflowOperationHandler extends AbstractWorkflowOperat
 
     // Loop over all existing segment catalogs
     for (Entry<Catalog, Mpeg7Catalog> mapEntry : catalogs.entrySet()) {
-      Map<VideoSegment, Job> jobs = new HashMap<VideoSegment, Job>();
+      Job textJob = null;
       List<Attachment> images = new LinkedList<Attachment>();
       Catalog segmentCatalog = mapEntry.getKey();
       try {
@@ -287,57 +287,46 @@ public class TextAnalysisWorkflowOperationHandler extends AbstractWorkflowOperat
                   "There are no images produced for " + sourceTrack
                           + " or the images count isn't equal the count of the video segments.");
 
-        // Run text extraction on each of the images
-        Iterator<VideoSegment> it = videoSegments.iterator();
-        for (MediaPackageElement element : images) {
-          Attachment image = (Attachment) element;
-          VideoSegment videoSegment = it.next();
-          jobs.put(videoSegment, analysisService.extract(image));
-        }
-
-        // Wait for all jobs to be finished
-        if (!waitForStatus(jobs.values().toArray(new Job[jobs.size()])).isSuccess()) {
+        // Run text extraction on all of the images in a single job
+        textJob = analysisService.extract(images);
+        if (!waitForStatus(textJob).isSuccess()) {
           throw new WorkflowOperationException("Text extraction failed on images from " + sourceTrack);
         }
 
         // Process the text extraction results
-        for (Map.Entry<VideoSegment, Job> entry : jobs.entrySet()) {
-          Job job = serviceRegistry.getJob(entry.getValue().getId());
-          totalTimeInQueue += job.getQueueTime();
-
-          VideoSegment videoSegment = entry.getKey();
-          MediaDuration segmentDuration = videoSegment.getMediaTime().getMediaDuration();
-          Catalog catalog = (Catalog) MediaPackageElementParser.getFromXml(job.getPayload());
-          if (catalog == null) {
-            logger.warn("Text analysis did not return a valid mpeg7 for segment {}", videoSegment);
-            continue;
-          }
-          Mpeg7Catalog videoTextCatalog = loadMpeg7Catalog(catalog);
-          if (videoTextCatalog == null)
-            throw new IllegalStateException("Text analysis service did not return a valid mpeg7");
-
-          // Add the spatiotemporal decompositions from the new catalog to the existing video segments
-          Iterator<Video> videoTextContents = videoTextCatalog.videoContent();
-          if (videoTextContents == null || !videoTextContents.hasNext()) {
-            logger.debug("Text analysis was not able to extract any text from {}", job.getArguments().get(0));
-            break;
-          }
-
-          try {
-            Video textVideoContent = videoTextContents.next();
-            VideoSegment textVideoSegment = (VideoSegment) textVideoContent.getTemporalDecomposition().segments()
-                    .next();
-            VideoText[] videoTexts = textVideoSegment.getSpatioTemporalDecomposition().getVideoText();
-            SpatioTemporalDecomposition std = videoSegment.createSpatioTemporalDecomposition(true, false);
-            for (VideoText videoText : videoTexts) {
-              MediaTime mediaTime = new MediaTimeImpl(new MediaRelTimePointImpl(0), segmentDuration);
-              SpatioTemporalLocator locator = new SpatioTemporalLocatorImpl(mediaTime);
-              videoText.setSpatioTemporalLocator(locator);
-              std.addVideoText(videoText);
+        Job job = serviceRegistry.getJob(textJob.getId());
+        totalTimeInQueue += job.getQueueTime();
+        Catalog textResultCatalog = (Catalog) MediaPackageElementParser.getFromXml(job.getPayload());
+        Mpeg7Catalog videoTextCatalog = loadMpeg7Catalog(textResultCatalog);
+        if (videoTextCatalog == null)
+          throw new IllegalStateException("Text analysis service did not return a valid mpeg7");
+
+        // The text analysis returns one segment per image, in the order of the images
+        Iterator<Video> videoTextContents = videoTextCatalog.videoContent();
+        if (videoTextContents == null || !videoTextContents.hasNext()) {
+          logger.debug("Text analysis was not able to extract any text from images of {}", sourceTrack);
+        } else {
+          Iterator<? extends Segment> textSegments = videoTextContents.next().getTemporalDecomposition().segments();
+          for (VideoSegment videoSegment : videoSegments) {
+            if (!textSegments.hasNext()) {
+              logger.warn("Text analysis did not return a result for segment {}", videoSegment);
+              break;
+            }
+            MediaDuration segmentDuration = videoSegment.getMediaTime().getMediaDuration();
+            try {
+              VideoSegment textVideoSegment = (VideoSegment) textSegments.next();
+              VideoText[] videoTexts = textVideoSegment.getSpatioTemporalDecomposition().getVideoText();
+              SpatioTemporalDecomposition std = videoSegment.createSpatioTemporalDecomposition(true, false);
+              for (VideoText videoText : videoTexts) {
+                MediaTime mediaTime = new MediaTimeImpl(new MediaRelTimePointImpl(0), segmentDuration);
+                SpatioTemporalLocator locator = new SpatioTemporalLocatorImpl(mediaTime);
+                videoText.setSpatioTemporalLocator(locator);
+                std.addVideoText(videoText);
+              }
+            } catch (Exception e) {
+              logger.warn("The mpeg-7 structure returned by the text analyzer is not what is expected", e);
+              continue;
             }
-          } catch (Exception e) {
-            logger.warn("The mpeg-7 structure returned by the text analyzer is not what is expected", e);
-            continue;
           }
         }
 
@@ -377,20 +366,20 @@ public class TextAnalysisWorkflowOperationHandler extends AbstractWorkflowOperat
           }
         }
         // Remove the temporary text
-        for (Job j : jobs.values()) {
+        if (textJob != null) {
           Catalog catalog = null;
           try {
-            Job job = serviceRegistry.getJob(j.getId());
-            if (!Job.Status.FINISHED.equals(job.getStatus()))
-              continue;
-            catalog = (Catalog) MediaPackageElementParser.getFromXml(job.getPayload());
-            if (catalog != null)
-              workspace.delete(catalog.getURI());
+            Job job = serviceRegistry.getJob(textJob.getId());
+            if (Job.Status.FINISHED.equals(job.getStatus())) {
+              catalog = (Catalog) MediaPackageElementParser.getFromXml(job.getPayload());
+              if (catalog != null)
+                workspace.delete(catalog.getURI());
+            }
           } catch (Exception e) {
             if (catalog != null) {
               logger.warn("Unable to delete temporary text file {}: {}", catalog.getURI(), e);
             } else {
-              logger.warn("Unable to parse textextraction payload of job {}", j.getId());
+              logger.warn("Unable to parse textextraction payload of job {}", textJob.getId());
             }
           }
         }
@@ -41,6 +41,7 @@ import org.opencastproject.timelinepreviews.api.TimelinePreviewsService;
 import org.opencastproject.util.IoSupport;
 import org.opencastproject.util.LoadUtil;
 import org.opencastproject.util.MimeTypes;
+import org.opencastproject.util.NativeProcessBudget;
 import org.opencastproject.util.NotFoundException;
 import org.opencastproject.util.UnknownFileTypeException;
 import org.opencastproject.workspace.api.Workspace;
@@ -171,6 +172,7 @@ TimelinePreviewsService, ManagedService {
     final String path = cc.getBundleContext().getProperty(FFMPEG_BINARY_CONFIG);
     this.binary = path == null ? FFMPEG_BINARY_DEFAULT : path;
     logger.debug("Configuration {}: {}", FFMPEG_BINARY_CONFIG, FFMPEG_BINARY_DEFAULT);
+    NativeProcessBudget.configure(cc.getBundleContext());
   }
 
   /**
@@ -382,10 +384,13 @@ TimelinePreviewsService, ManagedService {
     String imageFilePath = FilenameUtils.removeExtension(mediaFile.getAbsolutePath()) + '_' + UUID.randomUUID()
                            + "_timelinepreviews" + outputFormat;
     int exitCode = 1;
+    // limit the decoder to the threads accounted for by the job load
+    int threads = NativeProcessBudget.threadsForLoad(timelinepreviewsJobLoad);
     String[] command = new String[] {
       binary,
       "-loglevel", "error",
       "-t", String.valueOf(duration - seconds / 2.0),
+      "-threads", Integer.toString(threads),
       "-i", mediaFile.getAbsolutePath(),
       "-vf", "fps=1/" + seconds + ",scale=" + width + ":" + height + ",tile=" + tileX + "x" + tileY,
       imageFilePath
@@ -400,7 +405,9 @@ TimelinePreviewsService, ManagedService {
     Process ffmpegProcess = null;
     exitCode = 1;
     BufferedReader errStream = null;
+    NativeProcessBudget.Allocation allocation = null;
     try {
+      allocation = NativeProcessBudget.allocate(threads);
       ffmpegProcess = pbuilder.start();
 
       errStream = new BufferedReader(new InputStreamReader(ffmpegProcess.getInputStream()));
@@ -413,10 +420,13 @@ TimelinePreviewsService, ManagedService {
     } catch (IOException ex) {
       throw new TimelinePreviewsException("Starting ffmpeg process failed", ex);
     } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
       throw new TimelinePreviewsException("Timeline preview creation was unexpectedly interrupted", ex);
     } finally {
       IoSupport.closeQuietly(ffmpegProcess);
       IoSupport.closeQuietly(errStream);
+      if (allocation != null)
+        allocation.close();
       if (exitCode != 0) {
         try {
           FileUtils.forceDelete(new File(imageFilePath));
@@ -73,6 +73,7 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
@@ -557,57 +558,85 @@ public class VideoGridWorkflowOperationHandler extends AbstractWorkflowOperation
       videoEdl.get(i).nextTimeStamp = videoEdl.get(i + 1).timeStamp;
     }
 
-    // Create ffmpeg command for each section
-    List<List<String>> commands = new ArrayList<>();
+    // Create ffmpeg command for each distinct section
+    List<String> sections = new ArrayList<>();
+    Map<String, List<String>> commands = new LinkedHashMap<>();
     for (EditDecisionListSection edl : videoEdl) {
       // A too small duration will result in ffmpeg producing a faulty video, so avoid any section smaller than 50ms
       if (edl.nextTimeStamp - edl.timeStamp < 50) {
         logger.info("Skipping {}-length edl entry", edl.nextTimeStamp - edl.timeStamp);
         continue;
       }
+      String section = sectionKey(layoutArea, edl);
+      sections.add(section);
+      if (commands.containsKey(section)) {
+        logger.debug("Reusing identical section {}", section);
+        continue;
+      }
       // Create command for section
-      commands.add(compositeSection(layoutArea, edl));
+      commands.put(section, compositeSection(layoutArea, edl));
     }
 
-    // Create video tracks for each section
-    Job job;
-    try {
-      job = videoGridService.createPartialTracks(commands, videoSourceTracks.toArray(new Track[videoSourceTracks.size()]));
-    } catch (VideoGridServiceException | org.apache.commons.codec.EncoderException | MediaPackageException e) {
-      throw new WorkflowOperationException(e);
+    // Create video tracks for each section. Each distinct section is rendered by its own job, so that sections are
+    // processed in parallel by all available nodes. Identical sections, like gaps of the same length, are only
+    // rendered once.
+    Map<String, Job> sectionJobs = new LinkedHashMap<>();
+    for (Map.Entry<String, List<String>> command : commands.entrySet()) {
+      try {
+        sectionJobs.put(command.getKey(), videoGridService.createPartialTracks(
+                Collections.singletonList(command.getValue()),
+                videoSourceTracks.toArray(new Track[videoSourceTracks.size()])));
+      } catch (VideoGridServiceException | org.apache.commons.codec.EncoderException | MediaPackageException e) {
+        throw new WorkflowOperationException(e);
+      }
     }
+    logger.info("Rendering {} sections using {} jobs", sections.size(), sectionJobs.size());
 
-    if (!waitForStatus(job).isSuccess()) {
+    if (!waitForStatus(sectionJobs.values().toArray(new Job[sectionJobs.size()])).isSuccess()) {
       throw new WorkflowOperationException(String.format("VideoGrid job for media package '%s' failed", mediaPackage));
     }
 
     Gson gson = new Gson();
-    List<URI> uris = gson.fromJson(job.getPayload(), new TypeToken<List<URI>>() { }.getType());
+    Map<String, URI> sectionUris = new HashMap<>();
+    for (Map.Entry<String, Job> sectionJob : sectionJobs.entrySet()) {
+      List<URI> uris = gson.fromJson(sectionJob.getValue().getPayload(), new TypeToken<List<URI>>() { }.getType());
+      sectionUris.put(sectionJob.getKey(), uris.get(0));
+    }
 
-    // Parse uris into tracks and enrich them with metadata
-    List<Track> tracks = new ArrayList<>();
-    for (URI uri : uris) {
+    // Enrich the rendered sections with metadata
+    Map<URI, Job> inspections = new LinkedHashMap<>();
+    for (URI uri : sectionUris.values()) {
+      if (inspections.containsKey(uri))
+        continue;
       TrackImpl track = new TrackImpl();
       track.setFlavor(targetPresenterFlavor);
       track.setURI(uri);
-
-      Job inspection = null;
       try {
-        inspection = inspectionService.enrich(track, true);
+        inspections.put(uri, inspectionService.enrich(track, true));
       } catch (MediaInspectionException | MediaPackageException e) {
         throw new WorkflowOperationException("Inspection service could not enrich track", e);
       }
-      if (!waitForStatus(inspection).isSuccess()) {
-        throw new WorkflowOperationException(String.format("Failed to add metadata to track."));
-      }
+    }
+    if (!waitForStatus(inspections.values().toArray(new Job[inspections.size()])).isSuccess()) {
+      throw new WorkflowOperationException(String.format("Failed to add metadata to track."));
+    }
 
+    Map<URI, Track> inspectedTracks = new HashMap<>();
+    for (Map.Entry<URI, Job> inspection : inspections.entrySet()) {
       try {
-        tracks.add((TrackImpl) MediaPackageElementParser.getFromXml(inspection.getPayload()));
+        inspectedTracks.put(inspection.getKey(),
+                (TrackImpl) MediaPackageElementParser.getFromXml(inspection.getValue().getPayload()));
       } catch (MediaPackageException e) {
         throw new WorkflowOperationException("Could not parse track returned by inspection service", e);
       }
     }
 
+    // Put the sections back into timeline order
+    List<Track> tracks = new ArrayList<>();
+    for (String section : sections) {
+      tracks.add(inspectedTracks.get(sectionUris.get(section)));
+    }
+
     // Concatenate sections
     Job concatJob = null;
     try {
@@ -650,6 +679,26 @@ public class VideoGridWorkflowOperationHandler extends AbstractWorkflowOperation
     return result;
   }
 
+  /**
+   * Identifies the video rendered for a section. Sections showing the same parts of the same videos in the same layout
+   * for the same duration result in the same video, no matter where they are placed on the timeline.
+   *
+   * @param layoutArea
+   *          General layout information for the video
+   * @param videoEdl
+   *          The edit decision list for the section
+   * @return The key of the section
+   */
+  private String sectionKey(LayoutArea layoutArea, EditDecisionListSection videoEdl) {
+    StringBuilder key = new StringBuilder(format("%s %dx%d+%d+%d %s", layoutArea.name, layoutArea.width,
+            layoutArea.height, layoutArea.x, layoutArea.y, layoutArea.bgColor));
+    for (VideoInfo video : videoEdl.areas) {
+      key.append(format(" %s@%d", video.getVideo().getIdentifier(), video.startTime));
+    }
+    key.append(format(" %dms", videoEdl.nextTimeStamp - videoEdl.timeStamp));
+    return key.toString();
+  }
+
   /**
    * Create a ffmpeg command that generates a video for the given section
    *
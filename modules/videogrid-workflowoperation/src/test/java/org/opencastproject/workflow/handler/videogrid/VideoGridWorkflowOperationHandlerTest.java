@@ -61,6 +61,7 @@ import java.net.URI;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public class VideoGridWorkflowOperationHandlerTest {
 
@@ -139,13 +140,13 @@ public class VideoGridWorkflowOperationHandlerTest {
     uris.add(trackURI);
     videoGridJob.setPayload(gson.toJson(uris));
     VideoGridService videoGridService = EasyMock.createMock(VideoGridService.class);
-    EasyMock.expect(videoGridService.createPartialTracks(anyObject(), anyObject())).andReturn(videoGridJob);
+    EasyMock.expect(videoGridService.createPartialTracks(anyObject(), anyObject())).andReturn(videoGridJob).anyTimes();
 
     Job inspectJob = new JobImpl(1);
     inspectTrack = new TrackImpl();
     inspectJob.setPayload(MediaPackageElementParser.getAsXml(inspectTrack));
     MediaInspectionService mediaInspectionService = EasyMock.createMock(MediaInspectionService.class);
-    EasyMock.expect(mediaInspectionService.enrich(anyObject(), anyBoolean())).andReturn(inspectJob);
+    EasyMock.expect(mediaInspectionService.enrich(anyObject(), anyBoolean())).andReturn(inspectJob).anyTimes();
 
     Job concatJob = new JobImpl(2);
     concatTrack = new TrackImpl();
@@ -182,6 +183,74 @@ public class VideoGridWorkflowOperationHandlerTest {
     Assert.assertEquals(1, tracks.length);
   }
 
+  @Test
+  public void testSections() throws Exception {
+    // A single video between two gaps of the same length
+    URI smilURI = getClass().getResource("/smil_gaps.xml").toURI();
+    MediaPackage mediaPackage = new MediaPackageBuilderImpl().createNew();
+    mediaPackage.setIdentifier(new IdImpl("123-456"));
+    mediaPackage.add(track);
+    mediaPackage.add(smilURI, MediaPackageElement.Type.Catalog,
+            MediaPackageElementFlavor.parseFlavor(SOURCE_SMIL_FLAVOR_KEY));
+    WorkflowInstanceImpl gapsWorkflow = EasyMock.createNiceMock(WorkflowInstanceImpl.class);
+    EasyMock.expect(gapsWorkflow.getMediaPackage()).andReturn(mediaPackage).anyTimes();
+    EasyMock.expect(gapsWorkflow.getCurrentOperation()).andReturn(instance).anyTimes();
+    Workspace gapsWorkspace = EasyMock.createNiceMock(Workspace.class);
+    EasyMock.expect(gapsWorkspace.get(smilURI)).andReturn(new File(smilURI)).anyTimes();
+    EasyMock.expect(gapsWorkspace.get(track.getURI())).andReturn(new File(track.getURI())).anyTimes();
+
+    // Every section job renders a track named after the order in which the jobs have been created
+    List<List<String>> commands = new ArrayList<>();
+    VideoGridService videoGridService = EasyMock.createMock(VideoGridService.class);
+    EasyMock.expect(videoGridService.createPartialTracks(anyObject(), anyObject())).andAnswer(() -> {
+      List<List<String>> command = (List<List<String>>) EasyMock.getCurrentArguments()[0];
+      commands.addAll(command);
+      Job job = new JobImpl(commands.size());
+      job.setPayload(gson.toJson(Arrays.asList(new URI("section-" + commands.size()))));
+      return job;
+    }).anyTimes();
+    MediaInspectionService mediaInspectionService = EasyMock.createMock(MediaInspectionService.class);
+    EasyMock.expect(mediaInspectionService.enrich(anyObject(), anyBoolean())).andAnswer(() -> {
+      TrackImpl inspected = new TrackImpl();
+      inspected.setURI(((Track) EasyMock.getCurrentArguments()[0]).getURI());
+      Job job = new JobImpl(10);
+      job.setPayload(MediaPackageElementParser.getAsXml(inspected));
+      return job;
+    }).anyTimes();
+    List<URI> concatenated = new ArrayList<>();
+    Job concatJob = new JobImpl(20);
+    concatJob.setPayload(MediaPackageElementParser.getAsXml(concatTrack));
+    ComposerService composerService = EasyMock.createMock(ComposerService.class);
+    EasyMock.expect(composerService.getProfile(ENCODING_PROFILE_ID)).andReturn(profile).anyTimes();
+    EasyMock.expect(composerService.concat(anyString(), anyObject(), anyBoolean(), anyObject())).andAnswer(() -> {
+      Object[] arguments = EasyMock.getCurrentArguments();
+      for (int i = 3; i < arguments.length; i++) {
+        List<Track> tracks = arguments[i] instanceof Track[] ? Arrays.asList((Track[]) arguments[i])
+                : Arrays.asList((Track) arguments[i]);
+        concatenated.addAll(tracks.stream().map(Track::getURI).collect(Collectors.toList()));
+      }
+      return concatJob;
+    });
+    EasyMock.expect(instance.getConfiguration(SOURCE_FLAVOR)).andReturn(SOURCE_FLAVOR_KEY).anyTimes();
+    EasyMock.expect(instance.getConfiguration(SOURCE_SMIL_FLAVOR)).andReturn(SOURCE_SMIL_FLAVOR_KEY).anyTimes();
+    EasyMock.expect(instance.getConfiguration(ENCODING_PROFILE)).andReturn(ENCODING_PROFILE_ID).anyTimes();
+    EasyMock.replay(gapsWorkflow, gapsWorkspace, videoGridService, mediaInspectionService, composerService, instance);
+    handler.setVideoGridService(videoGridService);
+    handler.setWorkspace(gapsWorkspace);
+    handler.setMediaInspectionService(mediaInspectionService);
+    handler.setComposerService(composerService);
+
+    WorkflowOperationResult result = handler.start(gapsWorkflow, null);
+    Assert.assertEquals(WorkflowOperationResult.Action.CONTINUE, result.getAction());
+
+    // One job per distinct section, the second gap reuses the first one
+    Assert.assertEquals(2, commands.size());
+    Assert.assertFalse(commands.get(0).equals(commands.get(1)));
+    // The sections are concatenated in timeline order
+    Assert.assertEquals(Arrays.asList(new URI("section-1"), new URI("section-2"), new URI("section-1")),
+            concatenated);
+  }
+
   @Test
   public void testNoTracks() throws Exception {
     EasyMock.expect(instance.getConfiguration(SOURCE_FLAVOR)).andReturn("*/nothing").anyTimes();
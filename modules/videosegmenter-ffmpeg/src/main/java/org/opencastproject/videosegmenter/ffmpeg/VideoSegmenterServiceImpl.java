@@ -62,6 +62,7 @@ import java.io.IOException;
 import java.io.InputStreamReader;
 import java.net.URI;
 import java.net.URL;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Dictionary;
@@ -77,8 +78,11 @@ import java.util.regex.Pattern;
  * This plugin runs
  *
  * <pre>
- * ffmpeg -nostats -i in.mp4 -filter:v 'select=gt(scene\,0.04),showinfo' -f null - 2&gt;&amp;1 | grep Parsed_showinfo_1
+ * ffmpeg -nostats -i in.mp4 -filter:v 'select=gt(scene\,0.01),metadata=print:key=lavfi.scene_score' -f null -
  * </pre>
+ *
+ * once per track with the lowest changes threshold the optimization may reach and then applies the actual thresholds
+ * to the reported scene scores, so that the track is decoded only once regardless of the number of cycles.
  */
 public class VideoSegmenterServiceImpl extends AbstractJobProducer implements
 VideoSegmenterService, ManagedService {
@@ -413,6 +417,10 @@ VideoSegmenterService, ManagedService {
 
       logger.info("Starting video segmentation of {}", mediaUrl);
 
+      // The optimization halves the changes threshold at most once per additional cycle. Detecting all scene changes
+      // above that lower bound lets every cycle work on the result of a single decoding pass.
+      final List<SceneChange> sceneChanges = runSceneDetectionFFmpeg(mediaFile,
+          (float) (changesThreshold / Math.pow(2, Math.max(0, maxCycles - 1))));
 
       // optimization loop to get a segmentation with a number of segments close
       // to the desired number of segments
@@ -423,8 +431,8 @@ VideoSegmenterService, ManagedService {
             contentTime, contentLocator);
 
 
-        // run the segmentation with FFmpeg
-        segments = runSegmentationFFmpeg(track, videoContent, mediaFile, changesThresholdLocal);
+        // apply the current changes threshold to the detected scene changes
+        segments = createSegments(track, videoContent, sceneChanges, changesThresholdLocal);
 
 
         // calculate errors for "normal" and filtered segmentation
@@ -617,100 +625,139 @@ VideoSegmenterService, ManagedService {
   }
 
   /**
-   * Does the actual segmentation with an FFmpeg call, adds the segments to the given videoContent of a catalog and
-   * returns a list with the resulting segments
+   * Detects scene changes with an FFmpeg call and returns all frames whose scene score exceeds the given threshold.
    *
-   * @param track the element to analyze
-   * @param videoContent the videoContent of the Mpeg7Catalog that the segments should be added to
    * @param mediaFile the file of the track to analyze
-   * @param changesThreshold the changesThreshold that is used as option for the FFmpeg call
-   * @return a list of the resulting segments
+   * @param minChangesThreshold the lowest changes threshold which will be applied to the result
+   * @return the scene changes in playback order
    * @throws IOException
    * @throws VideoSegmenterException
    */
-  private LinkedList<Segment> runSegmentationFFmpeg(Track track, Video videoContent, File mediaFile,
-          float changesThreshold) throws IOException, VideoSegmenterException {
+  private List<SceneChange> runSceneDetectionFFmpeg(File mediaFile, float minChangesThreshold)
+          throws IOException, VideoSegmenterException {
 
     String[] command = new String[] { binary, "-nostats", "-nostdin", "-i", mediaFile.getAbsolutePath(),
-      "-filter:v", "select=gt(scene\\," + changesThreshold + "),showinfo", "-f", "null", "-"};
+      "-filter:v", "select=gt(scene\\," + minChangesThreshold + "),metadata=print:key=lavfi.scene_score",
+      "-f", "null", "-"};
 
     logger.info("Detecting video segments using command: {}", (Object) command);
 
     ProcessBuilder pbuilder = new ProcessBuilder(command);
-    List<String> segmentsStrings = new LinkedList<>();
+    List<SceneChange> sceneChanges = new ArrayList<>();
     Process process = pbuilder.start();
+
     try (BufferedReader reader = new BufferedReader(new InputStreamReader(process.getErrorStream()))) {
-      String line = reader.readLine();
-      while (null != line) {
-        if (line.startsWith("[Parsed_showinfo")) {
-          segmentsStrings.add(line);
-        }
-        line = reader.readLine();
-      }
+      sceneChanges = parseSceneChanges(reader);
     } catch (IOException e) {
       logger.error("Error executing ffmpeg: {}", e.getMessage());
     }
 
-    // [Parsed_showinfo_1 @ 0x157fb40] n:0 pts:12 pts_time:12 pos:227495
-    // fmt:rgb24 sar:0/1 s:320x240 i:P iskey:1 type:I checksum:8DF39EA9
-    // plane_checksum:[8DF39EA9]
+    logger.info("Scene detection of {} yields {} candidate changes", mediaFile.toURI().toURL(), sceneChanges.size());
+    return sceneChanges;
+  }
+
+  /**
+   * Parses the scene changes printed by the FFmpeg metadata filter.
+   *
+   * @param reader the FFmpeg output
+   * @return the scene changes in playback order
+   * @throws IOException if the output cannot be read
+   * @throws VideoSegmenterException if the output cannot be parsed
+   */
+  static List<SceneChange> parseSceneChanges(BufferedReader reader) throws IOException, VideoSegmenterException {
+    List<SceneChange> sceneChanges = new ArrayList<>();
+
+    // [Parsed_metadata_1 @ 0x157fb40] frame:0    pts:12      pts_time:12
+    // [Parsed_metadata_1 @ 0x157fb40] lavfi.scene_score=0.063254
+    Pattern timePattern = Pattern.compile("pts_time:(-?\\d+(\\.\\d+)?)");
+    Pattern scorePattern = Pattern.compile("lavfi\\.scene_score=(\\d+(\\.\\d+)?)");
+    String time = null;
+    String line = reader.readLine();
+    while (null != line) {
+      if (line.startsWith("[Parsed_metadata")) {
+        Matcher matcher = timePattern.matcher(line);
+        if (matcher.find()) {
+          time = matcher.group(1);
+        } else {
+          matcher = scorePattern.matcher(line);
+          if (matcher.find() && time != null) {
+            try {
+              sceneChanges.add(new SceneChange(Math.round(Double.parseDouble(time) * 1000),
+                  Float.parseFloat(matcher.group(1))));
+            } catch (NumberFormatException e) {
+              logger.error("Unable to parse FFmpeg output, likely FFmpeg version mismatch!", e);
+              throw new VideoSegmenterException(e);
+            }
+            time = null;
+          }
+        }
+      }
+      line = reader.readLine();
+    }
+    return sceneChanges;
+  }
+
+  /**
+   * Creates segments at all scene changes exceeding the changes threshold, adds them to the given videoContent of a
+   * catalog and returns a list with the resulting segments
+   *
+   * @param track the element to analyze
+   * @param videoContent the videoContent of the Mpeg7Catalog that the segments should be added to
+   * @param sceneChanges the scene changes detected in the track
+   * @param changesThreshold the changesThreshold a scene change needs to exceed
+   * @return a list of the resulting segments
+   */
+  LinkedList<Segment> createSegments(Track track, Video videoContent, List<SceneChange> sceneChanges,
+          float changesThreshold) {
 
     int segmentcount = 1;
     LinkedList<Segment> segments = new LinkedList<>();
 
-    if (segmentsStrings.size() == 0) {
-      Segment s = videoContent.getTemporalDecomposition()
-          .createSegment("segment-" + segmentcount);
-      s.setMediaTime(new MediaRelTimeImpl(0, track.getDuration()));
-      segments.add(s);
-    } else {
-      long starttime = 0;
-      long endtime = 0;
-      Pattern pattern = Pattern.compile("pts_time\\:\\d+(\\.\\d+)?");
-      for (String seginfo : segmentsStrings) {
-        Matcher matcher = pattern.matcher(seginfo);
-        String time = "";
-        while (matcher.find()) {
-          time = matcher.group().substring(9);
-        }
-        if ("".equals(time)) {
-          // continue if the showinfo does not contain any time information. This may happen since the FFmpeg showinfo
-          // filter is used for multiple purposes.
-          continue;
-        }
-        try {
-          endtime = Math.round(Float.parseFloat(time) * 1000);
-        } catch (NumberFormatException e) {
-          logger.error("Unable to parse FFmpeg output, likely FFmpeg version mismatch!", e);
-          throw new VideoSegmenterException(e);
-        }
-        long segmentLength = endtime - starttime;
-        if (1000 * stabilityThresholdPrefilter < segmentLength) {
-          Segment segment = videoContent.getTemporalDecomposition()
-              .createSegment("segment-" + segmentcount);
-          segment.setMediaTime(new MediaRelTimeImpl(starttime,
-              endtime - starttime));
-          logger.debug("Created segment {} at start time {} with duration {}", segmentcount, starttime, endtime);
-          segments.add(segment);
-          segmentcount++;
-          starttime = endtime;
-        }
+    long starttime = 0;
+    long endtime = 0;
+    for (SceneChange sceneChange : sceneChanges) {
+      if (sceneChange.score <= changesThreshold) {
+        continue;
+      }
+      endtime = sceneChange.time;
+      long segmentLength = endtime - starttime;
+      if (1000 * stabilityThresholdPrefilter < segmentLength) {
+        Segment segment = videoContent.getTemporalDecomposition()
+            .createSegment("segment-" + segmentcount);
+        segment.setMediaTime(new MediaRelTimeImpl(starttime,
+            endtime - starttime));
+        logger.debug("Created segment {} at start time {} with duration {}", segmentcount, starttime, endtime);
+        segments.add(segment);
+        segmentcount++;
+        starttime = endtime;
       }
-      // Add last segment
-      Segment s = videoContent.getTemporalDecomposition()
-          .createSegment("segment-" + segmentcount);
-      s.setMediaTime(new MediaRelTimeImpl(starttime, track.getDuration() - starttime));
-      logger.debug("Created segment {} at start time {} with duration {}", segmentcount, starttime,
-              track.getDuration() - endtime);
-      segments.add(s);
     }
+    // Add last segment
+    Segment s = videoContent.getTemporalDecomposition()
+        .createSegment("segment-" + segmentcount);
+    s.setMediaTime(new MediaRelTimeImpl(starttime, track.getDuration() - starttime));
+    logger.debug("Created segment {} at start time {} with duration {}", segmentcount, starttime,
+            track.getDuration() - endtime);
+    segments.add(s);
 
-   logger.info("Segmentation of {} yields {} segments",
-           mediaFile.toURI().toURL(), segments.size());
+    logger.info("Segmentation with changes threshold {} yields {} segments", changesThreshold, segments.size());
 
     return segments;
   }
 
+  /** A frame whose scene score exceeded the detection threshold */
+  static final class SceneChange {
+    /** Presentation time in milliseconds */
+    private final long time;
+    /** Scene score between 0 and 1 */
+    private final float score;
+
+    SceneChange(long time, float score) {
+      this.time = time;
+      this.score = score;
+    }
+  }
+
   /**
    * {@inheritDoc}
    *
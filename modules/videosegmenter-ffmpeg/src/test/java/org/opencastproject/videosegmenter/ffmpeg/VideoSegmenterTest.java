@@ -69,9 +69,11 @@ import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.TemporaryFolder;
 
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.InputStream;
+import java.io.StringReader;
 import java.net.URI;
 import java.util.Collections;
 import java.util.Iterator;
@@ -420,4 +422,70 @@ public class VideoSegmenterTest {
 
   }
 
+  /** FFmpeg output of the scene detection with scene changes at 5s, 5.5s, 9s and 18.24s */
+  private static final String SCENE_DETECTION_OUTPUT = String.join("\n",
+      "Input #0, mov,mp4,m4a,3gp,3g2,mj2, from 'scene-change.mov':",
+      "  Duration: 00:00:30.00, start: 0.000000, bitrate: 1024 kb/s",
+      "[Parsed_metadata_1 @ 0x157fb40] lavfi.scene_score=0.700000",
+      "[Parsed_metadata_1 @ 0x157fb40] frame:0    pts:125     pts_time:5",
+      "[Parsed_metadata_1 @ 0x157fb40] lavfi.scene_score=0.500000",
+      "[Parsed_metadata_1 @ 0x157fb40] frame:1    pts:137     pts_time:5.5",
+      "[Parsed_metadata_1 @ 0x157fb40] lavfi.scene_score=0.900000",
+      "frame=    2 fps=0.0 q=-0.0 size=N/A time=00:00:05.50 bitrate=N/A speed=11x",
+      "[Parsed_metadata_1 @ 0x157fb40] frame:2    pts:225     pts_time:9",
+      "[Parsed_metadata_1 @ 0x157fb40] lavfi.scene_score=0.100000",
+      "[Parsed_metadata_1 @ 0x157fb40] frame:3    pts:456     pts_time:18.24",
+      "[Parsed_metadata_1 @ 0x157fb40] lavfi.scene_score=0.350000",
+      "frame=    4 fps=0.0 q=-0.0 Lsize=N/A time=00:00:30.00 bitrate=N/A speed=12x");
+
+  @Test
+  public void testCreateSegmentsFromSceneDetection() throws Exception {
+    List<Segment> segments = createSegments(SCENE_DETECTION_OUTPUT, 0.2f);
+
+    // 5.5s is too close to the previous change and 9s does not exceed the changes threshold
+    assertSegments(segments, 0, 5000, 5000, 13240, 18240, 11760);
+  }
+
+  @Test
+  public void testCreateSegmentsChangesThreshold() throws Exception {
+    List<Segment> segments = createSegments(SCENE_DETECTION_OUTPUT, 0.5f);
+
+    // Scores equal to the changes threshold are not counted as scene change
+    assertSegments(segments, 0, mediaDuration1);
+  }
+
+  @Test
+  public void testCreateSegmentsWithoutSceneChanges() throws Exception {
+    List<Segment> segments = createSegments("", 0.2f);
+
+    assertSegments(segments, 0, mediaDuration1);
+  }
+
+  /**
+   * Parses the given FFmpeg output and creates the segments of {@link #track1} from it.
+   */
+  private List<Segment> createSegments(String output, float changesThreshold) throws Exception {
+    MediaTime contentTime = new MediaRelTimeImpl(0, track1.getDuration());
+    MediaLocator contentLocator = new MediaLocatorImpl(track1.getURI());
+    Video videoContent = vsegmenter.mpeg7CatalogService.newInstance()
+        .addVideoContent("videosegment", contentTime, contentLocator);
+    List<VideoSegmenterServiceImpl.SceneChange> sceneChanges = VideoSegmenterServiceImpl.parseSceneChanges(
+        new BufferedReader(new StringReader(output)));
+    return vsegmenter.createSegments(track1, videoContent, sceneChanges, changesThreshold);
+  }
+
+  /**
+   * Asserts that the segments match the expected pairs of start time and duration in milliseconds.
+   */
+  private static void assertSegments(List<Segment> segments, long... expected) {
+    assertEquals("Unexpected number of segments", expected.length / 2, segments.size());
+    for (int i = 0; i < segments.size(); i++) {
+      MediaTime mediaTime = segments.get(i).getMediaTime();
+      assertEquals("Unexpected start time of segment " + i, expected[2 * i],
+          mediaTime.getMediaTimePoint().getTimeInMilliseconds());
+      assertEquals("Unexpected duration of segment " + i, expected[2 * i + 1],
+          mediaTime.getMediaDuration().getDurationInMilliseconds());
+    }
+  }
+
 }
@@ -0,0 +1,301 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.opencastproject.waveform.api;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Multi-resolution waveform data. For each zoom level, the audio is split into buckets of a fixed number of samples and
+ * the minimum and maximum sample value of each bucket is stored. Every level combines two buckets of the previous
+ * level, so clients can pick the resolution matching their zoom factor without processing the media again.
+ * <p>
+ * The binary representation is big-endian:
+ * <pre>
+ * int    magic ("OCWP")
+ * int    version
+ * int    sample rate
+ * int    number of levels
+ * per level:
+ *   int    samples per bucket
+ *   int    number of buckets
+ *   short  minimum and short maximum of each bucket
+ * </pre>
+ * Sample values are signed 16 bit.
+ */
+public final class WaveformPeaks {
+
+  /** Marks the beginning of a waveform peaks file */
+  private static final int MAGIC = 0x4f435750;
+
+  /** The version of the binary representation */
+  private static final int VERSION = 1;
+
+  private final int sampleRate;
+  private final int[] samplesPerBucket;
+  private final short[][] min;
+  private final short[][] max;
+
+  private WaveformPeaks(int sampleRate, int[] samplesPerBucket, short[][] min, short[][] max) {
+    this.sampleRate = sampleRate;
+    this.samplesPerBucket = samplesPerBucket;
+    this.min = min;
+    this.max = max;
+  }
+
+  /** @return the sample rate of the analyzed audio */
+  public int getSampleRate() {
+    return sampleRate;
+  }
+
+  /** @return the number of zoom levels, the first level having the highest resolution */
+  public int getLevelCount() {
+    return samplesPerBucket.length;
+  }
+
+  /**
+   * @param level
+   *          the zoom level
+   * @return the number of samples summarized by one bucket of the level
+   */
+  public int getSamplesPerBucket(int level) {
+    return samplesPerBucket[level];
+  }
+
+  /**
+   * @param level
+   *          the zoom level
+   * @return the number of buckets of the level
+   */
+  public int getBucketCount(int level) {
+    return min[level].length;
+  }
+
+  /**
+   * @param level
+   *          the zoom level
+   * @return the minimum sample value of each bucket of the level
+   */
+  public short[] getMin(int level) {
+    return min[level];
+  }
+
+  /**
+   * @param level
+   *          the zoom level
+   * @return the maximum sample value of each bucket of the level
+   */
+  public short[] getMax(int level) {
+    return max[level];
+  }
+
+  /**
+   * Returns the level with the highest resolution which does not need more than the given number of buckets.
+   *
+   * @param buckets
+   *          the maximum number of buckets, e.g. the width of a waveform image in pixels
+   * @return the matching level or the level with the lowest resolution if none is small enough
+   */
+  public int getLevel(int buckets) {
+    for (int level = 0; level < getLevelCount(); level++) {
+      if (getBucketCount(level) <= buckets)
+        return level;
+    }
+    return getLevelCount() - 1;
+  }
+
+  /**
+   * Writes the binary representation of the waveform data.
+   *
+   * @param out
+   *          the stream to write to, which is not closed
+   * @throws IOException
+   *           if writing fails
+   */
+  public void write(OutputStream out) throws IOException {
+    DataOutputStream data = new DataOutputStream(out);
+    data.writeInt(MAGIC);
+    data.writeInt(VERSION);
+    data.writeInt(sampleRate);
+    data.writeInt(getLevelCount());
+    for (int level = 0; level < getLevelCount(); level++) {
+      data.writeInt(samplesPerBucket[level]);
+      data.writeInt(min[level].length);
+      for (int i = 0; i < min[level].length; i++) {
+        data.writeShort(min[level][i]);
+        data.writeShort(max[level][i]);
+      }
+    }
+    data.flush();
+  }
+
+  /**
+   * Reads the binary representation of waveform data.
+   *
+   * @param in
+   *          the stream to read from, which is not closed
+   * @return the waveform data
+   * @throws IOException
+   *           if reading fails or the data is not a supported waveform peaks file
+   */
+  public static WaveformPeaks read(InputStream in) throws IOException {
+    DataInputStream data = new DataInputStream(in);
+    if (data.readInt() != MAGIC)
+      throw new IOException("Not a waveform peaks file");
+    int version = data.readInt();
+    if (version != VERSION)
+      throw new IOException("Unsupported waveform peaks version " + version);
+    int sampleRate = data.readInt();
+    int levels = data.readInt();
+    if (levels < 1)
+      throw new IOException("Invalid number of waveform levels " + levels);
+    int[] samplesPerBucket = new int[levels];
+    short[][] min = new short[levels][];
+    short[][] max = new short[levels][];
+    for (int level = 0; level < levels; level++) {
+      samplesPerBucket[level] = data.readInt();
+      int buckets = data.readInt();
+      if (buckets < 0)
+        throw new IOException("Invalid number of waveform buckets " + buckets);
+      min[level] = new short[buckets];
+      max[level] = new short[buckets];
+      for (int i = 0; i < buckets; i++) {
+        min[level][i] = data.readShort();
+        max[level][i] = data.readShort();
+      }
+    }
+    return new WaveformPeaks(sampleRate, samplesPerBucket, min, max);
+  }
+
+  /**
+   * Computes waveform data in a single pass over mono PCM samples.
+   */
+  public static final class Builder {
+    private final int sampleRate;
+    private final int samplesPerBucket;
+    private final int levels;
+    private short[] bucketsMin = new short[1024];
+    private short[] bucketsMax = new short[1024];
+    private int buckets = 0;
+    private short bucketMin = Short.MAX_VALUE;
+    private short bucketMax = Short.MIN_VALUE;
+    private int bucketSamples = 0;
+    private int oddByte = -1;
+
+    /**
+     * @param sampleRate
+     *          the sample rate of the PCM data
+     * @param samplesPerBucket
+     *          the number of samples summarized by one bucket of the highest resolution
+     * @param levels
+     *          the number of zoom levels
+     */
+    public Builder(int sampleRate, int samplesPerBucket, int levels) {
+      if (sampleRate < 1 || samplesPerBucket < 1 || levels < 1)
+        throw new IllegalArgumentException("Sample rate, samples per bucket and levels must be positive");
+      this.sampleRate = sampleRate;
+      this.samplesPerBucket = samplesPerBucket;
+      this.levels = levels;
+    }
+
+    /**
+     * Adds a sample.
+     *
+     * @param sample
+     *          signed 16 bit sample value
+     */
+    public void add(short sample) {
+      if (sample < bucketMin)
+        bucketMin = sample;
+      if (sample > bucketMax)
+        bucketMax = sample;
+      if (++bucketSamples == samplesPerBucket)
+        closeBucket();
+    }
+
+    /**
+     * Adds signed 16 bit little-endian PCM data. Samples may be split between subsequent calls.
+     *
+     * @param buffer
+     *          the PCM data
+     * @param offset
+     *          the offset of the first byte
+     * @param length
+     *          the number of bytes
+     */
+    public void add(byte[] buffer, int offset, int length) {
+      int end = offset + length;
+      int i = offset;
+      if (oddByte >= 0 && i < end) {
+        add((short) ((buffer[i++] << 8) | oddByte));
+        oddByte = -1;
+      }
+      for (; i + 1 < end; i += 2) {
+        add((short) ((buffer[i + 1] << 8) | (buffer[i] & 0xff)));
+      }
+      if (i < end)
+        oddByte = buffer[i] & 0xff;
+    }
+
+    private void closeBucket() {
+      if (buckets == bucketsMin.length) {
+        bucketsMin = Arrays.copyOf(bucketsMin, buckets * 2);
+        bucketsMax = Arrays.copyOf(bucketsMax, buckets * 2);
+      }
+      bucketsMin[buckets] = bucketMin;
+      bucketsMax[buckets] = bucketMax;
+      buckets++;
+      bucketMin = Short.MAX_VALUE;
+      bucketMax = Short.MIN_VALUE;
+      bucketSamples = 0;
+    }
+
+    /**
+     * @return the waveform data of all samples added so far
+     */
+    public WaveformPeaks build() {
+      if (bucketSamples > 0)
+        closeBucket();
+      int[] levelSamples = new int[levels];
+      short[][] min = new short[levels][];
+      short[][] max = new short[levels][];
+      levelSamples[0] = samplesPerBucket;
+      min[0] = Arrays.copyOf(bucketsMin, buckets);
+      max[0] = Arrays.copyOf(bucketsMax, buckets);
+      for (int level = 1; level < levels; level++) {
+        int size = (min[level - 1].length + 1) / 2;
+        levelSamples[level] = levelSamples[level - 1] * 2;
+        min[level] = new short[size];
+        max[level] = new short[size];
+        for (int i = 0; i < size; i++) {
+          int next = Math.min(2 * i + 1, min[level - 1].length - 1);
+          min[level][i] = (short) Math.min(min[level - 1][2 * i], min[level - 1][next]);
+          max[level][i] = (short) Math.max(max[level - 1][2 * i], max[level - 1][next]);
+        }
+      }
+      return new WaveformPeaks(sampleRate, levelSamples, min, max);
+    }
+  }
+}
@@ -25,7 +25,7 @@ import org.opencastproject.mediapackage.MediaPackageException;
 import org.opencastproject.mediapackage.Track;
 
 /**
- * This is an api for a service that will create a waveform image from a track.
+ * This is an api for a service that will create a waveform image or waveform data from a track.
  */
 public interface WaveformService {
 
@@ -47,4 +47,15 @@ public interface WaveformService {
    */
   Job createWaveformImage(Track sourceTrack, int pixelPerMinute, int minWidth, int maxWidth, int height, String color)
     throws MediaPackageException, WaveformServiceException;
+
+  /**
+   * Takes the given track and returns the job that will create multi-resolution waveform data, see
+   * {@link WaveformPeaks}. Clients can render waveforms of any width from this data.
+   *
+   * @param sourceTrack the track to create the waveform data from
+   * @return a job that will create a waveform data attachment
+   * @throws MediaPackageException if the serialization of the given track fails
+   * @throws WaveformServiceException if the job can't be created for any reason
+   */
+  Job createWaveformData(Track sourceTrack) throws MediaPackageException, WaveformServiceException;
 }
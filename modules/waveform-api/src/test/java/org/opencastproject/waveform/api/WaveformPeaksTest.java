@@ -0,0 +1,94 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+package org.opencastproject.waveform.api;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+public class WaveformPeaksTest {
+
+  @Test
+  public void testLevels() {
+    WaveformPeaks.Builder builder = new WaveformPeaks.Builder(8000, 2, 3);
+    short[] samples = { 1, -1, 5, 2, -7, 3, 4, 4, 9 };
+    for (short sample : samples) {
+      builder.add(sample);
+    }
+    WaveformPeaks peaks = builder.build();
+
+    assertEquals(3, peaks.getLevelCount());
+    assertEquals(2, peaks.getSamplesPerBucket(0));
+    assertEquals(4, peaks.getSamplesPerBucket(1));
+    assertEquals(8, peaks.getSamplesPerBucket(2));
+    assertArrayEquals(new short[] { -1, 2, -7, 4, 9 }, peaks.getMin(0));
+    assertArrayEquals(new short[] { 1, 5, 3, 4, 9 }, peaks.getMax(0));
+    assertArrayEquals(new short[] { -1, -7, 9 }, peaks.getMin(1));
+    assertArrayEquals(new short[] { 5, 4, 9 }, peaks.getMax(1));
+    assertArrayEquals(new short[] { -7, 9 }, peaks.getMin(2));
+    assertArrayEquals(new short[] { 5, 9 }, peaks.getMax(2));
+    assertEquals(1, peaks.getLevel(3));
+    assertEquals(2, peaks.getLevel(1));
+  }
+
+  @Test
+  public void testLittleEndianPcm() {
+    WaveformPeaks.Builder builder = new WaveformPeaks.Builder(8000, 3, 1);
+    // -2, 300 and 32767 with the second sample split between two buffers
+    byte[] first = { (byte) 0xfe, (byte) 0xff, 0x2c };
+    byte[] second = { 0x01, (byte) 0xff, 0x7f };
+    builder.add(first, 0, first.length);
+    builder.add(second, 0, second.length);
+    WaveformPeaks peaks = builder.build();
+    assertArrayEquals(new short[] { -2 }, peaks.getMin(0));
+    assertArrayEquals(new short[] { Short.MAX_VALUE }, peaks.getMax(0));
+  }
+
+  @Test
+  public void testReadWrite() throws IOException {
+    WaveformPeaks.Builder builder = new WaveformPeaks.Builder(16000, 4, 2);
+    for (int i = 0; i < 100; i++) {
+      builder.add((short) (i * (i % 2 == 0 ? 100 : -100)));
+    }
+    WaveformPeaks peaks = builder.build();
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    peaks.write(out);
+
+    WaveformPeaks read = WaveformPeaks.read(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(16000, read.getSampleRate());
+    assertEquals(peaks.getLevelCount(), read.getLevelCount());
+    for (int level = 0; level < peaks.getLevelCount(); level++) {
+      assertEquals(peaks.getSamplesPerBucket(level), read.getSamplesPerBucket(level));
+      assertArrayEquals(peaks.getMin(level), read.getMin(level));
+      assertArrayEquals(peaks.getMax(level), read.getMax(level));
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadInvalid() throws IOException {
+    WaveformPeaks.read(new ByteArrayInputStream(new byte[] { 1, 2, 3, 4, 5, 6, 7, 8 }));
+  }
+}
@@ -102,6 +102,39 @@ public class WaveformServiceEndpoint extends AbstractJobProducerEndpoint {
     }
   }
 
+  @POST
+  @Path("/createdata")
+  @Produces({MediaType.APPLICATION_XML})
+  @RestQuery(name = "createdata", description = "Create multi-resolution waveform data from the given track",
+          returnDescription = "Media package attachment for the generated waveform data.",
+          restParameters = {
+            @RestParameter(name = "track", type = RestParameter.Type.TEXT,
+                    description = "Track with at least one audio channel.", isRequired = true)
+          },
+          responses = {
+            @RestResponse(description = "Waveform data generation job successfully created.",
+                    responseCode = HttpServletResponse.SC_OK),
+            @RestResponse(description = "The given track can't be parsed.",
+                    responseCode = HttpServletResponse.SC_BAD_REQUEST),
+            @RestResponse(description = "Internal server error.",
+                    responseCode = HttpServletResponse.SC_INTERNAL_SERVER_ERROR)
+  })
+  public Response createWaveformData(@FormParam("track") String track) {
+    try {
+      MediaPackageElement sourceTrack = MediaPackageElementParser.getFromXml(track);
+      if (!Track.TYPE.equals(sourceTrack.getElementType()))
+        return Response.status(Response.Status.BAD_REQUEST).entity("Track element must be of type track").build();
+
+      Job job = waveformService.createWaveformData((Track) sourceTrack);
+      return Response.ok().entity(new JaxbJob(job)).build();
+    } catch (WaveformServiceException ex) {
+      logger.error("Creating waveform data job for track {} failed:", track, ex);
+      return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
+    } catch (MediaPackageException ex) {
+      return Response.status(Response.Status.BAD_REQUEST).entity("Track element parsing failure").build();
+    }
+  }
+
   @Override
   public JobProducer getService() {
     if (waveformService instanceof JobProducer) {
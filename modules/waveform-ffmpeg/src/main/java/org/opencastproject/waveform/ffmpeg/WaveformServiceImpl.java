@@ -37,7 +37,9 @@ import org.opencastproject.serviceregistry.api.ServiceRegistry;
 import org.opencastproject.serviceregistry.api.ServiceRegistryException;
 import org.opencastproject.util.IoSupport;
 import org.opencastproject.util.LoadUtil;
+import org.opencastproject.util.NativeProcessBudget;
 import org.opencastproject.util.NotFoundException;
+import org.opencastproject.waveform.api.WaveformPeaks;
 import org.opencastproject.waveform.api.WaveformService;
 import org.opencastproject.waveform.api.WaveformServiceException;
 import org.opencastproject.workspace.api.Workspace;
@@ -51,12 +53,16 @@ import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.BufferedOutputStream;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.OutputStream;
 import java.net.URI;
 import java.util.Arrays;
 import java.util.Dictionary;
@@ -119,12 +125,30 @@ public class WaveformServiceImpl extends AbstractJobProducer implements Waveform
   /** The key to look for in the service configuration file to override the DEFAULT_WAVEFORM_FILTER_POST */
   public static final String WAVEFORM_FILTER_POST_CONFIG_KEY = "waveform.filter.post";
 
+  /** The key to look for in the service configuration file to override the DEFAULT_WAVEFORM_DATA_SAMPLE_RATE */
+  public static final String WAVEFORM_DATA_SAMPLE_RATE_CONFIG_KEY = "waveform.data.sample.rate";
+
+  /** The default sample rate the audio is resampled to before computing waveform data */
+  public static final int DEFAULT_WAVEFORM_DATA_SAMPLE_RATE = 8000;
+
+  /** The key to look for in the service configuration file to override the DEFAULT_WAVEFORM_DATA_SAMPLES_PER_BUCKET */
+  public static final String WAVEFORM_DATA_SAMPLES_PER_BUCKET_CONFIG_KEY = "waveform.data.samples.per.bucket";
+
+  /** The default number of samples summarized by a bucket of the highest waveform data resolution */
+  public static final int DEFAULT_WAVEFORM_DATA_SAMPLES_PER_BUCKET = 160;
+
+  /** The key to look for in the service configuration file to override the DEFAULT_WAVEFORM_DATA_LEVELS */
+  public static final String WAVEFORM_DATA_LEVELS_CONFIG_KEY = "waveform.data.levels";
+
+  /** The default number of waveform data zoom levels */
+  public static final int DEFAULT_WAVEFORM_DATA_LEVELS = 10;
+
   /** Resulting collection in the working file repository */
   public static final String COLLECTION_ID = "waveform";
 
   /** List of available operations on jobs */
   enum Operation {
-    Waveform
+    Waveform, WaveformData
   };
 
   /** The waveform job load */
@@ -146,6 +170,15 @@ public class WaveformServiceImpl extends AbstractJobProducer implements Waveform
   /** Filter to be appended to the showwavespic filter */
   private String waveformFilterPost = DEFAULT_WAVEFORM_FILTER_POST;
 
+  /** The sample rate used for waveform data */
+  private int waveformDataSampleRate = DEFAULT_WAVEFORM_DATA_SAMPLE_RATE;
+
+  /** The number of samples per bucket of the highest waveform data resolution */
+  private int waveformDataSamplesPerBucket = DEFAULT_WAVEFORM_DATA_SAMPLES_PER_BUCKET;
+
+  /** The number of waveform data zoom levels */
+  private int waveformDataLevels = DEFAULT_WAVEFORM_DATA_LEVELS;
+
   /** Reference to the service registry */
   private ServiceRegistry serviceRegistry = null;
 
@@ -172,6 +205,7 @@ public class WaveformServiceImpl extends AbstractJobProducer implements Waveform
     final String path = cc.getBundleContext().getProperty(FFMPEG_BINARY_CONFIG_KEY);
     binary = (path == null ? DEFAULT_FFMPEG_BINARY : path);
     logger.debug("ffmpeg binary set to {}", binary);
+    NativeProcessBudget.configure(cc.getBundleContext());
   }
 
   @Override
@@ -220,6 +254,27 @@ public class WaveformServiceImpl extends AbstractJobProducer implements Waveform
     } else {
       waveformFilterPost = null;
     }
+
+    waveformDataSampleRate = getPositiveInt(properties, WAVEFORM_DATA_SAMPLE_RATE_CONFIG_KEY,
+            DEFAULT_WAVEFORM_DATA_SAMPLE_RATE);
+    waveformDataSamplesPerBucket = getPositiveInt(properties, WAVEFORM_DATA_SAMPLES_PER_BUCKET_CONFIG_KEY,
+            DEFAULT_WAVEFORM_DATA_SAMPLES_PER_BUCKET);
+    waveformDataLevels = getPositiveInt(properties, WAVEFORM_DATA_LEVELS_CONFIG_KEY, DEFAULT_WAVEFORM_DATA_LEVELS);
+  }
+
+  private static int getPositiveInt(Dictionary<String, ?> properties, String key, int defaultValue)
+          throws ConfigurationException {
+    String val = StringUtils.trimToNull((String) properties.get(key));
+    if (val == null)
+      return defaultValue;
+    try {
+      int value = Integer.parseInt(val);
+      if (value > 0)
+        return value;
+    } catch (NumberFormatException e) {
+      // handled below
+    }
+    throw new ConfigurationException(key, "must be a positive integer but is '" + val + "'");
   }
 
   /**
@@ -240,6 +295,21 @@ public class WaveformServiceImpl extends AbstractJobProducer implements Waveform
     }
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @see org.opencastproject.waveform.api.WaveformService#createWaveformData(org.opencastproject.mediapackage.Track)
+   */
+  @Override
+  public Job createWaveformData(Track sourceTrack) throws MediaPackageException, WaveformServiceException {
+    try {
+      return serviceRegistry.createJob(jobType, Operation.WaveformData.toString(),
+              Arrays.asList(MediaPackageElementParser.getAsXml(sourceTrack)), waveformJobLoad);
+    } catch (ServiceRegistryException ex) {
+      throw new WaveformServiceException("Unable to create waveform data job", ex);
+    }
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -262,6 +332,10 @@ public class WaveformServiceImpl extends AbstractJobProducer implements Waveform
           String color = arguments.get(5);
           Attachment waveformMpe = extractWaveform(track, pixelsPerMinute, minWidth, maxWidth, height, color);
           return MediaPackageElementParser.getAsXml(waveformMpe);
+        case WaveformData:
+          Attachment waveformDataMpe = extractWaveformData(
+                  (Track) MediaPackageElementParser.getFromXml(arguments.get(0)));
+          return MediaPackageElementParser.getAsXml(waveformDataMpe);
         default:
           throw new ServiceRegistryException("This service can't handle operations of type '" + op + "'");
       }
@@ -290,27 +364,19 @@ public class WaveformServiceImpl extends AbstractJobProducer implements Waveform
       throw new WaveformServiceException("Track has no audio");
     }
 
-    // copy source file into workspace
-    File mediaFile;
-    try {
-      mediaFile = workspace.get(track.getURI());
-    } catch (NotFoundException e) {
-      throw new WaveformServiceException(
-          "Error finding the media file in the workspace", e);
-    } catch (IOException e) {
-      throw new WaveformServiceException(
-          "Error reading the media file in the workspace", e);
-    }
+    File mediaFile = getMediaFile(track);
 
     String waveformFilePath = FilenameUtils.removeExtension(mediaFile.getAbsolutePath())
             .concat('-' + track.getIdentifier()).concat("-waveform.png");
 
     int width = getWaveformImageWidth(track, pixelsPerMinute, minWidth, maxWidth);
 
-    // create ffmpeg command
+    // create ffmpeg command, limiting the decoder to the threads accounted for by the job load
+    int threads = NativeProcessBudget.threadsForLoad(waveformJobLoad);
     String[] command = new String[] {
       binary,
       "-nostats", "-nostdin", "-hide_banner",
+      "-threads", Integer.toString(threads),
       "-i", mediaFile.getAbsolutePath(),
       "-lavfi", createWaveformFilter(width, height, color),
       "-frames:v", "1",
@@ -326,7 +392,9 @@ public class WaveformServiceImpl extends AbstractJobProducer implements Waveform
     Process ffmpegProcess = null;
     int exitCode = 1;
     BufferedReader errStream = null;
+    NativeProcessBudget.Allocation allocation = null;
     try {
+      allocation = NativeProcessBudget.allocate(threads);
       ffmpegProcess = pb.start();
 
       errStream = new BufferedReader(new InputStreamReader(ffmpegProcess.getInputStream()));
@@ -340,10 +408,13 @@ public class WaveformServiceImpl extends AbstractJobProducer implements Waveform
     } catch (IOException ex) {
       throw new WaveformServiceException("Start ffmpeg process failed", ex);
     } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
       throw new WaveformServiceException("Waiting for encoder process exited was interrupted unexpectedly", ex);
     } finally {
       IoSupport.closeQuietly(ffmpegProcess);
       IoSupport.closeQuietly(errStream);
+      if (allocation != null)
+        allocation.close();
       if (exitCode != 0) {
         try {
           FileUtils.forceDelete(new File(waveformFilePath));
@@ -357,7 +428,122 @@ public class WaveformServiceImpl extends AbstractJobProducer implements Waveform
       throw new WaveformServiceException(String.format("The encoder process exited abnormally with exit code %s "
               + "using command\n%s", exitCode, String.join(" ", command)));
 
-    // put waveform image into workspace
+    return toAttachment(track, waveformFilePath);
+  }
+
+  /**
+   * Create waveform data by streaming the decoded audio from ffmpeg into a {@link WaveformPeaks.Builder}.
+   *
+   * @param track source audio/video track with at least one audio channel
+   * @return waveform data attachment
+   * @throws WaveformServiceException if processing fails
+   */
+  private Attachment extractWaveformData(Track track) throws WaveformServiceException {
+    if (!track.hasAudio()) {
+      throw new WaveformServiceException("Track has no audio");
+    }
+
+    File mediaFile = getMediaFile(track);
+    String waveformFilePath = FilenameUtils.removeExtension(mediaFile.getAbsolutePath())
+            .concat('-' + track.getIdentifier()).concat("-waveform.dat");
+    File errorFile = new File(waveformFilePath + ".log");
+
+    // decode the first audio stream into mono 16 bit PCM written to stdout
+    int threads = NativeProcessBudget.threadsForLoad(waveformJobLoad);
+    String[] command = new String[] {
+      binary,
+      "-nostats", "-nostdin", "-hide_banner", "-loglevel", "error",
+      "-threads", Integer.toString(threads),
+      "-i", mediaFile.getAbsolutePath(),
+      "-map", "0:a:0",
+      "-ac", "1",
+      "-ar", Integer.toString(waveformDataSampleRate),
+      "-f", "s16le", "-acodec", "pcm_s16le",
+      "-"
+    };
+    logger.debug("Start waveform data ffmpeg process: {}", StringUtils.join(command, " "));
+    logger.info("Create waveform data file for track '{}' at {}", track.getIdentifier(), waveformFilePath);
+
+    ProcessBuilder pb = new ProcessBuilder(command);
+    pb.redirectError(errorFile);
+    Process ffmpegProcess = null;
+    int exitCode = 1;
+    InputStream pcmStream = null;
+    WaveformPeaks.Builder peaks = new WaveformPeaks.Builder(waveformDataSampleRate, waveformDataSamplesPerBucket,
+            waveformDataLevels);
+    NativeProcessBudget.Allocation allocation = null;
+    try {
+      allocation = NativeProcessBudget.allocate(threads);
+      ffmpegProcess = pb.start();
+
+      pcmStream = ffmpegProcess.getInputStream();
+      byte[] buffer = new byte[64 * 1024];
+      int read;
+      while ((read = pcmStream.read(buffer)) >= 0) {
+        peaks.add(buffer, 0, read);
+      }
+
+      exitCode = ffmpegProcess.waitFor();
+      if (exitCode != 0)
+        throw new WaveformServiceException(String.format("The encoder process exited abnormally with exit code %s "
+                + "using command\n%s\n%s", exitCode, String.join(" ", command), readErrors(errorFile)));
+
+      try (OutputStream out = new BufferedOutputStream(new FileOutputStream(waveformFilePath))) {
+        peaks.build().write(out);
+      }
+    } catch (IOException ex) {
+      FileUtils.deleteQuietly(new File(waveformFilePath));
+      throw new WaveformServiceException("Creating waveform data failed", ex);
+    } catch (InterruptedException ex) {
+      Thread.currentThread().interrupt();
+      throw new WaveformServiceException("Waiting for encoder process exited was interrupted unexpectedly", ex);
+    } finally {
+      IoSupport.closeQuietly(ffmpegProcess);
+      IoSupport.closeQuietly(pcmStream);
+      if (allocation != null)
+        allocation.close();
+      FileUtils.deleteQuietly(errorFile);
+    }
+
+    return toAttachment(track, waveformFilePath);
+  }
+
+  private static String readErrors(File errorFile) {
+    try {
+      return FileUtils.readFileToString(errorFile, "UTF-8");
+    } catch (IOException e) {
+      return "";
+    }
+  }
+
+  /**
+   * Get the media file of a track from the workspace.
+   *
+   * @param track the track
+   * @return the local media file
+   * @throws WaveformServiceException if the file can't be found or read
+   */
+  private File getMediaFile(Track track) throws WaveformServiceException {
+    try {
+      return workspace.get(track.getURI());
+    } catch (NotFoundException e) {
+      throw new WaveformServiceException(
+          "Error finding the media file in the workspace", e);
+    } catch (IOException e) {
+      throw new WaveformServiceException(
+          "Error reading the media file in the workspace", e);
+    }
+  }
+
+  /**
+   * Move a created file into the workspace and create an attachment for it.
+   *
+   * @param track the source track
+   * @param waveformFilePath the local file to move
+   * @return the attachment
+   * @throws WaveformServiceException if the file can't be put into the workspace
+   */
+  private Attachment toAttachment(Track track, String waveformFilePath) throws WaveformServiceException {
     FileInputStream waveformFileInputStream = null;
     URI waveformFileUri;
     try {
@@ -366,15 +552,15 @@ public class WaveformServiceImpl extends AbstractJobProducer implements Waveform
               FilenameUtils.getName(waveformFilePath), waveformFileInputStream);
       logger.info("Copied the created waveform to the workspace {}", waveformFileUri);
     } catch (FileNotFoundException ex) {
-      throw new WaveformServiceException(String.format("Waveform image file '%s' not found", waveformFilePath), ex);
+      throw new WaveformServiceException(String.format("Waveform file '%s' not found", waveformFilePath), ex);
     } catch (IOException ex) {
       throw new WaveformServiceException(String.format(
-              "Can't write waveform image file '%s' to workspace", waveformFilePath), ex);
+              "Can't write waveform file '%s' to workspace", waveformFilePath), ex);
     } catch (IllegalArgumentException ex) {
       throw new WaveformServiceException(ex);
     } finally {
       IoSupport.closeQuietly(waveformFileInputStream);
-      logger.info("Deleted local waveform image file at {}", waveformFilePath);
+      logger.info("Deleted local waveform file at {}", waveformFilePath);
       FileUtils.deleteQuietly(new File(waveformFilePath));
     }
 
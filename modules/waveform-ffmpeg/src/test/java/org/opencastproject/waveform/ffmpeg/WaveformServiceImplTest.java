@@ -94,6 +94,7 @@ public class WaveformServiceImplTest {
     properties.put(WaveformServiceImpl.WAVEFORM_COLOR_CONFIG_KEY, "blue green 0x2A2A2A 323232CC");
     properties.put(WaveformServiceImpl.WAVEFORM_SPLIT_CHANNELS_CONFIG_KEY, "false");
     properties.put(WaveformServiceImpl.WAVEFORM_SCALE_CONFIG_KEY, "lin");
+    properties.put(WaveformServiceImpl.WAVEFORM_DATA_SAMPLES_PER_BUCKET_CONFIG_KEY, "80");
 
     ServiceRegistry serviceRegistry = EasyMock.createNiceMock(ServiceRegistry.class);
     EasyMock.expect(serviceRegistry.getHostRegistrations()).andReturn(new ArrayList());
@@ -129,6 +130,26 @@ public class WaveformServiceImplTest {
     assertEquals(expectedJob, job);
   }
 
+  /**
+   * Test of createWaveformData method of class WaveformServiceImpl.
+   */
+  @Test
+  public void testGenerateWaveformData() throws Exception {
+    Job expectedJob = new JobImpl(1);
+    ServiceRegistry serviceRegistry = EasyMock.createNiceMock(ServiceRegistry.class);
+    EasyMock.expect(serviceRegistry.createJob(
+            EasyMock.eq(WaveformServiceImpl.JOB_TYPE),
+            EasyMock.eq(WaveformServiceImpl.Operation.WaveformData.toString()),
+            (List<String>) EasyMock.anyObject(), EasyMock.anyFloat()))
+            .andReturn(expectedJob);
+    EasyMock.replay(serviceRegistry);
+
+    WaveformServiceImpl instance = new WaveformServiceImpl();
+    instance.setServiceRegistry(serviceRegistry);
+    Job job = instance.createWaveformData(dummyTrack);
+    assertEquals(expectedJob, job);
+  }
+
   /**
    * Test of process method of class WaveformServiceImpl.
    */
@@ -98,4 +98,41 @@ public class WaveformServiceRemote extends RemoteBase implements WaveformService
     throw new WaveformServiceException("Unable to create waveform image from " + sourceTrack + " using a remote service");
   }
 
+  /**
+   * Takes the given track and returns the job that will create waveform data using a remote service.
+   *
+   * @param sourceTrack the track to create waveform data from
+   * @return a job that will create waveform data
+   * @throws MediaPackageException if the serialization of the given track fails
+   * @throws WaveformServiceException if the job can't be created for any reason
+   */
+  @Override
+  public Job createWaveformData(Track sourceTrack) throws MediaPackageException, WaveformServiceException {
+    HttpPost post = new HttpPost("/createdata");
+    try {
+      List<BasicNameValuePair> params = new ArrayList<>();
+      params.add(new BasicNameValuePair("track", MediaPackageElementParser.getAsXml(sourceTrack)));
+      post.setEntity(new UrlEncodedFormEntity(params, "UTF-8"));
+    } catch (Exception e) {
+      throw new WaveformServiceException(e);
+    }
+    HttpResponse response = null;
+    try {
+      response = getResponse(post);
+      if (response != null) {
+        try {
+          Job receipt = JobParser.parseJob(response.getEntity().getContent());
+          logger.info("Create waveform data from {}", sourceTrack);
+          return receipt;
+        } catch (Exception e) {
+          throw new WaveformServiceException(
+                  "Unable to create waveform data from " + sourceTrack + " using a remote service", e);
+        }
+      }
+    } finally {
+      closeConnection(response);
+    }
+    throw new WaveformServiceException("Unable to create waveform data from " + sourceTrack + " using a remote service");
+  }
+
 }
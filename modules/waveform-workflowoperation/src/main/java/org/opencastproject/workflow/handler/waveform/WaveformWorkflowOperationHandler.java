@@ -65,6 +65,9 @@ public class WaveformWorkflowOperationHandler extends AbstractWorkflowOperationH
   /** Target flavor configuration property name. */
   private static final String TARGET_FLAVOR_PROPERTY = "target-flavor";
 
+  /** Target flavor of the waveform data configuration property name. */
+  private static final String TARGET_DATA_FLAVOR_PROPERTY = "target-data-flavor";
+
   /** Target tags configuration property name. */
   private static final String TARGET_TAGS_PROPERTY = "target-tags";
 
@@ -128,8 +131,11 @@ public class WaveformWorkflowOperationHandler extends AbstractWorkflowOperationH
     }
 
     String targetFlavorProperty = StringUtils.trimToNull(workflowInstance.getCurrentOperation().getConfiguration(TARGET_FLAVOR_PROPERTY));
-    if (targetFlavorProperty == null) {
-      throw new WorkflowOperationException(String.format("Required property %s not set", TARGET_FLAVOR_PROPERTY));
+    String targetDataFlavorProperty = StringUtils.trimToNull(
+            workflowInstance.getCurrentOperation().getConfiguration(TARGET_DATA_FLAVOR_PROPERTY));
+    if (targetFlavorProperty == null && targetDataFlavorProperty == null) {
+      throw new WorkflowOperationException(
+              String.format("Required property %s or %s not set", TARGET_FLAVOR_PROPERTY, TARGET_DATA_FLAVOR_PROPERTY));
     }
 
     String targetTagsProperty = StringUtils.trimToNull(workflowInstance.getCurrentOperation().getConfiguration(TARGET_TAGS_PROPERTY));
@@ -172,6 +178,7 @@ public class WaveformWorkflowOperationHandler extends AbstractWorkflowOperationH
       }
 
       List<Job> waveformJobs = new ArrayList<>(sourceTracks.size());
+      List<Job> waveformDataJobs = new ArrayList<>(sourceTracks.size());
       for (Track sourceTrack : sourceTracks) {
         // Skip over track with no audio stream
         if (!sourceTrack.hasAudio()) {
@@ -182,55 +189,30 @@ public class WaveformWorkflowOperationHandler extends AbstractWorkflowOperationH
           // generate waveform
           logger.info("Creating waveform extraction job for track '{}' in mediapackage '{}'", sourceTrack.getIdentifier(), mediaPackage);
 
-          Job waveformJob = waveformService.createWaveformImage(sourceTrack, pixelsPerMinute, minWidth, maxWidth,
-            height, color);
-          waveformJobs.add(waveformJob);
+          if (targetFlavorProperty != null) {
+            Job waveformJob = waveformService.createWaveformImage(sourceTrack, pixelsPerMinute, minWidth, maxWidth,
+              height, color);
+            waveformJobs.add(waveformJob);
+          }
+          if (targetDataFlavorProperty != null) {
+            waveformDataJobs.add(waveformService.createWaveformData(sourceTrack));
+          }
         } catch (MediaPackageException | WaveformServiceException e) {
           logger.error("Creating waveform extraction job for track '{}' in media package '{}' failed", sourceTrack.getIdentifier(), mediaPackage, e);
         }
       }
 
       logger.debug("Waiting for waveform jobs for media package {}", mediaPackage);
-      if (!waitForStatus(waveformJobs.toArray(new Job[waveformJobs.size()])).isSuccess()) {
+      List<Job> allJobs = new ArrayList<>(waveformJobs);
+      allJobs.addAll(waveformDataJobs);
+      if (!waitForStatus(allJobs.toArray(new Job[allJobs.size()])).isSuccess()) {
         throw new WorkflowOperationException(String.format("Waveform extraction jobs for media package '%s' have not completed successfully",
                 mediaPackage.getIdentifier()));
       }
 
       // copy waveform attachments into workspace and add them to the media package
-      for (Job job : waveformJobs) {
-        String jobPayload = job.getPayload();
-        if (StringUtils.isEmpty(jobPayload)) {
-          continue;
-        }
-        MediaPackageElement waveformMpe = null;
-        try {
-          waveformMpe = MediaPackageElementParser.getFromXml(jobPayload);
-          URI newURI = workspace.moveTo(waveformMpe.getURI(), mediaPackage.getIdentifier().toString(), waveformMpe.getIdentifier(),
-                  "waveform.png");
-          waveformMpe.setURI(newURI);
-        } catch (MediaPackageException ex) {
-          // unexpected job payload
-          throw new WorkflowOperationException("Can't parse waveform attachment from job " + job.getId());
-        } catch (NotFoundException ex) {
-          throw new WorkflowOperationException("Waveform image file '" + waveformMpe.getURI() + "' not found", ex);
-        } catch (IOException ex) {
-          throw new WorkflowOperationException("Can't get workflow image file '" + waveformMpe.getURI() + "' from workspace");
-        }
-
-        // set the waveform attachment flavor and add it to the media package
-        MediaPackageElementFlavor targetFlavor = MediaPackageElementFlavor.parseFlavor(targetFlavorProperty);
-        if ("*".equals(targetFlavor.getType())) {
-          targetFlavor = new MediaPackageElementFlavor(waveformMpe.getFlavor().getType(), targetFlavor.getSubtype());
-        }
-        if ("*".equals(targetFlavor.getSubtype())) {
-          targetFlavor = new MediaPackageElementFlavor(targetFlavor.getType(), waveformMpe.getFlavor().getSubtype());
-        }
-        waveformMpe.setFlavor(targetFlavor);
-        for (String tag : asList(targetTagsProperty)) {
-          waveformMpe.addTag(tag);
-        }
-        mediaPackage.add(waveformMpe);
-      }
+      addAttachments(mediaPackage, waveformJobs, "waveform.png", targetFlavorProperty, targetTagsProperty);
+      addAttachments(mediaPackage, waveformDataJobs, "waveform.dat", targetDataFlavorProperty, targetTagsProperty);
 
       logger.info("Waveform workflow operation for mediapackage {} completed", mediaPackage);
       return createResult(mediaPackage, WorkflowOperationResult.Action.CONTINUE);
@@ -244,6 +226,54 @@ public class WaveformWorkflowOperationHandler extends AbstractWorkflowOperationH
     }
   }
 
+  /**
+   * Move the attachments created by the given jobs into the media package.
+   *
+   * @param mediaPackage the media package to add the attachments to
+   * @param jobs the finished waveform jobs
+   * @param fileName the file name of the attachments in the workspace
+   * @param targetFlavorProperty the flavor of the attachments, may contain wildcards
+   * @param targetTagsProperty the tags to add to the attachments
+   * @throws WorkflowOperationException if an attachment can't be moved
+   */
+  private void addAttachments(MediaPackage mediaPackage, List<Job> jobs, String fileName, String targetFlavorProperty,
+          String targetTagsProperty) throws WorkflowOperationException {
+    for (Job job : jobs) {
+      String jobPayload = job.getPayload();
+      if (StringUtils.isEmpty(jobPayload)) {
+        continue;
+      }
+      MediaPackageElement waveformMpe = null;
+      try {
+        waveformMpe = MediaPackageElementParser.getFromXml(jobPayload);
+        URI newURI = workspace.moveTo(waveformMpe.getURI(), mediaPackage.getIdentifier().toString(), waveformMpe.getIdentifier(),
+                fileName);
+        waveformMpe.setURI(newURI);
+      } catch (MediaPackageException ex) {
+        // unexpected job payload
+        throw new WorkflowOperationException("Can't parse waveform attachment from job " + job.getId());
+      } catch (NotFoundException ex) {
+        throw new WorkflowOperationException("Waveform file '" + waveformMpe.getURI() + "' not found", ex);
+      } catch (IOException ex) {
+        throw new WorkflowOperationException("Can't get waveform file '" + waveformMpe.getURI() + "' from workspace");
+      }
+
+      // set the waveform attachment flavor and add it to the media package
+      MediaPackageElementFlavor targetFlavor = MediaPackageElementFlavor.parseFlavor(targetFlavorProperty);
+      if ("*".equals(targetFlavor.getType())) {
+        targetFlavor = new MediaPackageElementFlavor(waveformMpe.getFlavor().getType(), targetFlavor.getSubtype());
+      }
+      if ("*".equals(targetFlavor.getSubtype())) {
+        targetFlavor = new MediaPackageElementFlavor(targetFlavor.getType(), waveformMpe.getFlavor().getSubtype());
+      }
+      waveformMpe.setFlavor(targetFlavor);
+      for (String tag : asList(targetTagsProperty)) {
+        waveformMpe.addTag(tag);
+      }
+      mediaPackage.add(waveformMpe);
+    }
+  }
+
   public void setWaveformService(WaveformService waveformService) {
     this.waveformService = waveformService;
   }
@@ -40,6 +40,7 @@ import org.opencastproject.workingfilerepository.jmx.WorkingFileRepositoryBean;
 import org.apache.commons.codec.digest.DigestUtils;
 import org.apache.commons.io.FileUtils;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.BooleanUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.osgi.service.component.ComponentContext;
 import org.slf4j.Logger;
@@ -56,11 +57,14 @@ import java.net.URISyntaxException;
 import java.nio.file.AtomicMoveNotSupportedException;
 import java.nio.file.Files;
 import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.security.DigestInputStream;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Set;
 
 import javax.management.ObjectInstance;
 
@@ -83,6 +87,15 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
     }
   };
 
+  /** Configuration key enabling the in-memory index of the repository contents */
+  public static final String INDEX_ENABLED_KEY = "org.opencastproject.file.repo.index.enabled";
+
+  /**
+   * Time in milliseconds a collection directory must have been left unmodified before its listing is indexed, since
+   * changes within the timestamp resolution of the file system would not alter its modification date
+   */
+  private static final long COLLECTION_SETTLE_TIME = 2000L;
+
   /** Working file repository JMX type */
   private static final String JMX_WORKING_FILE_REPOSITORY_TYPE = "WorkingFileRepository";
 
@@ -107,6 +120,9 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
   /** The security service to get current organization from */
   protected SecurityService securityService;
 
+  /** The index of the repository contents or <code>null</code> if directories are listed on every lookup */
+  protected WorkingFileRepositoryIndex index = null;
+
   /**
    * Activate the component
    */
@@ -139,6 +155,13 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
       throw e;
     }
 
+    if (BooleanUtils.toBoolean(StringUtils.trimToNull(cc.getBundleContext().getProperty(INDEX_ENABLED_KEY)))) {
+      // The journal is kept in the bundle's local storage since the repository itself may be shared between nodes
+      index = new WorkingFileRepositoryIndex(cc.getBundleContext().getDataFile("index"));
+      index.open();
+      logger.info("Indexing the contents of the working file repository");
+    }
+
     registeredMXBean = JmxUtil.registerMXBean(workingFileRepositoryBean, JMX_WORKING_FILE_REPOSITORY_TYPE);
 
     logger.info(getDiskSpace());
@@ -149,6 +172,8 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
    */
   public void deactivate() {
     JmxUtil.unregisterMXBean(registeredMXBean);
+    if (index != null)
+      index.close();
   }
 
   /**
@@ -164,6 +189,8 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
       File parentDirectory = f.getParentFile();
       logger.debug("Attempting to delete {}", parentDirectory.getAbsolutePath());
       FileUtils.forceDelete(parentDirectory);
+      if (index != null)
+        index.deleteElement(mediaPackageID, mediaPackageElementID);
       File parentsParentDirectory = parentDirectory.getParentFile();
       if (parentsParentDirectory.isDirectory() && parentsParentDirectory.list().length == 0)
         FileUtils.forceDelete(parentDirectory.getParentFile());
@@ -221,7 +248,10 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
             mediaPackageElementID});
     if (fileName == null) {
       File existingDirectory = getElementDirectory(mediaPackageID, mediaPackageElementID);
-      if (existingDirectory.isDirectory()) {
+      File indexed = getIndexedFile(mediaPackageID, mediaPackageElementID);
+      if (indexed != null) {
+        uri = UrlSupport.concat(uri, PathSupport.toSafeName(indexed.getName()));
+      } else if (existingDirectory.isDirectory()) {
         File[] files = existingDirectory.listFiles();
         boolean md5Exists = false;
         for (File f : files) {
@@ -282,6 +312,7 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
     }
 
     FileOutputStream out = null;
+    String md5 = null;
     try {
 
       fTmp = File.createTempFile(f.getName(), ".tmp", dir);
@@ -303,7 +334,7 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
       }
 
       // Store the hash
-      String md5 = Checksum.convertToHex(dis.getMessageDigest().digest());
+      md5 = Checksum.convertToHex(dis.getMessageDigest().digest());
       try {
         FileUtils.writeStringToFile(md5FileTmp, md5);
       } catch (IOException e) {
@@ -344,6 +375,8 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
       }
     }
 
+    indexElement(mediaPackageID, mediaPackageElementID, f, md5);
+
     return getURI(mediaPackageID, mediaPackageElementID, filename);
   }
 
@@ -421,8 +454,11 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
           NotFoundException {
     checkPathSafe(mediaPackageID);
     checkPathSafe(mediaPackageElementID);
-    File directory = getElementDirectory(mediaPackageID, mediaPackageElementID);
+    File indexed = getIndexedFile(mediaPackageID, mediaPackageElementID);
+    if (indexed != null)
+      return indexed;
 
+    File directory = getElementDirectory(mediaPackageID, mediaPackageElementID);
     File[] md5Files = directory.listFiles(MD5_FINAME_FILTER);
     if (md5Files == null) {
       logger.debug("Element directory {} does not exist", directory);
@@ -432,9 +468,10 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
       throw new NotFoundException("There are no complete files in the element directory " + directory.getAbsolutePath());
     } else if (md5Files.length == 1) {
       File f = getSourceFile(md5Files[0]);
-      if (f.exists())
+      if (f.exists()) {
+        indexElement(mediaPackageID, mediaPackageElementID, f, null);
         return f;
-      else
+      } else
         throw new NotFoundException("Unable to locate " + f + " in the working file repository");
     } else {
       logger.error("Integrity error: Element directory {} contains more than one element", mediaPackageID + "/"
@@ -444,6 +481,79 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
     }
   }
 
+  /**
+   * Returns the file of a media package element from the index, provided that it still exists with the indexed size
+   * and modification date.
+   *
+   * @return the file or <code>null</code> if the element is not indexed or the indexed file has been changed
+   */
+  private File getIndexedFile(String mediaPackageID, String mediaPackageElementID) {
+    if (index == null)
+      return null;
+    WorkingFileRepositoryIndex.Element element = index.getElement(mediaPackageID, mediaPackageElementID);
+    if (element == null)
+      return null;
+    File f = new File(getElementDirectory(mediaPackageID, mediaPackageElementID), element.getFileName());
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(f.toPath(), BasicFileAttributes.class);
+      if (attributes.isRegularFile() && attributes.size() == element.getLength()
+              && attributes.lastModifiedTime().toMillis() == element.getModified())
+        return f;
+    } catch (IOException e) {
+      logger.trace("Indexed file {} no longer exists", f, e);
+    }
+    // Changed by another node sharing the repository
+    index.deleteElement(mediaPackageID, mediaPackageElementID);
+    return null;
+  }
+
+  /**
+   * Records the file of a media package element in the index, together with its size and modification date.
+   *
+   * @param md5
+   *         the md5 checksum of the file or <code>null</code> if unknown
+   */
+  private void indexElement(String mediaPackageID, String mediaPackageElementID, File f, String md5) {
+    if (index == null)
+      return;
+    try {
+      BasicFileAttributes attributes = Files.readAttributes(f.toPath(), BasicFileAttributes.class);
+      index.putElement(mediaPackageID, mediaPackageElementID, f.getName(), attributes.size(),
+              attributes.lastModifiedTime().toMillis(), md5);
+    } catch (IOException e) {
+      logger.debug("Unable to index file {}", f, e);
+      index.deleteElement(mediaPackageID, mediaPackageElementID);
+    }
+  }
+
+  /**
+   * Returns the files of a collection with their last modification dates, either from the index if the collection
+   * directory has not been modified since it was indexed or by listing the collection directory.
+   *
+   * @param collectionDir
+   *         the collection directory
+   * @return the files by name
+   */
+  private Map<String, Long> getCollectionFiles(String collectionId, File collectionDir) {
+    long directoryModified = collectionDir.lastModified();
+    if (index != null) {
+      Map<String, Long> files = index.getCollection(collectionId, directoryModified);
+      if (files != null)
+        return files;
+    }
+    File[] md5Files = collectionDir.listFiles(MD5_FINAME_FILTER);
+    if (md5Files == null)
+      throw new IllegalArgumentException("Collection " + collectionId + " is not a directory");
+    Map<String, Long> files = new HashMap<>();
+    for (File md5File : md5Files) {
+      File f = getSourceFile(md5File);
+      files.put(f.getName(), f.lastModified());
+    }
+    if (index != null && System.currentTimeMillis() - directoryModified > COLLECTION_SETTLE_TIME)
+      index.loadCollection(collectionId, directoryModified, files);
+    return files;
+  }
+
   /**
    * Returns the file from the given collection.
    *
@@ -531,10 +641,7 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
     } catch (IOException e) {
       // can be ignored, since we don't want the directory to be created, so it will never happen
     }
-    File[] files = collectionDir.listFiles(MD5_FINAME_FILTER);
-    if (files == null)
-      throw new IllegalArgumentException("Collection " + id + " is not a directory");
-    return files.length;
+    return getCollectionFiles(id, collectionDir).size();
   }
 
   public InputStream getFromCollection(String collectionId, String fileName) throws NotFoundException, IOException {
@@ -629,7 +736,8 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
     try {
       destFile = new File(destDir, PathSupport.toSafeName(toFileName));
       FileSupport.link(source, destFile);
-      createMd5(destFile);
+      File md5File = createMd5(destFile);
+      indexElement(toMediaPackage, toMediaPackageElement, destFile, FileUtils.readFileToString(md5File, "utf-8"));
     } catch (Exception e) {
       FileUtils.deleteDirectory(destDir);
     }
@@ -673,6 +781,7 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
     try {
       FileUtils.moveFile(source, dest);
       FileUtils.moveFile(sourceMd5, getMd5File(dest));
+      indexElement(toMediaPackage, toMediaPackageElement, dest, null);
     } catch (IOException e) {
       FileUtils.deleteDirectory(destDir);
       throw new IllegalStateException("unable to copy file" + e);
@@ -748,14 +857,15 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
       // We are not asking for the collection to be created, so this exception is never thrown
     }
 
-    File[] files = collectionDir.listFiles(MD5_FINAME_FILTER);
-    URI[] uris = new URI[files.length];
-    for (int i = 0; i < files.length; i++) {
+    Set<String> files = getCollectionFiles(collectionId, collectionDir).keySet();
+    URI[] uris = new URI[files.size()];
+    int i = 0;
+    for (String file : files) {
       try {
-        uris[i] = new URI(getBaseUri() + COLLECTION_PATH_PREFIX + collectionId + "/"
-                                  + PathSupport.toSafeName(getSourceFile(files[i]).getName()));
+        uris[i++] = new URI(getBaseUri() + COLLECTION_PATH_PREFIX + collectionId + "/"
+                                  + PathSupport.toSafeName(file));
       } catch (URISyntaxException e) {
-        throw new IllegalStateException("Invalid URI for " + files[i]);
+        throw new IllegalStateException("Invalid URI for " + file);
       }
     }
 
@@ -773,6 +883,13 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
     File f = getFile(mediaPackageID, mediaPackageElementID);
     if (f == null)
       throw new NotFoundException(mediaPackageID + "/" + mediaPackageElementID);
+    if (index != null) {
+      // getFile has just verified the index entry against the size and modification date of the file
+      WorkingFileRepositoryIndex.Element element = index.getElement(mediaPackageID, mediaPackageElementID);
+      if (element != null && element.getMd5() != null && element.getFileName().equals(f.getName())
+              && element.getModified() == f.lastModified())
+        return element.getMd5();
+    }
     return getFileDigest(f);
   }
 
@@ -879,14 +996,14 @@ public class WorkingFileRepositoryImpl implements WorkingFileRepository, PathMap
       throw new IllegalStateException(colDir + " is not a directory");
 
     long referenceTime = System.currentTimeMillis() - days * 24 * 3600 * 1000;
-    for (File f : colDir.listFiles()) {
-      long lastModified = f.lastModified();
+    for (Map.Entry<String, Long> f : getCollectionFiles(collectionId, colDir).entrySet()) {
+      long lastModified = f.getValue();
       logger.trace("{} last modified: {}, reference date: {}",
-              f.getName(), new Date(lastModified), new Date(referenceTime));
+              f.getKey(), new Date(lastModified), new Date(referenceTime));
       if (lastModified <= referenceTime) {
         // Delete file
-        deleteFromCollection(collectionId, f.getName());
-        logger.info("Cleaned up file {} from collection {}", f.getName(), collectionId);
+        deleteFromCollection(collectionId, f.getKey());
+        logger.info("Cleaned up file {} from collection {}", f.getKey(), collectionId);
       }
     }
 
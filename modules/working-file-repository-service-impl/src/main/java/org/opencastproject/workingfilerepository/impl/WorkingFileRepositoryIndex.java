@@ -0,0 +1,356 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workingfilerepository.impl;
+
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UnsupportedEncodingException;
+import java.io.Writer;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory index of the files stored in the working file repository, so that resolving an element or listing a
+ * collection does not need to list directories on a possibly slow shared file system.
+ * <p>
+ * The index is a cache of the file system: element entries are verified by the caller against the size and
+ * modification date of the file and looked up on disk if they do not match. Collections are indexed with the
+ * modification date of their directory, which changes whenever a file is added or removed by any node, and are only
+ * served from the index while that date is unchanged. Every change is appended to a journal, which is compacted on
+ * activation, on deactivation and once it grows too large. After an unclean shutdown, the element entries are kept
+ * but collections are listed again on first use.
+ */
+public class WorkingFileRepositoryIndex {
+
+  /** The logging facility */
+  private static final Logger logger = LoggerFactory.getLogger(WorkingFileRepositoryIndex.class);
+
+  /** Journal entry types */
+  private static final String PUT_ELEMENT = "E";
+  private static final String DELETE_ELEMENT = "e";
+  private static final String LOAD_COLLECTION = "C";
+  private static final String PUT_IN_COLLECTION = "F";
+
+  /** Marker written as the last line of a journal on clean shutdown */
+  private static final String CLEAN = "CLEAN";
+
+  /** Number of journal lines written beyond the size of the index before the journal is compacted */
+  private static final long COMPACTION_THRESHOLD = 10000L;
+
+  /** An indexed media package element file. */
+  public static final class Element {
+    private final String fileName;
+    private final long length;
+    private final long modified;
+    private final String md5;
+
+    Element(String fileName, long length, long modified, String md5) {
+      this.fileName = fileName;
+      this.length = length;
+      this.modified = modified;
+      this.md5 = md5;
+    }
+
+    /** Returns the name of the file. */
+    public String getFileName() {
+      return fileName;
+    }
+
+    /** Returns the size of the file when it was indexed or <code>-1</code> if unknown. */
+    public long getLength() {
+      return length;
+    }
+
+    /** Returns the last modification date of the file when it was indexed or <code>-1</code> if unknown. */
+    public long getModified() {
+      return modified;
+    }
+
+    /** Returns the md5 checksum of the file or <code>null</code> if unknown. */
+    public String getMd5() {
+      return md5;
+    }
+  }
+
+  /** Media package element files by media package and element identifier */
+  private final Map<String, Element> elements = new HashMap<>();
+
+  /** A completely indexed collection. */
+  private static final class Collection {
+    private final long directoryModified;
+    private final Map<String, Long> files;
+
+    Collection(long directoryModified, Map<String, Long> files) {
+      this.directoryModified = directoryModified;
+      this.files = files;
+    }
+  }
+
+  /** Completely indexed collections by collection identifier */
+  private final Map<String, Collection> collections = new HashMap<>();
+
+  /** The journal file or <code>null</code> if the index is not persisted */
+  private final File journal;
+
+  private Writer journalWriter = null;
+
+  private long journalLines = 0L;
+
+  /**
+   * Creates an index.
+   *
+   * @param journal
+   *          the file persisting the index or <code>null</code> to keep it in memory only
+   */
+  public WorkingFileRepositoryIndex(File journal) {
+    this.journal = journal;
+  }
+
+  /**
+   * Loads the persisted index and starts journaling.
+   *
+   * @throws IOException
+   *           if the journal cannot be written
+   */
+  public synchronized void open() throws IOException {
+    if (journal == null)
+      return;
+    if (journal.isFile()) {
+      boolean clean = false;
+      try (BufferedReader reader = Files.newBufferedReader(journal.toPath(), StandardCharsets.UTF_8)) {
+        String line;
+        while ((line = reader.readLine()) != null) {
+          clean = CLEAN.equals(line);
+          if (!clean)
+            replay(line);
+        }
+      }
+      if (!clean) {
+        logger.info("Working file repository index was not closed properly, collections will be listed again");
+        collections.clear();
+      }
+      logger.info("Loaded {} elements and {} collections from the working file repository index", elements.size(),
+              collections.size());
+    }
+    compact();
+  }
+
+  /**
+   * Compacts the journal and marks it as cleanly closed.
+   */
+  public synchronized void close() {
+    if (journal == null || journalWriter == null)
+      return;
+    try {
+      compact();
+      journalWriter.write(CLEAN + "\n");
+    } catch (IOException e) {
+      logger.warn("Unable to write working file repository index {}", journal, e);
+    } finally {
+      IOUtils.closeQuietly(journalWriter);
+      journalWriter = null;
+    }
+  }
+
+  /**
+   * Returns the indexed file of a media package element.
+   *
+   * @return the element or <code>null</code> if it is not indexed
+   */
+  public synchronized Element getElement(String mediaPackageID, String mediaPackageElementID) {
+    return elements.get(elementKey(mediaPackageID, mediaPackageElementID));
+  }
+
+  /**
+   * Records the file of a media package element. The size and modification date allow callers to detect files which
+   * have been changed without going through this index.
+   *
+   * @param length
+   *          the size of the file
+   * @param modified
+   *          the last modification date of the file
+   * @param md5
+   *          the md5 checksum of the file or <code>null</code> if unknown
+   */
+  public synchronized void putElement(String mediaPackageID, String mediaPackageElementID, String fileName,
+          long length, long modified, String md5) {
+    elements.put(elementKey(mediaPackageID, mediaPackageElementID), new Element(fileName, length, modified, md5));
+    journal(PUT_ELEMENT, mediaPackageID, mediaPackageElementID, fileName, StringUtils.defaultString(md5),
+            Long.toString(length), Long.toString(modified));
+  }
+
+  /**
+   * Removes a media package element.
+   */
+  public synchronized void deleteElement(String mediaPackageID, String mediaPackageElementID) {
+    if (elements.remove(elementKey(mediaPackageID, mediaPackageElementID)) != null)
+      journal(DELETE_ELEMENT, mediaPackageID, mediaPackageElementID);
+  }
+
+  /**
+   * Returns the files of a collection with their last modification dates.
+   *
+   * @param directoryModified
+   *          the current modification date of the collection directory
+   * @return a copy of the collection contents or <code>null</code> if the collection has not been indexed completely
+   *         or its directory has been modified since
+   */
+  public synchronized Map<String, Long> getCollection(String collectionId, long directoryModified) {
+    final Collection collection = collections.get(collectionId);
+    if (collection == null || collection.directoryModified != directoryModified)
+      return null;
+    return new HashMap<>(collection.files);
+  }
+
+  /**
+   * Records the complete contents of a collection.
+   *
+   * @param directoryModified
+   *          the modification date of the collection directory when it was listed
+   * @param files
+   *          the last modification dates of the collection files by file name
+   */
+  public synchronized void loadCollection(String collectionId, long directoryModified, Map<String, Long> files) {
+    collections.put(collectionId, new Collection(directoryModified, new HashMap<>(files)));
+    journal(LOAD_COLLECTION, collectionId, Long.toString(directoryModified));
+    for (Map.Entry<String, Long> file : files.entrySet()) {
+      journal(PUT_IN_COLLECTION, collectionId, file.getKey(), Long.toString(file.getValue()));
+    }
+  }
+
+  /** Returns the number of indexed elements. */
+  public synchronized int getElementCount() {
+    return elements.size();
+  }
+
+  private static String elementKey(String mediaPackageID, String mediaPackageElementID) {
+    return mediaPackageID + "/" + mediaPackageElementID;
+  }
+
+  /** Applies a journal line to the index. */
+  private void replay(String line) {
+    final String[] fields = line.split("\t");
+    try {
+      for (int i = 0; i < fields.length; i++) {
+        fields[i] = URLDecoder.decode(fields[i], "UTF-8");
+      }
+      switch (fields[0]) {
+        case PUT_ELEMENT:
+          elements.put(elementKey(fields[1], fields[2]), new Element(fields[3],
+                  fields.length > 6 ? Long.parseLong(fields[5]) : -1L,
+                  fields.length > 6 ? Long.parseLong(fields[6]) : -1L,
+                  fields.length > 4 ? StringUtils.trimToNull(fields[4]) : null));
+          break;
+        case DELETE_ELEMENT:
+          elements.remove(elementKey(fields[1], fields[2]));
+          break;
+        case LOAD_COLLECTION:
+          // entries without a directory modification date never match and are listed again
+          collections.put(fields[1], new Collection(fields.length > 2 ? Long.parseLong(fields[2]) : -1L,
+                  new HashMap<>()));
+          break;
+        case PUT_IN_COLLECTION:
+          final Collection collection = collections.get(fields[1]);
+          if (collection != null)
+            collection.files.put(fields[2], Long.parseLong(fields[3]));
+          break;
+        default:
+          logger.debug("Skipping unknown working file repository index entry '{}'", line);
+      }
+    } catch (ArrayIndexOutOfBoundsException | IllegalArgumentException | UnsupportedEncodingException e) {
+      // incomplete last line of an interrupted write
+      logger.debug("Skipping invalid working file repository index entry '{}'", line);
+    }
+  }
+
+  /** Appends an entry to the journal, compacting it if it has grown too large. */
+  private void journal(String... fields) {
+    if (journalWriter == null)
+      return;
+    try {
+      writeLine(journalWriter, fields);
+      journalWriter.flush();
+      if (++journalLines > 2L * (elements.size() + collections.size()) + COMPACTION_THRESHOLD)
+        compact();
+    } catch (IOException e) {
+      logger.warn("Unable to write working file repository index {}, disabling persistence", journal, e);
+      IOUtils.closeQuietly(journalWriter);
+      journalWriter = null;
+      FileUtils.deleteQuietly(journal);
+    }
+  }
+
+  /** Rewrites the journal with the current state of the index and reopens it for appending. */
+  private void compact() throws IOException {
+    IOUtils.closeQuietly(journalWriter);
+    journalWriter = null;
+    FileUtils.forceMkdir(journal.getParentFile());
+    final File tmp = new File(journal.getParentFile(), journal.getName() + ".tmp");
+    long lines = 0L;
+    try (Writer out = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(tmp), StandardCharsets.UTF_8))) {
+      for (Map.Entry<String, Element> element : elements.entrySet()) {
+        final String[] ids = element.getKey().split("/", 2);
+        writeLine(out, PUT_ELEMENT, ids[0], ids[1], element.getValue().getFileName(),
+                StringUtils.defaultString(element.getValue().getMd5()), Long.toString(element.getValue().getLength()),
+                Long.toString(element.getValue().getModified()));
+        lines++;
+      }
+      for (Map.Entry<String, Collection> collection : collections.entrySet()) {
+        writeLine(out, LOAD_COLLECTION, collection.getKey(), Long.toString(collection.getValue().directoryModified));
+        lines++;
+        for (Map.Entry<String, Long> file : collection.getValue().files.entrySet()) {
+          writeLine(out, PUT_IN_COLLECTION, collection.getKey(), file.getKey(), Long.toString(file.getValue()));
+          lines++;
+        }
+      }
+    }
+    Files.move(tmp.toPath(), journal.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    journalWriter = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(journal, true),
+            StandardCharsets.UTF_8));
+    journalLines = lines;
+  }
+
+  private static void writeLine(Writer out, String... fields) throws IOException {
+    for (int i = 0; i < fields.length; i++) {
+      if (i > 0)
+        out.write('\t');
+      out.write(URLEncoder.encode(fields[i], "UTF-8"));
+    }
+    out.write('\n');
+  }
+
+}
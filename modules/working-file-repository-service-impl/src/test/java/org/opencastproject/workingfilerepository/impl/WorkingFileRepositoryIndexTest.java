@@ -0,0 +1,106 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workingfilerepository.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.util.HashMap;
+import java.util.Map;
+
+public class WorkingFileRepositoryIndexTest {
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private WorkingFileRepositoryIndex createIndex(File journal) throws Exception {
+    WorkingFileRepositoryIndex index = new WorkingFileRepositoryIndex(journal);
+    index.open();
+    index.putElement("mp-1", "track-1", "video.mp4", 4096L, 1000L, "0123456789abcdef0123456789abcdef");
+    index.putElement("mp-1", "catalog-1", "dublincore.xml", 512L, 2000L, null);
+    index.putElement("mp-2", "track-1", "audio.mp3", 1024L, 3000L, null);
+    index.deleteElement("mp-2", "track-1");
+    Map<String, Long> files = new HashMap<>();
+    files.put("a.xml", 1000L);
+    index.loadCollection("inbox", 5000L, files);
+    files.put("b b.xml", 2000L);
+    index.loadCollection("inbox", 6000L, files);
+    return index;
+  }
+
+  @Test
+  public void testIndex() throws Exception {
+    WorkingFileRepositoryIndex index = createIndex(null);
+    assertEquals("video.mp4", index.getElement("mp-1", "track-1").getFileName());
+    assertEquals("0123456789abcdef0123456789abcdef", index.getElement("mp-1", "track-1").getMd5());
+    assertNull(index.getElement("mp-1", "catalog-1").getMd5());
+    assertNull(index.getElement("mp-2", "track-1"));
+    assertEquals(2, index.getElementCount());
+    assertEquals(2, index.getCollection("inbox", 6000L).size());
+    assertEquals(Long.valueOf(2000L), index.getCollection("inbox", 6000L).get("b b.xml"));
+    assertNull(index.getCollection("unknown", 6000L));
+  }
+
+  @Test
+  public void testCollectionDirectoryModified() throws Exception {
+    WorkingFileRepositoryIndex index = createIndex(null);
+    // The collection directory has been changed, possibly by another node
+    assertNull(index.getCollection("inbox", 5000L));
+    assertNull(index.getCollection("inbox", 7000L));
+  }
+
+  @Test
+  public void testReopen() throws Exception {
+    File journal = new File(testFolder.getRoot(), "index");
+    createIndex(journal).close();
+
+    WorkingFileRepositoryIndex index = new WorkingFileRepositoryIndex(journal);
+    index.open();
+    assertEquals(2, index.getElementCount());
+    assertEquals("dublincore.xml", index.getElement("mp-1", "catalog-1").getFileName());
+    assertNull(index.getElement("mp-1", "catalog-1").getMd5());
+    assertEquals(512L, index.getElement("mp-1", "catalog-1").getLength());
+    assertEquals(2000L, index.getElement("mp-1", "catalog-1").getModified());
+    assertEquals(2, index.getCollection("inbox", 6000L).size());
+    assertEquals(Long.valueOf(2000L), index.getCollection("inbox", 6000L).get("b b.xml"));
+    assertNull(index.getCollection("inbox", 5000L));
+  }
+
+  @Test
+  public void testReopenAfterCrash() throws Exception {
+    File journal = new File(testFolder.getRoot(), "index");
+    createIndex(journal);
+
+    WorkingFileRepositoryIndex index = new WorkingFileRepositoryIndex(journal);
+    index.open();
+    assertEquals(2, index.getElementCount());
+    assertEquals("0123456789abcdef0123456789abcdef", index.getElement("mp-1", "track-1").getMd5());
+    // Collections may have missed changes and need to be listed again
+    assertNull(index.getCollection("inbox", 6000L));
+  }
+
+}
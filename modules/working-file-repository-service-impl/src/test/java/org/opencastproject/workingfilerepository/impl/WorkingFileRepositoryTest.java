@@ -120,6 +120,54 @@ public class WorkingFileRepositoryTest {
     }
   }
 
+  @Test
+  public void testIndexedDigestOfFileChangedByOtherNode() throws Exception {
+    repo.index = new WorkingFileRepositoryIndex(null);
+    try {
+      InputStream in = getClass().getClassLoader().getResourceAsStream("opencast_header.gif");
+      try {
+        repo.put(mediaPackageID, mediaPackageElementID, "opencast_header.gif", in);
+      } finally {
+        IOUtils.closeQuietly(in);
+      }
+      String digest = repo.getMediaPackageElementDigest(mediaPackageID, mediaPackageElementID);
+
+      // Another node replaces the file, keeping the file name
+      File f = repo.getFile(mediaPackageID, mediaPackageElementID);
+      FileUtils.writeStringToFile(f, "changed", "UTF-8");
+      File md5File = new File(f.getPath() + WorkingFileRepositoryImpl.MD5_EXTENSION);
+      FileUtils.writeStringToFile(md5File, "8977dfac2f8e04cb96e66882235f5aba", "UTF-8");
+      Assert.assertTrue(f.setLastModified(f.lastModified() - 10000L));
+
+      Assert.assertFalse(digest.equals(repo.getMediaPackageElementDigest(mediaPackageID, mediaPackageElementID)));
+      Assert.assertEquals("8977dfac2f8e04cb96e66882235f5aba",
+              repo.getMediaPackageElementDigest(mediaPackageID, mediaPackageElementID));
+    } finally {
+      repo.index = null;
+    }
+  }
+
+  @Test
+  public void testIndexedCollectionChangedByOtherNode() throws Exception {
+    repo.index = new WorkingFileRepositoryIndex(null);
+    try {
+      File collectionDir = repo.getFileFromCollection(collectionId, filename).getParentFile();
+      Assert.assertTrue(collectionDir.setLastModified(collectionDir.lastModified() - 10000L));
+      Assert.assertEquals(1, repo.getCollectionSize(collectionId));
+
+      // Another node adds a file to the collection
+      File f = new File(collectionDir, "other.gif");
+      FileUtils.writeStringToFile(f, "other", "UTF-8");
+      File md5File = new File(f.getPath() + WorkingFileRepositoryImpl.MD5_EXTENSION);
+      FileUtils.writeStringToFile(md5File, "795f3202b17cb6bc3d4b771d8c6c9eaf", "UTF-8");
+
+      Assert.assertEquals(2, repo.getCollectionSize(collectionId));
+      Assert.assertEquals(2, repo.getCollectionContents(collectionId).length);
+    } finally {
+      repo.index = null;
+    }
+  }
+
   @Test
   public void testDelete() throws Exception {
     // Delete the file and ensure that we can no longer get() it
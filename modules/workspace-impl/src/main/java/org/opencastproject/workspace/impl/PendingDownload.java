@@ -0,0 +1,131 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workspace.impl;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.utils.DateUtils;
+
+import java.net.URI;
+import java.util.Date;
+
+/**
+ * A download waiting for the server to prepare the requested file. The server answers such requests with
+ * <code>202 Accepted</code> and a token, and the request is repeated with exponential backoff until the file is ready.
+ * A <code>Retry-After</code> header sent by the server takes precedence over the backoff.
+ */
+public class PendingDownload {
+
+  /** The delay in milliseconds before the first retry */
+  static final long INITIAL_DELAY = 500L;
+
+  /** The maximum delay in milliseconds between two retries */
+  static final long MAX_DELAY = 60000L;
+
+  private final URI uri;
+
+  private final long since;
+
+  private volatile int attempts = 0;
+
+  private volatile long nextAttempt;
+
+  /**
+   * Creates a pending download.
+   *
+   * @param uri
+   *          the requested URI
+   */
+  public PendingDownload(URI uri) {
+    this.uri = uri;
+    this.since = System.currentTimeMillis();
+    this.nextAttempt = since;
+  }
+
+  /**
+   * Records another <code>202 Accepted</code> response and returns the time to wait before the next request.
+   *
+   * @param response
+   *          the response of the server
+   * @return the delay in milliseconds
+   */
+  public long accepted(HttpResponse response) {
+    final long now = System.currentTimeMillis();
+    final Long retryAfter = getRetryAfter(response, now);
+    final long delay;
+    if (retryAfter != null) {
+      delay = retryAfter;
+    } else {
+      delay = Math.min(INITIAL_DELAY << Math.min(attempts, 20), MAX_DELAY);
+    }
+    attempts++;
+    nextAttempt = now + delay;
+    return delay;
+  }
+
+  /**
+   * Returns the delay requested by the <code>Retry-After</code> header of a response, given either in seconds or as
+   * an http date.
+   *
+   * @return the delay in milliseconds or <code>null</code> if the response has no valid header
+   */
+  static Long getRetryAfter(HttpResponse response, long now) {
+    final Header header = response.getFirstHeader("Retry-After");
+    if (header == null || StringUtils.isBlank(header.getValue()))
+      return null;
+    final String value = header.getValue().trim();
+    if (StringUtils.isNumeric(value))
+      return Long.parseLong(value) * 1000L;
+    final Date date = DateUtils.parseDate(value);
+    if (date == null)
+      return null;
+    return Math.max(0L, date.getTime() - now);
+  }
+
+  /** Returns the requested URI. */
+  public URI getUri() {
+    return uri;
+  }
+
+  /** Returns the number of times the server has asked to try again later. */
+  public int getAttempts() {
+    return attempts;
+  }
+
+  /** Returns the time in milliseconds the download has been waiting for. */
+  public long getWaitingTime() {
+    return System.currentTimeMillis() - since;
+  }
+
+  /** Returns the time in milliseconds until the next request. */
+  public long getNextAttemptIn() {
+    return Math.max(0L, nextAttempt - System.currentTimeMillis());
+  }
+
+  @Override
+  public String toString() {
+    return String.format("%s (waiting for %d s, %d attempts, next in %d ms)", uri, getWaitingTime() / 1000L, attempts,
+            getNextAttemptIn());
+  }
+
+}
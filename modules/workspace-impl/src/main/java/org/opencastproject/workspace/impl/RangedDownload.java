@@ -0,0 +1,347 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workspace.impl;
+
+import org.opencastproject.job.api.Job;
+import org.opencastproject.security.api.Organization;
+import org.opencastproject.security.api.SecurityService;
+import org.opencastproject.security.api.TrustedHttpClient;
+import org.opencastproject.security.api.User;
+import org.opencastproject.serviceregistry.api.ServiceRegistry;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.http.Header;
+import org.apache.http.HttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.RandomAccessFile;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.regex.Pattern;
+
+import javax.servlet.http.HttpServletResponse;
+
+/**
+ * Downloads a file with several concurrent range requests, each of them writing its part directly into a preallocated
+ * file. Completed ranges are journaled next to the file so that an interrupted transfer can be resumed later on.
+ * <p>
+ * The result is verified against the entity tag sent by the server if it is an MD5 checksum, which is the case for
+ * files served by the working file repository.
+ * <p>
+ * The range requests run in the organization, user and job context of the thread calling
+ * {@link #download(URI, File, long, String)}, so that they are signed and attributed like the initial request.
+ */
+public class RangedDownload {
+
+  /** The logging facility */
+  private static final Logger logger = LoggerFactory.getLogger(RangedDownload.class);
+
+  /** Suffix of the file receiving the downloaded ranges */
+  public static final String PART_SUFFIX = ".part";
+
+  /** Suffix of the file journaling the completed ranges */
+  public static final String RANGES_SUFFIX = ".ranges";
+
+  /** Number of attempts to download a single range */
+  private static final int ATTEMPTS = 3;
+
+  /** Size of the buffer used to copy a range */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
+  private static final Pattern MD5 = Pattern.compile("[0-9a-fA-F]{32}");
+
+  private final TrustedHttpClient client;
+
+  private final SecurityService securityService;
+
+  private final Supplier<ServiceRegistry> serviceRegistry;
+
+  private final ExecutorService executor;
+
+  private final long rangeSize;
+
+  /**
+   * Creates a ranged download.
+   *
+   * @param client
+   *          the http client to use for the range requests
+   * @param securityService
+   *          the security service providing the organization and user of the range requests
+   * @param serviceRegistry
+   *          provides the service registry holding the current job, which may be <code>null</code>
+   * @param executor
+   *          the executor running the range requests, which determines the number of concurrent connections
+   * @param rangeSize
+   *          the size of a single range in bytes
+   */
+  public RangedDownload(TrustedHttpClient client, SecurityService securityService,
+          Supplier<ServiceRegistry> serviceRegistry, ExecutorService executor, long rangeSize) {
+    if (rangeSize <= 0)
+      throw new IllegalArgumentException("Range size must be positive");
+    this.client = client;
+    this.securityService = securityService;
+    this.serviceRegistry = serviceRegistry;
+    this.executor = executor;
+    this.rangeSize = rangeSize;
+  }
+
+  /**
+   * Downloads <code>src</code> to <code>dst</code>, resuming a previously interrupted download of the same entity.
+   *
+   * @param src
+   *          the source URI
+   * @param dst
+   *          the destination file
+   * @param length
+   *          the length of the entity
+   * @param etag
+   *          the entity tag of the entity or <code>null</code> if unknown
+   * @return <code>false</code> if the server ignores range requests and answers with the whole entity, in which case
+   *         nothing has been written
+   * @throws IOException
+   *           if the download fails, a range request is answered with an error or the downloaded file does not match
+   *           the entity tag
+   */
+  public boolean download(final URI src, final File dst, final long length, final String etag) throws IOException {
+    final File part = new File(dst.getPath() + PART_SUFFIX);
+    final File journal = new File(dst.getPath() + RANGES_SUFFIX);
+    final int count = (int) ((length + rangeSize - 1) / rangeSize);
+    final String header = etag + " " + length + " " + rangeSize;
+
+    final BitSet completed = readJournal(journal, header, count);
+    if (!part.isFile() || part.length() != length) {
+      completed.clear();
+    }
+    if (completed.isEmpty()) {
+      FileUtils.writeStringToFile(journal, header + "\n", StandardCharsets.UTF_8);
+    } else {
+      logger.info("Resuming download of {} with {} of {} ranges completed", src, completed.cardinality(), count);
+    }
+
+    final Organization organization = securityService.getOrganization();
+    final User user = securityService.getUser();
+    final ServiceRegistry registry = serviceRegistry.get();
+    final Job job = registry != null ? registry.getCurrentJob() : null;
+
+    IOException failure = null;
+    try (RandomAccessFile file = new RandomAccessFile(part, "rw");
+         OutputStream journalOut = new FileOutputStream(journal, true)) {
+      file.setLength(length);
+      final FileChannel channel = file.getChannel();
+      final List<Future<Void>> ranges = new ArrayList<>();
+      for (int i = completed.nextClearBit(0); i < count; i = completed.nextClearBit(i + 1)) {
+        final int range = i;
+        final long start = range * rangeSize;
+        final long end = Math.min(start + rangeSize, length) - 1;
+        ranges.add(executor.submit(() -> {
+          securityService.setOrganization(organization);
+          securityService.setUser(user);
+          if (registry != null)
+            registry.setCurrentJob(job);
+          try {
+            downloadRange(src, etag, channel, start, end);
+            channel.force(false);
+            synchronized (journalOut) {
+              journalOut.write((range + "\n").getBytes(StandardCharsets.UTF_8));
+              journalOut.flush();
+            }
+            return null;
+          } finally {
+            securityService.setOrganization(null);
+            securityService.setUser(null);
+            if (registry != null)
+              registry.setCurrentJob(null);
+          }
+        }));
+      }
+      logger.debug("Downloading {} bytes from {} in {} ranges", length, src, ranges.size());
+
+      // Wait for all ranges, stopping the pending ones after the first failure
+      for (Future<Void> range : ranges) {
+        try {
+          range.get();
+        } catch (CancellationException e) {
+          // stopped after a failure
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          failure = new IOException("Interrupted while downloading " + src, e);
+          ranges.forEach(r -> r.cancel(false));
+          break;
+        } catch (ExecutionException e) {
+          if (failure == null) {
+            failure = e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+            ranges.forEach(r -> r.cancel(false));
+          }
+        }
+      }
+    }
+
+    if (failure instanceof RangesNotSupportedException) {
+      logger.info("{} does not support range requests, downloading it with a single request", src);
+      FileUtils.deleteQuietly(part);
+      FileUtils.deleteQuietly(journal);
+      return false;
+    } else if (failure != null) {
+      logger.warn("Download of {} interrupted, completed ranges are kept to resume it later", src);
+      throw failure;
+    }
+
+    // Verify the result
+    if (etag != null && MD5.matcher(etag).matches()) {
+      final String md5;
+      try (InputStream in = new FileInputStream(part)) {
+        md5 = DigestUtils.md5Hex(in);
+      }
+      if (!etag.equalsIgnoreCase(md5)) {
+        FileUtils.deleteQuietly(part);
+        FileUtils.deleteQuietly(journal);
+        throw new IOException(String.format("Checksum of %s is %s instead of %s", src, md5, etag));
+      }
+    }
+
+    Files.move(part.toPath(), dst.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    FileUtils.deleteQuietly(journal);
+    return true;
+  }
+
+  /**
+   * Downloads a single range into its position of the target file, retrying on failure.
+   */
+  private void downloadRange(URI src, String etag, FileChannel channel, long start, long end) throws IOException {
+    for (int attempt = 1;; attempt++) {
+      final HttpGet get = new HttpGet(src);
+      get.setHeader("Range", "bytes=" + start + "-" + end);
+      HttpResponse response = null;
+      try {
+        response = client.execute(get);
+        final int status = response.getStatusLine().getStatusCode();
+        if (status == HttpServletResponse.SC_OK)
+          throw new RangesNotSupportedException();
+        if (status != HttpServletResponse.SC_PARTIAL_CONTENT)
+          throw new IOException(
+                  String.format("Range %d-%d of %s was answered with status %d", start, end, src, status));
+        final String rangeTag = getETag(response);
+        if (etag != null && rangeTag != null && !etag.equals(rangeTag))
+          throw new IOException(String.format("%s has been modified during the download", src));
+
+        long position = start;
+        try (InputStream in = response.getEntity().getContent()) {
+          final byte[] buffer = new byte[BUFFER_SIZE];
+          int read;
+          while ((read = in.read(buffer)) != -1) {
+            if (position + read > end + 1)
+              throw new IOException(String.format("Range %d-%d of %s exceeds its length", start, end, src));
+            final ByteBuffer data = ByteBuffer.wrap(buffer, 0, read);
+            while (data.hasRemaining()) {
+              position += channel.write(data, position);
+            }
+          }
+        }
+        if (position != end + 1)
+          throw new IOException(String.format("Range %d-%d of %s ended at %d", start, end, src, position));
+        return;
+      } catch (RangesNotSupportedException e) {
+        throw e;
+      } catch (IOException e) {
+        if (attempt >= ATTEMPTS)
+          throw e;
+        logger.debug("Retrying range {}-{} of {}: {}", start, end, src, e.getMessage());
+      } finally {
+        client.close(response);
+      }
+    }
+  }
+
+  /**
+   * Reads the completed ranges from the journal if it belongs to the same entity.
+   */
+  private static BitSet readJournal(File journal, String header, int count) {
+    final BitSet completed = new BitSet(count);
+    if (!journal.isFile())
+      return completed;
+    try (BufferedReader reader = Files.newBufferedReader(journal.toPath(), StandardCharsets.UTF_8)) {
+      if (!header.equals(reader.readLine()))
+        return completed;
+      String line;
+      while ((line = reader.readLine()) != null) {
+        try {
+          final int range = Integer.parseInt(line.trim());
+          if (range >= 0 && range < count)
+            completed.set(range);
+        } catch (NumberFormatException e) {
+          // incomplete last line of an interrupted download
+        }
+      }
+    } catch (IOException e) {
+      logger.warn("Unable to read download journal {}", journal, e);
+      completed.clear();
+    }
+    return completed;
+  }
+
+  /**
+   * Returns the entity tag of a response without quotes or <code>null</code> if the response does not have one.
+   *
+   * @param response
+   *          the http response
+   * @return the entity tag
+   */
+  public static String getETag(HttpResponse response) {
+    final Header header = response.getFirstHeader("ETag");
+    if (header == null || StringUtils.isBlank(header.getValue()))
+      return null;
+    return StringUtils.strip(StringUtils.removeStart(header.getValue().trim(), "W/"), "\"");
+  }
+
+  /** Signals that the server ignored a range request and answered with the whole entity. */
+  private static final class RangesNotSupportedException extends IOException {
+    private static final long serialVersionUID = 1L;
+
+    RangesNotSupportedException() {
+      super("Range request answered with the whole entity");
+    }
+  }
+
+}
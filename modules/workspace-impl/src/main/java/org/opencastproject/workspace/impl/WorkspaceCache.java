@@ -0,0 +1,377 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workspace.impl;
+
+import org.opencastproject.job.api.Job;
+import org.opencastproject.serviceregistry.api.ServiceRegistry;
+import org.opencastproject.serviceregistry.api.ServiceRegistryException;
+import org.opencastproject.util.NotFoundException;
+
+import org.apache.commons.io.FileUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Keeps track of the files in the workspace and evicts the least recently used ones once the configured size is
+ * exceeded. Every file in the workspace can be fetched again from its origin, so evicting a file only costs another
+ * transfer. Files are never evicted while they are in use, even if this means that the workspace grows beyond its
+ * configured size.
+ * <p>
+ * A file accessed on behalf of a job is pinned until that job has terminated, which is checked with the service
+ * registry before evicting files. Files accessed outside of a job are considered in use for the configured minimum
+ * age after their last access.
+ * <p>
+ * Hits, misses and evictions are counted even if no maximum size is configured.
+ */
+public class WorkspaceCache {
+
+  /** The logging facility */
+  private static final Logger logger = LoggerFactory.getLogger(WorkspaceCache.class);
+
+  /** The cached files and their sizes in access order */
+  private final LinkedHashMap<File, Long> files = new LinkedHashMap<>(16, 0.75f, true);
+
+  /** The last access of each cached file */
+  private final Map<File, Long> lastAccess = new HashMap<>();
+
+  /** The maximum size in bytes, or zero if the size is not limited */
+  private final long maxSize;
+
+  /** The time in milliseconds since the last access during which a file is considered to be in use */
+  private final long minAge;
+
+  /** Provides the current job and the status of pinning jobs, may return <code>null</code> */
+  private final Supplier<ServiceRegistry> serviceRegistry;
+
+  /** The files pinned by each job */
+  private final Map<Long, Set<File>> pinsByJob = new HashMap<>();
+
+  /** The number of jobs pinning each file */
+  private final Map<File, Integer> pins = new HashMap<>();
+
+  /** The size of all cached files in bytes */
+  private long size = 0L;
+
+  private final AtomicLong hits = new AtomicLong();
+  private final AtomicLong misses = new AtomicLong();
+  private final AtomicLong evictions = new AtomicLong();
+  private final AtomicLong sharedDownloads = new AtomicLong();
+
+  /**
+   * Creates a new workspace cache.
+   *
+   * @param maxSize
+   *          the maximum size in bytes or zero to not limit the size
+   * @param minAge
+   *          the time in milliseconds since the last access during which a file must not be evicted
+   */
+  public WorkspaceCache(long maxSize, long minAge) {
+    this(maxSize, minAge, () -> null);
+  }
+
+  /**
+   * Creates a new workspace cache pinning files while the jobs accessing them are running.
+   *
+   * @param maxSize
+   *          the maximum size in bytes or zero to not limit the size
+   * @param minAge
+   *          the time in milliseconds since the last access during which a file must not be evicted
+   * @param serviceRegistry
+   *          provides the service registry or <code>null</code> if it is not available
+   */
+  public WorkspaceCache(long maxSize, long minAge, Supplier<ServiceRegistry> serviceRegistry) {
+    this.maxSize = Math.max(0L, maxSize);
+    this.minAge = Math.max(0L, minAge);
+    this.serviceRegistry = serviceRegistry;
+  }
+
+  /** @return whether the size of the workspace is limited */
+  public boolean isEnabled() {
+    return maxSize > 0;
+  }
+
+  /**
+   * Adds all files found in the workspace, using their modification date as last access.
+   *
+   * @param root
+   *          the workspace root directory
+   */
+  public void scan(File root) {
+    if (!isEnabled() || !root.isDirectory())
+      return;
+    List<File> found = new ArrayList<>(FileUtils.listFiles(root, null, true));
+    found.sort((a, b) -> Long.compare(a.lastModified(), b.lastModified()));
+    synchronized (this) {
+      for (File file : found) {
+        put(file, file.lastModified(), null);
+      }
+      logger.info("Workspace cache holds {} files with {} bytes of {} bytes", files.size(), size, maxSize);
+    }
+    evict();
+  }
+
+  /**
+   * Records that a file has been served from the workspace without transferring it.
+   *
+   * @param file
+   *          the workspace file or <code>null</code> if the file does not use space of its own, e.g. a hard link
+   */
+  public void hit(File file) {
+    hits.incrementAndGet();
+    if (isEnabled() && file != null) {
+      Job job = getCurrentJob();
+      synchronized (this) {
+        put(file, System.currentTimeMillis(), job);
+      }
+    }
+  }
+
+  /**
+   * Records that a file has been transferred into the workspace and evicts other files if necessary.
+   *
+   * @param file
+   *          the workspace file or <code>null</code> if the file does not use space of its own, e.g. a hard link
+   */
+  public void miss(File file) {
+    misses.incrementAndGet();
+    if (file != null)
+      add(file);
+  }
+
+  /**
+   * Records that a file has been served by a transfer started by another request.
+   *
+   * @param file
+   *          the workspace file
+   */
+  public void shared(File file) {
+    sharedDownloads.incrementAndGet();
+    hit(file);
+  }
+
+  /**
+   * Records a file which has been put into the workspace and evicts other files if necessary.
+   *
+   * @param file
+   *          the workspace file
+   */
+  public void add(File file) {
+    if (!isEnabled())
+      return;
+    Job job = getCurrentJob();
+    synchronized (this) {
+      put(file, System.currentTimeMillis(), job);
+    }
+    evict();
+  }
+
+  /**
+   * Forgets about a file which has been removed from the workspace.
+   *
+   * @param file
+   *          the workspace file
+   */
+  public synchronized void remove(File file) {
+    Long length = files.remove(file);
+    if (length != null) {
+      size -= length;
+      lastAccess.remove(file);
+      unpin(file);
+    }
+  }
+
+  /**
+   * Forgets about all files within a directory which has been removed from the workspace.
+   *
+   * @param directory
+   *          the directory
+   */
+  public synchronized void removeAll(File directory) {
+    String prefix = directory.getAbsolutePath() + File.separator;
+    Iterator<Map.Entry<File, Long>> entries = files.entrySet().iterator();
+    while (entries.hasNext()) {
+      Map.Entry<File, Long> entry = entries.next();
+      if (entry.getKey().getAbsolutePath().startsWith(prefix)) {
+        size -= entry.getValue();
+        lastAccess.remove(entry.getKey());
+        unpin(entry.getKey());
+        entries.remove();
+      }
+    }
+  }
+
+  private void put(File file, long accessed, Job job) {
+    if (!file.isFile()) {
+      remove(file);
+      return;
+    }
+    Long previous = files.put(file, file.length());
+    size += file.length() - (previous == null ? 0L : previous);
+    lastAccess.put(file, accessed);
+    if (job != null && pinsByJob.computeIfAbsent(job.getId(), id -> new HashSet<>()).add(file))
+      pins.merge(file, 1, Integer::sum);
+  }
+
+  /** Removes all pins of a file. */
+  private void unpin(File file) {
+    if (pins.remove(file) == null)
+      return;
+    Iterator<Set<File>> jobFiles = pinsByJob.values().iterator();
+    while (jobFiles.hasNext()) {
+      Set<File> pinned = jobFiles.next();
+      if (pinned.remove(file) && pinned.isEmpty())
+        jobFiles.remove();
+    }
+  }
+
+  /**
+   * Releases the files pinned by a job.
+   *
+   * @param jobId
+   *          the job identifier
+   */
+  public synchronized void release(long jobId) {
+    Set<File> pinned = pinsByJob.remove(jobId);
+    if (pinned == null)
+      return;
+    for (File file : pinned) {
+      pins.computeIfPresent(file, (f, count) -> count > 1 ? count - 1 : null);
+    }
+  }
+
+  /** @return the number of files pinned by running jobs */
+  public synchronized int getPinned() {
+    return pins.size();
+  }
+
+  /** Returns the job the current thread is working on or <code>null</code> if there is none. */
+  private Job getCurrentJob() {
+    ServiceRegistry registry = serviceRegistry.get();
+    return registry == null ? null : registry.getCurrentJob();
+  }
+
+  /** Releases the files pinned by jobs which have terminated. */
+  private void releaseTerminatedJobs() {
+    ServiceRegistry registry = serviceRegistry.get();
+    if (registry == null)
+      return;
+    List<Long> jobIds;
+    synchronized (this) {
+      jobIds = new ArrayList<>(pinsByJob.keySet());
+    }
+    for (long jobId : jobIds) {
+      try {
+        if (!registry.getJob(jobId).getStatus().isTerminated())
+          continue;
+      } catch (NotFoundException e) {
+        logger.debug("Job {} pinning workspace files has been removed", jobId);
+      } catch (ServiceRegistryException e) {
+        logger.debug("Unable to get the status of job {} pinning workspace files", jobId, e);
+        continue;
+      }
+      release(jobId);
+    }
+  }
+
+  /**
+   * Deletes least recently used files until the workspace fits into its maximum size again. Files pinned by running
+   * jobs and files accessed within the minimum age are kept.
+   */
+  void evict() {
+    if (!isEnabled())
+      return;
+    synchronized (this) {
+      if (size <= maxSize)
+        return;
+    }
+    releaseTerminatedJobs();
+    List<File> victims = new ArrayList<>();
+    synchronized (this) {
+      long now = System.currentTimeMillis();
+      long freed = 0L;
+      Iterator<Map.Entry<File, Long>> entries = files.entrySet().iterator();
+      while (size - freed > maxSize && entries.hasNext()) {
+        Map.Entry<File, Long> entry = entries.next();
+        if (pins.containsKey(entry.getKey()))
+          continue;
+        // The map is in access order, so all other files have been used even more recently
+        if (now - lastAccess.get(entry.getKey()) < minAge)
+          break;
+        victims.add(entry.getKey());
+        freed += entry.getValue();
+      }
+      for (File victim : victims) {
+        remove(victim);
+      }
+      if (size > maxSize)
+        logger.debug("Workspace exceeds its maximum size of {} bytes with files in use", maxSize);
+    }
+    for (File victim : victims) {
+      if (FileUtils.deleteQuietly(victim)) {
+        evictions.incrementAndGet();
+        logger.debug("Evicted {} from the workspace", victim);
+      }
+    }
+  }
+
+  /** @return the number of files served without a transfer */
+  public long getHits() {
+    return hits.get();
+  }
+
+  /** @return the number of files transferred into the workspace */
+  public long getMisses() {
+    return misses.get();
+  }
+
+  /** @return the number of files evicted from the workspace */
+  public long getEvictions() {
+    return evictions.get();
+  }
+
+  /** @return the number of requests served by a transfer started by another request */
+  public long getSharedDownloads() {
+    return sharedDownloads.get();
+  }
+
+  /** @return the size of all tracked files in bytes */
+  public synchronized long getSize() {
+    return size;
+  }
+
+  /** @return the maximum size in bytes or zero if the size is not limited */
+  public long getMaxSize() {
+    return maxSize;
+  }
+}
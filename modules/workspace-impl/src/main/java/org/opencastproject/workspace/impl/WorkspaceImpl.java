@@ -33,7 +33,6 @@ import static org.opencastproject.util.data.Either.left;
 import static org.opencastproject.util.data.Either.right;
 import static org.opencastproject.util.data.Option.none;
 import static org.opencastproject.util.data.Option.some;
-import static org.opencastproject.util.data.Prelude.sleep;
 
 import org.opencastproject.assetmanager.util.AssetPathUtils;
 import org.opencastproject.assetmanager.util.DistributionPathUtils;
@@ -41,6 +40,7 @@ import org.opencastproject.mediapackage.identifier.Id;
 import org.opencastproject.security.api.SecurityService;
 import org.opencastproject.security.api.TrustedHttpClient;
 import org.opencastproject.security.api.TrustedHttpClientException;
+import org.opencastproject.serviceregistry.api.ServiceRegistry;
 import org.opencastproject.util.FileSupport;
 import org.opencastproject.util.HttpUtil;
 import org.opencastproject.util.IoSupport;
@@ -71,6 +71,8 @@ import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.component.annotations.ReferenceCardinality;
+import org.osgi.service.component.annotations.ReferencePolicy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -89,7 +91,12 @@ import java.util.Collections;
 import java.util.Date;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CopyOnWriteArraySet;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
 
 import javax.management.ObjectInstance;
 import javax.servlet.http.HttpServletResponse;
@@ -123,6 +130,25 @@ public final class WorkspaceImpl implements Workspace {
   public static final String WORKSPACE_CLEANUP_PERIOD_KEY = "org.opencastproject.workspace.cleanup.period";
   /** Configuration key for garbage collection max age. */
   public static final String WORKSPACE_CLEANUP_MAX_AGE_KEY = "org.opencastproject.workspace.cleanup.max.age";
+  /** Configuration key for the maximum size of the workspace in bytes. */
+  public static final String WORKSPACE_CACHE_MAX_SIZE_KEY = "org.opencastproject.workspace.cache.max.size";
+  /** Configuration key for the time in seconds after the last access during which a file is not evicted. */
+  public static final String WORKSPACE_CACHE_MIN_AGE_KEY = "org.opencastproject.workspace.cache.min.age";
+  /** Configuration key for the minimum size in bytes of files downloaded with concurrent range requests. */
+  public static final String WORKSPACE_DOWNLOAD_PARALLEL_THRESHOLD_KEY
+          = "org.opencastproject.workspace.download.parallel.threshold";
+  /** Configuration key for the number of concurrent range requests per download. */
+  public static final String WORKSPACE_DOWNLOAD_PARALLEL_CONNECTIONS_KEY
+          = "org.opencastproject.workspace.download.parallel.connections";
+
+  /** Default time in seconds after the last access during which a file is not evicted */
+  private static final long DEFAULT_CACHE_MIN_AGE = 3600L;
+
+  /** Default number of concurrent range requests per download */
+  private static final int DEFAULT_DOWNLOAD_PARALLEL_CONNECTIONS = 4;
+
+  /** Size of a single range of a parallel download */
+  private static final long DOWNLOAD_RANGE_SIZE = 16L * 1024L * 1024L;
 
   /** Workspace JMX type */
   private static final String JMX_WORKSPACE_TYPE = "Workspace";
@@ -130,8 +156,26 @@ public final class WorkspaceImpl implements Workspace {
   /** Unknown file name string */
   private static final String UNKNOWN_FILENAME = "unknown";
 
+  /** Tracks the workspace files, their usage and size */
+  private WorkspaceCache cache = new WorkspaceCache(0L, 0L);
+
+  /** Downloads currently running, by their target file */
+  private final ConcurrentHashMap<File, FutureTask<File>> downloads = new ConcurrentHashMap<>();
+
+  /** Downloads waiting for the server to prepare the file, by their target file */
+  private final ConcurrentHashMap<File, PendingDownload> pendingDownloads = new ConcurrentHashMap<>();
+
+  /** Runs the range requests of parallel downloads */
+  private ExecutorService downloadExecutor = null;
+
+  /** Downloads large files with concurrent range requests, if enabled */
+  private RangedDownload rangedDownload = null;
+
+  /** Minimum size of files to download with concurrent range requests */
+  private long rangedDownloadThreshold = 0L;
+
   /** The JMX workspace bean */
-  private WorkspaceBean workspaceBean = new WorkspaceBean(this);
+  private WorkspaceBean workspaceBean;
 
   /** The JMX bean object instance */
   private ObjectInstance registeredMXBean;
@@ -148,6 +192,9 @@ public final class WorkspaceImpl implements Workspace {
 
   private SecurityService securityService = null;
 
+  /** The service registry providing the current job, if available */
+  private volatile ServiceRegistry serviceRegistry = null;
+
   /** The working file repository */
   private WorkingFileRepository wfr = null;
 
@@ -289,6 +336,60 @@ public final class WorkspaceImpl implements Workspace {
       }
     }
 
+    // Limit the size of the workspace
+    long cacheMaxSize = 0L;
+    if (ensureContextProp(cc, WORKSPACE_CACHE_MAX_SIZE_KEY)) {
+      String maxSize = cc.getBundleContext().getProperty(WORKSPACE_CACHE_MAX_SIZE_KEY);
+      try {
+        cacheMaxSize = Long.parseLong(maxSize.trim());
+      } catch (NumberFormatException e) {
+        logger.warn("Invalid configuration for workspace maximum size ({}={})", WORKSPACE_CACHE_MAX_SIZE_KEY, maxSize);
+      }
+    }
+    long cacheMinAge = DEFAULT_CACHE_MIN_AGE;
+    if (ensureContextProp(cc, WORKSPACE_CACHE_MIN_AGE_KEY)) {
+      String minAge = cc.getBundleContext().getProperty(WORKSPACE_CACHE_MIN_AGE_KEY);
+      try {
+        cacheMinAge = Long.parseLong(minAge.trim());
+      } catch (NumberFormatException e) {
+        logger.warn("Invalid configuration for workspace file minimum age ({}={})", WORKSPACE_CACHE_MIN_AGE_KEY, minAge);
+      }
+    }
+    cache = new WorkspaceCache(cacheMaxSize, cacheMinAge * 1000L, () -> serviceRegistry);
+    if (cache.isEnabled()) {
+      logger.info("Limiting the workspace to {} bytes", cacheMaxSize);
+      cache.scan(new File(wsRoot));
+    }
+
+    // Download large files with concurrent range requests
+    if (ensureContextProp(cc, WORKSPACE_DOWNLOAD_PARALLEL_THRESHOLD_KEY)) {
+      String threshold = cc.getBundleContext().getProperty(WORKSPACE_DOWNLOAD_PARALLEL_THRESHOLD_KEY);
+      try {
+        rangedDownloadThreshold = Long.parseLong(threshold.trim());
+      } catch (NumberFormatException e) {
+        logger.warn("Invalid configuration for parallel download threshold ({}={})",
+                WORKSPACE_DOWNLOAD_PARALLEL_THRESHOLD_KEY, threshold);
+      }
+    }
+    int connections = DEFAULT_DOWNLOAD_PARALLEL_CONNECTIONS;
+    if (ensureContextProp(cc, WORKSPACE_DOWNLOAD_PARALLEL_CONNECTIONS_KEY)) {
+      String value = cc.getBundleContext().getProperty(WORKSPACE_DOWNLOAD_PARALLEL_CONNECTIONS_KEY);
+      try {
+        connections = Integer.parseInt(value.trim());
+      } catch (NumberFormatException e) {
+        logger.warn("Invalid configuration for parallel download connections ({}={})",
+                WORKSPACE_DOWNLOAD_PARALLEL_CONNECTIONS_KEY, value);
+      }
+    }
+    if (rangedDownloadThreshold > 0 && connections > 1) {
+      logger.info("Downloading files of at least {} bytes with {} concurrent range requests", rangedDownloadThreshold,
+              connections);
+      downloadExecutor = Executors.newFixedThreadPool(connections);
+      rangedDownload = new RangedDownload(trustedHttpClient, securityService, () -> serviceRegistry, downloadExecutor,
+              DOWNLOAD_RANGE_SIZE);
+    }
+
+    workspaceBean = new WorkspaceBean(this, cache, pendingDownloads.values());
     registeredMXBean = JmxUtil.registerMXBean(workspaceBean, JMX_WORKSPACE_TYPE);
 
     // Start cleanup scheduler if we have sensible cleanup values:
@@ -328,6 +429,9 @@ public final class WorkspaceImpl implements Workspace {
     if (workspaceCleaner != null) {
       workspaceCleaner.shutdown();
     }
+    if (downloadExecutor != null) {
+      downloadExecutor.shutdownNow();
+    }
   }
 
   @Override
@@ -358,8 +462,10 @@ public final class WorkspaceImpl implements Workspace {
           if (workspaceFileLastModified < wfrCopy.lastModified()) {
             logger.debug("Replacing {} with an updated version from the file repository", inWs.getAbsolutePath());
             locked(inWs, copyOrLink(wfrCopy));
+            cache.miss(linkingEnabled ? null : inWs);
           } else {
             logger.debug("{} is up to date", inWs);
+            cache.hit(linkingEnabled ? null : inWs);
           }
           logger.debug("Getting {} directly from working file repository root at {}", uri, inWs);
           return new File(inWs.getAbsolutePath());
@@ -373,13 +479,59 @@ public final class WorkspaceImpl implements Workspace {
     // Check if we can get the files directly from the asset manager
     final File asset = AssetPathUtils.getLocalFile(assetManagerPath, securityService.getOrganization().getId(), uri);
     if (asset != null) {
-      logger.debug("Copy local file {} from asset manager to workspace", asset);
-      Files.copy(asset.toPath(), inWs.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      // Assets are never modified, so an existing copy of the same size is up to date
+      if (inWs.isFile() && inWs.length() == asset.length()) {
+        logger.debug("{} is up to date", inWs);
+        cache.hit(inWs);
+      } else {
+        logger.debug("Copy local file {} from asset manager to workspace", asset);
+        Files.copy(asset.toPath(), inWs.toPath(), StandardCopyOption.REPLACE_EXISTING);
+        cache.miss(inWs);
+      }
       return new File(inWs.getAbsolutePath());
     }
 
-    // do HTTP transfer
-    return locked(inWs, downloadIfNecessary(uri));
+    // do HTTP transfer, sharing it with concurrent requests for the same file
+    final File target = inWs;
+    final FutureTask<File> download = new FutureTask<>(() -> downloadIfNecessary(uri, target));
+    final FutureTask<File> running = downloads.putIfAbsent(target, download);
+    if (running != null) {
+      logger.debug("Waiting for running download of {}", uri);
+      File file = awaitDownload(running);
+      cache.shared(file);
+      return file;
+    }
+    try {
+      download.run();
+      return awaitDownload(download);
+    } finally {
+      downloads.remove(target, download);
+    }
+  }
+
+  /**
+   * Wait for a download to finish.
+   *
+   * @param download
+   *          the running download
+   * @return the downloaded file
+   */
+  private File awaitDownload(FutureTask<File> download) throws NotFoundException, IOException {
+    try {
+      return download.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for download", e);
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof NotFoundException)
+        throw (NotFoundException) cause;
+      if (cause instanceof IOException)
+        throw (IOException) cause;
+      if (cause instanceof RuntimeException)
+        throw (RuntimeException) cause;
+      throw new IOException(cause);
+    }
   }
 
   @Override
@@ -439,12 +591,26 @@ public final class WorkspaceImpl implements Workspace {
   /**
    * Handle the HTTP response.
    *
-   * @return either a token to initiate a follow-up request or a file or none if the requested URI cannot be found
+   * @return either the accepted response with a token to initiate a follow-up request or a file or none if the
+   *         requested URI cannot be found
    * @throws IOException
    *           in case of any IO related issues
    */
-  private Either<String, Option<File>> handleDownloadResponse(HttpResponse response, URI src, File dst)
+  private Either<HttpResponse, Option<File>> handleDownloadResponse(HttpResponse response, URI src, File dst)
           throws IOException {
+    return handleDownloadResponse(response, src, dst, rangedDownload != null);
+  }
+
+  /**
+   * Handle the HTTP response, downloading large files with concurrent range requests if <code>ranged</code> is set.
+   *
+   * @return either the accepted response with a token to initiate a follow-up request or a file or none if the
+   *         requested URI cannot be found
+   * @throws IOException
+   *           in case of any IO related issues
+   */
+  private Either<HttpResponse, Option<File>> handleDownloadResponse(HttpResponse response, URI src, File dst,
+          boolean ranged) throws IOException {
     final String url = src.toString();
     final int status = response.getStatusLine().getStatusCode();
     switch (status) {
@@ -452,13 +618,32 @@ public final class WorkspaceImpl implements Workspace {
         return right(none(File.class));
       case HttpServletResponse.SC_NOT_MODIFIED:
         logger.debug("{} has not been modified.", url);
+        cache.hit(dst);
         return right(some(dst));
       case HttpServletResponse.SC_ACCEPTED:
         logger.debug("{} is not ready, try again later.", url);
-        return left(response.getHeaders("token")[0].getValue());
+        return left(response);
       case HttpServletResponse.SC_OK:
+        final long length = response.getEntity().getContentLength();
+        if (ranged && length >= rangedDownloadThreshold) {
+          final String etag = RangedDownload.getETag(response);
+          trustedHttpClient.close(response);
+          logger.debug("Downloading {} to {} with concurrent range requests", url, dst.getAbsolutePath());
+          if (rangedDownload.download(src, dst, length, etag)) {
+            cache.miss(dst);
+            return right(some(dst));
+          }
+          final HttpResponse fallback = trustedHttpClient.execute(new HttpGet(src));
+          try {
+            return handleDownloadResponse(fallback, src, dst, false);
+          } finally {
+            trustedHttpClient.close(fallback);
+          }
+        }
         logger.debug("Downloading {} to {}", url, dst.getAbsolutePath());
-        return right(some(downloadTo(response, dst)));
+        downloadTo(response, dst);
+        cache.miss(dst);
+        return right(some(dst));
       default:
         logger.warn("Received unexpected response status {} while trying to download from {}", status, url);
         FileUtils.deleteQuietly(dst);
@@ -487,45 +672,70 @@ public final class WorkspaceImpl implements Workspace {
   /**
    * Download content of <code>uri</code> to file <code>dst</code> only if necessary, i.e. either the file does not yet
    * exist in the workspace or a newer version is available at <code>uri</code>.
+   * <p>
+   * If the server needs time to prepare the file, the request is repeated with exponential backoff. The file lock is
+   * released while waiting so that other downloads can proceed.
    *
    * @return the file
    */
   private File downloadIfNecessary(final URI src, final File dst) throws IOException, NotFoundException {
-    HttpGet get = createGetRequest(src, dst, Collections.emptyMap());
-    while (true) {
-      // run the http request and handle its response
-      try {
-        final Either<String, Option<File>> result = handleDownloadResponse(
-            trustedHttpClient.execute(get), src, dst);
+    PendingDownload pending = null;
+    Map<String, String> params = Collections.emptyMap();
+    try {
+      while (true) {
+        final Either<HttpResponse, Option<File>> result = locked(dst, requestDownload(src, params));
         for (Option<File> ff : result.right()) {
           for (File f : ff) {
             return f;
           }
-          FileUtils.deleteQuietly(dst);
           // none
           throw new NotFoundException();
         }
         // left: file will be ready later
-        for (String token : result.left()) {
-          get = createGetRequest(src, dst, Collections.singletonMap("token", token));
-          sleep(60000);
+        for (HttpResponse accepted : result.left()) {
+          if (pending == null) {
+            pending = new PendingDownload(src);
+            pendingDownloads.put(dst, pending);
+          }
+          params = Collections.singletonMap("token", accepted.getFirstHeader("token").getValue());
+          final long delay = pending.accepted(accepted);
+          logger.debug("Requesting {} again in {} ms", src, delay);
+          try {
+            Thread.sleep(delay);
+          } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(String.format("Interrupted while waiting for %s", src), e);
+          }
         }
-      } catch (TrustedHttpClientException e) {
-        FileUtils.deleteQuietly(dst);
-        throw new NotFoundException(String.format("Could not copy %s to %s", src, dst.getAbsolutePath()), e);
+      }
+    } finally {
+      if (pending != null) {
+        pendingDownloads.remove(dst, pending);
       }
     }
   }
 
   /**
-   * {@link #downloadIfNecessary(java.net.URI, java.io.File)} as a function.
-   * <code>src_uri -&gt; dst_file -&gt; dst_file</code>
+   * Requests <code>src</code> and handles the response.
+   * <code>dst_file -&gt; either accepted_response or dst_file</code>
    */
-  private Function<File, File> downloadIfNecessary(final URI src) {
-    return new Function.X<File, File>() {
+  private Function<File, Either<HttpResponse, Option<File>>> requestDownload(final URI src,
+          final Map<String, String> params) {
+    return new Function.X<File, Either<HttpResponse, Option<File>>>() {
       @Override
-      public File xapply(final File dst) throws Exception {
-        return downloadIfNecessary(src, dst);
+      public Either<HttpResponse, Option<File>> xapply(final File dst) throws Exception {
+        try {
+          final Either<HttpResponse, Option<File>> result = handleDownloadResponse(
+              trustedHttpClient.execute(createGetRequest(src, dst, params)), src, dst);
+          for (Option<File> ff : result.right()) {
+            if (ff.isNone())
+              FileUtils.deleteQuietly(dst);
+          }
+          return result;
+        } catch (TrustedHttpClientException e) {
+          FileUtils.deleteQuietly(dst);
+          throw new NotFoundException(String.format("Could not copy %s to %s", src, dst.getAbsolutePath()), e);
+        }
       }
     };
   }
@@ -603,6 +813,7 @@ public final class WorkspaceImpl implements Workspace {
       synchronized (lock) {
         File mpElementDir = f.getParentFile();
         FileUtils.forceDelete(f);
+        cache.remove(f);
 
         // Remove containing folder if a mediapackage element or a not a static collection
         if (isMediaPackage || !isStaticCollection(collectionId))
@@ -623,6 +834,7 @@ public final class WorkspaceImpl implements Workspace {
     // delete locally
     final File f = workspaceFile(WorkingFileRepository.MEDIAPACKAGE_PATH_PREFIX, mediaPackageID, mediaPackageElementID);
     FileUtils.deleteQuietly(f);
+    cache.removeAll(f);
     FileSupport.delete(f.getParentFile());
     // delete in WFR
     wfr.delete(mediaPackageID, mediaPackageElementID);
@@ -659,6 +871,8 @@ public final class WorkspaceImpl implements Workspace {
         }
       }
     }
+    if (!linkingEnabled)
+      cache.add(workspaceFile);
     // wait until the file appears on the WFR node
     waitForResource(uri, HttpServletResponse.SC_OK, "File %s does not appear in WFR");
     return uri;
@@ -700,6 +914,8 @@ public final class WorkspaceImpl implements Workspace {
       IoSupport.closeQuietly(tee);
       IoSupport.closeQuietly(out);
     }
+    if (!linkingEnabled)
+      cache.add(tempFile);
     waitForResource(uri, HttpServletResponse.SC_OK, "File %s does not appear in WFR");
     return uri;
   }
@@ -729,6 +945,8 @@ public final class WorkspaceImpl implements Workspace {
       FileUtils.forceMkdir(copy.getParentFile());
       FileUtils.deleteQuietly(copy);
       FileUtils.moveFile(original, copy);
+      cache.remove(original);
+      cache.add(copy);
       if (!isStaticCollection(collection))
         FileSupport.delete(original.getParentFile());
     }
@@ -749,6 +967,7 @@ public final class WorkspaceImpl implements Workspace {
     final File f = workspaceFile(WorkingFileRepository.COLLECTION_PATH_PREFIX, collectionId,
             PathSupport.toSafeName(fileName));
     FileUtils.deleteQuietly(f);
+    cache.remove(f);
     if (removeCollection) {
       FileSupport.delete(f.getParentFile());
     }
@@ -875,6 +1094,19 @@ public final class WorkspaceImpl implements Workspace {
     this.securityService = securityService;
   }
 
+  @Reference(
+      name = "serviceRegistry",
+      cardinality = ReferenceCardinality.OPTIONAL,
+      policy = ReferencePolicy.DYNAMIC,
+      unbind = "unsetServiceRegistry")
+  public void setServiceRegistry(ServiceRegistry serviceRegistry) {
+    this.serviceRegistry = serviceRegistry;
+  }
+
+  public void unsetServiceRegistry(ServiceRegistry serviceRegistry) {
+    this.serviceRegistry = null;
+  }
+
   private static final long TIMEOUT = 2L * 60L * 1000L;
   private static final long INTERVAL = 1000L;
 
@@ -926,6 +1158,7 @@ public final class WorkspaceImpl implements Workspace {
 
       // Delete old files
       if (FileUtils.deleteQuietly(file)) {
+        cache.remove(file);
         logger.info("Deleted {}", file);
       } else {
         logger.warn("Could not delete {}", file);
@@ -951,6 +1184,7 @@ public final class WorkspaceImpl implements Workspace {
       logger.debug("Clean workspace media package directory {}", mediaPackageDir);
       FileUtils.deleteDirectory(mediaPackageDir);
     }
+    cache.removeAll(mediaPackageDir);
   }
 
   @Override
@@ -23,13 +23,21 @@ package org.opencastproject.workspace.impl.jmx;
 
 import org.opencastproject.util.data.Option.Match;
 import org.opencastproject.workspace.api.Workspace;
+import org.opencastproject.workspace.impl.PendingDownload;
+import org.opencastproject.workspace.impl.WorkspaceCache;
+
+import java.util.Collection;
 
 public class WorkspaceBean implements WorkspaceMXBean {
 
   private final Workspace workspace;
+  private final WorkspaceCache cache;
+  private final Collection<PendingDownload> pendingDownloads;
 
-  public WorkspaceBean(Workspace workspace) {
+  public WorkspaceBean(Workspace workspace, WorkspaceCache cache, Collection<PendingDownload> pendingDownloads) {
     this.workspace = workspace;
+    this.cache = cache;
+    this.pendingDownloads = pendingDownloads;
   }
 
   /**
@@ -86,4 +94,68 @@ public class WorkspaceBean implements WorkspaceMXBean {
     });
   }
 
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getCacheHits()
+   */
+  @Override
+  public long getCacheHits() {
+    return cache.getHits();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getCacheMisses()
+   */
+  @Override
+  public long getCacheMisses() {
+    return cache.getMisses();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getCacheEvictions()
+   */
+  @Override
+  public long getCacheEvictions() {
+    return cache.getEvictions();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getSharedDownloads()
+   */
+  @Override
+  public long getSharedDownloads() {
+    return cache.getSharedDownloads();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getCacheSize()
+   */
+  @Override
+  public long getCacheSize() {
+    return cache.getSize();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getCacheMaxSize()
+   */
+  @Override
+  public long getCacheMaxSize() {
+    return cache.getMaxSize();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getPendingDownloads()
+   */
+  @Override
+  public int getPendingDownloads() {
+    return pendingDownloads.size();
+  }
+
+  /**
+   * @see org.opencastproject.workspace.impl.jmx.WorkspaceMXBean#getPendingDownloadDetails()
+   */
+  @Override
+  public String[] getPendingDownloadDetails() {
+    return pendingDownloads.stream().map(PendingDownload::toString).toArray(String[]::new);
+  }
+
 }
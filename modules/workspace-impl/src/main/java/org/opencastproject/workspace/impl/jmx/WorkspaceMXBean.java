@@ -47,4 +47,60 @@ public interface WorkspaceMXBean {
    */
   long getTotalSpace();
 
+  /**
+   * Gets the number of files served from the workspace without a transfer
+   *
+   * @return number of cache hits
+   */
+  long getCacheHits();
+
+  /**
+   * Gets the number of files transferred into the workspace
+   *
+   * @return number of cache misses
+   */
+  long getCacheMisses();
+
+  /**
+   * Gets the number of files evicted to keep the workspace within its maximum size
+   *
+   * @return number of evicted files
+   */
+  long getCacheEvictions();
+
+  /**
+   * Gets the number of requests served by a download started by a concurrent request for the same file
+   *
+   * @return number of shared downloads
+   */
+  long getSharedDownloads();
+
+  /**
+   * Gets the size of all files tracked by the workspace cache in bytes
+   *
+   * @return tracked size in bytes
+   */
+  long getCacheSize();
+
+  /**
+   * Gets the maximum size of the workspace in bytes
+   *
+   * @return maximum size in bytes or 0 if the size is not limited
+   */
+  long getCacheMaxSize();
+
+  /**
+   * Gets the number of downloads waiting for the server to prepare the requested file
+   *
+   * @return number of pending downloads
+   */
+  int getPendingDownloads();
+
+  /**
+   * Gets the URI, waiting time and number of attempts of each download waiting for the server
+   *
+   * @return pending download descriptions
+   */
+  String[] getPendingDownloadDetails();
+
 }
@@ -0,0 +1,71 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workspace.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.utils.DateUtils;
+import org.apache.http.message.BasicHttpResponse;
+import org.junit.Test;
+
+import java.net.URI;
+import java.util.Date;
+
+public class PendingDownloadTest {
+
+  private static HttpResponse accepted() {
+    return new BasicHttpResponse(HttpVersion.HTTP_1_1, 202, "Accepted");
+  }
+
+  @Test
+  public void testExponentialBackoff() {
+    PendingDownload pending = new PendingDownload(URI.create("http://localhost/file"));
+    assertEquals(500L, pending.accepted(accepted()));
+    assertEquals(1000L, pending.accepted(accepted()));
+    assertEquals(2000L, pending.accepted(accepted()));
+    for (int i = 0; i < 30; i++) {
+      pending.accepted(accepted());
+    }
+    assertEquals(PendingDownload.MAX_DELAY, pending.accepted(accepted()));
+    assertEquals(34, pending.getAttempts());
+  }
+
+  @Test
+  public void testRetryAfter() {
+    PendingDownload pending = new PendingDownload(URI.create("http://localhost/file"));
+    HttpResponse response = accepted();
+    response.setHeader("Retry-After", "5");
+    assertEquals(5000L, pending.accepted(response));
+
+    long now = System.currentTimeMillis();
+    response.setHeader("Retry-After", DateUtils.formatDate(new Date(now + 120000L)));
+    long delay = PendingDownload.getRetryAfter(response, now);
+    assertTrue(delay > 118000L && delay <= 120000L);
+
+    response.setHeader("Retry-After", "soon");
+    assertEquals(1000L, pending.accepted(response));
+  }
+
+}
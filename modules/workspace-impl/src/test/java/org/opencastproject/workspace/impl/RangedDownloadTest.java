@@ -0,0 +1,226 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workspace.impl;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import org.opencastproject.job.api.Job;
+import org.opencastproject.job.api.JobImpl;
+import org.opencastproject.security.api.DefaultOrganization;
+import org.opencastproject.security.api.JaxbOrganization;
+import org.opencastproject.security.api.JaxbRole;
+import org.opencastproject.security.api.JaxbUser;
+import org.opencastproject.security.api.Organization;
+import org.opencastproject.security.api.SecurityService;
+import org.opencastproject.security.api.TrustedHttpClient;
+import org.opencastproject.security.api.User;
+import org.opencastproject.serviceregistry.api.ServiceRegistry;
+
+import org.apache.commons.codec.digest.DigestUtils;
+import org.apache.commons.io.FileUtils;
+import org.apache.http.HttpResponse;
+import org.apache.http.HttpVersion;
+import org.apache.http.client.methods.HttpUriRequest;
+import org.apache.http.entity.ByteArrayEntity;
+import org.apache.http.message.BasicHttpResponse;
+import org.easymock.EasyMock;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+public class RangedDownloadTest {
+
+  private static final URI SRC = URI.create("http://localhost/files/mediapackage/mp/track/video.mp4");
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private ExecutorService executor;
+  private byte[] content;
+  private List<String> requestedRanges;
+  private SecurityService securityService;
+
+  @Before
+  public void setUp() {
+    executor = Executors.newFixedThreadPool(3);
+    content = new byte[1000];
+    for (int i = 0; i < content.length; i++) {
+      content[i] = (byte) i;
+    }
+    requestedRanges = new CopyOnWriteArrayList<>();
+    securityService = EasyMock.createNiceMock(SecurityService.class);
+    EasyMock.replay(securityService);
+  }
+
+  @After
+  public void tearDown() {
+    executor.shutdownNow();
+  }
+
+  /** Creates an http client serving the content with range support. */
+  private TrustedHttpClient createClient(final boolean supportsRanges) throws Exception {
+    return createClient(supportsRanges ? 206 : 200);
+  }
+
+  /** Creates an http client answering range requests with the given status. */
+  private TrustedHttpClient createClient(final int status) throws Exception {
+    TrustedHttpClient client = EasyMock.createNiceMock(TrustedHttpClient.class);
+    EasyMock.expect(client.execute(EasyMock.anyObject(HttpUriRequest.class))).andAnswer(() -> {
+      HttpUriRequest request = (HttpUriRequest) EasyMock.getCurrentArguments()[0];
+      String range = request.getFirstHeader("Range").getValue();
+      requestedRanges.add(range);
+      if (status == 200) {
+        BasicHttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 200, "OK");
+        response.setEntity(new ByteArrayEntity(content));
+        return response;
+      } else if (status != 206) {
+        return new BasicHttpResponse(HttpVersion.HTTP_1_1, status, "Error");
+      }
+      String[] bounds = range.substring("bytes=".length()).split("-");
+      int start = Integer.parseInt(bounds[0]);
+      int end = Integer.parseInt(bounds[1]);
+      HttpResponse response = new BasicHttpResponse(HttpVersion.HTTP_1_1, 206, "Partial Content");
+      response.setEntity(new ByteArrayEntity(Arrays.copyOfRange(content, start, end + 1)));
+      return response;
+    }).anyTimes();
+    EasyMock.replay(client);
+    return client;
+  }
+
+  private RangedDownload createDownload(TrustedHttpClient client) {
+    return new RangedDownload(client, securityService, () -> null, executor, 300L);
+  }
+
+  @Test
+  public void testDownload() throws Exception {
+    File dst = new File(testFolder.getRoot(), "video.mp4");
+    RangedDownload download = createDownload(createClient(true));
+
+    assertTrue(download.download(SRC, dst, content.length, DigestUtils.md5Hex(content)));
+    assertArrayEquals(content, FileUtils.readFileToByteArray(dst));
+    assertEquals(4, requestedRanges.size());
+    assertTrue(requestedRanges.contains("bytes=900-999"));
+    assertFalse(new File(dst.getPath() + RangedDownload.PART_SUFFIX).exists());
+    assertFalse(new File(dst.getPath() + RangedDownload.RANGES_SUFFIX).exists());
+  }
+
+  @Test
+  public void testResume() throws Exception {
+    File dst = new File(testFolder.getRoot(), "video.mp4");
+    String etag = DigestUtils.md5Hex(content);
+    byte[] part = new byte[content.length];
+    System.arraycopy(content, 0, part, 0, 600);
+    FileUtils.writeByteArrayToFile(new File(dst.getPath() + RangedDownload.PART_SUFFIX), part);
+    FileUtils.writeStringToFile(new File(dst.getPath() + RangedDownload.RANGES_SUFFIX),
+            etag + " 1000 300\n1\n0\n", StandardCharsets.UTF_8);
+    RangedDownload download = createDownload(createClient(true));
+
+    assertTrue(download.download(SRC, dst, content.length, etag));
+    assertArrayEquals(content, FileUtils.readFileToByteArray(dst));
+    assertEquals(2, requestedRanges.size());
+    assertTrue(requestedRanges.containsAll(Arrays.asList("bytes=600-899", "bytes=900-999")));
+  }
+
+  @Test
+  public void testRangesNotSupported() throws Exception {
+    File dst = new File(testFolder.getRoot(), "video.mp4");
+    RangedDownload download = createDownload(createClient(false));
+
+    assertFalse(download.download(SRC, dst, content.length, null));
+    assertFalse(dst.exists());
+    assertFalse(new File(dst.getPath() + RangedDownload.PART_SUFFIX).exists());
+  }
+
+  @Test
+  public void testChecksumMismatch() throws Exception {
+    File dst = new File(testFolder.getRoot(), "video.mp4");
+    RangedDownload download = createDownload(createClient(true));
+
+    try {
+      download.download(SRC, dst, content.length, DigestUtils.md5Hex("other"));
+      fail("Checksum mismatch not detected");
+    } catch (IOException e) {
+      // expected
+    }
+    assertFalse(dst.exists());
+    assertFalse(new File(dst.getPath() + RangedDownload.PART_SUFFIX).exists());
+    assertFalse(new File(dst.getPath() + RangedDownload.RANGES_SUFFIX).exists());
+  }
+
+  @Test
+  public void testRangeRequestFailed() throws Exception {
+    File dst = new File(testFolder.getRoot(), "video.mp4");
+    RangedDownload download = createDownload(createClient(403));
+
+    try {
+      download.download(SRC, dst, content.length, null);
+      fail("Failed range request not reported");
+    } catch (IOException e) {
+      // expected
+    }
+    assertFalse(dst.exists());
+  }
+
+  @Test
+  public void testSecurityContextPropagation() throws Exception {
+    final Organization organization = new DefaultOrganization();
+    final User user = new JaxbUser("user", "test", JaxbOrganization.fromOrganization(organization), new JaxbRole[0]);
+    final Job job = new JobImpl(42L);
+
+    securityService = EasyMock.createNiceMock(SecurityService.class);
+    EasyMock.expect(securityService.getOrganization()).andReturn(organization).anyTimes();
+    EasyMock.expect(securityService.getUser()).andReturn(user).anyTimes();
+    securityService.setOrganization(organization);
+    EasyMock.expectLastCall().times(4);
+    securityService.setUser(user);
+    EasyMock.expectLastCall().times(4);
+    ServiceRegistry serviceRegistry = EasyMock.createNiceMock(ServiceRegistry.class);
+    EasyMock.expect(serviceRegistry.getCurrentJob()).andReturn(job).anyTimes();
+    serviceRegistry.setCurrentJob(job);
+    EasyMock.expectLastCall().times(4);
+    EasyMock.replay(securityService, serviceRegistry);
+
+    File dst = new File(testFolder.getRoot(), "video.mp4");
+    RangedDownload download = new RangedDownload(createClient(true), securityService, () -> serviceRegistry, executor,
+            300L);
+
+    assertTrue(download.download(SRC, dst, content.length, null));
+    EasyMock.verify(securityService, serviceRegistry);
+  }
+
+}
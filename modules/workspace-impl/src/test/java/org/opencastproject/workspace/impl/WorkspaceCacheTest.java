@@ -0,0 +1,185 @@
+/**
+ * Licensed to The Apereo Foundation under one or more contributor license
+ * agreements. See the NOTICE file distributed with this work for additional
+ * information regarding copyright ownership.
+ *
+ *
+ * The Apereo Foundation licenses this file to you under the Educational
+ * Community License, Version 2.0 (the "License"); you may not use this file
+ * except in compliance with the License. You may obtain a copy of the License
+ * at:
+ *
+ *   http://opensource.org/licenses/ecl2.txt
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS, WITHOUT
+ * WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.  See the
+ * License for the specific language governing permissions and limitations under
+ * the License.
+ *
+ */
+
+package org.opencastproject.workspace.impl;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import org.opencastproject.job.api.Job;
+import org.opencastproject.serviceregistry.api.ServiceRegistry;
+
+import org.apache.commons.io.FileUtils;
+import org.easymock.EasyMock;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicReference;
+
+public class WorkspaceCacheTest {
+
+  @Rule
+  public TemporaryFolder testFolder = new TemporaryFolder();
+
+  private File createFile(String name, int size) throws IOException {
+    File file = testFolder.newFile(name);
+    FileUtils.writeByteArrayToFile(file, new byte[size]);
+    return file;
+  }
+
+  @Test
+  public void testEvictLeastRecentlyUsed() throws Exception {
+    WorkspaceCache cache = new WorkspaceCache(250L, 0L);
+    File a = createFile("a", 100);
+    File b = createFile("b", 100);
+    File c = createFile("c", 100);
+    cache.miss(a);
+    cache.miss(b);
+    cache.hit(a);
+    cache.miss(c);
+
+    assertTrue(a.isFile());
+    assertFalse(b.isFile());
+    assertTrue(c.isFile());
+    assertEquals(200L, cache.getSize());
+    assertEquals(1L, cache.getHits());
+    assertEquals(3L, cache.getMisses());
+    assertEquals(1L, cache.getEvictions());
+  }
+
+  @Test
+  public void testKeepFilesInUse() throws Exception {
+    WorkspaceCache cache = new WorkspaceCache(150L, 60000L);
+    File a = createFile("a", 100);
+    File b = createFile("b", 100);
+    cache.miss(a);
+    cache.miss(b);
+
+    assertTrue(a.isFile());
+    assertTrue(b.isFile());
+    assertEquals(200L, cache.getSize());
+    assertEquals(0L, cache.getEvictions());
+  }
+
+  @Test
+  public void testKeepFilesPinnedByRunningJob() throws Exception {
+    AtomicReference<Job> currentJob = new AtomicReference<>();
+    AtomicReference<Job.Status> status = new AtomicReference<>(Job.Status.RUNNING);
+    Job job = EasyMock.createNiceMock(Job.class);
+    EasyMock.expect(job.getId()).andReturn(1L).anyTimes();
+    EasyMock.expect(job.getStatus()).andAnswer(status::get).anyTimes();
+    ServiceRegistry serviceRegistry = EasyMock.createNiceMock(ServiceRegistry.class);
+    EasyMock.expect(serviceRegistry.getCurrentJob()).andAnswer(currentJob::get).anyTimes();
+    EasyMock.expect(serviceRegistry.getJob(1L)).andReturn(job).anyTimes();
+    EasyMock.replay(job, serviceRegistry);
+
+    WorkspaceCache cache = new WorkspaceCache(150L, 0L, () -> serviceRegistry);
+    File a = createFile("a", 100);
+    File b = createFile("b", 100);
+    File c = createFile("c", 100);
+    currentJob.set(job);
+    cache.miss(a);
+    currentJob.set(null);
+    cache.miss(b);
+    assertEquals(1, cache.getPinned());
+
+    // The least recently used file is still in use by the running job
+    assertTrue(a.isFile());
+    assertFalse(b.isFile());
+
+    // Once the job has finished, its files are evicted again
+    status.set(Job.Status.FINISHED);
+    cache.miss(c);
+    assertEquals(0, cache.getPinned());
+    assertFalse(a.isFile());
+    assertTrue(c.isFile());
+    assertEquals(100L, cache.getSize());
+  }
+
+  @Test
+  public void testRelease() throws Exception {
+    Job job = EasyMock.createNiceMock(Job.class);
+    EasyMock.expect(job.getId()).andReturn(1L).anyTimes();
+    ServiceRegistry serviceRegistry = EasyMock.createNiceMock(ServiceRegistry.class);
+    EasyMock.expect(serviceRegistry.getCurrentJob()).andReturn(job).anyTimes();
+    EasyMock.replay(job, serviceRegistry);
+
+    WorkspaceCache cache = new WorkspaceCache(1000L, 0L, () -> serviceRegistry);
+    File a = createFile("a", 100);
+    cache.miss(a);
+    cache.hit(a);
+    assertEquals(1, cache.getPinned());
+    cache.release(1L);
+    assertEquals(0, cache.getPinned());
+
+    cache.hit(a);
+    cache.remove(a);
+    assertEquals(0, cache.getPinned());
+  }
+
+  @Test
+  public void testRemove() throws Exception {
+    WorkspaceCache cache = new WorkspaceCache(1000L, 0L);
+    File dir = testFolder.newFolder("mediapackage");
+    File a = new File(dir, "a");
+    FileUtils.writeByteArrayToFile(a, new byte[100]);
+    File b = createFile("b", 100);
+    cache.add(a);
+    cache.add(b);
+    assertEquals(200L, cache.getSize());
+
+    cache.removeAll(dir);
+    assertEquals(100L, cache.getSize());
+    cache.remove(b);
+    assertEquals(0L, cache.getSize());
+  }
+
+  @Test
+  public void testScan() throws Exception {
+    File a = createFile("a", 100);
+    File b = createFile("b", 100);
+    assertTrue(a.setLastModified(System.currentTimeMillis() - 20000L));
+    assertTrue(b.setLastModified(System.currentTimeMillis() - 10000L));
+
+    WorkspaceCache cache = new WorkspaceCache(150L, 0L);
+    cache.scan(testFolder.getRoot());
+    assertFalse(a.isFile());
+    assertTrue(b.isFile());
+    assertEquals(100L, cache.getSize());
+  }
+
+  @Test
+  public void testUnlimited() throws Exception {
+    WorkspaceCache cache = new WorkspaceCache(0L, 0L);
+    File a = createFile("a", 100);
+    cache.miss(a);
+    cache.shared(a);
+    assertFalse(cache.isEnabled());
+    assertTrue(a.isFile());
+    assertEquals(0L, cache.getSize());
+    assertEquals(1L, cache.getHits());
+    assertEquals(1L, cache.getSharedDownloads());
+  }
+}